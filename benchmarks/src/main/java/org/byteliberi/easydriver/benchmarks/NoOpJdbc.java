@@ -0,0 +1,111 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * This class creates JDBC objects which do nothing, so the benchmarks
+ * measure the cost of the library without a database. The connection
+ * is a dynamic proxy, the statements are {@link NoOpPreparedStatement}.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NoOpJdbc {
+	/**
+	 * Handler that returns the default value of each method,
+	 * or a statement when a statement is requested and the
+	 * metadata of PostgreSQL when the metadata are requested.
+	 */
+	private final static InvocationHandler HANDLER = new InvocationHandler() {
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) {
+			final Class<?> type = method.getReturnType();
+			if (type == PreparedStatement.class)
+				return preparedStatement();
+			else if (type == DatabaseMetaData.class)
+				return METADATA;
+			else if ("getDatabaseProductName".equals(method.getName()))
+				return "PostgreSQL";
+			else if (type == Connection.class)
+				return proxy;
+			else if (type == boolean.class)
+				return Boolean.FALSE;
+			else if ((type == int.class) || (type == long.class))
+				return (type == int.class) ? (Object) Integer.valueOf(0) : (Object) Long.valueOf(0);
+			else
+				return null;
+		}
+	};
+
+	/**
+	 * Metadata of a PostgreSQL database, so the queries use its syntax.
+	 */
+	private final static DatabaseMetaData METADATA = (DatabaseMetaData) Proxy.newProxyInstance(
+			NoOpJdbc.class.getClassLoader(), new Class<?>[] { DatabaseMetaData.class }, HANDLER);
+
+	private NoOpJdbc() {
+	}
+
+	/**
+	 * Creates a connection whose statements do nothing.
+	 * @return Database connection.
+	 */
+	public static Connection connection() {
+		return (Connection) Proxy.newProxyInstance(NoOpJdbc.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, HANDLER);
+	}
+
+	/**
+	 * Creates a result set whose columns all have the same value, it never ends.
+	 * @param value Value returned by <code>getObject</code>.
+	 * @return Result Set.
+	 */
+	public static ResultSet resultSet(final Object value) {
+		return (ResultSet) Proxy.newProxyInstance(NoOpJdbc.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+						if ("getObject".equals(method.getName()) && (args.length == 1))
+							return value;
+						else if ("next".equals(method.getName()))
+							return Boolean.TRUE;
+						else
+							return HANDLER.invoke(proxy, method, args);
+					}
+				});
+	}
+
+	/**
+	 * Creates a statement that does nothing.
+	 * @return Prepared Statement.
+	 */
+	public static PreparedStatement preparedStatement() {
+		return new NoOpPreparedStatement();
+	}
+}
@@ -0,0 +1,486 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A Prepared Statement that does nothing. Unlike a dynamic proxy, it does
+ * not box the arguments, so the benchmarks see the allocations of the
+ * library only. The methods return the default value of their type.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class NoOpPreparedStatement implements PreparedStatement {
+	@Override
+	public void addBatch() throws SQLException {
+	}
+
+	@Override
+	public void addBatch(final String arg0) throws SQLException {
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+
+	@Override
+	public void close() throws SQLException {
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean execute(final String arg0, final int[] arg1) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean execute(final String arg0, final String[] arg1) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean execute(final String arg0, final int arg1) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean execute(final String arg0) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public ResultSet executeQuery(final String arg0) throws SQLException {
+		return null;
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int executeUpdate(final String arg0, final int[] arg1) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int executeUpdate(final String arg0, final String[] arg1) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int executeUpdate(final String arg0, final int arg1) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int executeUpdate(final String arg0) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean getMoreResults(final int arg0) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean isWrapperFor(final Class<?> arg0) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public void setArray(final int index, final Array value) throws SQLException {
+	}
+
+	@Override
+	public void setAsciiStream(final int index, final InputStream value, final int arg2) throws SQLException {
+	}
+
+	@Override
+	public void setAsciiStream(final int index, final InputStream value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setAsciiStream(final int index, final InputStream value) throws SQLException {
+	}
+
+	@Override
+	public void setBigDecimal(final int index, final BigDecimal value) throws SQLException {
+	}
+
+	@Override
+	public void setBinaryStream(final int index, final InputStream value, final int arg2) throws SQLException {
+	}
+
+	@Override
+	public void setBinaryStream(final int index, final InputStream value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setBinaryStream(final int index, final InputStream value) throws SQLException {
+	}
+
+	@Override
+	public void setBlob(final int index, final InputStream value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setBlob(final int index, final InputStream value) throws SQLException {
+	}
+
+	@Override
+	public void setBlob(final int index, final Blob value) throws SQLException {
+	}
+
+	@Override
+	public void setBoolean(final int index, final boolean value) throws SQLException {
+	}
+
+	@Override
+	public void setByte(final int index, final byte value) throws SQLException {
+	}
+
+	@Override
+	public void setBytes(final int index, final byte[] value) throws SQLException {
+	}
+
+	@Override
+	public void setCharacterStream(final int index, final Reader value, final int arg2) throws SQLException {
+	}
+
+	@Override
+	public void setCharacterStream(final int index, final Reader value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setCharacterStream(final int index, final Reader value) throws SQLException {
+	}
+
+	@Override
+	public void setClob(final int index, final Reader value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setClob(final int index, final Reader value) throws SQLException {
+	}
+
+	@Override
+	public void setClob(final int index, final Clob value) throws SQLException {
+	}
+
+	@Override
+	public void setCursorName(final String arg0) throws SQLException {
+	}
+
+	@Override
+	public void setDate(final int index, final Date value, final Calendar arg2) throws SQLException {
+	}
+
+	@Override
+	public void setDate(final int index, final Date value) throws SQLException {
+	}
+
+	@Override
+	public void setDouble(final int index, final double value) throws SQLException {
+	}
+
+	@Override
+	public void setEscapeProcessing(final boolean arg0) throws SQLException {
+	}
+
+	@Override
+	public void setFetchDirection(final int index) throws SQLException {
+	}
+
+	@Override
+	public void setFetchSize(final int index) throws SQLException {
+	}
+
+	@Override
+	public void setFloat(final int index, final float value) throws SQLException {
+	}
+
+	@Override
+	public void setInt(final int index, final int value) throws SQLException {
+	}
+
+	@Override
+	public void setLong(final int index, final long value) throws SQLException {
+	}
+
+	@Override
+	public void setMaxFieldSize(final int index) throws SQLException {
+	}
+
+	@Override
+	public void setMaxRows(final int index) throws SQLException {
+	}
+
+	@Override
+	public void setNCharacterStream(final int index, final Reader value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setNCharacterStream(final int index, final Reader value) throws SQLException {
+	}
+
+	@Override
+	public void setNClob(final int index, final Reader value, final long arg2) throws SQLException {
+	}
+
+	@Override
+	public void setNClob(final int index, final Reader value) throws SQLException {
+	}
+
+	@Override
+	public void setNClob(final int index, final NClob value) throws SQLException {
+	}
+
+	@Override
+	public void setNString(final int index, final String value) throws SQLException {
+	}
+
+	@Override
+	public void setNull(final int index, final int value, final String arg2) throws SQLException {
+	}
+
+	@Override
+	public void setNull(final int index, final int value) throws SQLException {
+	}
+
+	@Override
+	public void setObject(final int index, final Object value, final int arg2, final int arg3) throws SQLException {
+	}
+
+	@Override
+	public void setObject(final int index, final Object value, final int arg2) throws SQLException {
+	}
+
+	@Override
+	public void setObject(final int index, final Object value) throws SQLException {
+	}
+
+	@Override
+	public void setPoolable(final boolean arg0) throws SQLException {
+	}
+
+	@Override
+	public void setQueryTimeout(final int index) throws SQLException {
+	}
+
+	@Override
+	public void setRef(final int index, final Ref value) throws SQLException {
+	}
+
+	@Override
+	public void setRowId(final int index, final RowId value) throws SQLException {
+	}
+
+	@Override
+	public void setSQLXML(final int index, final SQLXML value) throws SQLException {
+	}
+
+	@Override
+	public void setShort(final int index, final short value) throws SQLException {
+	}
+
+	@Override
+	public void setString(final int index, final String value) throws SQLException {
+	}
+
+	@Override
+	public void setTime(final int index, final Time value, final Calendar arg2) throws SQLException {
+	}
+
+	@Override
+	public void setTime(final int index, final Time value) throws SQLException {
+	}
+
+	@Override
+	public void setTimestamp(final int index, final Timestamp value, final Calendar arg2) throws SQLException {
+	}
+
+	@Override
+	public void setTimestamp(final int index, final Timestamp value) throws SQLException {
+	}
+
+	@Override
+	public void setURL(final int index, final URL value) throws SQLException {
+	}
+
+	@Deprecated
+	@Override
+	public void setUnicodeStream(final int index, final InputStream value, final int arg2) throws SQLException {
+	}
+
+	@Override
+	public <T> T unwrap(final Class<T> arg0) throws SQLException {
+		return null;
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.byteliberi.easydriver.impl.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of a single bound parameter, comparing the boxed
+ * <code>addParameter</code> methods with the primitive <code>bind</code> methods,
+ * and the <code>addParameter</code> overloads of the other types.
+ * The statement does nothing, so the result is the cost of the library only.
+ * Run it with <code>-prof gc</code> in order to see the allocations.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterBindingBenchmark {
+	/**
+	 * Number of parameters bound by each invocation.
+	 */
+	private final static int PARAMETERS = 8;
+
+	/**
+	 * Query with {@link #PARAMETERS} parameters.
+	 */
+	private Query query;
+
+	/**
+	 * First value, changed by each invocation so it is not a cached box.
+	 */
+	private int value = 1000;
+
+	private final String text = "value";
+	private final UUID uuid = UUID.randomUUID();
+	private final BigDecimal decimal = new BigDecimal("1234.56");
+	private final Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+	private final Date date = new Date();
+
+	/**
+	 * Query with a fixed query string.
+	 */
+	private static class FixedQuery extends Query {
+		@Override
+		protected String createQueryString() {
+			return "SELECT * FROM t WHERE a = ? AND b = ? AND c = ? AND d = ? " +
+				   "AND e = ? AND f = ? AND g = ? AND h = ?";
+		}
+	}
+
+	@Setup
+	public void setUp() throws SQLException {
+		this.query = new FixedQuery();
+		this.query.setStatementCache(null);
+		this.query.prepareQuery(NoOpJdbc.connection());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterInteger() throws SQLException {
+		final int start = this.value++;
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(Integer.valueOf(start + i));
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query bindInt() throws SQLException {
+		final int start = this.value++;
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.bindInt(start + i);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterBoolean() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(Boolean.valueOf((i & 1) == 0));
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query bindBoolean() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.bindBoolean((i & 1) == 0);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query bindLong() throws SQLException {
+		final long start = this.value++;
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.bindLong(start + i);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query bindDouble() throws SQLException {
+		final double start = this.value++;
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.bindDouble(start + i);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterString() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(this.text);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterUUID() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(this.uuid);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterBigDecimal() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(this.decimal);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterTimestamp() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(this.timestamp);
+		this.query.clearParameters();
+		return this.query;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PARAMETERS)
+	public Query addParameterDate() throws SQLException {
+		for (int i = 0; i < PARAMETERS; i++)
+			this.query.addParameter(this.date);
+		this.query.clearParameters();
+		return this.query;
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.QueryListener;
+import org.byteliberi.easydriver.QueryMetrics;
+import org.byteliberi.easydriver.SelectQuery;
+import org.byteliberi.easydriver.expressions.Equals;
+import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.LongField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of a {@link QueryListener}: the same select query, over
+ * a {@link StubResultSet}, is executed without a listener and with a
+ * {@link QueryMetrics}. With one row, the difference is the fixed cost of
+ * an execution; with more rows, it includes the cost of counting the rows
+ * and of sampling the mapping time.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryListenerBenchmark {
+	/**
+	 * Number of rows of the result set.
+	 */
+	@Param({ "1", "1000" })
+	public int rows;
+
+	/**
+	 * Logger of the queries, it is kept in order to keep its level.
+	 */
+	private Logger queryLogger;
+
+	/**
+	 * Query without a listener.
+	 */
+	private SelectQuery<Long> plainQuery;
+
+	/**
+	 * Query whose executions are aggregated by a {@link QueryMetrics}.
+	 */
+	private SelectQuery<Long> measuredQuery;
+
+	@Setup
+	public void setUp() throws SQLException {
+		// the generated query strings must not be written
+		this.queryLogger = Logger.getLogger(SelectQuery.class.getName());
+		this.queryLogger.setLevel(Level.WARNING);
+
+		final DBTable<Integer> table = new DBTable<Integer>("rows");
+		final IntField id = new IntField("id", false, table);
+		final LongField amount = new LongField("amount", false, table);
+		final ObjectFactory<Long> factory = new ObjectFactory<Long>() {
+			@Override
+			public Long map(final ResultSet rs) throws SQLException {
+				return Long.valueOf(id.mapInt(rs, 1) + amount.mapLong(rs, 2));
+			}
+		};
+
+		this.plainQuery = createQuery(table, id, factory, null);
+		this.measuredQuery = createQuery(table, id, factory, new QueryMetrics());
+	}
+
+	/**
+	 * Creates and prepares a query whose statement returns a result set of {@link #rows} rows.
+	 * @param table Table which is read.
+	 * @param id Field of the where condition.
+	 * @param factory Factory of the value objects.
+	 * @param listener Listener of the query, it can be null.
+	 * @return Prepared query.
+	 * @throws SQLException A problem occurred preparing the query.
+	 */
+	private SelectQuery<Long> createQuery(final DBTable<Integer> table, final IntField id,
+										  final ObjectFactory<Long> factory,
+										  final QueryListener listener) throws SQLException {
+		final StubResultSet rs = new StubResultSet(this.rows);
+		final PreparedStatement statement = new NoOpPreparedStatement() {
+			@Override
+			public ResultSet executeQuery() throws SQLException {
+				rs.rewind();
+				return rs;
+			}
+		};
+		final Connection noOp = NoOpJdbc.connection();
+		final Connection con = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+						if ("prepareStatement".equals(method.getName()))
+							return statement;
+						else
+							return method.invoke(noOp, args);
+					}
+				});
+
+		final SelectQuery<Long> query = new SelectQuery<Long>(con, table, factory);
+		query.setWhere(new Equals(id));
+		query.setQueryListener(listener);
+		query.prepareQuery(con);
+		return query;
+	}
+
+	@Benchmark
+	public List<Long> withoutListener() throws SQLException {
+		this.plainQuery.addParameter(1);
+		try {
+			return this.plainQuery.getResultList();
+		}
+		finally {
+			this.plainQuery.clearParameters();
+		}
+	}
+
+	@Benchmark
+	public List<Long> withMetrics() throws SQLException {
+		this.measuredQuery.addParameter(1);
+		try {
+			return this.measuredQuery.getResultList();
+		}
+		finally {
+			this.measuredQuery.clearParameters();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ExpressionAPI;
+import org.byteliberi.easydriver.ManyToOne;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.SelectQuery;
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.expressions.And;
+import org.byteliberi.easydriver.expressions.Different;
+import org.byteliberi.easydriver.expressions.Equals;
+import org.byteliberi.easydriver.expressions.Like;
+import org.byteliberi.easydriver.fields.DoubleField;
+import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.VarcharField;
+import org.byteliberi.easydriver.fields.decorations.Desc;
+import org.byteliberi.easydriver.fields.decorations.Max;
+import org.byteliberi.easydriver.impl.RelatedFields;
+import org.byteliberi.easydriver.join.InnerJoin;
+import org.byteliberi.easydriver.join.Join;
+import org.byteliberi.easydriver.join.LeftJoin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of the SQL text: a whole select query with two joins,
+ * a where condition, group by, having, order by and paging, a single join and
+ * the complete name of a field. The query string is created again on each
+ * invocation, so the cache of the query strings is not used.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryRenderingBenchmark {
+	/**
+	 * Logger of the queries, it is kept in order to keep its level.
+	 */
+	private Logger queryLogger;
+
+	/**
+	 * Select query with joins, where, group by, having, order by and paging.
+	 */
+	private SelectQuery<Object[]> query;
+
+	/**
+	 * Inner join between the orders and the customers.
+	 */
+	private Join<Integer> join;
+
+	/**
+	 * Field of a table.
+	 */
+	private TableField<?> field;
+
+	@Setup
+	public void setUp() {
+		// the generated query strings must not be written
+		this.queryLogger = Logger.getLogger(SelectQuery.class.getName());
+		this.queryLogger.setLevel(Level.WARNING);
+
+		final DBTable<Integer> countries = new DBTable<Integer>("countries");
+		final IntField countryId = new IntField("id", countries);
+		final VarcharField countryName = new VarcharField("name", countries);
+
+		final DBTable<Integer> customers = new DBTable<Integer>("customers");
+		final IntField customerId = new IntField("id", customers);
+		final VarcharField customerName = new VarcharField("name", customers);
+		final IntField customerCountry = new IntField("country_id", customers);
+
+		final DBTable<Integer> orders = new DBTable<Integer>("orders");
+		new IntField("id", orders);
+		final IntField orderCustomer = new IntField("customer_id", orders);
+		final DoubleField total = new DoubleField("total", orders);
+		final VarcharField status = new VarcharField("status", orders);
+
+		this.join = new InnerJoin<Integer>(new ManyToOne<Integer>(orders, customers,
+				new RelatedFields<Integer>(orderCustomer, customerId)));
+		final Join<Integer> countryJoin = new LeftJoin<Integer>(new ManyToOne<Integer>(customers, countries,
+				new RelatedFields<Integer>(customerCountry, countryId)));
+
+		final Max<Double> maxTotal = new Max<Double>(total);
+		this.query = new SelectQuery<Object[]>(NoOpJdbc.connection(),
+				new TableField<?>[] { customerName, countryName, maxTotal },
+				new DBTable<?>[] { orders },
+				new Join<?>[] { this.join, countryJoin },
+				new ExpressionAPI[] { new And(new Equals(status), new Like(customerName)) },
+				new TableField<?>[] { new Desc<Double>(maxTotal) },
+				new ObjectFactory<Object[]>() {
+					@Override
+					public Object[] map(final ResultSet rs) throws SQLException {
+						return null;
+					}
+				});
+		this.query.setGroupBy(new TableField<?>[] { customerName, countryName });
+		this.query.setHaving(new ExpressionAPI[] { new Different(maxTotal, "0") });
+		this.query.setLimit(50);
+		this.query.setOffset(100);
+
+		this.field = total;
+	}
+
+	@Benchmark
+	public String createQueryString() {
+		return this.query.createQueryString();
+	}
+
+	@Benchmark
+	public String joinCreateQueryPart() {
+		return this.join.createQueryPart();
+	}
+
+	@Benchmark
+	public String getCompleteName() {
+		return this.field.getCompleteName();
+	}
+}
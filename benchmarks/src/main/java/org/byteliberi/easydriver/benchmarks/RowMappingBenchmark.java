@@ -0,0 +1,162 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.fields.BooleanField;
+import org.byteliberi.easydriver.fields.DoubleField;
+import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.LongField;
+import org.byteliberi.easydriver.fields.VarcharField;
+import org.byteliberi.easydriver.impl.ReadQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures <code>ReadQuery.getResultList</code> over a {@link StubResultSet},
+ * which has five columns: <code>int</code>, <code>bigint</code>, <code>varchar</code>,
+ * <code>double</code> and <code>boolean</code>. The <code>boxed</code> factory reads
+ * the values by the <code>map</code> methods of the fields, the <code>primitive</code>
+ * one by <code>mapInt</code>, <code>mapLong</code>, <code>mapDouble</code> and
+ * <code>mapBoolean</code> of NOT NULL fields.
+ * Run it with <code>-prof gc</code>: the bytes per row are
+ * <code>gc.alloc.rate.norm</code> divided by the number of rows.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class RowMappingBenchmark {
+	/**
+	 * Number of rows of the result set.
+	 */
+	@Param({ "1000", "100000", "1000000" })
+	public int rows;
+
+	/**
+	 * Query whose factory boxes the values.
+	 */
+	private ReadQuery<Row> boxedQuery;
+
+	/**
+	 * Query whose factory reads the primitive values.
+	 */
+	private ReadQuery<Row> primitiveQuery;
+
+	/**
+	 * Value object created for each row.
+	 */
+	public static class Row {
+		private Integer id;
+		private Long amount;
+		private String name;
+		private Double score;
+		private Boolean flag;
+
+		private int primitiveId;
+		private long primitiveAmount;
+		private double primitiveScore;
+		private boolean primitiveFlag;
+	}
+
+	@Setup
+	public void setUp() {
+		final DBTable<Integer> table = new DBTable<Integer>("rows");
+		final IntField id = new IntField("id", false, table);
+		final LongField amount = new LongField("amount", false, table);
+		final VarcharField name = new VarcharField("name", false, table);
+		final DoubleField score = new DoubleField("score", false, table);
+		final BooleanField flag = new BooleanField("flag", false, table);
+
+		this.boxedQuery = createQuery(new ObjectFactory<Row>() {
+			@Override
+			public Row map(final ResultSet rs) throws SQLException {
+				final Row row = new Row();
+				row.id = id.map(rs, 1);
+				row.amount = amount.map(rs, 2);
+				row.name = name.map(rs, 3);
+				row.score = score.map(rs, 4);
+				row.flag = flag.map(rs, 5);
+				return row;
+			}
+		});
+		this.primitiveQuery = createQuery(new ObjectFactory<Row>() {
+			@Override
+			public Row map(final ResultSet rs) throws SQLException {
+				final Row row = new Row();
+				row.primitiveId = id.mapInt(rs, 1);
+				row.primitiveAmount = amount.mapLong(rs, 2);
+				row.name = name.map(rs, 3);
+				row.primitiveScore = score.mapDouble(rs, 4);
+				row.primitiveFlag = flag.mapBoolean(rs, 5);
+				return row;
+			}
+		});
+	}
+
+	/**
+	 * Creates a query whose statement returns a result set of {@link #rows} rows.
+	 * @param factory Factory of the value objects.
+	 * @return Query.
+	 */
+	private ReadQuery<Row> createQuery(final ObjectFactory<Row> factory) {
+		final StubResultSet rs = new StubResultSet(this.rows);
+		final ReadQuery<Row> query = new ReadQuery<Row>(factory);
+		query.setPstm(new NoOpPreparedStatement() {
+			@Override
+			public ResultSet executeQuery() throws SQLException {
+				rs.rewind();
+				return rs;
+			}
+		});
+		return query;
+	}
+
+	@Benchmark
+	public List<Row> boxed() throws SQLException {
+		return this.boxedQuery.getResultList();
+	}
+
+	@Benchmark
+	public List<Row> primitive() throws SQLException {
+		return this.primitiveQuery.getResultList();
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.benchmarks;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.byteliberi.easydriver.fields.UUIDField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of reading a UUID column for each row.
+ * <code>textRoundTrip</code> is the former implementation of
+ * <code>UUIDField</code>, which turned the driver value into a string and
+ * parsed it back; <code>uuidField</code> is the current one, which returns
+ * the UUID of the driver. <code>uuidFieldFromString</code> is the fallback,
+ * used when the driver returns a string.
+ * Run it with <code>-prof gc</code> in order to see the allocations.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UUIDMappingBenchmark {
+	/**
+	 * Result set which returns a UUID, as the PostgreSQL driver does.
+	 */
+	private ResultSet uuidResultSet;
+
+	/**
+	 * Result set which returns the text representation of a UUID.
+	 */
+	private ResultSet textResultSet;
+
+	@Setup
+	public void setUp() {
+		final UUID value = UUID.randomUUID();
+		this.uuidResultSet = NoOpJdbc.resultSet(value);
+		this.textResultSet = NoOpJdbc.resultSet(value.toString());
+	}
+
+	@Benchmark
+	public UUID textRoundTrip() throws SQLException {
+		final Object resObj = this.uuidResultSet.getObject(1);
+		if (this.uuidResultSet.wasNull())
+			return null;
+		else
+			return UUID.fromString(resObj.toString());
+	}
+
+	@Benchmark
+	public UUID uuidField() throws SQLException {
+		return UUIDField.getEmpty().map(this.uuidResultSet, 1);
+	}
+
+	@Benchmark
+	public UUID uuidFieldFromString() throws SQLException {
+		return UUIDField.getEmpty().map(this.textResultSet, 1);
+	}
+}
@@ -129,17 +129,25 @@ public class BeanFactoryGeneration implements GenerationAPI {
 				
 			final List<RelationModel> relationModelList = findRelByColumn(relations, columnName);
 			if (relationModelList == null)
-				fpa = new FieldInit( Utils.getCamelNameFirstCapital(columnName) );
+				fpa = new FieldInit( Utils.getCamelNameFirstCapital(columnName), findMapMethod(fieldProp), fieldProp.isNullable() );
 			else {
 				final RelationModel relationModel = relationModelList.iterator().next(); 
 				final String referencedTable = relationModel.getOneTable() + "ObjectModel";
 				final String localColumnName = relationModel.getRfManyTable();
 				if (!usedExtTables.contains(referencedTable)) {
 					final LinkedList<String> columns = new LinkedList<String>();
-					for (RelationModel rm : relationModelList)
-						columns.add( Utils.getCamelNameFirstCapital(  rm.getRfManyTable() ));					
+					final LinkedList<String> javaTypes = new LinkedList<String>();
+					final LinkedList<String> mapMethods = new LinkedList<String>();
+					boolean annullable = false;
+					for (RelationModel rm : relationModelList) {
+						columns.add( Utils.getCamelNameFirstCapital(  rm.getRfManyTable() ));
+						javaTypes.add(rm.getJavaType());
+						final FieldPropertyAssociation column = findField(fields, rm.getRfManyTable());
+						mapMethods.add(findMapMethod(column));
+						annullable |= (column == null) || column.isNullable();
+					}
 					
-					fpa = new FieldInit(columns, 
+					fpa = new FieldInit(columns, javaTypes, mapMethods, annullable,
 										Utils.getCamelNameFirstCapital(localColumnName), 
 										Utils.getCamelNameFirstCapital(referencedTable));
 					
@@ -152,4 +160,31 @@ public class BeanFactoryGeneration implements GenerationAPI {
 		
 		return found;
 	}
+	
+	/**
+	 * Searches for the column with the passed name.
+	 * @param fields Columns of the table.
+	 * @param columnName Name of the column.
+	 * @return Association of the column with its property, or null if it is not found.
+	 */
+	private static FieldPropertyAssociation findField(final List<FieldPropertyAssociation> fields, final String columnName) {
+		for (FieldPropertyAssociation field : fields) {
+			if (field.getFieldName().equals(columnName))
+				return field;
+		}
+		return null;
+	}
+	
+	/**
+	 * Chooses the method which reads a column: a column which does not accept a null
+	 * value is read by a primitive accessor, such as <code>mapInt</code>, if its field has one.
+	 * @param field Association of the column with its property, it can be null.
+	 * @return Name of the method.
+	 */
+	private static String findMapMethod(final FieldPropertyAssociation field) {
+		if ((field == null) || field.isNullable() || (field.getProp() == null))
+			return "map";
+		else
+			return Utils.getPrimitiveMapMethod(field.getProp().getPropertyClass());
+	}
 }
@@ -26,9 +26,12 @@ import java.util.List;
 import org.byteliberi.easydriver.generator.model.ClassModel;
 import org.byteliberi.easydriver.generator.model.MetaEasyDriver;
 import org.byteliberi.easydriver.generator.model.Visibility;
+import org.byteliberi.easydriver.generator.model.methods.DeleteAllMethod;
 import org.byteliberi.easydriver.generator.model.methods.DeleteMethod;
+import org.byteliberi.easydriver.generator.model.methods.InsertAllMethod;
 import org.byteliberi.easydriver.generator.model.methods.InsertMethod;
 import org.byteliberi.easydriver.generator.model.methods.SelectByPKMethod;
+import org.byteliberi.easydriver.generator.model.methods.UpdateAllMethod;
 import org.byteliberi.easydriver.generator.model.methods.UpdateMethod;
 
 public class ServiceGeneration implements GenerationAPI {
@@ -60,6 +63,7 @@ public class ServiceGeneration implements GenerationAPI {
 			classModel.setPackageName(this.packageName);
 			classModel.addImport("java.sql.Connection");
 			classModel.addImport("java.sql.SQLException");
+			classModel.addImport("java.util.List");
 			classModel.addImport("org.byteliberi.easydriver.*");
 			classModel.addImport("org.byteliberi.easydriver.fields.*");
 			classModel.addImport("org.byteliberi.easydriver.expressions.*");
@@ -69,6 +73,9 @@ public class ServiceGeneration implements GenerationAPI {
 			classModel.addMethod(new DeleteMethod(tableInfo.getPrimaryKey(), structureName));
 			classModel.addMethod(new InsertMethod(tableInfo.getFields(), structureName, objectModelName, tableInfo));
 			classModel.addMethod(new UpdateMethod(tableInfo.getFields(), tableInfo.getPrimaryKey(), structureName, objectModelName, tableInfo));
+			classModel.addMethod(new InsertAllMethod(tableInfo.getFields(), structureName, objectModelName, tableInfo));
+			classModel.addMethod(new UpdateAllMethod(tableInfo.getFields(), tableInfo.getPrimaryKey(), structureName, objectModelName, tableInfo));
+			classModel.addMethod(new DeleteAllMethod(tableInfo.getPrimaryKey(), structureName, objectModelName));
 				
 			classModel.write(out);
 			out.flush();
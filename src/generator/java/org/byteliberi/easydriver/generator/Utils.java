@@ -33,8 +33,14 @@ import org.byteliberi.easydriver.fields.ByteArrayField;
 import org.byteliberi.easydriver.fields.CharField;
 import org.byteliberi.easydriver.fields.DateField;
 import org.byteliberi.easydriver.fields.DoubleField;
+import org.byteliberi.easydriver.fields.IntArrayField;
 import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.LongArrayField;
+import org.byteliberi.easydriver.fields.LongField;
+import org.byteliberi.easydriver.fields.TextArrayField;
 import org.byteliberi.easydriver.fields.TimestampField;
+import org.byteliberi.easydriver.fields.TimestampTzField;
+import org.byteliberi.easydriver.fields.UUIDArrayField;
 import org.byteliberi.easydriver.fields.UUIDField;
 import org.byteliberi.easydriver.fields.VarcharField;
 import org.byteliberi.easydriver.generator.model.MetaEasyDriverFactory;
@@ -46,6 +52,15 @@ import org.byteliberi.easydriver.generator.model.Visibility;
  * @author Paolo Proni
  */
 public class Utils {
+	/**
+	 * Database name of the UUID type.
+	 */
+	private final static String UUID_TYPE = "uuid";
+	
+	/**
+	 * Database name of the timestamp with time zone type.
+	 */
+	private final static String TIMESTAMPTZ_TYPE = "timestamptz";
 	
 	/**
 	 * Takes a string with <code>_</code> and removes that, tranforming
@@ -95,6 +110,17 @@ public class Utils {
 	 * @return name of the java class
 	 */
 	public static String getJavaType(final int columnType) {
+		return getJavaType(columnType, null);
+	}
+	
+	/**
+	 * Returns the Java class name which matches the SQL type. The database type name
+	 * tells the element type of an array and the actual type of a <code>Types.OTHER</code> column.
+	 * @param columnType Type of the database column
+	 * @param typeName Database name of the column type, such as <code>_int4</code>, it can be null.
+	 * @return name of the java class
+	 */
+	public static String getJavaType(final int columnType, final String typeName) {
 		String javaType="";
 		switch (columnType) {
 		case Types.NUMERIC: case Types.DECIMAL:
@@ -115,11 +141,30 @@ public class Utils {
 		case Types.INTEGER:
 			javaType = Integer.class.getSimpleName();
 			break;		
+		case Types.BIGINT:
+			javaType = Long.class.getSimpleName();
+			break;
 		case Types.BINARY:
 			javaType = "byte[]";
 			break;
-		case Types.OTHER:  // TODO What if it is not UUID ?
-			javaType = java.util.UUID.class.getName();
+		case Types.ARRAY:
+			final String arrayField = getArrayField(typeName);
+			if (IntArrayField.class.getSimpleName().equals(arrayField))
+				javaType = "int[]";
+			else if (LongArrayField.class.getSimpleName().equals(arrayField))
+				javaType = "long[]";
+			else if (UUIDArrayField.class.getSimpleName().equals(arrayField))
+				javaType = java.util.UUID.class.getName() + "[]";
+			else if (TextArrayField.class.getSimpleName().equals(arrayField))
+				javaType = "String[]";
+			else
+				javaType = Object.class.getSimpleName();
+			break;
+		case Types.OTHER:
+			if (typeName == null || UUID_TYPE.equals(typeName))
+				javaType = java.util.UUID.class.getName();
+			else
+				javaType = Object.class.getSimpleName();
 			break;
 		default:
 			javaType = Object.class.getSimpleName();
@@ -127,6 +172,61 @@ public class Utils {
 		return javaType;
 	}
 	
+	/**
+	 * Returns the primitive type which can replace a Java class, for the columns
+	 * which do not accept a null value.
+	 * @param javaType Name of the java class, as it is returned by {@link #getJavaType(int, String)}.
+	 * @return Primitive type, or the passed class name if there is not a primitive type.
+	 */
+	public static String getPrimitiveType(final String javaType) {
+		if (Integer.class.getSimpleName().equals(javaType))
+			return "int";
+		else if (Long.class.getSimpleName().equals(javaType))
+			return "long";
+		else if (Double.class.getSimpleName().equals(javaType))
+			return "double";
+		else if (Boolean.class.getSimpleName().equals(javaType))
+			return "boolean";
+		else
+			return javaType;
+	}
+	
+	/**
+	 * Returns the method which reads a primitive value, without boxing it, from a field.
+	 * @param fieldClass Simple name of the field class.
+	 * @return Method name, or <code>map</code> if the field has not a primitive accessor.
+	 */
+	public static String getPrimitiveMapMethod(final String fieldClass) {
+		if (IntField.class.getSimpleName().equals(fieldClass))
+			return "mapInt";
+		else if (LongField.class.getSimpleName().equals(fieldClass))
+			return "mapLong";
+		else if (DoubleField.class.getSimpleName().equals(fieldClass))
+			return "mapDouble";
+		else if (BooleanField.class.getSimpleName().equals(fieldClass))
+			return "mapBoolean";
+		else
+			return "map";
+	}
+	
+	/**
+	 * Finds the field class which matches an array type.
+	 * @param typeName Database name of the array type, such as <code>_int4</code>.
+	 * @return Simple name of the field class, or null if the array type is not supported.
+	 */
+	private static String getArrayField(final String typeName) {
+		if ("_int4".equals(typeName))
+			return IntArrayField.class.getSimpleName();
+		else if ("_int8".equals(typeName))
+			return LongArrayField.class.getSimpleName();
+		else if ("_uuid".equals(typeName))
+			return UUIDArrayField.class.getSimpleName();
+		else if ("_text".equals(typeName) || "_varchar".equals(typeName) || "_bpchar".equals(typeName))
+			return TextArrayField.class.getSimpleName();
+		else
+			return null;
+	}
+	
 	/**
 	 * Finds the columns
 	 * @param dbMeta Database metadata.
@@ -173,14 +273,30 @@ public class Utils {
 				case Types.INTEGER:
 					fpa.setProp(new PropertyModel(Visibility.PRIVATE, IntField.class.getSimpleName(), propName));
 					break;
+				case Types.BIGINT:
+					fpa.setProp(new PropertyModel(Visibility.PRIVATE, LongField.class.getSimpleName(), propName));
+					break;
 				case Types.TIMESTAMP:
-					fpa.setProp(new PropertyModel(Visibility.PRIVATE, TimestampField.class.getSimpleName(), propName));
+					if (TIMESTAMPTZ_TYPE.equals(rs.getString(6)))
+						fpa.setProp(new PropertyModel(Visibility.PRIVATE, TimestampTzField.class.getSimpleName(), propName));
+					else
+						fpa.setProp(new PropertyModel(Visibility.PRIVATE, TimestampField.class.getSimpleName(), propName));
 					break;
 				case Types.BINARY:
 					fpa.setProp(new PropertyModel(Visibility.PRIVATE, ByteArrayField.class.getSimpleName(), propName));
 					break;
-				case Types.OTHER:  // TODO What if it is not UUID ?
-					fpa.setProp(new PropertyModel(Visibility.PRIVATE, UUIDField.class.getSimpleName(), propName));
+				case Types.OTHER:
+					if (UUID_TYPE.equals(rs.getString(6)))
+						fpa.setProp(new PropertyModel(Visibility.PRIVATE, UUIDField.class.getSimpleName(), propName));
+					else
+						Logger.getLogger(MetaEasyDriverFactory.class.getSimpleName()).severe(columnName + " " + rs.getString(6) + " " + dataType);
+					break;
+				case Types.ARRAY:
+					final String arrayField = getArrayField(rs.getString(6));
+					if (arrayField != null)
+						fpa.setProp(new PropertyModel(Visibility.PRIVATE, arrayField, propName));
+					else
+						Logger.getLogger(MetaEasyDriverFactory.class.getSimpleName()).severe(columnName + " " + rs.getString(6) + " " + dataType);
 					break;
 				case Types.VARCHAR:
 					fpa.setProp(new PropertyModel(Visibility.PRIVATE, VarcharField.class.getSimpleName(), propName));
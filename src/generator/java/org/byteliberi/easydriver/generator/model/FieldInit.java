@@ -18,6 +18,7 @@
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 package org.byteliberi.easydriver.generator.model;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -53,6 +54,22 @@ public class FieldInit {
 	 */
 	private String referredClassName;
 	
+	/**
+	 * Name of the method which reads the value of each field, such as
+	 * <code>map</code> or <code>mapInt</code>.
+	 */
+	private List<String> mapMethods;
+	
+	/**
+	 * Java class of each field, when the field is not simple.
+	 */
+	private List<String> javaTypes;
+	
+	/**
+	 * When it is true, a column accepts a null value.
+	 */
+	private boolean annullable = true;
+	
 	/**
 	 * Creates a new instance for 
 	 * @param fieldName Javized field name
@@ -62,6 +79,18 @@ public class FieldInit {
 		this.simpleField = true;
 	}
 	
+	/**
+	 * Creates a new instance for a simple field.
+	 * @param fieldName Javized field name
+	 * @param mapMethod Name of the method which reads the value, such as <code>mapInt</code>.
+	 * @param annullable When it is true, the column accepts a null value.
+	 */
+	public FieldInit(final String fieldName, final String mapMethod, final boolean annullable) {
+		this(fieldName);
+		this.mapMethods = Collections.singletonList(mapMethod);
+		this.annullable = annullable;
+	}
+	
 	/**
 	 * Creates a new instance for this class, when the field matches an external class
 	 * @param fieldNames List of javized field names
@@ -72,6 +101,21 @@ public class FieldInit {
 		this.referredClassName = referredClassName;
 	}
 	
+	/**
+	 * Creates a new instance for this class, when the field matches an external class
+	 * @param fieldNames List of javized field names
+	 * @param javaTypes Java class of each field.
+	 * @param mapMethods Name of the method which reads each field, such as <code>mapInt</code>.
+	 * @param annullable When it is true, a column accepts a null value.
+	 */
+	public FieldInit(final List<String> fieldNames, final List<String> javaTypes, final List<String> mapMethods,
+					 final boolean annullable, final String propertyName, final String referredClassName) {
+		this(fieldNames, propertyName, referredClassName);
+		this.javaTypes = javaTypes;
+		this.mapMethods = mapMethods;
+		this.annullable = annullable;
+	}
+	
 	/**
 	 * Checks if this is a simple field
 	 * @return When it is true, the field is not an external class
@@ -111,4 +155,30 @@ public class FieldInit {
 	public String getPropertyName() {
 		return this.propertyName;
 	}
+	
+	/**
+	 * Getter of the method which reads a field.
+	 * @param index 0 based index of the field.
+	 * @return Name of the method, such as <code>map</code> or <code>mapInt</code>.
+	 */
+	public String getMapMethod(final int index) {
+		return (this.mapMethods == null) ? "map" : this.mapMethods.get(index);
+	}
+	
+	/**
+	 * Getter of the Java class of a field.
+	 * @param index 0 based index of the field.
+	 * @return Name of the Java class, such as <code>Integer</code>.
+	 */
+	public String getJavaType(final int index) {
+		return this.javaTypes.get(index);
+	}
+	
+	/**
+	 * Checks if a column accepts a null value.
+	 * @return When it is true, a column accepts a null value.
+	 */
+	public boolean isAnnullable() {
+		return this.annullable;
+	}
 }
@@ -168,7 +168,9 @@ public class MetaEasyDriverFactory {
 			while (rs.next()) {
 				final String columnName = Utils.getCamelName( rs.getString(4) );
 				final int columnType = rs.getInt(5);
-				final String className = Utils.getJavaType(columnType);
+				final String javaType = Utils.getJavaType(columnType, rs.getString(6));
+				// a column which does not accept a null value is read without boxing it
+				final String className = "NO".equals(rs.getString(18)) ? Utils.getPrimitiveType(javaType) : javaType;
 				found.add(new PropertyModel(Visibility.PRIVATE, className, columnName));
 			}
 		}
@@ -196,7 +198,7 @@ public class MetaEasyDriverFactory {
 		try {
 			rs = dbMeta.getColumns(null, schemaName, table, column);
 			while (rs.next()) {
-				javaType = Utils.getJavaType(rs.getInt(5));
+				javaType = Utils.getJavaType(rs.getInt(5), rs.getString(6));
 			}
 		}
 		finally {
@@ -35,12 +35,12 @@ public class DeleteMethod extends MethodModel {
 	/**
 	 * Primary keys in the form of a model for Java properties.
 	 */
-	private List<PropertyModel> pks;
+	protected List<PropertyModel> pks;
 	
 	/**
 	 * Table name.
 	 */
-	private String tableName;
+	protected String tableName;
 	
 	/**
 	 * Creates a new instance of this class.
@@ -67,9 +67,27 @@ public class DeleteMethod extends MethodModel {
 		
 		out.println(MessageFormat.format("\t\tfinal {0} tableStruct = {0}.INSTANCE;", tableName));
 		out.println("\t\tfinal DeleteQuery query = tableStruct.getTable().createDeleteQuery();");
+		writeWhere(out);
+		
+		out.println("\t\tquery.prepareQuery(con);");
+		
+		writeKeyParameters(out, "\t\t", false);
+		
+		out.println("\t\tint count = query.execute();");
+		out.println("\t\tquery.close();");
+		out.println("\t\treturn count;");		
+		out.println("\t}");
+	}
+
+	/**
+	 * Writes the code which sets the <code>WHERE</code> section of the query,
+	 * made by the primary key fields.
+	 * @param out Output stream.
+	 */
+	protected void writeWhere(final PrintStream out) {
 		out.print("\t\tquery.setWhere(");		
 			
-		sb = new StringBuilder();
+		final StringBuilder sb = new StringBuilder();
 		final int andCount = pks.size() - 1;
 		if (andCount == 0) {
 			sb.append("new Equals(").append(MessageFormat.format("tableStruct.get{0}()", Utils.getCamelNameFirstCapital( pks.get(0).getName() ))).append("));");
@@ -88,15 +106,21 @@ public class DeleteMethod extends MethodModel {
 			sb.append(" });");
 			out.println(sb.toString());
 		}
-		
-		out.println("\t\tquery.prepareQuery(con);");
-		
-		for (PropertyModel prop : pks)
-			out.println(MessageFormat.format("\t\tquery.addParameter({0});", prop.getName()));
-		
-		out.println("\t\tint count = query.execute();");
-		out.println("\t\tquery.close();");
-		out.println("\t\treturn count;");		
-		out.println("\t}");
+	}
+
+	/**
+	 * Writes the code which passes the primary key values to the <code>WHERE</code> section.
+	 * @param out Output stream.
+	 * @param indent Indentation of the written code.
+	 * @param fromModel If true, the values are read from a model, otherwise
+	 * they are the method parameters.
+	 */
+	protected void writeKeyParameters(final PrintStream out, final String indent, final boolean fromModel) {
+		for (PropertyModel prop : pks) {
+			if (fromModel)
+				out.println(indent + MessageFormat.format("query.addParameter(model.get{0}());", Utils.getCamelNameFirstCapital( prop.getName() )));
+			else
+				out.println(indent + MessageFormat.format("query.addParameter({0});", prop.getName()));
+		}
 	}
 }
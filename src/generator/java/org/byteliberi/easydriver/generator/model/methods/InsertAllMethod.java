@@ -0,0 +1,68 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.generator.model.methods;
+
+import java.io.PrintStream;
+import java.text.MessageFormat;
+import java.util.List;
+
+import org.byteliberi.easydriver.generator.FieldPropertyAssociation;
+import org.byteliberi.easydriver.generator.model.MetaEasyDriver;
+
+/**
+ * Creates the method of a service class which inserts a list of records
+ * by a single batch statement.
+ * @author Paolo Proni
+ */
+public class InsertAllMethod extends InsertMethod {
+	/**
+	 * Creates a new instance of this class
+	 * @param fields Fields which match the columns
+	 * @param tableName Table name
+	 * @param objectModel Object model which contains the values to be inserted.
+	 * @param tableInfo meta data informations about a table.
+	 */
+	public InsertAllMethod(final List<FieldPropertyAssociation> fields, final String tableName, final String objectModel, final MetaEasyDriver tableInfo) {
+		super(fields, tableName, objectModel, tableInfo);
+		this.methodName = "insertAll";
+		this.propName = "models";
+	}
+
+	@Override
+	public void write(PrintStream out) {
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append('\t').append(visibility.getToken()).append(" final ").append(returnClass).append(' ').append(methodName)
+		  .append("(final Connection con, final List<").append(objectModel).append("> models) throws SQLException {");
+		out.println(sb.toString());
+		
+		out.println(MessageFormat.format("\t\tfinal {0} tableStruct = {0}.INSTANCE;", tableName));
+		out.println("\t\tfinal InsertQuery query = tableStruct.getTable().createInsertQuery();");
+		out.println("\t\tquery.prepareQuery(con);");
+		out.println(MessageFormat.format("\t\tfor (final {0} model : models) '{'", objectModel));
+		writeParameters(out, "\t\t\t");
+		out.println("\t\t\tquery.addBatch();");
+		out.println("\t\t}");
+		out.println("\t\tint count = query.executeBatch();");
+		out.println("\t\tquery.close();");
+		out.println("\t\treturn count;");
+		out.println("\t}");
+	}
+}
@@ -37,8 +37,8 @@ import org.byteliberi.easydriver.generator.model.Visibility;
  */
 public class InsertMethod extends MethodModel {
 	private List<FieldPropertyAssociation> fields;
-	private String tableName;
-	private String objectModel;
+	protected String tableName;
+	protected String objectModel;
 	private MetaEasyDriver tableInfo;
 	
 	/**
@@ -68,6 +68,19 @@ public class InsertMethod extends MethodModel {
 		out.println("\t\tfinal InsertQuery query = tableStruct.getTable().createInsertQuery();");
 		out.println("\t\tquery.prepareQuery(con);");			
 		
+		writeParameters(out, "\t\t");
+		out.println("\t\tint count = query.execute();");
+		out.println("\t\tquery.close();");
+		out.println("\t\treturn count;");
+		out.println("\t}");
+	}
+
+	/**
+	 * Writes the code which passes the property values of the model to the query.
+	 * @param out Output stream.
+	 * @param indent Indentation of the written code.
+	 */
+	protected void writeParameters(final PrintStream out, final String indent) {
 		// Let's look for the foreign keys
 		final Map<String, String> fks = tableInfo.getExternalClasses();					
 		final HashSet<String> usedTableNames = new HashSet<String>();
@@ -88,28 +101,23 @@ public class InsertMethod extends MethodModel {
 					
 					final String referredProperty = Utils.getCamelNameFirstCapital(foundRelation.getRfManyTable() );
 					
-					out.println(MessageFormat.format("\t\tfinal {0} {1} = model.get{2}();", propertyClass, propertyName, referredProperty));
-					out.println(MessageFormat.format("\t\tif ( {0} == null ) '{'", propertyName));
+					out.println(indent + MessageFormat.format("final {0} {1} = model.get{2}();", propertyClass, propertyName, referredProperty));
+					out.println(indent + MessageFormat.format("if ( {0} == null ) '{'", propertyName));
 					
 					for (int i = 0; i < relModelList.size(); i++)
-						out.println(MessageFormat.format("\t\t\tquery.addNullParameter({0}.getEmpty());", field.getProp().getPropertyClass()));
+						out.println(indent + MessageFormat.format("\tquery.addNullParameter({0}.getEmpty());", field.getProp().getPropertyClass()));
 					
-					out.println("\t\t}");
-					out.println("\t\telse {");
+					out.println(indent + "}");
+					out.println(indent + "else {");
 					for (RelationModel rm : relModelList)
-						out.println(MessageFormat.format("\t\t\tquery.addParameter(model.get{0}().get{1}());", 
+						out.println(indent + MessageFormat.format("\tquery.addParameter(model.get{0}().get{1}());", 
 										referredProperty, Utils.getCamelNameFirstCapital( rm.getPkOneTable() )));
-					out.println("\t\t}");
+					out.println(indent + "}");
 				}
 			}
 			else // It's a simple field
-				out.println(MessageFormat.format("\t\tquery.addParameter(model.get{0}());", Utils.getCamelNameFirstCapital( fieldName )));
+				out.println(indent + MessageFormat.format("query.addParameter(model.get{0}());", Utils.getCamelNameFirstCapital( fieldName )));
 		
-		}	
-		out.println("\t\tint count = query.execute();");
-		out.println("\t\tquery.close();");
-		out.println("\t\treturn count;");
-		out.println("\t}");
+		}
 	}
-
 }
@@ -72,13 +72,28 @@ public class MapRS extends MethodModel {
 		int i = 1;
 		for (FieldInit field : this.fields) {
 			if (field.isSimpleField())
-				out.println(MessageFormat.format("\t\tvo.set{0}( table.get{1}().map(rs, {2}) );", field.getFieldName(), field.getFieldName(), i++));
+				out.println(MessageFormat.format("\t\tvo.set{0}( table.get{1}().{2}(rs, {3}) );", field.getFieldName(), field.getFieldName(), field.getMapMethod(0), i++));
+			else if (field.isAnnullable()) {
+				// the referred object is created only if the foreign key is not null
+				final List<String> fieldNames = field.getFieldNames();
+				final StringBuilder sbFields = new StringBuilder();
+				final int first = i;
+				int f = 0;
+				for (String fieldName : fieldNames) {
+					out.println(MessageFormat.format("\t\tfinal {0} fk{1} = table.get{2}().map(rs, {1});", field.getJavaType(f++), String.valueOf(i), fieldName));
+					sbFields.append("fk").append(i++).append(',');
+				}
+				sbFields.deleteCharAt(sbFields.length() - 1);
+				out.println(MessageFormat.format("\t\tif (fk{0} != null)", String.valueOf(first)));
+				out.println(MessageFormat.format("\t\t\tvo.set{0}( new {1}({2}) );", field.getPropertyName(), field.getReferredClassName(), sbFields.toString()));
+			}
 			else {
 				out.print(MessageFormat.format("\t\tvo.set{0}( new {1}(", field.getPropertyName(), field.getReferredClassName()));
 				final List<String> fieldNames = field.getFieldNames();
 				final StringBuilder sbFields = new StringBuilder();
+				int f = 0;
 				for (String fieldName : fieldNames) {
-					sbFields.append(MessageFormat.format("table.get{0}().map(rs, {1})", fieldName, i++) ).append(',');
+					sbFields.append(MessageFormat.format("table.get{0}().{1}(rs, {2})", fieldName, field.getMapMethod(f++), i++) ).append(',');
 				}
 				sbFields.deleteCharAt(sbFields.length() - 1);
 				out.print(sbFields.toString());
@@ -51,21 +51,40 @@ public class SelectByPKMethod extends MethodModel {
 		this.structure = structure;
 	}
 	
+	/**
+	 * Writes the select method, which reads the record through the session of the
+	 * current thread and the entity cache of the table, and the private method
+	 * which reads the record from the database.
+	 */
 	@Override
 	public void write(PrintStream out) {
-		StringBuilder sb = new StringBuilder();
+		final StringBuilder parameters = new StringBuilder();
+		final StringBuilder arguments = new StringBuilder();
+		for (PropertyModel model : pks) {
+			parameters.append(", final ").append(model.getPropertyClass()).append(' ').append(Utils.getCamelName( model.getName() ));
+			arguments.append(", ").append(Utils.getCamelName( model.getName() ));
+		}
 		
-		sb.append('\t').append(visibility.getToken()).append(" final ").append(returnClass).append(' ').append(methodName).append("(final Connection con, ");
-		for (PropertyModel model : pks)
-		  sb.append("final ").append(model.getPropertyClass()).append(' ').append(Utils.getCamelName( model.getName() )).append(',');
+		out.println(MessageFormat.format("\t{0} final {1} {2}(final Connection con{3}) throws SQLException '{'",
+					visibility.getToken(), returnClass, methodName, parameters));
+		out.println(MessageFormat.format("\t\treturn {0}.INSTANCE.getTable().readByKey(EntityCache.key({1}), {2}.class, new EntityLoader<{2}>() '{'",
+					structure, arguments.substring(2), objectModel));
+		out.println("\t\t\t@Override");
+		out.println(MessageFormat.format("\t\t\tpublic {0} load() throws SQLException '{'", objectModel));
+		out.println(MessageFormat.format("\t\t\t\treturn loadByPK(con{0});", arguments));
+		out.println("\t\t\t}");
+		out.println("\t\t});");
+		out.println("\t}");
+		out.println();
 		
-		sb.deleteCharAt(sb.length() - 1);
-		sb.append(") throws SQLException {");
-		out.println(sb.toString());
+		out.println(MessageFormat.format("\tprivate {0} loadByPK(final Connection con{1}) throws SQLException '{'",
+					objectModel, parameters));
 		out.println(MessageFormat.format("\t\tfinal {0} tableStruct = {0}.INSTANCE;", structure));
-		out.println(MessageFormat.format("\t\tfinal SelectQuery<{0}> query = new SelectQuery<{0}>({1}.INSTANCE.getTable(), new {0}Factory());",
+		out.println(MessageFormat.format("\t\tfinal SelectQuery<{0}> query = new SelectQuery<{0}>(con, {1}.INSTANCE.getTable(), new {0}Factory());",
 					objectModel, structure));
 		
+		StringBuilder sb;
+		
 		out.print("\t\tquery.setWhere(");		
 		
 		sb = new StringBuilder();
@@ -91,7 +110,7 @@ public class SelectByPKMethod extends MethodModel {
 		out.println("\t\tquery.prepareQuery(con);");
 		
 		for (PropertyModel prop : pks)
-			out.println(MessageFormat.format("\t\tquery.addParameter({0});", prop.getName()));
+			out.println(MessageFormat.format("\t\tquery.addParameter({0});", Utils.getCamelName( prop.getName() )));
 		
 		out.println("\t\treturn query.getSingleResultAndClose();");
 		
@@ -0,0 +1,76 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.generator.model.methods;
+
+import java.io.PrintStream;
+import java.text.MessageFormat;
+import java.util.List;
+
+import org.byteliberi.easydriver.generator.FieldPropertyAssociation;
+import org.byteliberi.easydriver.generator.model.MetaEasyDriver;
+import org.byteliberi.easydriver.generator.model.PropertyModel;
+
+/**
+ * Creates the method of a service class which updates a list of records,
+ * found by their primary keys, by a single batch statement.
+ * 
+ * @author Paolo Proni
+ */
+public class UpdateAllMethod extends UpdateMethod {
+	/**
+	 * Creates a new instance of this class.
+	 * @param fields Informations about the field that will be updated.
+	 * @param pks Primary key fields, in the form of Java class properties, that are made by
+	 * a class name and a property name.
+	 * @param tableName Table name.
+	 * @param objectModel Object Model name.
+	 * @param tableInfo Meta data informations.
+	 */
+	public UpdateAllMethod(final List<FieldPropertyAssociation> fields,
+						   final List<PropertyModel> pks, final String tableName,
+						   final String objectModel, final MetaEasyDriver tableInfo) {
+		super(fields, pks, tableName, objectModel, tableInfo);
+		this.methodName = "updateAll";
+		this.propName = "models";
+	}
+
+	@Override
+	public void write(PrintStream out) {
+		StringBuilder sb = new StringBuilder();
+		
+		sb.append('\t').append(visibility.getToken()).append(" final ").append(returnClass).append(' ').append(methodName)
+		  .append("(final Connection con, final List<").append(objectModel).append("> models) throws SQLException {");
+		out.println(sb.toString());
+		
+		out.println(MessageFormat.format("\t\tfinal {0} tableStruct = {0}.INSTANCE;", tableName));
+		out.println("\t\tfinal UpdateQuery query = tableStruct.getTable().createUpdateQuery();");
+		writeWhere(out);
+		out.println("\t\tquery.prepareQuery(con);");
+		out.println(MessageFormat.format("\t\tfor (final {0} model : models) '{'", objectModel));
+		writeParameters(out, "\t\t\t");
+		writeKeyParameters(out, "\t\t\t", true);
+		out.println("\t\t\tquery.addBatch();");
+		out.println("\t\t}");
+		out.println("\t\tint count = query.executeBatch();");
+		out.println("\t\tquery.close();");
+		out.println("\t\treturn count;");
+		out.println("\t}");
+	}
+}
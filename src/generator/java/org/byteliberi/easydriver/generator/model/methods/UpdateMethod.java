@@ -41,7 +41,7 @@ public class UpdateMethod extends MethodModel {
 	/**
 	 * Table name
 	 */
-	private String tableName;
+	protected String tableName;
 	
 	/**
 	 * Informations about the fields which will be updated
@@ -51,7 +51,7 @@ public class UpdateMethod extends MethodModel {
 	/**
 	 * Object model name
 	 */
-	private String objectModel;
+	protected String objectModel;
 	
 	/**
 	 * Meta informations about the table
@@ -62,7 +62,7 @@ public class UpdateMethod extends MethodModel {
 	 * Primary key fields, in the form of Java class properties, that are made by
 	 * a class name and a property name. 
 	 */
-	private List<PropertyModel> pks;
+	protected List<PropertyModel> pks;
 	
 	/**
 	 * Creates a new instance of this class.
@@ -100,9 +100,26 @@ public class UpdateMethod extends MethodModel {
 		
 		out.println(MessageFormat.format("\t\tfinal {0} tableStruct = {0}.INSTANCE;", tableName));
 		out.println("\t\tfinal UpdateQuery query = tableStruct.getTable().createUpdateQuery();");
+		writeWhere(out);
+		out.println("\t\tquery.prepareQuery(con);");
+		
+		writeParameters(out, "\t\t");
+		writeKeyParameters(out, "\t\t", false);
+		out.println("\t\tint count = query.execute();");
+		out.println("\t\tquery.close();");
+		out.println("\t\treturn count;");
+		out.println("\t}");
+	}
+
+	/**
+	 * Writes the code which sets the <code>WHERE</code> section of the query,
+	 * made by the primary key fields.
+	 * @param out Output stream.
+	 */
+	protected void writeWhere(final PrintStream out) {
 		out.print("\t\tquery.setWhere(");		
 		
-		sb = new StringBuilder();
+		final StringBuilder sb = new StringBuilder();
 		final int andCount = pks.size() - 1;
 		if (andCount == 0) {
 			sb.append("new Equals(").append(MessageFormat.format("tableStruct.get{0}()", Utils.getCamelNameFirstCapital( pks.get(0).getName() ))).append("));");
@@ -121,8 +138,14 @@ public class UpdateMethod extends MethodModel {
 			sb.append(" });");
 			out.println(sb.toString());
 		}
-		out.println("\t\tquery.prepareQuery(con);");
-		
+	}
+
+	/**
+	 * Writes the code which passes the property values of the model to the query.
+	 * @param out Output stream.
+	 * @param indent Indentation of the written code.
+	 */
+	protected void writeParameters(final PrintStream out, final String indent) {
 		// Let's look for the foreign keys
 		final Map<String, String> fks = tableInfo.getExternalClasses();					
 		final HashSet<String> usedTableNames = new HashSet<String>();
@@ -144,33 +167,39 @@ public class UpdateMethod extends MethodModel {
 					
 					final String referredProperty = Utils.getCamelNameFirstCapital(foundRelation.getRfManyTable() );
 					
-					out.println(MessageFormat.format("\t\tfinal {0} {1} = model.get{2}();", propertyClass, propertyName, referredProperty));
-					out.println(MessageFormat.format("\t\tif ( {0} == null ) '{'", propertyName));
+					out.println(indent + MessageFormat.format("final {0} {1} = model.get{2}();", propertyClass, propertyName, referredProperty));
+					out.println(indent + MessageFormat.format("if ( {0} == null ) '{'", propertyName));
 					
 					for (int i = 0; i < relModelList.size(); i++)
-						out.println(MessageFormat.format("\t\t\tquery.addNullParameter({0}.getEmpty());", field.getProp().getPropertyClass()));
+						out.println(indent + MessageFormat.format("\tquery.addNullParameter({0}.getEmpty());", field.getProp().getPropertyClass()));
 					
-					out.println("\t\t}");
-					out.println("\t\telse {");
+					out.println(indent + "}");
+					out.println(indent + "else {");
 					for (RelationModel rm : relModelList)
-						out.println(MessageFormat.format("\t\t\tquery.addParameter(model.get{0}().get{1}());", 
+						out.println(indent + MessageFormat.format("\tquery.addParameter(model.get{0}().get{1}());", 
 										referredProperty, Utils.getCamelNameFirstCapital( rm.getPkOneTable() )));
-					out.println("\t\t}");
+					out.println(indent + "}");
 				}
 			}
 			else // It's a simple field
-				out.println(MessageFormat.format("\t\tquery.addParameter(model.get{0}());",  Utils.getCamelNameFirstCapital( fieldName )));		
+				out.println(indent + MessageFormat.format("query.addParameter(model.get{0}());",  Utils.getCamelNameFirstCapital( fieldName )));		
 			
-		}	
-		
-		// Now the where part
-		for (PropertyModel prop : pks)
-			out.println(MessageFormat.format("\t\tquery.addParameter({0});", prop.getName()));
-		
-		
-		out.println("\t\tint count = query.execute();");
-		out.println("\t\tquery.close();");
-		out.println("\t\treturn count;");
-		out.println("\t}");
+		}
+	}
+
+	/**
+	 * Writes the code which passes the primary key values to the <code>WHERE</code> section.
+	 * @param out Output stream.
+	 * @param indent Indentation of the written code.
+	 * @param fromModel If true, the values are read from the model, otherwise
+	 * they are the method parameters.
+	 */
+	protected void writeKeyParameters(final PrintStream out, final String indent, final boolean fromModel) {
+		for (PropertyModel prop : pks) {
+			if (fromModel)
+				out.println(indent + MessageFormat.format("query.addParameter(model.get{0}());", Utils.getCamelNameFirstCapital( prop.getName() )));
+			else
+				out.println(indent + MessageFormat.format("query.addParameter({0});", prop.getName()));
+		}
 	}
 }
@@ -0,0 +1,871 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * Result Set which shows a subset of the columns of another Result Set,
+ * in a given order. It lets an <code>ObjectFactory</code>, which reads the
+ * fields of a table from the column 1, map the columns of that table inside
+ * a query which reads many tables, such as a query with some joins.<P>
+ * The methods which take a column index translate it, while the other methods
+ * are passed as they are to the underlying Result Set.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+final class ColumnMapResultSet implements ResultSet {
+	/**
+	 * Underlying Result Set.
+	 */
+	private ResultSet rs = null;
+
+	/**
+	 * Index in the underlying Result Set of each column.
+	 */
+	private final int[] columns;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param columns 1 based index in the underlying Result Set of each column,
+	 * in the order in which they are shown.
+	 */
+	ColumnMapResultSet(final int[] columns) {
+		this.columns = columns;
+	}
+
+	/**
+	 * Setter of the underlying Result Set.
+	 * @param rs Result Set whose current record is read.
+	 */
+	void setResultSet(final ResultSet rs) {
+		this.rs = rs;
+	}
+
+	/**
+	 * Translates a column index.
+	 * @param columnIndex 1 based index of the column in this Result Set.
+	 * @return 1 based index of the column in the underlying Result Set.
+	 * @throws SQLException The index is not valid.
+	 */
+	private int column(final int columnIndex) throws SQLException {
+		if ((columnIndex < 1) || (columnIndex > this.columns.length))
+			throw new SQLException("The column index " + columnIndex + " is out of range.");
+
+		return this.columns[columnIndex - 1];
+	}
+
+	public int findColumn(final String columnLabel) throws SQLException {
+		final int found = this.rs.findColumn(columnLabel);
+		for (int i = 0; i < this.columns.length; i++)
+			if (this.columns[i] == found)
+				return i + 1;
+		throw new SQLException("The column " + columnLabel + " is not mapped.");
+	}
+
+	public <T> T unwrap(final Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+			return iface.cast(this);
+		return this.rs.unwrap(iface);
+	}
+
+	public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || this.rs.isWrapperFor(iface);
+	}
+
+	public boolean absolute(final int row) throws SQLException {
+		return this.rs.absolute(row);
+	}
+
+	public void afterLast() throws SQLException {
+		this.rs.afterLast();
+	}
+
+	public void beforeFirst() throws SQLException {
+		this.rs.beforeFirst();
+	}
+
+	public void cancelRowUpdates() throws SQLException {
+		this.rs.cancelRowUpdates();
+	}
+
+	public void clearWarnings() throws SQLException {
+		this.rs.clearWarnings();
+	}
+
+	public void close() throws SQLException {
+		this.rs.close();
+	}
+
+	public void deleteRow() throws SQLException {
+		this.rs.deleteRow();
+	}
+
+	public boolean first() throws SQLException {
+		return this.rs.first();
+	}
+
+	public Array getArray(final String columnLabel) throws SQLException {
+		return this.rs.getArray(columnLabel);
+	}
+
+	public Array getArray(final int columnIndex) throws SQLException {
+		return this.rs.getArray(column(columnIndex));
+	}
+
+	public InputStream getAsciiStream(final String columnLabel) throws SQLException {
+		return this.rs.getAsciiStream(columnLabel);
+	}
+
+	public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+		return this.rs.getAsciiStream(column(columnIndex));
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+		return this.rs.getBigDecimal(columnLabel, scale);
+	}
+
+	public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+		return this.rs.getBigDecimal(columnLabel);
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+		return this.rs.getBigDecimal(column(columnIndex), scale);
+	}
+
+	public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+		return this.rs.getBigDecimal(column(columnIndex));
+	}
+
+	public InputStream getBinaryStream(final String columnLabel) throws SQLException {
+		return this.rs.getBinaryStream(columnLabel);
+	}
+
+	public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+		return this.rs.getBinaryStream(column(columnIndex));
+	}
+
+	public Blob getBlob(final String columnLabel) throws SQLException {
+		return this.rs.getBlob(columnLabel);
+	}
+
+	public Blob getBlob(final int columnIndex) throws SQLException {
+		return this.rs.getBlob(column(columnIndex));
+	}
+
+	public boolean getBoolean(final String columnLabel) throws SQLException {
+		return this.rs.getBoolean(columnLabel);
+	}
+
+	public boolean getBoolean(final int columnIndex) throws SQLException {
+		return this.rs.getBoolean(column(columnIndex));
+	}
+
+	public byte getByte(final String columnLabel) throws SQLException {
+		return this.rs.getByte(columnLabel);
+	}
+
+	public byte getByte(final int columnIndex) throws SQLException {
+		return this.rs.getByte(column(columnIndex));
+	}
+
+	public byte[] getBytes(final String columnLabel) throws SQLException {
+		return this.rs.getBytes(columnLabel);
+	}
+
+	public byte[] getBytes(final int columnIndex) throws SQLException {
+		return this.rs.getBytes(column(columnIndex));
+	}
+
+	public Reader getCharacterStream(final String columnLabel) throws SQLException {
+		return this.rs.getCharacterStream(columnLabel);
+	}
+
+	public Reader getCharacterStream(final int columnIndex) throws SQLException {
+		return this.rs.getCharacterStream(column(columnIndex));
+	}
+
+	public Clob getClob(final String columnLabel) throws SQLException {
+		return this.rs.getClob(columnLabel);
+	}
+
+	public Clob getClob(final int columnIndex) throws SQLException {
+		return this.rs.getClob(column(columnIndex));
+	}
+
+	public int getConcurrency() throws SQLException {
+		return this.rs.getConcurrency();
+	}
+
+	public String getCursorName() throws SQLException {
+		return this.rs.getCursorName();
+	}
+
+	public Date getDate(final String columnLabel, final Calendar cal) throws SQLException {
+		return this.rs.getDate(columnLabel, cal);
+	}
+
+	public Date getDate(final String columnLabel) throws SQLException {
+		return this.rs.getDate(columnLabel);
+	}
+
+	public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+		return this.rs.getDate(column(columnIndex), cal);
+	}
+
+	public Date getDate(final int columnIndex) throws SQLException {
+		return this.rs.getDate(column(columnIndex));
+	}
+
+	public double getDouble(final String columnLabel) throws SQLException {
+		return this.rs.getDouble(columnLabel);
+	}
+
+	public double getDouble(final int columnIndex) throws SQLException {
+		return this.rs.getDouble(column(columnIndex));
+	}
+
+	public int getFetchDirection() throws SQLException {
+		return this.rs.getFetchDirection();
+	}
+
+	public int getFetchSize() throws SQLException {
+		return this.rs.getFetchSize();
+	}
+
+	public float getFloat(final String columnLabel) throws SQLException {
+		return this.rs.getFloat(columnLabel);
+	}
+
+	public float getFloat(final int columnIndex) throws SQLException {
+		return this.rs.getFloat(column(columnIndex));
+	}
+
+	public int getHoldability() throws SQLException {
+		return this.rs.getHoldability();
+	}
+
+	public int getInt(final String columnLabel) throws SQLException {
+		return this.rs.getInt(columnLabel);
+	}
+
+	public int getInt(final int columnIndex) throws SQLException {
+		return this.rs.getInt(column(columnIndex));
+	}
+
+	public long getLong(final String columnLabel) throws SQLException {
+		return this.rs.getLong(columnLabel);
+	}
+
+	public long getLong(final int columnIndex) throws SQLException {
+		return this.rs.getLong(column(columnIndex));
+	}
+
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return this.rs.getMetaData();
+	}
+
+	public Reader getNCharacterStream(final String columnLabel) throws SQLException {
+		return this.rs.getNCharacterStream(columnLabel);
+	}
+
+	public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+		return this.rs.getNCharacterStream(column(columnIndex));
+	}
+
+	public NClob getNClob(final String columnLabel) throws SQLException {
+		return this.rs.getNClob(columnLabel);
+	}
+
+	public NClob getNClob(final int columnIndex) throws SQLException {
+		return this.rs.getNClob(column(columnIndex));
+	}
+
+	public String getNString(final String columnLabel) throws SQLException {
+		return this.rs.getNString(columnLabel);
+	}
+
+	public String getNString(final int columnIndex) throws SQLException {
+		return this.rs.getNString(column(columnIndex));
+	}
+
+	public <T> T getObject(final String columnLabel, final Class<T> type) throws SQLException {
+		return this.rs.getObject(columnLabel, type);
+	}
+
+	public Object getObject(final String columnLabel, final Map<String, Class<?>> map) throws SQLException {
+		return this.rs.getObject(columnLabel, map);
+	}
+
+	public Object getObject(final String columnLabel) throws SQLException {
+		return this.rs.getObject(columnLabel);
+	}
+
+	public <T> T getObject(final int columnIndex, final Class<T> type) throws SQLException {
+		return this.rs.getObject(column(columnIndex), type);
+	}
+
+	public Object getObject(final int columnIndex, final Map<String, Class<?>> map) throws SQLException {
+		return this.rs.getObject(column(columnIndex), map);
+	}
+
+	public Object getObject(final int columnIndex) throws SQLException {
+		return this.rs.getObject(column(columnIndex));
+	}
+
+	public Ref getRef(final String columnLabel) throws SQLException {
+		return this.rs.getRef(columnLabel);
+	}
+
+	public Ref getRef(final int columnIndex) throws SQLException {
+		return this.rs.getRef(column(columnIndex));
+	}
+
+	public int getRow() throws SQLException {
+		return this.rs.getRow();
+	}
+
+	public RowId getRowId(final String columnLabel) throws SQLException {
+		return this.rs.getRowId(columnLabel);
+	}
+
+	public RowId getRowId(final int columnIndex) throws SQLException {
+		return this.rs.getRowId(column(columnIndex));
+	}
+
+	public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+		return this.rs.getSQLXML(columnLabel);
+	}
+
+	public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+		return this.rs.getSQLXML(column(columnIndex));
+	}
+
+	public short getShort(final String columnLabel) throws SQLException {
+		return this.rs.getShort(columnLabel);
+	}
+
+	public short getShort(final int columnIndex) throws SQLException {
+		return this.rs.getShort(column(columnIndex));
+	}
+
+	public Statement getStatement() throws SQLException {
+		return this.rs.getStatement();
+	}
+
+	public String getString(final String columnLabel) throws SQLException {
+		return this.rs.getString(columnLabel);
+	}
+
+	public String getString(final int columnIndex) throws SQLException {
+		return this.rs.getString(column(columnIndex));
+	}
+
+	public Time getTime(final String columnLabel, final Calendar cal) throws SQLException {
+		return this.rs.getTime(columnLabel, cal);
+	}
+
+	public Time getTime(final String columnLabel) throws SQLException {
+		return this.rs.getTime(columnLabel);
+	}
+
+	public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+		return this.rs.getTime(column(columnIndex), cal);
+	}
+
+	public Time getTime(final int columnIndex) throws SQLException {
+		return this.rs.getTime(column(columnIndex));
+	}
+
+	public Timestamp getTimestamp(final String columnLabel, final Calendar cal) throws SQLException {
+		return this.rs.getTimestamp(columnLabel, cal);
+	}
+
+	public Timestamp getTimestamp(final String columnLabel) throws SQLException {
+		return this.rs.getTimestamp(columnLabel);
+	}
+
+	public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+		return this.rs.getTimestamp(column(columnIndex), cal);
+	}
+
+	public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+		return this.rs.getTimestamp(column(columnIndex));
+	}
+
+	public int getType() throws SQLException {
+		return this.rs.getType();
+	}
+
+	public URL getURL(final String columnLabel) throws SQLException {
+		return this.rs.getURL(columnLabel);
+	}
+
+	public URL getURL(final int columnIndex) throws SQLException {
+		return this.rs.getURL(column(columnIndex));
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(final String columnLabel) throws SQLException {
+		return this.rs.getUnicodeStream(columnLabel);
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+		return this.rs.getUnicodeStream(column(columnIndex));
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		return this.rs.getWarnings();
+	}
+
+	public void insertRow() throws SQLException {
+		this.rs.insertRow();
+	}
+
+	public boolean isAfterLast() throws SQLException {
+		return this.rs.isAfterLast();
+	}
+
+	public boolean isBeforeFirst() throws SQLException {
+		return this.rs.isBeforeFirst();
+	}
+
+	public boolean isClosed() throws SQLException {
+		return this.rs.isClosed();
+	}
+
+	public boolean isFirst() throws SQLException {
+		return this.rs.isFirst();
+	}
+
+	public boolean isLast() throws SQLException {
+		return this.rs.isLast();
+	}
+
+	public boolean last() throws SQLException {
+		return this.rs.last();
+	}
+
+	public void moveToCurrentRow() throws SQLException {
+		this.rs.moveToCurrentRow();
+	}
+
+	public void moveToInsertRow() throws SQLException {
+		this.rs.moveToInsertRow();
+	}
+
+	public boolean next() throws SQLException {
+		return this.rs.next();
+	}
+
+	public boolean previous() throws SQLException {
+		return this.rs.previous();
+	}
+
+	public void refreshRow() throws SQLException {
+		this.rs.refreshRow();
+	}
+
+	public boolean relative(final int rows) throws SQLException {
+		return this.rs.relative(rows);
+	}
+
+	public boolean rowDeleted() throws SQLException {
+		return this.rs.rowDeleted();
+	}
+
+	public boolean rowInserted() throws SQLException {
+		return this.rs.rowInserted();
+	}
+
+	public boolean rowUpdated() throws SQLException {
+		return this.rs.rowUpdated();
+	}
+
+	public void setFetchDirection(final int direction) throws SQLException {
+		this.rs.setFetchDirection(direction);
+	}
+
+	public void setFetchSize(final int rows) throws SQLException {
+		this.rs.setFetchSize(rows);
+	}
+
+	public void updateArray(final String columnLabel, final Array x) throws SQLException {
+		this.rs.updateArray(columnLabel, x);
+	}
+
+	public void updateArray(final int columnIndex, final Array x) throws SQLException {
+		this.rs.updateArray(column(columnIndex), x);
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+		this.rs.updateAsciiStream(columnLabel, x, length);
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		this.rs.updateAsciiStream(columnLabel, x, length);
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x) throws SQLException {
+		this.rs.updateAsciiStream(columnLabel, x);
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+		this.rs.updateAsciiStream(column(columnIndex), x, length);
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		this.rs.updateAsciiStream(column(columnIndex), x, length);
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x) throws SQLException {
+		this.rs.updateAsciiStream(column(columnIndex), x);
+	}
+
+	public void updateBigDecimal(final String columnLabel, final BigDecimal x) throws SQLException {
+		this.rs.updateBigDecimal(columnLabel, x);
+	}
+
+	public void updateBigDecimal(final int columnIndex, final BigDecimal x) throws SQLException {
+		this.rs.updateBigDecimal(column(columnIndex), x);
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+		this.rs.updateBinaryStream(columnLabel, x, length);
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		this.rs.updateBinaryStream(columnLabel, x, length);
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x) throws SQLException {
+		this.rs.updateBinaryStream(columnLabel, x);
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+		this.rs.updateBinaryStream(column(columnIndex), x, length);
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		this.rs.updateBinaryStream(column(columnIndex), x, length);
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x) throws SQLException {
+		this.rs.updateBinaryStream(column(columnIndex), x);
+	}
+
+	public void updateBlob(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		this.rs.updateBlob(columnLabel, x, length);
+	}
+
+	public void updateBlob(final String columnLabel, final InputStream x) throws SQLException {
+		this.rs.updateBlob(columnLabel, x);
+	}
+
+	public void updateBlob(final String columnLabel, final Blob x) throws SQLException {
+		this.rs.updateBlob(columnLabel, x);
+	}
+
+	public void updateBlob(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		this.rs.updateBlob(column(columnIndex), x, length);
+	}
+
+	public void updateBlob(final int columnIndex, final InputStream x) throws SQLException {
+		this.rs.updateBlob(column(columnIndex), x);
+	}
+
+	public void updateBlob(final int columnIndex, final Blob x) throws SQLException {
+		this.rs.updateBlob(column(columnIndex), x);
+	}
+
+	public void updateBoolean(final String columnLabel, final boolean x) throws SQLException {
+		this.rs.updateBoolean(columnLabel, x);
+	}
+
+	public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+		this.rs.updateBoolean(column(columnIndex), x);
+	}
+
+	public void updateByte(final String columnLabel, final byte x) throws SQLException {
+		this.rs.updateByte(columnLabel, x);
+	}
+
+	public void updateByte(final int columnIndex, final byte x) throws SQLException {
+		this.rs.updateByte(column(columnIndex), x);
+	}
+
+	public void updateBytes(final String columnLabel, final byte[] x) throws SQLException {
+		this.rs.updateBytes(columnLabel, x);
+	}
+
+	public void updateBytes(final int columnIndex, final byte[] x) throws SQLException {
+		this.rs.updateBytes(column(columnIndex), x);
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x, final int length) throws SQLException {
+		this.rs.updateCharacterStream(columnLabel, x, length);
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x, final long length) throws SQLException {
+		this.rs.updateCharacterStream(columnLabel, x, length);
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x) throws SQLException {
+		this.rs.updateCharacterStream(columnLabel, x);
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x, final int length) throws SQLException {
+		this.rs.updateCharacterStream(column(columnIndex), x, length);
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+		this.rs.updateCharacterStream(column(columnIndex), x, length);
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+		this.rs.updateCharacterStream(column(columnIndex), x);
+	}
+
+	public void updateClob(final String columnLabel, final Reader x, final long length) throws SQLException {
+		this.rs.updateClob(columnLabel, x, length);
+	}
+
+	public void updateClob(final String columnLabel, final Reader x) throws SQLException {
+		this.rs.updateClob(columnLabel, x);
+	}
+
+	public void updateClob(final String columnLabel, final Clob x) throws SQLException {
+		this.rs.updateClob(columnLabel, x);
+	}
+
+	public void updateClob(final int columnIndex, final Reader x, final long length) throws SQLException {
+		this.rs.updateClob(column(columnIndex), x, length);
+	}
+
+	public void updateClob(final int columnIndex, final Reader x) throws SQLException {
+		this.rs.updateClob(column(columnIndex), x);
+	}
+
+	public void updateClob(final int columnIndex, final Clob x) throws SQLException {
+		this.rs.updateClob(column(columnIndex), x);
+	}
+
+	public void updateDate(final String columnLabel, final Date x) throws SQLException {
+		this.rs.updateDate(columnLabel, x);
+	}
+
+	public void updateDate(final int columnIndex, final Date x) throws SQLException {
+		this.rs.updateDate(column(columnIndex), x);
+	}
+
+	public void updateDouble(final String columnLabel, final double x) throws SQLException {
+		this.rs.updateDouble(columnLabel, x);
+	}
+
+	public void updateDouble(final int columnIndex, final double x) throws SQLException {
+		this.rs.updateDouble(column(columnIndex), x);
+	}
+
+	public void updateFloat(final String columnLabel, final float x) throws SQLException {
+		this.rs.updateFloat(columnLabel, x);
+	}
+
+	public void updateFloat(final int columnIndex, final float x) throws SQLException {
+		this.rs.updateFloat(column(columnIndex), x);
+	}
+
+	public void updateInt(final String columnLabel, final int x) throws SQLException {
+		this.rs.updateInt(columnLabel, x);
+	}
+
+	public void updateInt(final int columnIndex, final int x) throws SQLException {
+		this.rs.updateInt(column(columnIndex), x);
+	}
+
+	public void updateLong(final String columnLabel, final long x) throws SQLException {
+		this.rs.updateLong(columnLabel, x);
+	}
+
+	public void updateLong(final int columnIndex, final long x) throws SQLException {
+		this.rs.updateLong(column(columnIndex), x);
+	}
+
+	public void updateNCharacterStream(final String columnLabel, final Reader x, final long length) throws SQLException {
+		this.rs.updateNCharacterStream(columnLabel, x, length);
+	}
+
+	public void updateNCharacterStream(final String columnLabel, final Reader x) throws SQLException {
+		this.rs.updateNCharacterStream(columnLabel, x);
+	}
+
+	public void updateNCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+		this.rs.updateNCharacterStream(column(columnIndex), x, length);
+	}
+
+	public void updateNCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+		this.rs.updateNCharacterStream(column(columnIndex), x);
+	}
+
+	public void updateNClob(final String columnLabel, final Reader x, final long length) throws SQLException {
+		this.rs.updateNClob(columnLabel, x, length);
+	}
+
+	public void updateNClob(final String columnLabel, final Reader x) throws SQLException {
+		this.rs.updateNClob(columnLabel, x);
+	}
+
+	public void updateNClob(final String columnLabel, final NClob x) throws SQLException {
+		this.rs.updateNClob(columnLabel, x);
+	}
+
+	public void updateNClob(final int columnIndex, final Reader x, final long length) throws SQLException {
+		this.rs.updateNClob(column(columnIndex), x, length);
+	}
+
+	public void updateNClob(final int columnIndex, final Reader x) throws SQLException {
+		this.rs.updateNClob(column(columnIndex), x);
+	}
+
+	public void updateNClob(final int columnIndex, final NClob x) throws SQLException {
+		this.rs.updateNClob(column(columnIndex), x);
+	}
+
+	public void updateNString(final String columnLabel, final String x) throws SQLException {
+		this.rs.updateNString(columnLabel, x);
+	}
+
+	public void updateNString(final int columnIndex, final String x) throws SQLException {
+		this.rs.updateNString(column(columnIndex), x);
+	}
+
+	public void updateNull(final String columnLabel) throws SQLException {
+		this.rs.updateNull(columnLabel);
+	}
+
+	public void updateNull(final int columnIndex) throws SQLException {
+		this.rs.updateNull(column(columnIndex));
+	}
+
+	public void updateObject(final String columnLabel, final Object x, final int scaleOrLength) throws SQLException {
+		this.rs.updateObject(columnLabel, x, scaleOrLength);
+	}
+
+	public void updateObject(final String columnLabel, final Object x) throws SQLException {
+		this.rs.updateObject(columnLabel, x);
+	}
+
+	public void updateObject(final int columnIndex, final Object x, final int scaleOrLength) throws SQLException {
+		this.rs.updateObject(column(columnIndex), x, scaleOrLength);
+	}
+
+	public void updateObject(final int columnIndex, final Object x) throws SQLException {
+		this.rs.updateObject(column(columnIndex), x);
+	}
+
+	public void updateRef(final String columnLabel, final Ref x) throws SQLException {
+		this.rs.updateRef(columnLabel, x);
+	}
+
+	public void updateRef(final int columnIndex, final Ref x) throws SQLException {
+		this.rs.updateRef(column(columnIndex), x);
+	}
+
+	public void updateRow() throws SQLException {
+		this.rs.updateRow();
+	}
+
+	public void updateRowId(final String columnLabel, final RowId x) throws SQLException {
+		this.rs.updateRowId(columnLabel, x);
+	}
+
+	public void updateRowId(final int columnIndex, final RowId x) throws SQLException {
+		this.rs.updateRowId(column(columnIndex), x);
+	}
+
+	public void updateSQLXML(final String columnLabel, final SQLXML x) throws SQLException {
+		this.rs.updateSQLXML(columnLabel, x);
+	}
+
+	public void updateSQLXML(final int columnIndex, final SQLXML x) throws SQLException {
+		this.rs.updateSQLXML(column(columnIndex), x);
+	}
+
+	public void updateShort(final String columnLabel, final short x) throws SQLException {
+		this.rs.updateShort(columnLabel, x);
+	}
+
+	public void updateShort(final int columnIndex, final short x) throws SQLException {
+		this.rs.updateShort(column(columnIndex), x);
+	}
+
+	public void updateString(final String columnLabel, final String x) throws SQLException {
+		this.rs.updateString(columnLabel, x);
+	}
+
+	public void updateString(final int columnIndex, final String x) throws SQLException {
+		this.rs.updateString(column(columnIndex), x);
+	}
+
+	public void updateTime(final String columnLabel, final Time x) throws SQLException {
+		this.rs.updateTime(columnLabel, x);
+	}
+
+	public void updateTime(final int columnIndex, final Time x) throws SQLException {
+		this.rs.updateTime(column(columnIndex), x);
+	}
+
+	public void updateTimestamp(final String columnLabel, final Timestamp x) throws SQLException {
+		this.rs.updateTimestamp(columnLabel, x);
+	}
+
+	public void updateTimestamp(final int columnIndex, final Timestamp x) throws SQLException {
+		this.rs.updateTimestamp(column(columnIndex), x);
+	}
+
+	public boolean wasNull() throws SQLException {
+		return this.rs.wasNull();
+	}
+}
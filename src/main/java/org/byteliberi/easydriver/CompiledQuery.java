@@ -0,0 +1,734 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.byteliberi.easydriver.fields.BigDecimalField;
+import org.byteliberi.easydriver.fields.BooleanField;
+import org.byteliberi.easydriver.fields.ByteArrayField;
+import org.byteliberi.easydriver.fields.CharField;
+import org.byteliberi.easydriver.fields.DateField;
+import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.TimestampField;
+import org.byteliberi.easydriver.fields.UUIDField;
+import org.byteliberi.easydriver.fields.VarcharField;
+import org.byteliberi.easydriver.impl.ParameterSlots;
+import org.byteliberi.easydriver.impl.Query;
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * A compiled query is an immutable copy of a query, made by the query string,
+ * the types of its parameters and the factory of the value objects.<P>
+ * It is created once, for example at the application start up, by the
+ * <code>compile</code> method of a {@link SelectQuery}, {@link UpdateQuery},
+ * {@link DeleteQuery} or {@link InsertQuery}, then it can be shared by all the
+ * threads without any synchronization. Each call creates its own
+ * {@link Execution}, which is filled with the parameter values and executed
+ * on a connection.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ * @param <T> Class of the value objects that are created by this query,
+ * it is <code>Void</code> for the queries which update, insert or delete data.
+ */
+public final class CompiledQuery<T> {
+	/**
+	 * Query string.
+	 */
+	private final String sql;
+
+	/**
+	 * Fields which manage the parameter types, one for each <code>?</code>
+	 * placeholder. An item is null when the type is unknown.
+	 */
+	private final TableField<?>[] parameterTypes;
+
+	/**
+	 * Factory which creates a new instance of a value object and fills
+	 * its properties with the values read from a JDBC result set.
+	 * It is null for the queries which do not read data.
+	 */
+	private final ObjectFactory<T> valueObjectFactory;
+
+	/**
+	 * Cache which keeps the Prepared Statements after each execution,
+	 * it is null when the statements are closed.
+	 */
+	private final StatementCache statementCache;
+
+	/**
+	 * Listener which is notified after each execution, it is null
+	 * when the executions are not measured.
+	 */
+	private final QueryListener queryListener;
+
+	/**
+	 * Creates a new instance of this class from an existing query.
+	 * @param query Query which provides the query string, the parameter types,
+	 * the statement cache and the query listener.
+	 * @param valueObjectFactory Factory which creates a new instance
+	 * of a value object and fills its properties with the values read from
+	 * a JDBC result set, it is null for the queries which do not read data.
+	 */
+	public CompiledQuery(final Query query, final ObjectFactory<T> valueObjectFactory) {
+		this(query.getQueryString(), query.getParameterTypes(), valueObjectFactory,
+			 query.getStatementCache(), query.getQueryListener());
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param sql Query string.
+	 * @param parameterTypes Fields which manage the parameter types, one for
+	 * each <code>?</code> placeholder, an item is null when the type is unknown.
+	 * @param valueObjectFactory Factory which creates a new instance
+	 * of a value object and fills its properties with the values read from
+	 * a JDBC result set, it is null for the queries which do not read data.
+	 * @param statementCache Cache which keeps the Prepared Statements
+	 * after each execution, null in order to close them.
+	 */
+	public CompiledQuery(final String sql, final TableField<?>[] parameterTypes,
+						 final ObjectFactory<T> valueObjectFactory,
+						 final StatementCache statementCache) {
+		this(sql, parameterTypes, valueObjectFactory, statementCache, Query.getDefaultQueryListener());
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param sql Query string.
+	 * @param parameterTypes Fields which manage the parameter types, one for
+	 * each <code>?</code> placeholder, an item is null when the type is unknown.
+	 * @param valueObjectFactory Factory which creates a new instance
+	 * of a value object and fills its properties with the values read from
+	 * a JDBC result set, it is null for the queries which do not read data.
+	 * @param statementCache Cache which keeps the Prepared Statements
+	 * after each execution, null in order to close them.
+	 * @param queryListener Listener which is notified after each execution,
+	 * null in order to not measure the executions.
+	 */
+	public CompiledQuery(final String sql, final TableField<?>[] parameterTypes,
+						 final ObjectFactory<T> valueObjectFactory,
+						 final StatementCache statementCache,
+						 final QueryListener queryListener) {
+		this.sql = sql;
+		this.parameterTypes = parameterTypes.clone();
+		this.valueObjectFactory = valueObjectFactory;
+		this.statementCache = statementCache;
+		this.queryListener = queryListener;
+	}
+
+	/**
+	 * Creates a new execution of this query, which has to be filled
+	 * with the parameter values. An execution must be used by a single thread.
+	 * @return New execution of this query.
+	 */
+	public Execution<T> newExecution() {
+		return new Execution<T>(this);
+	}
+
+	/**
+	 * Creates a new execution of this query, filled with the passed values.
+	 * @param values Parameter values, they are kept by the execution, so they
+	 * must not be changed by the caller.
+	 * @return New execution of this query.
+	 */
+	public Execution<T> newExecution(final ParameterSlots values) {
+		if (values.size() > getParameterCount())
+			throw new IllegalArgumentException(values.size() + " values have been passed, but the query has " +
+											   getParameterCount() + " parameters: " + this.sql);
+
+		return new Execution<T>(this, values);
+	}
+
+	/**
+	 * Getter of the query string.
+	 * @return Query string.
+	 */
+	public String getQueryString() {
+		return this.sql;
+	}
+
+	/**
+	 * Getter of the number of parameters.
+	 * @return Number of <code>?</code> placeholders in the query string.
+	 */
+	public int getParameterCount() {
+		return this.parameterTypes.length;
+	}
+
+	/**
+	 * Getter of a parameter type.
+	 * @param index 1 based index of the parameter.
+	 * @return Field which manages the parameter type, or null if it is unknown.
+	 */
+	public TableField<?> getParameterType(final int index) {
+		return this.parameterTypes[index - 1];
+	}
+
+	/**
+	 * Getter of the value object factory.
+	 * @return Factory of the value objects, it is null for the queries which do not read data.
+	 */
+	public ObjectFactory<T> getValueObjectFactory() {
+		return this.valueObjectFactory;
+	}
+
+	/**
+	 * A single execution of a compiled query. It keeps the parameter values,
+	 * then it prepares the statement on the passed connection, fills it and
+	 * executes it. An execution is not thread safe and it does not use any lock:
+	 * it must be created and used by the same thread.
+	 *
+	 * @param <T> Class of the value objects that are created by the query.
+	 */
+	public static final class Execution<T> {
+		/**
+		 * Query which is executed.
+		 */
+		private final CompiledQuery<T> query;
+
+		/**
+		 * Parameter values, one slot for each parameter.
+		 */
+		private final ParameterSlots parameters;
+
+		/**
+		 * Statement which is being executed.
+		 */
+		private PreparedStatement pstm = null;
+
+		/**
+		 * Max number of records read by the statement, 0 for no limit: the reads of
+		 * the first or the only record set it, so the driver does not fetch all the rows.
+		 */
+		private int maxRows = 0;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param query Query which is executed.
+		 */
+		private Execution(final CompiledQuery<T> query) {
+			this(query, new ParameterSlots(query.getParameterCount()));
+		}
+
+		/**
+		 * Creates a new instance of this class, filled with some values.
+		 * @param query Query which is executed.
+		 * @param parameters Parameter values.
+		 */
+		private Execution(final CompiledQuery<T> query, final ParameterSlots parameters) {
+			this.query = query;
+			this.parameters = parameters;
+		}
+
+		/**
+		 * Checks that there is room for another parameter value.
+		 * @throws SQLException All the parameters have been already bound.
+		 */
+		private void checkRoom() throws SQLException {
+			if (this.parameters.size() == this.query.getParameterCount())
+				throw new SQLException("The query has " + this.query.getParameterCount() +
+									   " parameters only: " + this.query.sql);
+		}
+
+		/**
+		 * Appends a parameter value.
+		 * @param field Field which fills the Prepared Statement with the value.
+		 * @param value Parameter value.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		private Execution<T> append(final TableField<?> field, final Object value) throws SQLException {
+			checkRoom();
+			this.parameters.add(field, value);
+			return this;
+		}
+
+		/**
+		 * Appends an <code>int</code> parameter, without boxing it.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindInt(final int value) throws SQLException {
+			checkRoom();
+			this.parameters.addInt(value);
+			return this;
+		}
+
+		/**
+		 * Appends a <code>long</code> parameter, without boxing it.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindLong(final long value) throws SQLException {
+			checkRoom();
+			this.parameters.addLong(value);
+			return this;
+		}
+
+		/**
+		 * Appends a <code>double</code> parameter, without boxing it.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindDouble(final double value) throws SQLException {
+			checkRoom();
+			this.parameters.addDouble(value);
+			return this;
+		}
+
+		/**
+		 * Appends a <code>boolean</code> parameter, without boxing it.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindBoolean(final boolean value) throws SQLException {
+			checkRoom();
+			this.parameters.addBoolean(value);
+			return this;
+		}
+
+		/**
+		 * Appends a {@link java.math.BigDecimal} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final BigDecimal value) throws SQLException {
+			return append(BigDecimalField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.lang.Boolean} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final Boolean value) throws SQLException {
+			return append(BooleanField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.lang.String} parameter for a <code>CHAR</code> column.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindChar(final String value) throws SQLException {
+			return append(CharField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.util.Date} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final Date value) throws SQLException {
+			return append(DateField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.lang.Integer} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final Integer value) throws SQLException {
+			return append(IntField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.sql.Timestamp} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final Timestamp value) throws SQLException {
+			return append(TimestampField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.util.UUID} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final UUID value) throws SQLException {
+			return append(UUIDField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a {@link java.lang.String} parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final String value) throws SQLException {
+			return append(VarcharField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a byte array parameter.
+		 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bind(final byte[] value) throws SQLException {
+			return append(ByteArrayField.getEmpty(), value);
+		}
+
+		/**
+		 * Appends a null parameter.
+		 * @param field Field which manages the type of the parameter.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters.
+		 */
+		public Execution<T> bindNull(final TableField<?> field) throws SQLException {
+			return append(field, null);
+		}
+
+		/**
+		 * Appends a null parameter, using the type found when the query has been compiled.
+		 * @return This execution, so the calls can be chained.
+		 * @throws SQLException There are more values than parameters or the
+		 * parameter type is unknown.
+		 */
+		public Execution<T> bindNull() throws SQLException {
+			final int bound = this.parameters.size();
+			final TableField<?> field = (bound < this.query.getParameterCount()) ?
+										this.query.parameterTypes[bound] : null;
+			if (field == null)
+				throw new SQLException("Unknown type of the parameter " + (bound + 1) + ": " + this.query.sql);
+
+			return append(field, null);
+		}
+
+		/**
+		 * Removes all the parameter values, so this execution can be filled again.
+		 */
+		public void clear() {
+			this.parameters.clear();
+		}
+
+		/**
+		 * Executes the query and get a list of records.
+		 * @param con Database connection.
+		 * @return List of Value Object or an empty list if no rows have been found.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		public List<T> getResultList(final Connection con) throws SQLException {
+			final ObjectFactory<T> factory = getFactory();
+			QueryExecution execution = null;
+			boolean completed = false;
+			try {
+				execution = prepare(con);
+				final ResultSet rs = executeQuery(con);
+				try {
+					final List<T> result = new ArrayList<T>();
+					if (execution == null) {
+						while (rs.next())
+							result.add(factory.map(rs));
+					}
+					else {
+						execution.executed();
+						while (rs.next()) {
+							execution.rowRead();
+							result.add(factory.map(rs));
+							execution.rowMapped();
+						}
+					}
+					completed = true;
+					return result;
+				}
+				finally {
+					rs.close();
+				}
+			}
+			finally {
+				release(con, execution, completed);
+			}
+		}
+
+		/**
+		 * Executes the query and get the first record.
+		 * @param con Database connection.
+		 * @return Value Object or null if no rows have been found.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		public T getFirstResult(final Connection con) throws SQLException {
+			return readFirst(con, false);
+		}
+
+		/**
+		 * Executes the query and get the only record, as
+		 * {@link org.byteliberi.easydriver.impl.ReadQueryAPI#getSingleResult()} does.
+		 * @param con Database connection.
+		 * @return Value Object or null if no rows have been found.
+		 * @throws SQLException A problem occurred with the query or the database,
+		 * or the query has found more than one record.
+		 */
+		public T getSingleResult(final Connection con) throws SQLException {
+			return readFirst(con, true);
+		}
+
+		/**
+		 * Executes the query and maps the first record.
+		 * @param con Database connection.
+		 * @param unique If true, an exception is thrown when there is a second record.
+		 * @return Value Object or null if no rows have been found.
+		 * @throws SQLException A problem occurred with the query or the database,
+		 * or there is a second record when it is not expected.
+		 */
+		private T readFirst(final Connection con, final boolean unique) throws SQLException {
+			final ObjectFactory<T> factory = getFactory();
+			QueryExecution execution = null;
+			boolean completed = false;
+			this.maxRows = unique ? 2 : 1;
+			try {
+				execution = prepare(con);
+				final ResultSet rs = executeQuery(con);
+				try {
+					if (execution != null)
+						execution.executed();
+					T result = null;
+					if (rs.next()) {
+						if (execution != null)
+							execution.rowRead();
+						result = factory.map(rs);
+						if (execution != null)
+							execution.rowMapped();
+						if (unique && rs.next())
+							throw new SQLException("The query has found more than one record, while one was expected.");
+					}
+					completed = true;
+					return result;
+				}
+				finally {
+					rs.close();
+				}
+			}
+			finally {
+				try {
+					release(con, execution, completed);
+				}
+				finally {
+					this.maxRows = 0;
+				}
+			}
+		}
+
+		/**
+		 * Executes the update, insert or delete.
+		 * @param con Database connection.
+		 * @return Number of rows affected by the execution of this query.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		public int execute(final Connection con) throws SQLException {
+			QueryExecution execution = null;
+			boolean completed = false;
+			try {
+				execution = prepare(con);
+				int count;
+				try {
+					count = this.pstm.executeUpdate();
+				}
+				catch (SQLException ex) {
+					if (!canPrepareAgain(con, ex))
+						throw ex;
+
+					prepareAgain(con);
+					count = this.pstm.executeUpdate();
+				}
+				if (execution != null) {
+					execution.executed();
+					execution.setRowCount(count);
+				}
+				completed = true;
+				return count;
+			}
+			finally {
+				release(con, execution, completed);
+			}
+		}
+
+		/**
+		 * Getter of the value object factory.
+		 * @return Factory of the value objects.
+		 * @throws SQLException The query does not read data.
+		 */
+		private ObjectFactory<T> getFactory() throws SQLException {
+			final ObjectFactory<T> factory = this.query.valueObjectFactory;
+			if (factory == null)
+				throw new SQLException("The query does not create value objects: " + this.query.sql);
+			return factory;
+		}
+
+		/**
+		 * Executes the prepared statement as a query.
+		 * @param con Database connection.
+		 * @return Result Set created by the statement.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		private ResultSet executeQuery(final Connection con) throws SQLException {
+			try {
+				return this.pstm.executeQuery();
+			}
+			catch (SQLException ex) {
+				if (!canPrepareAgain(con, ex))
+					throw ex;
+
+				prepareAgain(con);
+				return this.pstm.executeQuery();
+			}
+		}
+
+		/**
+		 * Prepares the statement and, if the query has a listener, it starts
+		 * measuring the execution.
+		 * @param con Database connection.
+		 * @return Measures of the execution, or null if the query has no listener.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		private QueryExecution prepare(final Connection con) throws SQLException {
+			final QueryListener listener = this.query.queryListener;
+			if (listener == null) {
+				prepareStatement(con);
+				return null;
+			}
+
+			final long start = System.nanoTime();
+			prepareStatement(con);
+			return new QueryExecution(listener, this.query.sql, System.nanoTime() - start, this.parameters);
+		}
+
+		/**
+		 * Creates or takes from the cache a Prepared Statement, then it fills
+		 * it with the parameter values.
+		 * @param con Database connection.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		private void prepareStatement(final Connection con) throws SQLException {
+			final int bound = this.parameters.size();
+			if (bound != this.query.getParameterCount())
+				throw new SQLException(bound + " parameters have been bound, but the query has " +
+									   this.query.getParameterCount() + ": " + this.query.sql);
+
+			final StatementCache cache = this.query.statementCache;
+			if (cache == null)
+				this.pstm = con.prepareStatement(this.query.sql);
+			else
+				this.pstm = cache.prepare(con, this.query.sql);
+
+			this.parameters.apply(this.pstm);
+			if (this.maxRows > 0)
+				this.pstm.setMaxRows(this.maxRows);
+		}
+
+		/**
+		 * Checks if the statement can be transparently prepared again.
+		 * @param con Database connection.
+		 * @param ex Exception risen by the execution.
+		 * @return true if the plan has been discarded and no transaction is open.
+		 * @throws SQLException A problem occurred with the database.
+		 */
+		private boolean canPrepareAgain(final Connection con, final SQLException ex) throws SQLException {
+			return StatementCache.isStalePlan(ex) && con.getAutoCommit();
+		}
+
+		/**
+		 * Closes the statement whose plan has been discarded, then it creates
+		 * a new one, filled with the same values.
+		 * @param con Database connection.
+		 * @throws SQLException A problem occurred with the query or the database.
+		 */
+		private void prepareAgain(final Connection con) throws SQLException {
+			final PreparedStatement stale = this.pstm;
+			this.pstm = null;
+			final StatementCache cache = this.query.statementCache;
+			if (cache == null)
+				stale.close();
+			else
+				cache.discard(stale);
+
+			prepareStatement(con);
+		}
+
+		/**
+		 * Closes the statement or gives it back to the cache, then it ends
+		 * the measure of the execution.
+		 * @param con Database connection.
+		 * @param execution Measures of the execution, it can be null.
+		 * @param completed It is false if the execution has thrown an exception.
+		 * @throws SQLException A problem occurred with the database.
+		 */
+		private void release(final Connection con, final QueryExecution execution,
+							 final boolean completed) throws SQLException {
+			try {
+				release(con);
+			}
+			finally {
+				if (execution != null)
+					execution.finish(completed);
+			}
+		}
+
+		/**
+		 * Closes the statement or gives it back to the cache.
+		 * @param con Database connection.
+		 * @throws SQLException A problem occurred with the database.
+		 */
+		private void release(final Connection con) throws SQLException {
+			final PreparedStatement released = this.pstm;
+			if (released == null)
+				return;
+
+			this.pstm = null;
+			final StatementCache cache = this.query.statementCache;
+			if (cache == null)
+				released.close();
+			else {
+				try {
+					if (this.maxRows > 0)
+						released.setMaxRows(0);
+				}
+				catch (SQLException ex) {
+					cache.discard(released);
+					throw ex;
+				}
+				cache.release(con, this.query.sql, released);
+			}
+		}
+	}
+}
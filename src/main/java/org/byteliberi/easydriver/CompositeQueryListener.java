@@ -0,0 +1,56 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * This listener passes each execution to several listeners, in order,
+ * so a query can be measured by a {@link QueryMetrics} and watched by a
+ * {@link SlowQueryDetector} at the same time.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompositeQueryListener implements QueryListener {
+	/**
+	 * Listeners which receive the executions.
+	 */
+	private final QueryListener[] listeners;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param listeners Listeners which receive the executions, in order.
+	 */
+	public CompositeQueryListener(final QueryListener... listeners) {
+		for (QueryListener listener : listeners)
+			if (listener == null)
+				throw new IllegalArgumentException("The listeners can not be null");
+
+		this.listeners = listeners.clone();
+	}
+
+	@Override
+	public void executed(final QueryExecution execution) {
+		for (QueryListener listener : this.listeners)
+			listener.executed(execution);
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.Connection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.sql.DataSource;
+
+/**
+ * This class runs the asynchronous queries: each task is run by an executor,
+ * on a connection which is taken from a data source, usually a pool, and which
+ * is given back as soon as the task has ended. So the independent queries of
+ * a request run at the same time, each one on its own connection, and the
+ * calling thread is not blocked.<P>
+ * The queries use the executor given by <code>setConnectionExecutor</code> or,
+ * if they have none, the default one, set by {@link #setDefault(ConnectionExecutor)}.
+ * The executor should not have more threads than the connections of the pool,
+ * otherwise the tasks wait for a connection inside the executor threads.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConnectionExecutor {
+	/**
+	 * Executor used by the queries that have not been given a specific one,
+	 * by default there is none.
+	 */
+	private static volatile ConnectionExecutor defaultExecutor = null;
+
+	/**
+	 * Source of the connections.
+	 */
+	private final DataSource dataSource;
+
+	/**
+	 * Executor which runs the tasks.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param dataSource Source of the connections, usually a pool.
+	 * @param executor Executor which runs the tasks.
+	 */
+	public ConnectionExecutor(final DataSource dataSource, final Executor executor) {
+		if ((dataSource == null) || (executor == null))
+			throw new IllegalArgumentException("The data source and the executor can not be null");
+
+		this.dataSource = dataSource;
+		this.executor = executor;
+	}
+
+	/**
+	 * Getter of the executor used by the queries that have not been given a specific one.
+	 * @return Default executor, it is null when there is none.
+	 */
+	public static ConnectionExecutor getDefault() {
+		return defaultExecutor;
+	}
+
+	/**
+	 * Setter of the executor used by the queries which are created after this call.
+	 * @param executor Default executor, null in order to remove it.
+	 */
+	public static void setDefault(final ConnectionExecutor executor) {
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * Creates a future which has already failed.
+	 * @param ex Exception which has caused the failure.
+	 * @return Future completed by the exception.
+	 */
+	public static <R> CompletableFuture<R> failedFuture(final Throwable ex) {
+		final CompletableFuture<R> future = new CompletableFuture<R>();
+		future.completeExceptionally(ex);
+		return future;
+	}
+
+	/**
+	 * Runs a task on a connection of the data source. If the future is
+	 * cancelled before the task has started, the task is not run.
+	 * @param task Task which is run.
+	 * @return Future which is completed by the result of the task, or by the
+	 * exception that it has thrown.
+	 */
+	public <R> CompletableFuture<R> submit(final ConnectionTask<R> task) {
+		final CompletableFuture<R> future = new CompletableFuture<R>();
+		final Runnable runnable = new Runnable() {
+			@Override
+			public void run() {
+				if (future.isDone())
+					return;
+
+				try {
+					final Connection con = dataSource.getConnection();
+					try {
+						future.complete(task.run(con));
+					}
+					finally {
+						con.close();
+					}
+				}
+				catch (Throwable ex) {
+					future.completeExceptionally(ex);
+				}
+			}
+		};
+
+		try {
+			this.executor.execute(runnable);
+		}
+		catch (RuntimeException ex) {
+			future.completeExceptionally(ex);
+		}
+		return future;
+	}
+
+	/**
+	 * Getter of the data source.
+	 * @return Source of the connections.
+	 */
+	public DataSource getDataSource() {
+		return this.dataSource;
+	}
+
+	/**
+	 * Getter of the executor.
+	 * @return Executor which runs the tasks.
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+}
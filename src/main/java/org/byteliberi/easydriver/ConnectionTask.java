@@ -0,0 +1,44 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A <code>ConnectionTask</code> is a piece of work which is run by a
+ * {@link ConnectionExecutor} on a connection taken from its pool.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <R> Class of the result.
+ */
+public interface ConnectionTask<R> {
+	/**
+	 * Runs the task. The connection is given back to the pool after this call,
+	 * so it must not be kept.
+	 * @param con Database connection.
+	 * @return Result of the task.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	public R run(Connection con) throws SQLException;
+}
@@ -19,7 +19,10 @@
  */
 package org.byteliberi.easydriver;
 
+import java.sql.SQLException;
 import java.util.LinkedHashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.byteliberi.easydriver.impl.Relationship;
 
 /**
@@ -58,6 +61,16 @@ public class DBTable<P> {
 	 * Fields belonging to the table
 	 */
 	private LinkedHashSet<TableField<?>> dbFields;
+	
+	/**
+	 * Cache of the records read by primary key, null if there is none.
+	 */
+	private volatile EntityCache<?> entityCache = null;
+
+	/**
+	 * Caches which keep some query results read from this table.
+	 */
+	private final CopyOnWriteArrayList<ResultCache> resultCaches = new CopyOnWriteArrayList<ResultCache>();
 		
 	/**
 	 * Creates a new instance of this class, for the given table name, without a schema.
@@ -93,6 +106,16 @@ public class DBTable<P> {
 	public final InsertQuery createInsertQuery() {
 		return new InsertQuery(dbFields.toArray(new TableField<?>[dbFields.size()]), this);
 	}
+
+	/**
+	 * Creates a query that can insert many records with a single statement,
+	 * setting all the fields of this table.
+	 * @param rowsPerStatement Number of records inserted by a full statement.
+	 * @return insert query
+	 */
+	public final InsertQuery createInsertQuery(final int rowsPerStatement) {
+		return new InsertQuery(dbFields.toArray(new TableField<?>[dbFields.size()]), this, rowsPerStatement);
+	}
 	
 	/**
 	 * Creates a query that can delete one or more records, belonging to this table,
@@ -194,4 +217,69 @@ public class DBTable<P> {
 	public String getTableName() {
 		return this.name;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Setter of the entity cache. The records changed by the update and delete
+	 * queries of this table are removed from the cache.
+	 * @param entityCache Cache of the records read by primary key, null in order
+	 * to read them from the database each time.
+	 */
+	public final void setEntityCache(final EntityCache<?> entityCache) {
+		this.entityCache = entityCache;
+	}
+
+	/**
+	 * Getter of the entity cache.
+	 * @return Cache of the records read by primary key, null if there is none.
+	 * The caller must know the class of the value objects kept by the cache.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <V> EntityCache<V> getEntityCache() {
+		return (EntityCache<V>) this.entityCache;
+	}
+
+	/**
+	 * Registers a cache which keeps some query results read from this table,
+	 * so they are removed when the table is changed.
+	 * @param resultCache Cache of query results.
+	 */
+	final void addResultCache(final ResultCache resultCache) {
+		this.resultCaches.addIfAbsent(resultCache);
+	}
+
+	/**
+	 * Removes the cached query results which have read this table. The insert, update
+	 * and delete queries call it after each execution; it must be called after the
+	 * changes made by other means, such as a plain JDBC statement or a stored procedure.
+	 */
+	public final void invalidateResults() {
+		for (ResultCache resultCache : this.resultCaches)
+			resultCache.invalidate(this);
+	}
+
+	/**
+	 * Reads a record by its primary key. The record is searched in the session of the
+	 * current thread, if there is one, then in the entity cache of this table, if it
+	 * has one, and at last it is read by the passed loader. The read record is kept
+	 * by the session, so it is given back as the same instance until the session is closed.
+	 * @param key Key created by {@link EntityCache#key(Object...)}.
+	 * @param valueClass Class of the value object created by the loader.
+	 * @param loader Reads the record from the database.
+	 * @return Value object, or null if the record does not exist.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	public final <V> V readByKey(final Object key, final Class<V> valueClass, final EntityLoader<V> loader) throws SQLException {
+		final Session session = Session.current();
+		if (session != null) {
+			final V found = session.get(this, valueClass, key);
+			if (found != null)
+				return found;
+		}
+
+		final EntityCache<V> cache = getEntityCache();
+		final V loaded = (cache == null) ? loader.load() : cache.get(key, loader);
+		if ((session == null) || (loaded == null))
+			return loaded;
+		return session.put(this, valueClass, key, loaded);
+	}
+}
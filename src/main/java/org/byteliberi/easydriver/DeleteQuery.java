@@ -19,6 +19,7 @@
  */
 package org.byteliberi.easydriver;
 
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +36,7 @@ import org.byteliberi.easydriver.impl.FilteredQueryAPI;
  */
 public class DeleteQuery extends ExecutableQuery implements FilteredQueryAPI {
 	private final static Level LOG_LEVEL = Level.FINE;
+	private final static Logger LOGGER = Logger.getLogger(InsertQuery.class.getName());
 	private final static String DELETE_FROM = "DELETE FROM ";
 	
 	/**
@@ -67,8 +69,8 @@ public class DeleteQuery extends ExecutableQuery implements FilteredQueryAPI {
 		}
 		
 		final String query = sbQuery.toString();
-		final Logger logger = Logger.getLogger(InsertQuery.class.getName());
-		logger.log(LOG_LEVEL, query);
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, query);
 		return query;
 	}
 	
@@ -83,18 +85,32 @@ public class DeleteQuery extends ExecutableQuery implements FilteredQueryAPI {
 		return this.filteredQuery;
 	}
 
+	@Override
+	protected TableField<?>[] findParameterTypes() {
+		final List<TableField<?>> found = getFilteredQuery().findParameters();
+		return found.toArray(new TableField<?>[found.size()]);
+	}
+
+	@Override
+	protected Object findEntityKey() {
+		return getFilteredQuery().findKey(this.table, this.parameters, 1);
+	}
+
 	@Override
 	public void setWhere(TableField<?> field) {
 		getFilteredQuery().setWhere(field);
+		invalidateQueryString();
 	}
 
 	@Override
 	public void setWhere(ExpressionAPI exp) {
 		getFilteredQuery().setWhere(exp);
+		invalidateQueryString();
 	}
 
 	@Override
 	public void setWhere(ExpressionAPI[] exp) {
 		getFilteredQuery().setWhere(exp);
+		invalidateQueryString();
 	}	
 }
@@ -0,0 +1,345 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.byteliberi.easydriver.impl.CacheStatistics;
+
+/**
+ * This class keeps the value objects read by primary key, so the hot records
+ * are not read again from the database. A cache is set on a table by
+ * {@link DBTable#setEntityCache(EntityCache)}; the update and delete queries of
+ * that table remove the records that they change, or all the records when the
+ * changed ones can not be known from the <code>WHERE</code> clause. The records
+ * which are not found are not kept, so the inserts do not change the cache.<P>
+ * The cache is split into segments, each one with its own lock, so the threads
+ * which read different keys seldom wait for each other. Each segment keeps no more
+ * than its share of the max size, removing the least recently used record, and
+ * a record is removed when it is older than the time to live.<P>
+ * A write can be done while a record is being loaded: in such a case the loaded
+ * record is returned but it is not kept, as it could be older than the write.
+ * The writes made outside this library or by a {@link CompiledQuery} are not seen
+ * until the time to live expires, and neither are the writes of a transaction
+ * when the record is read again before the transaction ends: the cache can
+ * then keep a value which is later rolled back, or the value before the commit.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <V> Class of the value objects.
+ */
+public class EntityCache<V> {
+	/**
+	 * Default number of segments.
+	 */
+	public final static int DEFAULT_SEGMENTS = 16;
+
+	/**
+	 * Segments, their number is a power of two.
+	 */
+	private final Segment[] segments;
+
+	/**
+	 * Time to live of a record, in nanoseconds, 0 if the records do not expire.
+	 */
+	private final long ttlNanos;
+
+	/**
+	 * Hit, miss, eviction and load counters.
+	 */
+	private final CacheStatistics statistics = new CacheStatistics();
+
+	/**
+	 * Creates a new instance of this class, with {@link #DEFAULT_SEGMENTS} segments.
+	 * @param maxSize Max number of records.
+	 * @param ttlMillis Time to live of a record, in milliseconds, 0 if the records do not expire.
+	 */
+	public EntityCache(final int maxSize, final long ttlMillis) {
+		this(maxSize, ttlMillis, DEFAULT_SEGMENTS);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param maxSize Max number of records.
+	 * @param ttlMillis Time to live of a record, in milliseconds, 0 if the records do not expire.
+	 * @param concurrency Number of segments, it is rounded up to a power of two
+	 * and it is not greater than the max size.
+	 */
+	public EntityCache(final int maxSize, final long ttlMillis, final int concurrency) {
+		if ((maxSize < 1) || (concurrency < 1))
+			throw new IllegalArgumentException("The cache size and the concurrency must be greater than 0");
+		if (ttlMillis < 0)
+			throw new IllegalArgumentException("The time to live can not be negative");
+
+		int count = 1;
+		while ((count < concurrency) && (count < maxSize))
+			count <<= 1;
+
+		@SuppressWarnings("unchecked")
+		final Segment[] created = (Segment[]) new EntityCache<?>.Segment[count];
+		final int segmentSize = (maxSize + count - 1) / count;
+		for (int i = 0; i < count; i++)
+			created[i] = new Segment(segmentSize);
+		this.segments = created;
+		this.ttlNanos = ttlMillis * 1000000L;
+	}
+
+	/**
+	 * Creates the key of a record from the values of its primary key fields.
+	 * @param values Values of the primary key fields, in the order of the fields.
+	 * @return The value itself for a single field, otherwise a list of the values.
+	 */
+	public static Object key(final Object... values) {
+		if (values.length == 1)
+			return values[0];
+		else
+			return Arrays.asList(values.clone());
+	}
+
+	/**
+	 * Gets a record from the cache.
+	 * @param key Key created by {@link #key(Object...)}.
+	 * @return Value object, or null if it is not in the cache.
+	 */
+	public V get(final Object key) {
+		final V found = segmentFor(key).get(key, System.nanoTime());
+		if (found == null)
+			this.statistics.recordMiss();
+		else
+			this.statistics.recordHit();
+		return found;
+	}
+
+	/**
+	 * Gets a record from the cache or, if it is not there, it loads
+	 * it from the database and it puts it into the cache.
+	 * @param key Key created by {@link #key(Object...)}.
+	 * @param loader Reads the record from the database.
+	 * @return Value object, or null if the record does not exist.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	public V get(final Object key, final EntityLoader<? extends V> loader) throws SQLException {
+		final Segment segment = segmentFor(key);
+		final V found = segment.get(key, System.nanoTime());
+		if (found != null) {
+			this.statistics.recordHit();
+			return found;
+		}
+
+		this.statistics.recordMiss();
+		final long version = segment.getVersion();
+		final long start = System.nanoTime();
+		final V loaded = loader.load();
+		final long now = System.nanoTime();
+		this.statistics.recordLoad(now - start);
+		if (loaded != null)
+			segment.put(key, loaded, now, version);
+		return loaded;
+	}
+
+	/**
+	 * Puts a record into the cache.
+	 * @param key Key created by {@link #key(Object...)}.
+	 * @param value Value object.
+	 */
+	public void put(final Object key, final V value) {
+		if (value == null)
+			throw new IllegalArgumentException("The cache does not keep null values");
+
+		final Segment segment = segmentFor(key);
+		segment.put(key, value, System.nanoTime(), segment.getVersion());
+	}
+
+	/**
+	 * Removes a record from the cache.
+	 * @param key Key created by {@link #key(Object...)}.
+	 */
+	public void invalidate(final Object key) {
+		segmentFor(key).discard(key);
+	}
+
+	/**
+	 * Removes all the records from the cache.
+	 */
+	public void invalidateAll() {
+		for (Segment segment : this.segments)
+			segment.discardAll();
+	}
+
+	/**
+	 * Getter of the number of records.
+	 * @return Number of records which are kept, including the expired ones
+	 * which have not been removed yet.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : this.segments)
+			size += segment.count();
+		return size;
+	}
+
+	/**
+	 * Getter of the counters. The expired records which are removed are counted as evictions.
+	 * @return Hit, miss, eviction and load counters.
+	 */
+	public CacheStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Finds the segment of a key.
+	 * @param key Key of a record.
+	 * @return Segment which keeps the record.
+	 */
+	private Segment segmentFor(final Object key) {
+		final int hash = key.hashCode();
+		return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+	}
+
+	/**
+	 * Record kept by the cache.
+	 */
+	private static final class Entry<V> {
+		/**
+		 * Value object.
+		 */
+		final V value;
+
+		/**
+		 * Time when the record has been put into the cache, in nanoseconds.
+		 */
+		final long created;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param value Value object.
+		 * @param created Time when the record has been put into the cache.
+		 */
+		Entry(final V value, final long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+
+	/**
+	 * Part of the cache, with its own lock. The records are sorted
+	 * from the least recently used.
+	 */
+	private final class Segment extends LinkedHashMap<Object, Entry<V>> {
+		private static final long serialVersionUID = 7016520731880712094L;
+
+		/**
+		 * Max number of records of this segment.
+		 */
+		private final int maxSize;
+
+		/**
+		 * Number of removals, a record loaded before a removal is not kept.
+		 */
+		private long version = 0;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param maxSize Max number of records of this segment.
+		 */
+		Segment(final int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Object, Entry<V>> eldest) {
+			if (size() <= this.maxSize)
+				return false;
+
+			statistics.recordEviction();
+			return true;
+		}
+
+		/**
+		 * Gets a record which has not expired.
+		 * @param key Key of the record.
+		 * @param now Current time, in nanoseconds.
+		 * @return Value object, or null if it is not in this segment.
+		 */
+		synchronized V get(final Object key, final long now) {
+			final Entry<V> entry = super.get(key);
+			if (entry == null)
+				return null;
+
+			if ((ttlNanos > 0) && (now - entry.created >= ttlNanos)) {
+				super.remove(key);
+				statistics.recordEviction();
+				return null;
+			}
+			return entry.value;
+		}
+
+		/**
+		 * Puts a record, unless there has been a removal after it was read.
+		 * @param key Key of the record.
+		 * @param value Value object.
+		 * @param now Current time, in nanoseconds.
+		 * @param readVersion Version of this segment when the record was read.
+		 */
+		synchronized void put(final Object key, final V value, final long now, final long readVersion) {
+			if (readVersion == this.version)
+				super.put(key, new Entry<V>(value, now));
+		}
+
+		/**
+		 * Removes a record.
+		 * @param key Key of the record.
+		 */
+		synchronized void discard(final Object key) {
+			this.version++;
+			super.remove(key);
+		}
+
+		/**
+		 * Removes all the records.
+		 */
+		synchronized void discardAll() {
+			this.version++;
+			super.clear();
+		}
+
+		/**
+		 * Getter of the version.
+		 * @return Number of removals.
+		 */
+		synchronized long getVersion() {
+			return this.version;
+		}
+
+		/**
+		 * Getter of the number of records.
+		 * @return Number of records of this segment.
+		 */
+		synchronized int count() {
+			return super.size();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.SQLException;
+
+/**
+ * An <code>EntityLoader</code> reads a record from the database when it
+ * has not been found in an {@link EntityCache}.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <V> Class of the value object.
+ */
+public interface EntityLoader<V> {
+	/**
+	 * Reads the record.
+	 * @return Value object, or null if the record does not exist.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	public V load() throws SQLException;
+}
@@ -0,0 +1,42 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+/**
+ * A <code>GraphBinder</code> links an object read by a {@link GraphMapper}
+ * to the object of the table which it is joined to.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <P> Class of the parent object, which is read first.
+ * @param <C> Class of the joined object.
+ */
+public interface GraphBinder<P, C> {
+	/**
+	 * Links the joined object to its parent. It is called once for each pair of
+	 * objects: a to-one binder sets a property of the parent, while a to-many
+	 * binder adds the object to a collection of the parent.
+	 * @param parent Parent object.
+	 * @param child Joined object.
+	 */
+	public void bind(P parent, C child);
+}
@@ -0,0 +1,512 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.byteliberi.easydriver.impl.RelatedFields;
+import org.byteliberi.easydriver.impl.Relationship;
+import org.byteliberi.easydriver.join.Join;
+import org.byteliberi.easydriver.join.LeftJoin;
+
+/**
+ * This factory maps each record of a query with some joins into a graph of
+ * objects: the object of the main table and the objects of the joined tables,
+ * linked by some {@link GraphBinder}s.<P>
+ * Each table has its own <code>ObjectFactory</code>, which reads the fields of
+ * the table from the column 1, in the order of {@link DBTable#getFields()}, as the
+ * factories of the simple queries do: the mapper shows to each factory the columns
+ * of its table only, finding them in the select fields of the query.<P>
+ * The objects are kept by the primary key of their table, so the same record,
+ * repeated by a one to many join, gives back the same instance and each pair
+ * of objects is bound once; a joined table without a match, in a left join, gives
+ * no object. The tables without a primary key are not de-duplicated.<P>
+ * A relationship can be passed in both directions: for example a
+ * <code>ManyToOne</code> from the order lines to the orders can join the lines to
+ * the orders, or the orders to the lines. The same table can not be joined twice.
+ * This class is not thread safe, each instance should be used by a thread at a time.<P>
+ * For example:
+ * <pre>
+ * final GraphMapper&lt;Order&gt; mapper = new GraphMapper&lt;Order&gt;(orders, new OrderFactory())
+ *     .join(lineOrder, new LineFactory(), linesBinder)
+ *     .join(orderCustomer, new CustomerFactory(), customerBinder);
+ * final SelectQuery&lt;Order&gt; query = mapper.createQuery(con);
+ * query.setWhere(...);
+ * query.prepareQuery(con);
+ * final List&lt;Order&gt; result = mapper.getResultList(query);
+ * </pre>
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class of the objects of the main table.
+ */
+public class GraphMapper<T> implements ObjectFactory<T> {
+	/**
+	 * Key of a joined object which is not in the record.
+	 */
+	private final static Object ABSENT = new Object();
+
+	/**
+	 * Tables of the graph, the first one is the main table.
+	 */
+	private final List<Node> nodes = new ArrayList<Node>();
+
+	/**
+	 * It is true if the columns of the tables have been found.
+	 */
+	private boolean mapped = false;
+
+	/**
+	 * Result Set of the record mapped last: when another one arrives, a new execution
+	 * has started and the objects of the previous one are forgotten.
+	 */
+	private ResultSet current = null;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param table Main table.
+	 * @param factory Factory of the objects of the main table.
+	 */
+	public GraphMapper(final DBTable<?> table, final ObjectFactory<T> factory) {
+		this.nodes.add(new Node(table, factory, null, -1, null));
+	}
+
+	/**
+	 * Adds a joined table, which is related to a table already in the graph.
+	 * @param relationship Relationship between a table of the graph and the joined table,
+	 * in any direction.
+	 * @param factory Factory of the objects of the joined table.
+	 * @param binder Links each joined object to the object of the related table of the graph.
+	 * @return This mapper, so the calls can be chained.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public <P, C> GraphMapper<T> join(final Relationship<?> relationship,
+									  final ObjectFactory<C> factory,
+									  final GraphBinder<P, C> binder) {
+		final List<? extends RelatedFields<?>> relationFields = relationship.getRelationFields();
+		if (relationFields.isEmpty())
+			throw new IllegalArgumentException("The relationship has no fields");
+
+		final DBTable<?> localTable = relationFields.get(0).getField().getTable();
+		final DBTable<?> relatedTable = relationship.getRelatedTable();
+		final int localNode = indexOf(localTable);
+		final int relatedNode = indexOf(relatedTable);
+		if ((localNode >= 0) && (relatedNode < 0)) {
+			final Join<?> join = new LeftJoin(relationship);
+			this.nodes.add(new Node(relatedTable, factory, (GraphBinder<Object, Object>) binder, localNode, join));
+		}
+		else if ((relatedNode >= 0) && (localNode < 0)) {
+			final Join<?> join = new LeftJoin(new Reversed(localTable, relationFields));
+			this.nodes.add(new Node(localTable, factory, (GraphBinder<Object, Object>) binder, relatedNode, join));
+		}
+		else
+			throw new IllegalArgumentException("The relationship must link a table of the graph to a new table");
+
+		this.mapped = false;
+		return this;
+	}
+
+	/**
+	 * Creates a query which reads all the fields of the tables of the graph,
+	 * joined by left joins, and whose factory is this mapper. Its
+	 * <code>getResultList</code> method gives back the distinct objects of the
+	 * main table, as {@link #getResultList(SelectQuery)} does.
+	 * @param con Database connection.
+	 * @return Select query, the <code>WHERE</code> and <code>ORDER BY</code>
+	 * sections can be added before it is prepared.
+	 */
+	public SelectQuery<T> createQuery(final Connection con) {
+		final Join<?>[] joins = new Join<?>[this.nodes.size() - 1];
+		for (int i = 1; i < this.nodes.size(); i++)
+			joins[i - 1] = this.nodes.get(i).join;
+		return new GraphQuery(con, findFields(), new DBTable<?>[] { this.nodes.get(0).table }, joins);
+	}
+
+	/**
+	 * Lists all the fields of the tables of the graph.
+	 * @return Fields of the tables, in the order in which the tables have been added.
+	 */
+	private TableField<?>[] findFields() {
+		final List<TableField<?>> fields = new ArrayList<TableField<?>>();
+		for (Node node : this.nodes)
+			fields.addAll(Arrays.asList(node.table.getFields()));
+		return fields.toArray(new TableField<?>[fields.size()]);
+	}
+
+	/**
+	 * Executes a query, whose factory is this mapper, and returns the objects of the
+	 * main table, each one once and linked to its joined objects.
+	 * @param query Select query, which reads the fields of the tables of the graph.
+	 * @return Distinct objects of the main table, in the order of their first record.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	public synchronized List<T> getResultList(final SelectQuery<T> query) throws SQLException {
+		if (query instanceof GraphMapper.GraphQuery)
+			return query.getResultList();
+
+		mapColumns(query.getSelectFields());
+		try {
+			return distinct(query.getResultList());
+		}
+		finally {
+			clear();
+		}
+	}
+
+	/**
+	 * Removes the repeated objects of the main table.
+	 * @param rows Object of the main table of each record.
+	 * @return Distinct objects, in the order of their first record.
+	 */
+	private List<T> distinct(final List<T> rows) {
+		final Set<T> found = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+		final List<T> result = new ArrayList<T>();
+		for (T row : rows)
+			if (found.add(row))
+				result.add(row);
+		return result;
+	}
+
+	/**
+	 * Maps a record, creating the objects which have not been found yet
+	 * and linking them to their parents.
+	 * @param rs Result Set, positioned on the record.
+	 * @return Object of the main table.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public synchronized T map(final ResultSet rs) throws SQLException {
+		if (!this.mapped)
+			mapColumns(findFields());
+		if (rs != this.current) {
+			clear();
+			this.current = rs;
+		}
+
+		final int nodeLen = this.nodes.size();
+		final Object[] objects = new Object[nodeLen];
+		for (int i = 0; i < nodeLen; i++) {
+			final Node node = this.nodes.get(i);
+			if ((i > 0) && (objects[node.parent] == null))
+				continue;
+
+			final Object key = node.readKey(rs);
+			if (key == ABSENT)
+				continue;
+
+			Object object = (key == null) ? null : node.identities.get(key);
+			if (object == null) {
+				node.view.setResultSet(rs);
+				object = node.factory.map(node.view);
+				if (key != null)
+					node.identities.put(key, object);
+			}
+			objects[i] = object;
+
+			if ((i > 0) && node.bind(objects[node.parent], object))
+				node.binder.bind(objects[node.parent], object);
+		}
+		return (T) objects[0];
+	}
+
+	/**
+	 * Removes the objects kept by the primary key, so the next execution
+	 * creates new instances. It is also done when the records of another
+	 * execution start arriving.
+	 */
+	public synchronized void clear() {
+		for (Node node : this.nodes)
+			node.clear();
+		this.current = null;
+	}
+
+	/**
+	 * Finds the columns of each table in the select fields of a query.
+	 * @param selectFields Fields that appear in the select part of the query.
+	 */
+	private void mapColumns(final TableField<?>[] selectFields) {
+		for (Node node : this.nodes)
+			node.mapColumns(selectFields);
+		this.mapped = true;
+	}
+
+	/**
+	 * Finds a table in the graph.
+	 * @param table Table.
+	 * @return Index of the table, or -1 if it is not in the graph.
+	 */
+	private int indexOf(final DBTable<?> table) {
+		for (int i = 0; i < this.nodes.size(); i++)
+			if (this.nodes.get(i).table == table)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Finds the 1 based position of a field in the select fields.
+	 * @param selectFields Fields that appear in the select part of the query.
+	 * @param field Field.
+	 * @return 1 based position, or 0 if the field is not selected.
+	 */
+	private static int positionOf(final TableField<?>[] selectFields, final TableField<?> field) {
+		for (int i = 0; i < selectFields.length; i++)
+			if (selectFields[i] == field)
+				return i + 1;
+		return 0;
+	}
+
+	/**
+	 * Query created by {@link GraphMapper#createQuery(Connection)}, whose list of
+	 * results has each object of the main table once.
+	 */
+	private final class GraphQuery extends SelectQuery<T> {
+		/**
+		 * Creates a new instance of this class.
+		 * @param con Database connection.
+		 * @param selectFields Fields of all the tables of the graph.
+		 * @param tables Main table.
+		 * @param joins Joins of the other tables.
+		 */
+		GraphQuery(final Connection con, final TableField<?>[] selectFields,
+				   final DBTable<?>[] tables, final Join<?>[] joins) {
+			super(con, selectFields, tables, joins, null, null, GraphMapper.this);
+		}
+
+		@Override
+		public List<T> getResultList() throws SQLException {
+			synchronized (GraphMapper.this) {
+				mapColumns(getSelectFields());
+				try {
+					return distinct(super.getResultList());
+				}
+				finally {
+					GraphMapper.this.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Table of the graph.
+	 */
+	private static final class Node {
+		/**
+		 * Table.
+		 */
+		final DBTable<?> table;
+
+		/**
+		 * Factory of the objects of the table.
+		 */
+		final ObjectFactory<?> factory;
+
+		/**
+		 * Links the objects to their parents, null for the main table.
+		 */
+		final GraphBinder<Object, Object> binder;
+
+		/**
+		 * Index of the parent table, -1 for the main table.
+		 */
+		final int parent;
+
+		/**
+		 * Join from the parent table, null for the main table.
+		 */
+		final Join<?> join;
+
+		/**
+		 * Objects kept by their primary key.
+		 */
+		final Map<Object, Object> identities = new HashMap<Object, Object>();
+
+		/**
+		 * Children bound to each parent.
+		 */
+		final Map<Object, Set<Object>> bound = new IdentityHashMap<Object, Set<Object>>();
+
+		/**
+		 * Columns of the table, shown to the factory.
+		 */
+		ColumnMapResultSet view = null;
+
+		/**
+		 * Columns of the primary key, empty if the table has no primary key.
+		 */
+		int[] keyColumns = new int[0];
+
+		/**
+		 * Columns of all the fields of the table.
+		 */
+		int[] columns = new int[0];
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param table Table.
+		 * @param factory Factory of the objects of the table.
+		 * @param binder Links the objects to their parents.
+		 * @param parent Index of the parent table.
+		 * @param join Join from the parent table.
+		 */
+		Node(final DBTable<?> table, final ObjectFactory<?> factory, final GraphBinder<Object, Object> binder,
+			 final int parent, final Join<?> join) {
+			this.table = table;
+			this.factory = factory;
+			this.binder = binder;
+			this.parent = parent;
+			this.join = join;
+		}
+
+		/**
+		 * Finds the columns of the table in the select fields.
+		 * @param selectFields Fields that appear in the select part of the query.
+		 */
+		void mapColumns(final TableField<?>[] selectFields) {
+			final TableField<?>[] fields = this.table.getFields();
+			this.columns = new int[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				this.columns[i] = positionOf(selectFields, fields[i]);
+				if (this.columns[i] == 0)
+					throw new IllegalArgumentException("The field " + fields[i].getCompleteName() + " is not selected");
+			}
+			this.view = new ColumnMapResultSet(this.columns);
+
+			final PrimaryKey<?> primaryKey = this.table.getPrimaryKey();
+			final TableField<?>[] keyFields = (primaryKey == null) ? null : primaryKey.getFields();
+			if (keyFields == null)
+				this.keyColumns = new int[0];
+			else {
+				this.keyColumns = new int[keyFields.length];
+				for (int i = 0; i < keyFields.length; i++)
+					this.keyColumns[i] = positionOf(selectFields, keyFields[i]);
+			}
+		}
+
+		/**
+		 * Reads the primary key of the current record.
+		 * @param rs Result Set.
+		 * @return Key, {@link GraphMapper#ABSENT} if the columns are null, that is there
+		 * is no joined record, or null if the table has no primary key.
+		 * @throws SQLException A problem occurred with the database.
+		 */
+		Object readKey(final ResultSet rs) throws SQLException {
+			if (this.keyColumns.length == 0) {
+				if (this.parent >= 0) {
+					for (int column : this.columns)
+						if (rs.getObject(column) != null)
+							return null;
+					return ABSENT;
+				}
+				return null;
+			}
+
+			final Object[] values = new Object[this.keyColumns.length];
+			boolean allNull = true;
+			for (int i = 0; i < values.length; i++) {
+				values[i] = rs.getObject(this.keyColumns[i]);
+				allNull &= (values[i] == null);
+			}
+			if (allNull)
+				return ABSENT;
+			return (values.length == 1) ? values[0] : Arrays.asList(values);
+		}
+
+		/**
+		 * Records that a child has been bound to a parent.
+		 * @param parentObject Parent object.
+		 * @param child Child object.
+		 * @return true if the pair has not been bound yet.
+		 */
+		boolean bind(final Object parentObject, final Object child) {
+			Set<Object> children = this.bound.get(parentObject);
+			if (children == null) {
+				children = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+				this.bound.put(parentObject, children);
+			}
+			return children.add(child);
+		}
+
+		/**
+		 * Removes the objects kept by the primary key and the bound pairs.
+		 */
+		void clear() {
+			this.identities.clear();
+			this.bound.clear();
+		}
+	}
+
+	/**
+	 * Relationship used in the opposite direction, so the table which holds
+	 * the fields of a relationship is joined to its related table.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final class Reversed implements Relationship {
+		/**
+		 * Table which is joined.
+		 */
+		private final DBTable<?> joinedTable;
+
+		/**
+		 * Fields of the relationship, with the sides swapped.
+		 */
+		private final List<RelatedFields<?>> relationFields = new ArrayList<RelatedFields<?>>();
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param joinedTable Table which holds the fields of the original relationship.
+		 * @param originalFields Fields of the original relationship.
+		 */
+		@SuppressWarnings("unchecked")
+		Reversed(final DBTable<?> joinedTable, final List<? extends RelatedFields<?>> originalFields) {
+			this.joinedTable = joinedTable;
+			for (RelatedFields<?> fields : originalFields)
+				this.relationFields.add(new RelatedFields(fields.getRelatedField(), fields.getField()));
+		}
+
+		@Override
+		public DBTable getRelatedTable() {
+			return this.joinedTable;
+		}
+
+		@Override
+		public List getRelationFields() {
+			return this.relationFields;
+		}
+
+		@Override
+		public String getAlias() {
+			return null;
+		}
+	}
+}
@@ -19,12 +19,23 @@
  */
 package org.byteliberi.easydriver;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.byteliberi.easydriver.impl.ExecutableQuery;
+import org.byteliberi.easydriver.impl.QueryExecution;
 
 /**
- * This class contains a query which inserts a record in a table.
+ * This class contains a query which inserts a record in a table.<P>
+ * In the multi row mode, the query inserts many records with a single
+ * <code>INSERT ... VALUES (...),(...)</code> statement: the parameters of
+ * each record are added, then {@link #addRow()} is called. When the statement
+ * is full, it is executed; the remaining records are sent by {@link #executeRows()}
+ * using smaller statements, whose number of records is a power of two,
+ * so only a few different query strings are prepared and cached.
  * 
  * @author Paolo Proni
  * @since 1.0
@@ -32,13 +43,40 @@ import org.byteliberi.easydriver.impl.ExecutableQuery;
  */
 public class InsertQuery extends ExecutableQuery {
         private final static Level LOG_LEVEL = Level.FINE;
+	private final static Logger LOGGER = Logger.getLogger(InsertQuery.class.getName());
 	private final static String INSERT = "INSERT INTO ";
 	private final static String VALUES = " VALUES ";
+
+	/**
+	 * Max number of parameters of a PostgreSQL statement.
+	 */
+	public final static int MAX_PARAMETERS = 65535;
 	
 	/**
 	 * Fields which appears in the select part of the query
 	 */
 	protected TableField<?>[] fields = null;	
+
+	/**
+	 * Number of records inserted by a full statement.
+	 */
+	private final int rowsPerStatement;
+
+	/**
+	 * Query strings of the smaller statements, the one at index <code>k</code>
+	 * inserts <code>2^k</code> records.
+	 */
+	private final String[] chunkQueryStrings;
+
+	/**
+	 * Number of records whose parameters have been added and which have not been sent yet.
+	 */
+	private int pendingRows = 0;
+
+	/**
+	 * Number of records inserted since the last call to {@link #executeRows()}.
+	 */
+	private int rowsUpdateCount = 0;
 	
 	/**
 	 * Creates a new instance of this class 
@@ -48,28 +86,256 @@ public class InsertQuery extends ExecutableQuery {
 	 * to be inserted.
 	 */
 	public InsertQuery(final TableField<?>[] selectFields, final DBTable<?> table) {
+		this(selectFields, table, 1);
+	}
+
+	/**
+	 * Creates a new instance of this class, which inserts many records with a single statement.
+	 * 
+	 * @param selectFields Fields which appears in the select part of the query
+	 * @param table This is the table where the newly created records are going
+	 * to be inserted.
+	 * @param rowsPerStatement Number of records inserted by a full statement, it is
+	 * reduced so that the statement has no more than {@link #MAX_PARAMETERS} parameters.
+	 */
+	public InsertQuery(final TableField<?>[] selectFields, final DBTable<?> table, final int rowsPerStatement) {
+		if (rowsPerStatement < 1)
+			throw new IllegalArgumentException("The number of rows per statement must be greater than 0");
+
 		this.table = table;
 		this.fields = selectFields;
+		this.rowsPerStatement = Math.min(rowsPerStatement, MAX_PARAMETERS / Math.max(1, selectFields.length));
+		this.chunkQueryStrings = new String[32 - Integer.numberOfLeadingZeros(this.rowsPerStatement)];
 	}
 	
 	@Override
 	protected String createQueryString() {
-		final StringBuilder sbQuery = new StringBuilder(100);
+		return createQueryString(this.rowsPerStatement);
+	}
+
+	/**
+	 * Creates the query string of a statement.
+	 * @param rows Number of records inserted by the statement.
+	 * @return Query string.
+	 */
+	private String createQueryString(final int rows) {
+		final int fieldLen = this.fields.length;
+		final StringBuilder sbQuery = new StringBuilder(100 + rows * fieldLen * 2);
 		sbQuery.append(INSERT).append(this.table.getCompleteName()).append(" (");
 		for (TableField<?> tableField : fields)
 			sbQuery.append(tableField.getName()).append(',');
 
 		sbQuery.deleteCharAt(sbQuery.length() - 1);
-		sbQuery.append(')').append(VALUES).append('(');
-		final int fieldLen = this.fields.length;
-		for (int i = 0; i < fieldLen; i++)			
-			sbQuery.append("?,");
+		sbQuery.append(')').append(VALUES);
+		for (int row = 0; row < rows; row++) {
+			sbQuery.append('(');
+			for (int i = 0; i < fieldLen; i++)			
+				sbQuery.append("?,");
+			sbQuery.deleteCharAt(sbQuery.length() - 1);
+			sbQuery.append("),");
+		}
 		sbQuery.deleteCharAt(sbQuery.length() - 1);
-		sbQuery.append(')');
 		
 		final String query = sbQuery.toString();
-		final Logger logger = Logger.getLogger(InsertQuery.class.getName());
-		logger.log(LOG_LEVEL, query);
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, query);
 		return query;
 	}
+	
+	@Override
+	protected TableField<?>[] findParameterTypes() {
+		final int fieldLen = this.fields.length;
+		final TableField<?>[] types = new TableField<?>[fieldLen * this.rowsPerStatement];
+		for (int row = 0; row < this.rowsPerStatement; row++)
+			System.arraycopy(this.fields, 0, types, row * fieldLen, fieldLen);
+		return types;
+	}
+
+	/**
+	 * Ends the record whose parameters have been added. When the statement is
+	 * full, it is executed and the parameters of the next record are added
+	 * to an empty statement. If the execution fails, the records which have not
+	 * been inserted are discarded, as by {@link #executeRows()}.
+	 * @throws SQLException A problem occurred in the query or in the database,
+	 * or the number of added parameters is not the number of fields.
+	 */
+	public synchronized void addRow() throws SQLException {
+		final int fieldLen = this.fields.length;
+		final int expected = (this.pendingRows + 1) * fieldLen;
+		if (this.parameters.size() != expected)
+			throw new SQLException("The row has " + (this.parameters.size() - this.pendingRows * fieldLen) +
+								   " parameters, while " + fieldLen + " were expected.");
+
+		if (++this.pendingRows == this.rowsPerStatement) {
+			try {
+				this.rowsUpdateCount += executeUpdate();
+			}
+			catch (SQLException ex) {
+				this.rowsUpdateCount = 0;
+				throw ex;
+			}
+			finally {
+				this.parameters.clear();
+				this.pendingRows = 0;
+			}
+		}
+	}
+
+	/**
+	 * Sends to the database the records which have not been inserted yet.
+	 * They are split into statements whose number of records is a power of two,
+	 * from the largest one. If a statement fails, all the records which have not
+	 * been inserted are discarded, together with the count of the inserted ones,
+	 * so the query can be filled again; the records inserted by the previous
+	 * statements are kept, unless the transaction is rolled back.
+	 * @return Number of records inserted by all the rows added since the last
+	 * call to this method, including the ones inserted because the statement was full.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	public synchronized int executeRows() throws SQLException {
+		if (this.parameters.size() != this.pendingRows * this.fields.length)
+			throw new SQLException("The parameters of the last row have been added without calling addRow().");
+
+		final Connection con = getPreparedConnection();
+		int firstIndex = 1;
+		int remaining = this.pendingRows;
+		boolean completed = false;
+		try {
+			while (remaining > 0) {
+				final int level = 31 - Integer.numberOfLeadingZeros(remaining);
+				final int rows = 1 << level;
+				final int count = rows * this.fields.length;
+
+				String sql = this.chunkQueryStrings[level];
+				if (sql == null) {
+					sql = createQueryString(rows);
+					this.chunkQueryStrings[level] = sql;
+				}
+				try {
+					this.rowsUpdateCount += executeChunk(con, sql, firstIndex, count);
+				}
+				finally {
+					invalidateResults();
+				}
+				firstIndex += count;
+				remaining -= rows;
+			}
+			completed = true;
+		}
+		finally {
+			this.parameters.clear();
+			this.pendingRows = 0;
+			if (!completed)
+				this.rowsUpdateCount = 0;
+		}
+
+		final int total = this.rowsUpdateCount;
+		this.rowsUpdateCount = 0;
+		return total;
+	}
+
+	/**
+	 * Executes a smaller statement, filled with a range of the added parameters.
+	 * If the database has discarded its plan and no transaction is open,
+	 * the statement is prepared again and executed once more.
+	 * If the query has a listener, each statement is measured as an execution.
+	 * @param con Database connection.
+	 * @param sql Query string of the statement.
+	 * @param firstIndex 1 based index of the first parameter value.
+	 * @param count Number of parameter values.
+	 * @return Number of inserted records.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	private int executeChunk(final Connection con, final String sql, final int firstIndex, final int count) throws SQLException {
+		final QueryListener listener = getQueryListener();
+		final long start = (listener == null) ? 0 : System.nanoTime();
+		PreparedStatement chunk = prepareStatement(con, sql);
+		QueryExecution execution = null;
+		boolean completed = false;
+		try {
+			if (listener != null)
+				execution = new QueryExecution(listener, sql, System.nanoTime() - start,
+											   this.parameters.copy(firstIndex, count));
+			this.parameters.apply(chunk, firstIndex, count);
+			int inserted;
+			try {
+				inserted = chunk.executeUpdate();
+			}
+			catch (SQLException ex) {
+				if (!StatementCache.isStalePlan(ex) || !con.getAutoCommit())
+					throw ex;
+
+				// the plan has been discarded by the database
+				final PreparedStatement stale = chunk;
+				chunk = null;
+				stale.close();
+				chunk = prepareStatement(con, sql);
+				this.parameters.apply(chunk, firstIndex, count);
+				inserted = chunk.executeUpdate();
+			}
+			if (execution != null) {
+				execution.executed();
+				execution.setRowCount(inserted);
+			}
+			completed = true;
+			return inserted;
+		}
+		finally {
+			try {
+				if (chunk != null)
+					releaseStatement(con, sql, chunk);
+			}
+			finally {
+				if (execution != null)
+					execution.finish(completed);
+			}
+		}
+	}
+
+	/**
+	 * Executes the insert. In the multi row mode, it is the same as {@link #executeRows()}.
+	 * @return Number of inserted records.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	@Override
+	public int execute() throws SQLException {
+		if (this.rowsPerStatement > 1)
+			return executeRows();
+		else
+			return super.execute();
+	}
+
+	/**
+	 * Executes the insert on a connection of the connection executor.
+	 * It is not allowed in the multi row mode.
+	 * @return Future which is completed by the number of inserted records.
+	 * @throws IllegalStateException The query has no connection executor or
+	 * it inserts more than one record at a time.
+	 */
+	@Override
+	public synchronized CompletableFuture<Integer> executeAsync() {
+		if (this.rowsPerStatement > 1)
+			throw new IllegalStateException("The multi row inserts can not be executed asynchronously");
+
+		return super.executeAsync();
+	}
+
+	/**
+	 * The entity cache and the session do not keep the records which are not found,
+	 * so an insert can not make them stale.
+	 * @return Always false.
+	 */
+	@Override
+	protected boolean canChangeEntities() {
+		return false;
+	}
+
+	/**
+	 * Getter of the number of records inserted by a full statement.
+	 * @return Number of records inserted by a full statement, 1 if this query
+	 * is not in the multi row mode.
+	 */
+	public final int getRowsPerStatement() {
+		return this.rowsPerStatement;
+	}
 }
@@ -0,0 +1,43 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * A <code>QueryListener</code> is notified by the queries each time they
+ * have been executed, with the time taken by each phase of the execution.
+ * The listener of a query is set by {@link org.byteliberi.easydriver.impl.Query#setQueryListener(QueryListener)}
+ * or, for all the queries, by {@link org.byteliberi.easydriver.impl.Query#setDefaultQueryListener(QueryListener)}.<P>
+ * The listener is called by the thread which has executed the query, so it
+ * must be quick and thread safe; {@link QueryMetrics} is a listener which
+ * aggregates the executions by query string.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public interface QueryListener {
+	/**
+	 * Receives an execution which has completed, successfully or not.
+	 * @param execution Times and counters of the execution.
+	 */
+	public void executed(QueryExecution execution);
+}
@@ -0,0 +1,300 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.byteliberi.easydriver.impl.LogHistogram;
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * This listener aggregates the executions of the queries by query string,
+ * which is the shape of the query, as the parameter values are not part of it.
+ * For each query string, it keeps a histogram of the prepare time, of the
+ * execute time, of the time to the first record, of the mapping time, of
+ * the total time, of the number of rows and of the allocated memory.<P>
+ * The histograms are updated without any lock, so the listener can be left
+ * on in production. In order to bound the memory, no more than a fixed number
+ * of query strings are kept: the executions of the other ones are aggregated
+ * under {@link #OTHER_QUERIES}.<P>
+ * The statistics are read by {@link #getStatistics()} or by JMX, after
+ * {@link #registerMBean(String)}:
+ * <pre>
+ * final QueryMetrics metrics = new QueryMetrics();
+ * metrics.registerMBean("orders");
+ * Query.setDefaultQueryListener(metrics);
+ * </pre>
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class QueryMetrics implements QueryListener, QueryMetricsMXBean {
+	/**
+	 * Default number of query strings which are kept.
+	 */
+	public final static int DEFAULT_MAX_SHAPES = 1000;
+
+	/**
+	 * Key of the executions whose query string has not been kept.
+	 */
+	public final static String OTHER_QUERIES = "(other queries)";
+
+	/**
+	 * Domain and type of the JMX object names.
+	 */
+	private final static String OBJECT_NAME_PREFIX = "org.byteliberi.easydriver:type=QueryMetrics,name=";
+
+	/**
+	 * Max number of query strings which are kept.
+	 */
+	private final int maxShapes;
+
+	/**
+	 * Measures of each query string.
+	 */
+	private final ConcurrentMap<String, ShapeMetrics> shapes = new ConcurrentHashMap<String, ShapeMetrics>();
+
+	/**
+	 * Name by which this object has been registered to JMX, it is null
+	 * when it is not registered.
+	 */
+	private ObjectName objectName = null;
+
+	/**
+	 * Creates a new instance of this class, which keeps
+	 * {@link #DEFAULT_MAX_SHAPES} query strings.
+	 */
+	public QueryMetrics() {
+		this(DEFAULT_MAX_SHAPES);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param maxShapes Max number of query strings which are kept.
+	 */
+	public QueryMetrics(final int maxShapes) {
+		if (maxShapes < 1)
+			throw new IllegalArgumentException("The number of query strings must be greater than 0");
+
+		this.maxShapes = maxShapes;
+	}
+
+	@Override
+	public void executed(final QueryExecution execution) {
+		getShape(execution.getSql()).record(execution);
+	}
+
+	/**
+	 * Finds the measures of a query string, creating them if they do not exist.
+	 * @param sql Query string.
+	 * @return Measures of the query string, or of {@link #OTHER_QUERIES}
+	 * if there are already too many query strings.
+	 */
+	private ShapeMetrics getShape(final String sql) {
+		final String key = (sql == null) ? OTHER_QUERIES : sql;
+		ShapeMetrics shape = this.shapes.get(key);
+		if (shape != null)
+			return shape;
+
+		final String kept = (this.shapes.size() < this.maxShapes) ? key : OTHER_QUERIES;
+		shape = new ShapeMetrics();
+		final ShapeMetrics previous = this.shapes.putIfAbsent(kept, shape);
+		return (previous == null) ? shape : previous;
+	}
+
+	@Override
+	public int getShapeCount() {
+		return this.shapes.size();
+	}
+
+	@Override
+	public long getExecutionCount() {
+		long count = 0;
+		for (ShapeMetrics shape : this.shapes.values())
+			count += shape.totalTime.getCount();
+		return count;
+	}
+
+	@Override
+	public long getFailureCount() {
+		long count = 0;
+		for (ShapeMetrics shape : this.shapes.values())
+			count += shape.failures.get();
+		return count;
+	}
+
+	@Override
+	public List<QueryStatistics> getStatistics() {
+		final List<QueryStatistics> result = new ArrayList<QueryStatistics>(this.shapes.size());
+		for (ConcurrentMap.Entry<String, ShapeMetrics> entry : this.shapes.entrySet())
+			result.add(entry.getValue().snapshot(entry.getKey()));
+
+		Collections.sort(result, new Comparator<QueryStatistics>() {
+			@Override
+			public int compare(final QueryStatistics first, final QueryStatistics second) {
+				final long firstTotal = first.getTotalTime().getTotal();
+				final long secondTotal = second.getTotalTime().getTotal();
+				return (firstTotal > secondTotal) ? -1 : ((firstTotal == secondTotal) ? 0 : 1);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Getter of the statistics of a query string.
+	 * @param sql Query string.
+	 * @return Statistics, or null if the query string has not been executed.
+	 */
+	public QueryStatistics getStatistics(final String sql) {
+		final ShapeMetrics shape = this.shapes.get(sql);
+		return (shape == null) ? null : shape.snapshot(sql);
+	}
+
+	@Override
+	public void reset() {
+		this.shapes.clear();
+	}
+
+	/**
+	 * Registers this object to the platform MBean server, so the statistics can
+	 * be read by a JMX console.
+	 * @param name Name which distinguishes this object from the other ones,
+	 * it becomes the <code>name</code> key of the object name.
+	 * @throws JMException The name is not valid or it is already registered.
+	 */
+	public synchronized void registerMBean(final String name) throws JMException {
+		if (this.objectName != null)
+			throw new IllegalStateException("The metrics are already registered as " + this.objectName);
+
+		final ObjectName registered = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+		this.objectName = registered;
+	}
+
+	/**
+	 * Removes this object from the platform MBean server, if it has been registered.
+	 * @throws JMException A problem occurred with the MBean server.
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (this.objectName == null)
+			return;
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		if (server.isRegistered(this.objectName))
+			server.unregisterMBean(this.objectName);
+		this.objectName = null;
+	}
+
+	@Override
+	public String toString() {
+		return "shapes=" + getShapeCount() + ", executions=" + getExecutionCount() +
+			   ", failures=" + getFailureCount();
+	}
+
+	/**
+	 * Histograms of the executions of a single query string.
+	 */
+	private static final class ShapeMetrics {
+		/**
+		 * Number of failed executions.
+		 */
+		private final AtomicLong failures = new AtomicLong(0);
+
+		/**
+		 * Time taken to prepare the statement.
+		 */
+		private final LogHistogram prepareTime = new LogHistogram();
+
+		/**
+		 * Time taken by the database to execute the statement.
+		 */
+		private final LogHistogram executeTime = new LogHistogram();
+
+		/**
+		 * Time between the start of the execution and the first record.
+		 */
+		private final LogHistogram firstRowTime = new LogHistogram();
+
+		/**
+		 * Time spent mapping the records.
+		 */
+		private final LogHistogram mappingTime = new LogHistogram();
+
+		/**
+		 * Total time of each execution.
+		 */
+		private final LogHistogram totalTime = new LogHistogram();
+
+		/**
+		 * Number of read or affected rows.
+		 */
+		private final LogHistogram rowCount = new LogHistogram();
+
+		/**
+		 * Bytes allocated by each execution.
+		 */
+		private final LogHistogram allocatedBytes = new LogHistogram();
+
+		/**
+		 * Records an execution.
+		 * @param execution Measures of the execution.
+		 */
+		private void record(final QueryExecution execution) {
+			if (execution.isFailed())
+				this.failures.incrementAndGet();
+			if (execution.getPrepareTime() > 0)
+				this.prepareTime.record(execution.getPrepareTime());
+			this.executeTime.record(execution.getExecuteTime());
+			if (execution.getFirstRowTime() >= 0)
+				this.firstRowTime.record(execution.getFirstRowTime());
+			this.mappingTime.record(execution.getMappingTime());
+			this.rowCount.record(execution.getRowCount());
+			if (execution.getAllocatedBytes() >= 0)
+				this.allocatedBytes.record(execution.getAllocatedBytes());
+			// the total time is the last one, as it gives the number of executions
+			this.totalTime.record(execution.getTotalTime());
+		}
+
+		/**
+		 * Copies the histograms.
+		 * @param sql Query string.
+		 * @return Statistics of the query string.
+		 */
+		private QueryStatistics snapshot(final String sql) {
+			return new QueryStatistics(sql, this.failures.get(),
+					this.prepareTime.snapshot(), this.executeTime.snapshot(),
+					this.firstRowTime.snapshot(), this.mappingTime.snapshot(),
+					this.totalTime.snapshot(), this.rowCount.snapshot(),
+					this.allocatedBytes.snapshot());
+		}
+	}
+}
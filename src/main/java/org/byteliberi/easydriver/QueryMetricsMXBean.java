@@ -0,0 +1,61 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link QueryMetrics}, which is exported to JMX
+ * by {@link QueryMetrics#registerMBean(String)}.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public interface QueryMetricsMXBean {
+	/**
+	 * Getter of the number of query strings which have been measured.
+	 * @return Number of query shapes.
+	 */
+	public int getShapeCount();
+
+	/**
+	 * Getter of the number of executions of all the queries.
+	 * @return Number of executions.
+	 */
+	public long getExecutionCount();
+
+	/**
+	 * Getter of the number of failed executions of all the queries.
+	 * @return Number of executions which have thrown an exception.
+	 */
+	public long getFailureCount();
+
+	/**
+	 * Getter of the statistics of each query string.
+	 * @return Statistics, the queries which have taken more time come first.
+	 */
+	public List<QueryStatistics> getStatistics();
+
+	/**
+	 * Removes all the statistics.
+	 */
+	public void reset();
+}
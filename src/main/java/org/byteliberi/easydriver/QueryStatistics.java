@@ -0,0 +1,195 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import org.byteliberi.easydriver.impl.LogHistogram;
+
+/**
+ * Immutable copy of the measures taken on the executions of a query string,
+ * created by {@link QueryMetrics#getStatistics()}. All the times are in nanoseconds.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class QueryStatistics {
+	/**
+	 * Query string.
+	 */
+	private final String sql;
+
+	/**
+	 * Number of failed executions.
+	 */
+	private final long failureCount;
+
+	/**
+	 * Time taken to prepare the statement, only when it has not been reused.
+	 */
+	private final LogHistogram.Snapshot prepareTime;
+
+	/**
+	 * Time taken by the database to execute the statement.
+	 */
+	private final LogHistogram.Snapshot executeTime;
+
+	/**
+	 * Time between the start of the execution and the first record.
+	 */
+	private final LogHistogram.Snapshot firstRowTime;
+
+	/**
+	 * Time spent mapping the records.
+	 */
+	private final LogHistogram.Snapshot mappingTime;
+
+	/**
+	 * Total time of each execution.
+	 */
+	private final LogHistogram.Snapshot totalTime;
+
+	/**
+	 * Number of read or affected rows.
+	 */
+	private final LogHistogram.Snapshot rowCount;
+
+	/**
+	 * Bytes allocated by each execution.
+	 */
+	private final LogHistogram.Snapshot allocatedBytes;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param sql Query string.
+	 * @param failureCount Number of failed executions.
+	 * @param prepareTime Time taken to prepare the statement.
+	 * @param executeTime Time taken by the database to execute the statement.
+	 * @param firstRowTime Time between the start of the execution and the first record.
+	 * @param mappingTime Time spent mapping the records.
+	 * @param totalTime Total time of each execution.
+	 * @param rowCount Number of read or affected rows.
+	 * @param allocatedBytes Bytes allocated by each execution.
+	 */
+	public QueryStatistics(final String sql, final long failureCount,
+						   final LogHistogram.Snapshot prepareTime, final LogHistogram.Snapshot executeTime,
+						   final LogHistogram.Snapshot firstRowTime, final LogHistogram.Snapshot mappingTime,
+						   final LogHistogram.Snapshot totalTime, final LogHistogram.Snapshot rowCount,
+						   final LogHistogram.Snapshot allocatedBytes) {
+		this.sql = sql;
+		this.failureCount = failureCount;
+		this.prepareTime = prepareTime;
+		this.executeTime = executeTime;
+		this.firstRowTime = firstRowTime;
+		this.mappingTime = mappingTime;
+		this.totalTime = totalTime;
+		this.rowCount = rowCount;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Getter of the query string.
+	 * @return Query string, which identifies the shape of the query.
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Getter of the number of executions.
+	 * @return Number of executions, successful or not.
+	 */
+	public long getExecutionCount() {
+		return this.totalTime.getCount();
+	}
+
+	/**
+	 * Getter of the number of failed executions.
+	 * @return Number of executions which have thrown an exception.
+	 */
+	public long getFailureCount() {
+		return this.failureCount;
+	}
+
+	/**
+	 * Getter of the prepare time.
+	 * @return Time taken to prepare the statement, counted only when the
+	 * statement has been prepared for the execution.
+	 */
+	public LogHistogram.Snapshot getPrepareTime() {
+		return this.prepareTime;
+	}
+
+	/**
+	 * Getter of the execute time.
+	 * @return Time taken by the database to execute the statement.
+	 */
+	public LogHistogram.Snapshot getExecuteTime() {
+		return this.executeTime;
+	}
+
+	/**
+	 * Getter of the time to the first record.
+	 * @return Time between the start of the execution and the first record,
+	 * counted only when there has been a record.
+	 */
+	public LogHistogram.Snapshot getFirstRowTime() {
+		return this.firstRowTime;
+	}
+
+	/**
+	 * Getter of the mapping time.
+	 * @return Estimated time spent creating the value objects.
+	 */
+	public LogHistogram.Snapshot getMappingTime() {
+		return this.mappingTime;
+	}
+
+	/**
+	 * Getter of the total time.
+	 * @return Total time of each execution.
+	 */
+	public LogHistogram.Snapshot getTotalTime() {
+		return this.totalTime;
+	}
+
+	/**
+	 * Getter of the number of rows.
+	 * @return Number of read records, or of affected rows for the updates.
+	 */
+	public LogHistogram.Snapshot getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Getter of the allocated memory.
+	 * @return Bytes allocated by the thread during each execution,
+	 * counted only if the JVM measures them.
+	 */
+	public LogHistogram.Snapshot getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return this.sql + " [executions=" + getExecutionCount() + ", failures=" + this.failureCount +
+			   ", total={" + this.totalTime + "}, execute={" + this.executeTime +
+			   "}, mapping={" + this.mappingTime + "}, rows={" + this.rowCount + "}]";
+	}
+}
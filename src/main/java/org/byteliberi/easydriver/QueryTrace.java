@@ -0,0 +1,329 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * This listener keeps the most recent executions in a ring buffer of fixed size,
+ * with their query string, times and number of rows, so they can be dumped when
+ * they are needed instead of logging every statement.<P>
+ * An execution is written by a single atomic increment and a single store, without
+ * any lock, and the oldest entries are overwritten. The executions can be sampled,
+ * keeping one every {@link #getSampleInterval()} on average, while the failed ones are
+ * always kept. When an execution fails, the buffer can be dumped to the log, so the
+ * statements which have come before the error are known.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class QueryTrace implements QueryListener {
+	/**
+	 * Default number of entries of the buffer.
+	 */
+	public final static int DEFAULT_CAPACITY = 1024;
+
+	private final static Logger LOGGER = Logger.getLogger(QueryTrace.class.getName());
+
+	/**
+	 * Entries of the buffer, the entry of a sequence number is at
+	 * the position given by the sequence number and {@link #mask}.
+	 */
+	private final AtomicReferenceArray<Entry> entries;
+
+	/**
+	 * Mask which gives the position of a sequence number.
+	 */
+	private final int mask;
+
+	/**
+	 * Sequence number of the next entry.
+	 */
+	private final AtomicLong sequence = new AtomicLong(0);
+
+	/**
+	 * An execution is kept every <code>sampleInterval</code>, on average.
+	 */
+	private volatile int sampleInterval = 1;
+
+	/**
+	 * If true, the buffer is written to the log when an execution fails.
+	 */
+	private volatile boolean dumpOnError = true;
+
+	/**
+	 * Creates a new instance of this class, whose buffer
+	 * has {@link #DEFAULT_CAPACITY} entries.
+	 */
+	public QueryTrace() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param capacity Number of entries of the buffer, it is rounded up
+	 * to a power of 2.
+	 */
+	public QueryTrace(final int capacity) {
+		if ((capacity < 1) || (capacity > (1 << 30)))
+			throw new IllegalArgumentException("The capacity must be between 1 and 2^30");
+
+		final int size = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.entries = new AtomicReferenceArray<Entry>(size);
+		this.mask = size - 1;
+	}
+
+	@Override
+	public void executed(final QueryExecution execution) {
+		final boolean failed = execution.isFailed();
+		final int interval = this.sampleInterval;
+		if (!failed && (interval > 1) && (ThreadLocalRandom.current().nextInt(interval) != 0))
+			return;
+
+		final long number = this.sequence.getAndIncrement();
+		this.entries.set((int) (number & this.mask), new Entry(number, execution));
+
+		if (failed && this.dumpOnError && LOGGER.isLoggable(Level.WARNING))
+			LOGGER.log(Level.WARNING, "A query has failed, the recent queries are:\n" + dump());
+	}
+
+	/**
+	 * Reads the entries of the buffer. The executions which are written while
+	 * the buffer is read could be missing.
+	 * @return Entries, the oldest one first.
+	 */
+	public List<Entry> getEntries() {
+		final long last = this.sequence.get();
+		final long first = Math.max(0, last - this.entries.length());
+		final List<Entry> result = new ArrayList<Entry>((int) (last - first));
+		for (long number = first; number < last; number++) {
+			final Entry entry = this.entries.get((int) (number & this.mask));
+			// the entry could have been overwritten by a newer one, or not written yet
+			if ((entry != null) && (entry.getSequence() == number))
+				result.add(entry);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the entries of the buffer as text, one for each line.
+	 * @return Entries, the oldest one first.
+	 */
+	public String dump() {
+		final StringBuilder sb = new StringBuilder();
+		for (Entry entry : getEntries())
+			sb.append(entry).append('\n');
+		return sb.toString();
+	}
+
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		for (int index = 0; index < this.entries.length(); index++)
+			this.entries.set(index, null);
+	}
+
+	/**
+	 * Getter of the capacity.
+	 * @return Number of entries of the buffer.
+	 */
+	public int getCapacity() {
+		return this.entries.length();
+	}
+
+	/**
+	 * Setter of the sample interval.
+	 * @param sampleInterval An execution is kept every <code>sampleInterval</code>,
+	 * on average, 1 in order to keep all of them. The failed executions are always kept.
+	 */
+	public void setSampleInterval(final int sampleInterval) {
+		if (sampleInterval < 1)
+			throw new IllegalArgumentException("The sample interval must be greater than 0");
+
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Getter of the sample interval.
+	 * @return An execution is kept every <code>sampleInterval</code>, on average.
+	 */
+	public int getSampleInterval() {
+		return this.sampleInterval;
+	}
+
+	/**
+	 * Setter of the dump on error.
+	 * @param dumpOnError If true, the buffer is written to the log,
+	 * at the <code>WARNING</code> level, when an execution fails.
+	 */
+	public void setDumpOnError(final boolean dumpOnError) {
+		this.dumpOnError = dumpOnError;
+	}
+
+	/**
+	 * Getter of the dump on error.
+	 * @return true if the buffer is written to the log when an execution fails.
+	 */
+	public boolean isDumpOnError() {
+		return this.dumpOnError;
+	}
+
+	/**
+	 * An immutable entry of the trace. All the times are in nanoseconds.
+	 */
+	public static final class Entry {
+		/**
+		 * Sequence number of the entry.
+		 */
+		private final long sequence;
+
+		/**
+		 * Time when the execution has ended, in milliseconds since the epoch.
+		 */
+		private final long timestamp;
+
+		/**
+		 * Name of the thread which has executed the query.
+		 */
+		private final String threadName;
+
+		/**
+		 * Query string.
+		 */
+		private final String sql;
+
+		/**
+		 * Time taken by the database to execute the statement.
+		 */
+		private final long executeTime;
+
+		/**
+		 * Total time of the execution.
+		 */
+		private final long totalTime;
+
+		/**
+		 * Number of read or affected rows.
+		 */
+		private final long rowCount;
+
+		/**
+		 * It is true if the execution has thrown an exception.
+		 */
+		private final boolean failed;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param sequence Sequence number of the entry.
+		 * @param execution Execution which is traced.
+		 */
+		private Entry(final long sequence, final QueryExecution execution) {
+			this.sequence = sequence;
+			this.timestamp = System.currentTimeMillis();
+			this.threadName = Thread.currentThread().getName();
+			this.sql = execution.getSql();
+			this.executeTime = execution.getExecuteTime();
+			this.totalTime = execution.getTotalTime();
+			this.rowCount = execution.getRowCount();
+			this.failed = execution.isFailed();
+		}
+
+		/**
+		 * Getter of the sequence number.
+		 * @return Sequence number of the entry, it grows with each traced execution.
+		 */
+		public long getSequence() {
+			return this.sequence;
+		}
+
+		/**
+		 * Getter of the timestamp.
+		 * @return Time when the execution has ended, in milliseconds since the epoch.
+		 */
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		/**
+		 * Getter of the thread name.
+		 * @return Name of the thread which has executed the query.
+		 */
+		public String getThreadName() {
+			return this.threadName;
+		}
+
+		/**
+		 * Getter of the query string.
+		 * @return Query string.
+		 */
+		public String getSql() {
+			return this.sql;
+		}
+
+		/**
+		 * Getter of the execute time.
+		 * @return Time taken by the database to execute the statement.
+		 */
+		public long getExecuteTime() {
+			return this.executeTime;
+		}
+
+		/**
+		 * Getter of the total time.
+		 * @return Total time of the execution.
+		 */
+		public long getTotalTime() {
+			return this.totalTime;
+		}
+
+		/**
+		 * Getter of the number of rows.
+		 * @return Number of read or affected rows.
+		 */
+		public long getRowCount() {
+			return this.rowCount;
+		}
+
+		/**
+		 * Checks if the execution has failed.
+		 * @return true if the execution has thrown an exception.
+		 */
+		public boolean isFailed() {
+			return this.failed;
+		}
+
+		@Override
+		public String toString() {
+			return "#" + this.sequence + " " + this.timestamp + " [" + this.threadName + "] total=" +
+				   this.totalTime + " execute=" + this.executeTime + " rows=" + this.rowCount +
+				   (this.failed ? " FAILED " : " ") + ((this.sql == null) ? "" : this.sql.replace('\n', ' '));
+		}
+	}
+}
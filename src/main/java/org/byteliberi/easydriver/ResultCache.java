@@ -0,0 +1,513 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.byteliberi.easydriver.impl.CacheStatistics;
+
+/**
+ * This class keeps the results of the select queries, so the queries which are
+ * executed many times with the same parameter values, such as the ones which read
+ * reference data, do not go to the database each time. A query uses the cache when
+ * it is set by {@link SelectQuery#setResultCache(ResultCache)}; a result is found by
+ * the query string and the parameter values.<P>
+ * Each result depends on the tables read by its query: the insert, update and delete
+ * queries of this library remove the results of the tables which they change, while
+ * the changes made by other means must be notified by {@link DBTable#invalidateResults()}.
+ * The tables read by a sub query inside a <code>WHERE</code> clause are not known,
+ * so such a query should not use the cache.<P>
+ * A result is fresh for the time to live, then it is stale for the stale time: a stale
+ * result is still returned, while the first thread which finds it executes the query
+ * again and replaces it, so the other threads do not wait for the database. After the
+ * stale time, the result is removed.<P>
+ * The memory taken by the results is estimated by a {@link ResultWeigher}: when it
+ * exceeds the byte budget, the least recently used results are removed.<P>
+ * The results are shared by all the callers, so they must not be changed.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class ResultCache {
+	/**
+	 * Default number of bytes estimated for a value object.
+	 */
+	public final static int DEFAULT_ROW_BYTES = 256;
+
+	/**
+	 * Number of bytes estimated for a cache entry, excluding the result
+	 * and the query string.
+	 */
+	private final static int ENTRY_BYTES = 96;
+
+	/**
+	 * Results, from the least recently used.
+	 */
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(64, 0.75f, true);
+
+	/**
+	 * Results which depend on each table.
+	 */
+	private final Map<DBTable<?>, Dependents> dependents = new HashMap<DBTable<?>, Dependents>();
+
+	/**
+	 * Max number of bytes taken by the results.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Time during which a result is fresh, in nanoseconds.
+	 */
+	private final long ttlNanos;
+
+	/**
+	 * Time during which a result is stale, after it is no more fresh, in nanoseconds.
+	 */
+	private final long staleNanos;
+
+	/**
+	 * Estimates the memory taken by a result.
+	 */
+	private volatile ResultWeigher weigher = rowWeigher(DEFAULT_ROW_BYTES);
+
+	/**
+	 * Number of bytes taken by the results.
+	 */
+	private long usedBytes = 0;
+
+	/**
+	 * Hit, miss, eviction and load counters.
+	 */
+	private final CacheStatistics statistics = new CacheStatistics();
+
+	/**
+	 * Creates a new instance of this class, whose results are removed
+	 * as soon as they are no more fresh.
+	 * @param maxBytes Max number of bytes taken by the results.
+	 * @param ttlMillis Time during which a result is fresh, in milliseconds.
+	 */
+	public ResultCache(final long maxBytes, final long ttlMillis) {
+		this(maxBytes, ttlMillis, 0);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param maxBytes Max number of bytes taken by the results.
+	 * @param ttlMillis Time during which a result is fresh, in milliseconds.
+	 * @param staleMillis Time during which a result is returned while it is read again,
+	 * after it is no more fresh, in milliseconds.
+	 */
+	public ResultCache(final long maxBytes, final long ttlMillis, final long staleMillis) {
+		if ((maxBytes < 1) || (ttlMillis < 1))
+			throw new IllegalArgumentException("The byte budget and the time to live must be greater than 0");
+		if (staleMillis < 0)
+			throw new IllegalArgumentException("The stale time can not be negative");
+
+		this.maxBytes = maxBytes;
+		this.ttlNanos = ttlMillis * 1000000L;
+		this.staleNanos = staleMillis * 1000000L;
+	}
+
+	/**
+	 * Creates a weigher which estimates the same number of bytes for each value object.
+	 * @param rowBytes Number of bytes estimated for a value object.
+	 * @return Weigher of the results.
+	 */
+	public static ResultWeigher rowWeigher(final int rowBytes) {
+		if (rowBytes < 1)
+			throw new IllegalArgumentException("The row size must be greater than 0");
+
+		return new ResultWeigher() {
+			@Override
+			public long weigh(final Object result) {
+				if (result == null)
+					return 0;
+				else if (result instanceof Collection)
+					return 48 + ((Collection<?>) result).size() * (rowBytes + 8L);
+				else
+					return rowBytes;
+			}
+		};
+	}
+
+	/**
+	 * Creates the key of a result.
+	 * @param sql Query string.
+	 * @param parameters Parameter values, in the order of the <code>?</code> placeholders.
+	 * @return Key of the result.
+	 */
+	public static Object key(final String sql, final Object[] parameters) {
+		return new Key(0, sql, parameters);
+	}
+
+	/**
+	 * Creates the key of a result, for a given way to read it.
+	 * @param kind Way to read the result, such as a list or a single value object.
+	 * @param sql Query string.
+	 * @param parameters Parameter values, in the order of the <code>?</code> placeholders.
+	 * @return Key of the result.
+	 */
+	static Object key(final int kind, final String sql, final Object[] parameters) {
+		return new Key(kind, sql, parameters);
+	}
+
+	/**
+	 * Gets a result from the cache or, if it is not there or it is no more fresh,
+	 * it executes the query and puts its result into the cache.
+	 * @param key Key created by {@link #key(String, Object[])}.
+	 * @param tables Tables read by the query.
+	 * @param loader Executes the query.
+	 * @return Query result.
+	 * @throws SQLException A problem occurred with the query or the database itself.
+	 */
+	@SuppressWarnings("unchecked")
+	public <V> V get(final Object key, final DBTable<?>[] tables, final ResultLoader<? extends V> loader) throws SQLException {
+		if (!(key instanceof Key))
+			throw new IllegalArgumentException("The key must be created by ResultCache.key()");
+
+		final Key resultKey = (Key) key;
+		final long[] versions;
+		Entry stale = null;
+		synchronized (this) {
+			final Entry entry = this.entries.get(resultKey);
+			if (entry != null) {
+				final long age = System.nanoTime() - entry.created;
+				if ((age < this.ttlNanos) || ((age < this.ttlNanos + this.staleNanos) && entry.refreshing)) {
+					this.statistics.recordHit();
+					return (V) entry.value;
+				}
+
+				if (age < this.ttlNanos + this.staleNanos) {
+					entry.refreshing = true;
+					stale = entry;
+				}
+				else {
+					remove(resultKey);
+					this.statistics.recordEviction();
+				}
+			}
+			this.statistics.recordMiss();
+			versions = findVersions(tables);
+		}
+
+		final long start = System.nanoTime();
+		final V loaded;
+		try {
+			loaded = loader.load();
+		}
+		catch (SQLException ex) {
+			release(stale);
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			release(stale);
+			throw ex;
+		}
+		final long now = System.nanoTime();
+		this.statistics.recordLoad(now - start);
+
+		final long bytes = ENTRY_BYTES + 2L * resultKey.sql.length() + 16L * resultKey.parameters.length +
+						   this.weigher.weigh(loaded);
+		synchronized (this) {
+			if (isCurrent(tables, versions) && (bytes <= this.maxBytes))
+				put(resultKey, new Entry(loaded, tables, bytes, now));
+			else if ((stale != null) && (this.entries.get(resultKey) == stale))
+				remove(resultKey);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Removes the results which depend on a table.
+	 * @param table Changed table.
+	 */
+	public synchronized void invalidate(final DBTable<?> table) {
+		final Dependents tableDependents = this.dependents.get(table);
+		if (tableDependents == null)
+			return;
+
+		tableDependents.version++;
+		for (Key key : tableDependents.keys.toArray(new Key[tableDependents.keys.size()]))
+			remove(key);
+	}
+
+	/**
+	 * Removes all the results.
+	 */
+	public synchronized void invalidateAll() {
+		for (Dependents tableDependents : this.dependents.values()) {
+			tableDependents.version++;
+			tableDependents.keys.clear();
+		}
+		this.entries.clear();
+		this.usedBytes = 0;
+	}
+
+	/**
+	 * Setter of the weigher.
+	 * @param weigher Estimates the memory taken by a result.
+	 */
+	public void setWeigher(final ResultWeigher weigher) {
+		if (weigher == null)
+			throw new IllegalArgumentException("The weigher can not be null");
+
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Getter of the number of results.
+	 * @return Number of results which are kept, including the expired ones
+	 * which have not been removed yet.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Getter of the memory taken by the results.
+	 * @return Estimated number of bytes.
+	 */
+	public synchronized long getUsedBytes() {
+		return this.usedBytes;
+	}
+
+	/**
+	 * Getter of the counters. The stale results which are returned are counted as hits,
+	 * the expired results and the ones removed for the byte budget are counted as evictions.
+	 * @return Hit, miss, eviction and load counters.
+	 */
+	public CacheStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Gets the versions of the tables read by a query, registering this cache
+	 * on the tables which are read for the first time.
+	 * @param tables Tables read by the query.
+	 * @return Number of changes of each table.
+	 */
+	private long[] findVersions(final DBTable<?>[] tables) {
+		final long[] versions = new long[tables.length];
+		for (int i = 0; i < tables.length; i++) {
+			Dependents tableDependents = this.dependents.get(tables[i]);
+			if (tableDependents == null) {
+				tableDependents = new Dependents();
+				this.dependents.put(tables[i], tableDependents);
+				tables[i].addResultCache(this);
+			}
+			versions[i] = tableDependents.version;
+		}
+		return versions;
+	}
+
+	/**
+	 * Checks that no table has been changed while the query was executed.
+	 * @param tables Tables read by the query.
+	 * @param versions Number of changes of each table before the query was executed.
+	 * @return true if the result can be kept.
+	 */
+	private boolean isCurrent(final DBTable<?>[] tables, final long[] versions) {
+		for (int i = 0; i < tables.length; i++) {
+			final Dependents tableDependents = this.dependents.get(tables[i]);
+			if ((tableDependents == null) || (tableDependents.version != versions[i]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Puts a result, then it removes the least recently used results
+	 * until the byte budget is respected.
+	 * @param key Key of the result.
+	 * @param entry Result.
+	 */
+	private void put(final Key key, final Entry entry) {
+		remove(key);
+		this.entries.put(key, entry);
+		this.usedBytes += entry.bytes;
+		for (DBTable<?> table : entry.tables)
+			this.dependents.get(table).keys.add(key);
+
+		final Iterator<Map.Entry<Key, Entry>> eldest = this.entries.entrySet().iterator();
+		while (this.usedBytes > this.maxBytes) {
+			final Map.Entry<Key, Entry> removed = eldest.next();
+			eldest.remove();
+			unlink(removed.getKey(), removed.getValue());
+			this.statistics.recordEviction();
+		}
+	}
+
+	/**
+	 * Removes a result.
+	 * @param key Key of the result.
+	 */
+	private void remove(final Key key) {
+		unlink(key, this.entries.remove(key));
+	}
+
+	/**
+	 * Removes a result from the table dependencies and from the byte count.
+	 * @param key Key of the result.
+	 * @param entry Removed result, it can be null.
+	 */
+	private void unlink(final Key key, final Entry entry) {
+		if (entry == null)
+			return;
+
+		this.usedBytes -= entry.bytes;
+		for (DBTable<?> table : entry.tables) {
+			final Dependents tableDependents = this.dependents.get(table);
+			if (tableDependents != null)
+				tableDependents.keys.remove(key);
+		}
+	}
+
+	/**
+	 * Lets another thread refresh a stale result, after the refresh has failed.
+	 * @param stale Stale result, it can be null.
+	 */
+	private synchronized void release(final Entry stale) {
+		if (stale != null)
+			stale.refreshing = false;
+	}
+
+	/**
+	 * Key of a result, made by the query string and the parameter values.
+	 */
+	private static final class Key {
+		/**
+		 * Way to read the result.
+		 */
+		final int kind;
+
+		/**
+		 * Query string.
+		 */
+		final String sql;
+
+		/**
+		 * Parameter values.
+		 */
+		final Object[] parameters;
+
+		/**
+		 * Hash code, computed once.
+		 */
+		final int hash;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param kind Way to read the result.
+		 * @param sql Query string.
+		 * @param parameters Parameter values.
+		 */
+		Key(final int kind, final String sql, final Object[] parameters) {
+			this.kind = kind;
+			this.sql = sql;
+			this.parameters = parameters;
+			this.hash = (31 * (31 * kind + sql.hashCode())) + Arrays.deepHashCode(parameters);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+
+			final Key other = (Key) obj;
+			return (this.hash == other.hash) && (this.kind == other.kind) && this.sql.equals(other.sql) &&
+				   Arrays.deepEquals(this.parameters, other.parameters);
+		}
+	}
+
+	/**
+	 * Result kept by the cache.
+	 */
+	private static final class Entry {
+		/**
+		 * Query result.
+		 */
+		final Object value;
+
+		/**
+		 * Tables read by the query.
+		 */
+		final DBTable<?>[] tables;
+
+		/**
+		 * Estimated number of bytes.
+		 */
+		final long bytes;
+
+		/**
+		 * Time when the result has been read, in nanoseconds.
+		 */
+		final long created;
+
+		/**
+		 * It is true while a thread reads the stale result again.
+		 */
+		boolean refreshing = false;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param value Query result.
+		 * @param tables Tables read by the query.
+		 * @param bytes Estimated number of bytes.
+		 * @param created Time when the result has been read.
+		 */
+		Entry(final Object value, final DBTable<?>[] tables, final long bytes, final long created) {
+			this.value = value;
+			this.tables = tables;
+			this.bytes = bytes;
+			this.created = created;
+		}
+	}
+
+	/**
+	 * Results which depend on a table.
+	 */
+	private static final class Dependents {
+		/**
+		 * Number of changes of the table, a result read before a change is not kept.
+		 */
+		long version = 0;
+
+		/**
+		 * Keys of the results.
+		 */
+		final Set<Key> keys = new HashSet<Key>();
+	}
+}
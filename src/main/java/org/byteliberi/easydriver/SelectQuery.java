@@ -21,12 +21,20 @@ package org.byteliberi.easydriver;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.byteliberi.easydriver.fields.IntField;
 import org.byteliberi.easydriver.impl.*;
 import org.byteliberi.easydriver.join.Join;
 import org.byteliberi.easydriver.postgresql.CustomPGOperators;
@@ -50,13 +58,27 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
     private final static String HAVING = "\nHAVING ";   
     private final static String ORDER_BY = "\nORDER BY ";
     private final static String DISTINCT = " DISTINCT ";
+    private final static String LIMIT = "\nLIMIT ?";
+    private final static String OFFSET = "\nOFFSET ?";
+    private final static String OFFSET_ROWS = "\nOFFSET ? ROWS";
+    private final static String FETCH_FIRST = "\nFETCH FIRST ? ROWS ONLY";
+    private final static String SELECT_ONE = "SELECT 1";
+    private final static String LIMIT_ONE = "\nLIMIT 1";
+    private final static String FETCH_FIRST_ONE = "\nFETCH FIRST 1 ROWS ONLY";
+    private final static String LIMIT_TWO = "\nLIMIT 2";
+    private final static String FETCH_FIRST_TWO = "\nFETCH FIRST 2 ROWS ONLY";
+    private final static int LIST_RESULT = 0;
+    private final static int SINGLE_RESULT = 1;
+    private final static int FIRST_RESULT = 2;
 
     /**
      * Constant as it is returned by the database JDBC driver.
      */
     private final static String POSTGRESQL = "PostgreSQL";
     
-    private final static Level LOG_LEVEL = Level.INFO;
+    private final static Level LOG_LEVEL = Level.FINE;
+    
+    private final static Logger LOGGER = Logger.getLogger(SelectQuery.class.getName());
     
     /**
      * Factory which creates a new instance
@@ -113,11 +135,86 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
      */
     private boolean distinct = false;   
     
+    /**
+     * Max number of records returned by the query, it is null when
+     * there is no limit. It is passed as a parameter, so the query string
+     * does not change with its value.
+     */
+    private Integer limit = null;
+    
+    /**
+     * Number of records which are skipped, it is null when no records are skipped.
+     * It is passed as a parameter, so the query string does not change with its value.
+     */
+    private Integer offset = null;
+    
+    /**
+     * Query string whose limit and offset parameters have been located.
+     */
+    private String pagedQueryString = null;
+    
+    /**
+     * 1 based index of the first limit or offset parameter in {@link #pagedQueryString}.
+     */
+    private int pagingIndex = 0;
+    
+    /**
+     * Query string used by {@link #exists()}.
+     */
+    private String existsQueryString = null;
+    
+    /**
+     * Query string from which {@link #existsQueryString} has been created.
+     */
+    private String existsBaseQueryString = null;
+    
+    /**
+     * Number of parameters of {@link #existsQueryString}.
+     */
+    private int existsParameterCount = 0;
+    
+    /**
+     * Number of records, 1 or 2, that {@link #getFirstResult()} and {@link #getSingleResult()}
+     * write in the query string as its limit, when the caller has set none.
+     * It is 0 while the other methods are executed.
+     */
+    private int rowCap = 0;
+    
+    /**
+     * Query strings with the limit of 1 and 2 records.
+     */
+    private final String[] cappedQueryStrings = new String[2];
+    
+    /**
+     * Query string from which {@link #cappedQueryStrings} have been created.
+     */
+    private String cappedBaseQueryString = null;
+    
+    /**
+     * Statement of a query string with the row limit, it is kept while its records are read.
+     */
+    private PreparedStatement cappedStatement = null;
+    
+    /**
+     * Query string of {@link #cappedStatement}.
+     */
+    private String cappedStatementQueryString = null;
+    
     /**
      * Native or special part of the query are defined here. 
      */
     protected CustomOperators customOperators;
     
+    /**
+     * Cache of the query results, null if the results are read from the database each time.
+     */
+    private ResultCache resultCache = null;
+    
+    /**
+     * Factory which gives back the instances kept by the session of the current thread.
+     */
+    private final SessionFactory sessionFactory = new SessionFactory();
+    
     /**
      * Creates a new instance of this class.
      * @param con Database connection 
@@ -227,14 +324,17 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
     
     public void setSelectFields(final TableField<?>[] selectFields) {
         this.selectFields = new LinkedList<TableField<?>>(Arrays.asList(selectFields));
+        invalidateQueryString();
     }
     
     public void setJoin(final Join<?>[] joins) {
         this.joins = joins;
+        invalidateQueryString();
     }
     
     public void setOrderBy(final TableField<?>[] orderByFields) {
         this.orderBy = orderByFields;
+        invalidateQueryString();
     }
     
     /**
@@ -243,6 +343,7 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
      */
     public final void setHaving(final ExpressionAPI[] havingFields) {
     	this.having = havingFields;
+    	invalidateQueryString();
     }
     
     /**
@@ -251,6 +352,7 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
      */
     public final void setGroupBy(final TableField<?>[] groupByFields) {
     	this.groupBy = groupByFields;
+    	invalidateQueryString();
     }
 
     /**
@@ -359,16 +461,19 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
     @Override
     public void setWhere(TableField<?> field) {
     	getFilteredQuery().setWhere(field);
+    	invalidateQueryString();
     }
 
     @Override
     public void setWhere(ExpressionAPI exp) {
     	getFilteredQuery().setWhere(exp);
+    	invalidateQueryString();
     }
 
     @Override
     public void setWhere(ExpressionAPI[] exp) {
     	getFilteredQuery().setWhere(exp);
+    	invalidateQueryString();
     }
 
     /**
@@ -383,6 +488,35 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
     	return this.filteredQuery;
     }
 
+    /**
+     * This method creates the <code>LIMIT</code> and <code>OFFSET</code> sections
+     * of the query, or the standard <code>OFFSET</code> and <code>FETCH FIRST</code>
+     * sections if the database is not PostgreSQL.
+     * @param sbQuery Query string to be completed.
+     */
+    private void createPaging(final StringBuilder sbQuery) {
+        if (isPostgreSQL()) {
+            if (this.limit != null)
+                sbQuery.append(LIMIT);
+            if (this.offset != null)
+                sbQuery.append(OFFSET);
+        }
+        else {
+            if (this.offset != null)
+                sbQuery.append(OFFSET_ROWS);
+            if (this.limit != null)
+                sbQuery.append(FETCH_FIRST);
+        }
+    }
+
+    /**
+     * Checks if the query is executed by PostgreSQL.
+     * @return true if the PostgreSQL syntax can be used.
+     */
+    private boolean isPostgreSQL() {
+        return this.customOperators instanceof CustomPGOperators;
+    }
+
     @Override
     public String createQueryString() {
         final StringBuilder sbQuery = new StringBuilder();
@@ -394,54 +528,283 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
         createGroupBy(sbQuery);
         createHaving(sbQuery);
         createOrderBy(sbQuery);
+        createPaging(sbQuery);
 
         final String queryStr = sbQuery.toString();
-        final Logger logger = Logger.getLogger(SelectQuery.class.getName());
-        logger.log(LOG_LEVEL, queryStr);
+        if (LOGGER.isLoggable(LOG_LEVEL))
+            LOGGER.log(LOG_LEVEL, queryStr);
 
         return queryStr;
     }
     
+    @Override
+    protected TableField<?>[] findParameterTypes() {
+        final List<TableField<?>> found = getFilteredQuery().findParameters();
+        if (this.having != null) {
+            for (ExpressionAPI exp : this.having)
+                found.addAll(exp.getParameters());
+        }
+        for (int i = getPagingParameterCount(); i > 0; i--)
+            found.add(IntField.getEmpty());
+        return found.toArray(new TableField<?>[found.size()]);
+    }
+    
+    /**
+     * Getter of the parameter values, including the limit and the offset.
+     * @return Parameter values, in the order of the <code>?</code> placeholders.
+     * @throws SQLException A problem occurred with the database.
+     */
+    @Override
+    public synchronized Object[] getParameterValues() throws SQLException {
+        bindPaging();
+        return super.getParameterValues();
+    }
+
+    /**
+     * Creates an immutable copy of this query, which can be shared by several
+     * threads and executed many times, each time with its own parameter values.
+     * @return Compiled query, made by the current query string and parameter types.
+     */
+    public CompiledQuery<T> compile() {
+        return new CompiledQuery<T>(this, this.valueObjectFactory);
+    }
+    
     @Override
     public TableField<?>[] getSelectFields() {
     	return this.selectFields.toArray(new TableField<?>[this.selectFields.size()]);
     }
 
+    /**
+     * Get a single record. When the caller has set no limit, the query string
+     * is executed with <code>LIMIT 2</code>, so the database can choose a plan
+     * which stops after the second record.
+     * @return Single Value Object or null if no rows have been found.
+     * @throws SQLException A problem occurred with the query or the database,
+     * or more than one row has been found.
+     */
     @Override
     public synchronized T getSingleResult() throws SQLException {
-    	if (this.readQuery == null)
-            this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
+        if (this.resultCache == null)
+            return readFirst(2);
+
+        return this.resultCache.get(createResultKey(SINGLE_RESULT), findTables(), new ResultLoader<T>() {
+            @Override
+            public T load() throws SQLException {
+                return readFirst(2);
+            }
+        });
+    }
+
+    /**
+     * Get the first record. When the caller has set no limit, the query string
+     * is executed with <code>LIMIT 1</code>, so the database can choose a plan
+     * which stops after the first record.
+     * @return First Value Object or null if no rows have been found.
+     * @throws SQLException A problem occurred with the query or the database.
+     */
+    @Override
+    public synchronized T getFirstResult() throws SQLException {
+        if (this.resultCache == null)
+            return readFirst(1);
+
+        return this.resultCache.get(createResultKey(FIRST_RESULT), findTables(), new ResultLoader<T>() {
+            @Override
+            public T load() throws SQLException {
+                return readFirst(1);
+            }
+        });
+    }
+
+    /**
+     * Reads the first record, executing the query string with a row limit
+     * when the caller has set none. Its statement is derived from the query,
+     * so it is kept by the statement cache of this query, if any.
+     * @param rows 1 in order to read the first record, 2 in order to check that
+     * there is one record only.
+     * @return First Value Object or null if no rows have been found.
+     * @throws SQLException A problem occurred with the query or the database,
+     * or more than one row has been found when one only is expected.
+     */
+    private synchronized T readFirst(final int rows) throws SQLException {
+        final ReadQuery<T> reader = prepareRead();
+        if (this.limit == null)
+            this.rowCap = rows;
+        try {
+            return (rows == 1) ? reader.getFirstResult() : reader.getSingleResult();
+        }
+        finally {
+            this.rowCap = 0;
+            releaseCappedStatement();
+        }
+    }
+
+    /**
+     * Executes the Prepared Statement as a query. While the first record is read
+     * and the caller has set no limit, a statement of the query string with the
+     * row limit is executed instead, filled with the same parameter values;
+     * it is kept until {@link #releaseCappedStatement()} is called.
+     * @return Result Set created by the Prepared Statement.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    @Override
+    protected ResultSet executeQuery() throws SQLException {
+        final Connection con = getPreparedConnection();
+        if ((this.rowCap == 0) || (con == null))
+            return super.executeQuery();
+
+        final String sql = getCappedQueryString(this.rowCap);
+        this.cappedStatementQueryString = sql;
+        this.cappedStatement = prepareStatement(con, sql);
+        this.parameters.apply(this.cappedStatement);
+        try {
+            return this.cappedStatement.executeQuery();
+        }
+        catch (SQLException ex) {
+            if (!StatementCache.isStalePlan(ex) || !con.getAutoCommit())
+                throw ex;
 
-    	this.readQuery.setPstm(this.pstm);
-    	return this.readQuery.getSingleResult();
+            // the plan has been discarded by the database
+            final PreparedStatement stale = this.cappedStatement;
+            this.cappedStatement = null;
+            stale.close();
+            this.cappedStatement = prepareStatement(con, sql);
+            this.parameters.apply(this.cappedStatement);
+            return this.cappedStatement.executeQuery();
+        }
+    }
+
+    /**
+     * Gives back the statement of the query string with the row limit, if any.
+     * @throws SQLException A problem occurred with the database.
+     */
+    private void releaseCappedStatement() throws SQLException {
+        final PreparedStatement statement = this.cappedStatement;
+        if (statement != null) {
+            this.cappedStatement = null;
+            releaseStatement(getPreparedConnection(), this.cappedStatementQueryString, statement);
+        }
+    }
+
+    /**
+     * Getter of the query string with a row limit, it is created again
+     * when the structure of this query changes.
+     * @param rows Number of records, 1 or 2.
+     * @return Query string followed by the limit.
+     */
+    private String getCappedQueryString(final int rows) {
+        final String base = getQueryString();
+        if (base != this.cappedBaseQueryString) {
+            this.cappedQueryStrings[0] = base + (isPostgreSQL() ? LIMIT_ONE : FETCH_FIRST_ONE);
+            this.cappedQueryStrings[1] = base + (isPostgreSQL() ? LIMIT_TWO : FETCH_FIRST_TWO);
+            this.cappedBaseQueryString = base;
+        }
+        return this.cappedQueryStrings[rows - 1];
     }
 
     @Override
     public synchronized T getSingleResultAndClose() throws SQLException {
     	final T result = getSingleResult();
-    	if (this.pstm != null)
-    		this.pstm.close();
+    	close();
     	return result;
     }
     
+    /**
+     * Get a list of value objects. When the query has a result cache, the
+     * list can not be changed, as it is shared with the other callers.
+     * @return List of Value Object or an empty list of records.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
     @Override
     public synchronized List<T> getResultList() throws SQLException {
-    	if (this.readQuery == null)
-    		this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
+        if (this.resultCache == null)
+            return prepareRead().getResultList();
+
+        return this.resultCache.get(createResultKey(LIST_RESULT), findTables(), new ResultLoader<List<T>>() {
+            @Override
+            public List<T> load() throws SQLException {
+                return Collections.unmodifiableList(new ArrayList<T>(prepareRead().getResultList()));
+            }
+        });
+    }
 
-    	this.readQuery.setPstm(this.pstm);
-    	return this.readQuery.getResultList();
+    @Override
+    public synchronized CompletableFuture<List<T>> getResultListAsync() {
+        try {
+            bindPaging();
+        }
+        catch (SQLException ex) {
+            return ConnectionExecutor.failedFuture(ex);
+        }
+        return submitResultList(this.valueObjectFactory);
+    }
+
+    @Override
+    public synchronized CompletableFuture<T> getSingleResultAsync() {
+        try {
+            bindPaging();
+        }
+        catch (SQLException ex) {
+            return ConnectionExecutor.failedFuture(ex);
+        }
+        return submitSingleResult(this.valueObjectFactory);
     }
 
     @Override
     public synchronized List<T> getResultAndClose() throws SQLException {
     	final List<T> result = getResultList();
-    	if (this.pstm != null)
-    		this.pstm.close();
+    	close();
 
     	return result;
     }
 
+    /**
+     * Setter of the max number of records returned by the query. The value is
+     * passed as a parameter, after the ones passed by the caller, so changing it
+     * does not change the query string, while adding or removing the limit does:
+     * in such a case, it must be called before the query is prepared.
+     * @param limit Max number of records, null in order to remove the limit.
+     */
+    public void setLimit(final Integer limit) {
+        if ((limit != null) && (limit.intValue() < 0))
+            throw new IllegalArgumentException("The limit can not be negative");
+
+        if ((limit == null) != (this.limit == null))
+            invalidateQueryString();
+        this.limit = limit;
+    }
+
+    /**
+     * Getter of the max number of records returned by the query.
+     * @return Max number of records, it is null when there is no limit.
+     */
+    public Integer getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * Setter of the number of records which are skipped. The value is passed
+     * as a parameter, after the ones passed by the caller, so changing it
+     * does not change the query string, while adding or removing the offset does:
+     * in such a case, it must be called before the query is prepared.
+     * @param offset Number of skipped records, null in order to remove the offset.
+     */
+    public void setOffset(final Integer offset) {
+        if ((offset != null) && (offset.intValue() < 0))
+            throw new IllegalArgumentException("The offset can not be negative");
+
+        if ((offset == null) != (this.offset == null))
+            invalidateQueryString();
+        this.offset = offset;
+    }
+
+    /**
+     * Getter of the number of records which are skipped.
+     * @return Number of skipped records, it is null when no records are skipped.
+     */
+    public Integer getOffset() {
+        return this.offset;
+    }
+
     /**
      * Setter of the presence of a <pre>DISTINCT</pre>
      * keyword after the SELECT, in order to get no duplicated records.
@@ -450,6 +813,7 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
      */
     public void setDistinct(boolean distinct) {
         this.distinct = distinct;
+        invalidateQueryString();
     }
 
     /**
@@ -461,4 +825,308 @@ public class SelectQuery<T> extends Query implements ReadQueryAPI<T>, FilteredQu
     public boolean isDistinct() {
         return distinct;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the reader of the records, creating it the first time.
+     * @return This class contains some reusable code for the queries that creates
+     * some value objects and return them to the user.
+     */
+    private synchronized ReadQuery<T> getReadQuery() {
+        if (this.readQuery == null)
+            this.readQuery = new ReadQuery<T>(this.sessionFactory, this);
+
+        this.readQuery.setPstm(this.pstm);
+        return this.readQuery;
+    }
+
+    /**
+     * Gets the reader of the records and fills the limit and offset parameters,
+     * just before the query is executed.
+     * @return This class contains some reusable code for the queries that creates
+     * some value objects and return them to the user.
+     * @throws SQLException A problem occurred with the database.
+     */
+    private synchronized ReadQuery<T> prepareRead() throws SQLException {
+        bindPaging();
+        this.sessionFactory.prepare(Session.current());
+        return getReadQuery();
+    }
+
+    /**
+     * Fills the limit and offset parameters, which follow the parameters
+     * passed by the caller.
+     * @throws SQLException A problem occurred with the database.
+     */
+    private void bindPaging() throws SQLException {
+        final int count = getPagingParameterCount();
+        if (count == 0)
+            return;
+
+        final String query = getQueryString();
+        if (query != this.pagedQueryString) {
+            this.pagingIndex = countParameters(query) - count + 1;
+            this.pagedQueryString = query;
+        }
+
+        if (isPostgreSQL())
+            bindPagingValue(bindPagingValue(this.pagingIndex, this.limit), this.offset);
+        else
+            bindPagingValue(bindPagingValue(this.pagingIndex, this.offset), this.limit);
+    }
+
+    /**
+     * Fills a limit or offset parameter.
+     * @param index 1 based index of the parameter.
+     * @param value Parameter value, when it is null there is no parameter.
+     * @return 1 based index of the next parameter.
+     * @throws SQLException A problem occurred with the database.
+     */
+    private int bindPagingValue(final int index, final Integer value) throws SQLException {
+        if (value == null)
+            return index;
+
+        final int primitive = value.intValue();
+        this.parameters.putInt(index, primitive);
+        if (this.pstm != null)
+            this.pstm.setInt(index, primitive);
+        return index + 1;
+    }
+
+    /**
+     * Counts the limit and offset parameters.
+     * @return Number of parameters appended to the query string for the limit and the offset.
+     */
+    private int getPagingParameterCount() {
+        return ((this.limit == null) ? 0 : 1) + ((this.offset == null) ? 0 : 1);
+    }
+
+    /**
+     * Checks if the query finds at least one record, by a <code>SELECT 1</code>
+     * that reads one record at most. It uses the <code>FROM</code>, <code>JOIN</code>,
+     * <code>WHERE</code>, <code>GROUP BY</code> and <code>HAVING</code> sections of this query
+     * and the parameters which have been passed by the caller, while the order,
+     * the limit and the offset are ignored. The query must have been prepared.
+     * @return true if at least one record has been found.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    public synchronized boolean exists() throws SQLException {
+        final Connection con = getPreparedConnection();
+        if (con == null)
+            throw new SQLException("The query must be prepared before being executed.");
+
+        final String sql = getExistsQueryString();
+        final int count = this.existsParameterCount;
+        if (this.parameters.size() < count)
+            throw new SQLException(this.parameters.size() + " parameters have been passed, but the query has " + count);
+
+        final PreparedStatement statement = prepareStatement(con, sql);
+        try {
+            for (int index = 1; index <= count; index++)
+                this.parameters.apply(statement, index);
+
+            final ResultSet rs = statement.executeQuery();
+            try {
+                return rs.next();
+            }
+            finally {
+                rs.close();
+            }
+        }
+        finally {
+            releaseStatement(con, sql, statement);
+        }
+    }
+
+    /**
+     * Getter of the query string used by {@link #exists()}, it is created again
+     * when the structure of this query changes.
+     * @return <code>SELECT 1</code> query string.
+     */
+    private String getExistsQueryString() {
+        final String base = getQueryString();
+        if (base != this.existsBaseQueryString) {
+            final StringBuilder sbQuery = new StringBuilder(SELECT_ONE);
+            createFrom(sbQuery);
+            createJoin(sbQuery);
+            createWhereClause(sbQuery);
+            createGroupBy(sbQuery);
+            createHaving(sbQuery);
+            sbQuery.append(isPostgreSQL() ? LIMIT_ONE : FETCH_FIRST_ONE);
+
+            this.existsQueryString = sbQuery.toString();
+            this.existsParameterCount = countParameters(this.existsQueryString);
+            this.existsBaseQueryString = base;
+            if (LOGGER.isLoggable(LOG_LEVEL))
+                LOGGER.log(LOG_LEVEL, this.existsQueryString);
+        }
+        return this.existsQueryString;
+    }
+
+    @Override
+    public ResultIterator<T> iterator() throws SQLException {
+        return prepareRead().iterator();
+    }
+
+    @Override
+    public void forEach(final RowHandler<? super T> handler) throws SQLException {
+        prepareRead().forEach(handler);
+    }
+
+    @Override
+    public Stream<T> stream() throws SQLException {
+        return prepareRead().stream();
+    }
+
+    @Override
+    public void setFetchSize(final int fetchSize) {
+        getReadQuery().setFetchSize(fetchSize);
+    }
+
+    /**
+     * Setter of the result cache. The results of {@link #getResultList()},
+     * {@link #getSingleResult()} and {@link #getFirstResult()} are then read from
+     * the cache, when the same query string has been executed with the same
+     * parameter values; the iterators and the streams always read the database.
+     * @param resultCache Cache of the query results, null in order to read
+     * the results from the database each time.
+     */
+    public synchronized void setResultCache(final ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Getter of the result cache.
+     * @return Cache of the query results, null if there is none.
+     */
+    public synchronized ResultCache getResultCache() {
+        return this.resultCache;
+    }
+
+    /**
+     * Creates the key of the current result in the result cache.
+     * @param kind Way to read the result.
+     * @return Key made by the query string and the parameter values.
+     * @throws SQLException A problem occurred with the database.
+     */
+    private Object createResultKey(final int kind) throws SQLException {
+        final Object[] values = getParameterValues();
+        return ResultCache.key(kind, getQueryString(), values);
+    }
+
+    /**
+     * Finds the tables read by this query: the main table or the crossed
+     * tables, and the tables of the joins.
+     * @return Tables read by this query.
+     */
+    private DBTable<?>[] findTables() {
+        final LinkedHashSet<DBTable<?>> found = new LinkedHashSet<DBTable<?>>();
+        if ((this.crossedTables != null) && (this.crossedTables.length > 0))
+            found.addAll(Arrays.asList(this.crossedTables));
+        else
+            found.add(this.table);
+
+        if (this.joins != null) {
+            for (Join<?> join : this.joins)
+                found.add(join.getRelationship().getRelatedTable());
+        }
+        return found.toArray(new DBTable<?>[found.size()]);
+    }
+
+    /**
+     * This factory creates the value objects by the factory of the query and, while
+     * the current thread has a session, it gives back the instances already kept
+     * by the session. This is done for the queries which read all the fields of
+     * a single table, without a <code>GROUP BY</code>, so the session only keeps
+     * whole records. The instances are kept by the class of the value objects,
+     * so a factory which creates another class does not get them.
+     */
+    private final class SessionFactory implements ObjectFactory<T> {
+        /**
+         * Session of the thread which executes the query, null if there is none
+         * or if the records of the query can not be kept by a session.
+         */
+        private Session session = null;
+        
+        /**
+         * Fields of the primary key.
+         */
+        private TableField<?>[] keyFields = null;
+        
+        /**
+         * Column of each field of the primary key.
+         */
+        private int[] keyColumns = null;
+        
+        /**
+         * Class of the value objects created by the factory of the query, it is
+         * known after the first record has been created.
+         */
+        private Class<T> valueClass = null;
+        
+        /**
+         * Gets ready for an execution of the query.
+         * @param current Session of the current thread, it can be null.
+         */
+        void prepare(final Session current) {
+            this.session = ((current != null) && findKeyColumns()) ? current : null;
+        }
+        
+        /**
+         * Finds the columns of the primary key fields.
+         * @return true if the query reads all the fields of a single table,
+         * including its primary key.
+         */
+        private boolean findKeyColumns() {
+            if ((crossedTables != null) || ((joins != null) && (joins.length > 0)) ||
+                ((groupBy != null) && (groupBy.length > 0)) || (table.getPrimaryKey() == null))
+                return false;
+            
+            final TableField<?>[] tableFields = table.getFields();
+            if ((tableFields == null) || (selectFields.size() != tableFields.length) ||
+                !selectFields.containsAll(Arrays.asList(tableFields)))
+                return false;
+            
+            final TableField<?>[] fields = table.getPrimaryKey().getFields();
+            if ((fields == null) || (fields.length == 0))
+                return false;
+            
+            final int[] columns = new int[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                columns[i] = selectFields.indexOf(fields[i]) + 1;
+                if (columns[i] == 0)
+                    return false;
+            }
+            this.keyFields = fields;
+            this.keyColumns = columns;
+            return true;
+        }
+        
+        @Override
+        public T map(final ResultSet rs) throws SQLException {
+            if (this.session == null)
+                return valueObjectFactory.map(rs);
+            
+            final Object[] values = new Object[this.keyColumns.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = this.keyFields[i].map(rs, this.keyColumns[i]);
+                if (values[i] == null)
+                    return valueObjectFactory.map(rs);
+            }
+            final Object key = EntityCache.key(values);
+            if (this.valueClass != null) {
+                final T found = this.session.get(table, this.valueClass, key);
+                if (found != null)
+                    return found;
+            }
+            
+            final T created = valueObjectFactory.map(rs);
+            if (created == null)
+                return null;
+            
+            @SuppressWarnings("unchecked")
+            final Class<T> createdClass = (Class<T>) created.getClass();
+            this.valueClass = createdClass;
+            return this.session.put(table, createdClass, key, created);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A session is a unit of work, bound to the current thread, which keeps the value
+ * objects read while it is open by their table and primary key, so the same record
+ * is read once and it is always given back as the same instance. The value objects
+ * are also kept by their class, so a record read into different classes gives
+ * back a different instance for each class.<P>
+ * While a session is open:
+ * <ul>
+ * <li>the reads by primary key made by {@link DBTable#readByKey(Object, Class, EntityLoader)},
+ * as the generated <code>selectByPK</code> methods do, are answered from memory
+ * when the record has already been read;</li>
+ * <li>the select queries which read all the fields of a single table give back
+ * the instances already kept by the session, instead of the newly created ones,
+ * and they keep the new ones;</li>
+ * <li>the update and delete queries remove from the session the records which
+ * they change, or all the records of their table.</li>
+ * </ul>
+ * The session must be closed by the thread which has opened it, for example:
+ * <pre>
+ * final Session session = Session.open();
+ * try {
+ *     ...
+ * }
+ * finally {
+ *     session.close();
+ * }
+ * </pre>
+ * This class is not thread safe, as it is used by a single thread.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Session implements AutoCloseable {
+	/**
+	 * Session of each thread.
+	 */
+	private final static ThreadLocal<Session> CURRENT = new ThreadLocal<Session>();
+
+	/**
+	 * Value objects of each table, by their primary key and then by their class,
+	 * because the same record can be read into different classes of value objects.
+	 */
+	private final Map<DBTable<?>, Map<Object, Map<Class<?>, Object>>> identities =
+		new HashMap<DBTable<?>, Map<Object, Map<Class<?>, Object>>>();
+
+	/**
+	 * Creates a new instance of this class.
+	 */
+	private Session() {
+	}
+
+	/**
+	 * Opens a session and binds it to the current thread.
+	 * @return New session.
+	 * @throws IllegalStateException A session is already open for the current thread.
+	 */
+	public static Session open() {
+		if (CURRENT.get() != null)
+			throw new IllegalStateException("A session is already open for the current thread");
+
+		final Session session = new Session();
+		CURRENT.set(session);
+		return session;
+	}
+
+	/**
+	 * Getter of the session of the current thread.
+	 * @return Open session, or null if there is none.
+	 */
+	public static Session current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Gets a value object which has already been read.
+	 * @param table Table of the record.
+	 * @param valueClass Class of the value object.
+	 * @param key Key created by {@link EntityCache#key(Object...)}.
+	 * @return Value object, or null if the record has not been read into the passed class.
+	 */
+	public <V> V get(final DBTable<?> table, final Class<V> valueClass, final Object key) {
+		final Map<Object, Map<Class<?>, Object>> tableIdentities = this.identities.get(table);
+		if (tableIdentities == null)
+			return null;
+		final Map<Class<?>, Object> recordIdentities = tableIdentities.get(key);
+		return (recordIdentities == null) ? null : valueClass.cast(recordIdentities.get(valueClass));
+	}
+
+	/**
+	 * Keeps a value object, unless the session already has one of the same class for the same record.
+	 * @param table Table of the record.
+	 * @param valueClass Class of the value object.
+	 * @param key Key created by {@link EntityCache#key(Object...)}.
+	 * @param value Value object which has just been read.
+	 * @return The instance kept by the session: the one which was already
+	 * there or the passed one.
+	 */
+	public <V> V put(final DBTable<?> table, final Class<V> valueClass, final Object key, final V value) {
+		if (value == null)
+			throw new IllegalArgumentException("The session does not keep null values");
+
+		Map<Object, Map<Class<?>, Object>> tableIdentities = this.identities.get(table);
+		if (tableIdentities == null) {
+			tableIdentities = new HashMap<Object, Map<Class<?>, Object>>();
+			this.identities.put(table, tableIdentities);
+		}
+		Map<Class<?>, Object> recordIdentities = tableIdentities.get(key);
+		if (recordIdentities == null) {
+			recordIdentities = new HashMap<Class<?>, Object>(2);
+			tableIdentities.put(key, recordIdentities);
+		}
+		final Object found = recordIdentities.get(valueClass);
+		if (found != null)
+			return valueClass.cast(found);
+
+		recordIdentities.put(valueClass, value);
+		return value;
+	}
+
+	/**
+	 * Removes the value objects of a record, of every class.
+	 * @param table Table of the record.
+	 * @param key Key created by {@link EntityCache#key(Object...)}.
+	 */
+	public void invalidate(final DBTable<?> table, final Object key) {
+		final Map<Object, Map<Class<?>, Object>> tableIdentities = this.identities.get(table);
+		if (tableIdentities != null)
+			tableIdentities.remove(key);
+	}
+
+	/**
+	 * Removes all the value objects of a table.
+	 * @param table Table of the records.
+	 */
+	public void invalidate(final DBTable<?> table) {
+		this.identities.remove(table);
+	}
+
+	/**
+	 * Removes all the value objects.
+	 */
+	public void clear() {
+		this.identities.clear();
+	}
+
+	/**
+	 * Getter of the number of value objects.
+	 * @return Number of value objects kept by the session.
+	 */
+	public int size() {
+		int size = 0;
+		for (Map<Object, Map<Class<?>, Object>> tableIdentities : this.identities.values())
+			for (Map<Class<?>, Object> recordIdentities : tableIdentities.values())
+				size += recordIdentities.size();
+		return size;
+	}
+
+	/**
+	 * Removes all the value objects and unbinds the session from the current thread.
+	 */
+	@Override
+	public void close() {
+		this.identities.clear();
+		if (CURRENT.get() == this)
+			CURRENT.remove();
+	}
+}
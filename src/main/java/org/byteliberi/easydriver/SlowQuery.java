@@ -0,0 +1,165 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A query execution which has taken more than the threshold of a
+ * {@link SlowQueryDetector}. The plan of the query is added when the
+ * detector has explained the query string, which could happen after
+ * the record has been created.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SlowQuery {
+	/**
+	 * Query string.
+	 */
+	private final String sql;
+
+	/**
+	 * Description of the parameter values, which can be redacted.
+	 */
+	private final List<String> parameters;
+
+	/**
+	 * Time when the execution has ended, in milliseconds since the epoch.
+	 */
+	private final long timestamp;
+
+	/**
+	 * Total time of the execution, in nanoseconds.
+	 */
+	private final long totalTime;
+
+	/**
+	 * Time taken by the database to execute the statement, in nanoseconds.
+	 */
+	private final long executeTime;
+
+	/**
+	 * Number of read or affected rows.
+	 */
+	private final long rowCount;
+
+	/**
+	 * Plan of the query in the JSON format of <code>EXPLAIN</code>, null
+	 * until the query string has been explained.
+	 */
+	private volatile String plan;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param sql Query string.
+	 * @param parameters Description of the parameter values.
+	 * @param timestamp Time when the execution has ended, in milliseconds since the epoch.
+	 * @param totalTime Total time of the execution, in nanoseconds.
+	 * @param executeTime Time taken by the database to execute the statement, in nanoseconds.
+	 * @param rowCount Number of read or affected rows.
+	 * @param plan Plan of the query, null if it is not known yet.
+	 */
+	SlowQuery(final String sql, final List<String> parameters, final long timestamp,
+			  final long totalTime, final long executeTime, final long rowCount, final String plan) {
+		this.sql = sql;
+		this.parameters = Collections.unmodifiableList(parameters);
+		this.timestamp = timestamp;
+		this.totalTime = totalTime;
+		this.executeTime = executeTime;
+		this.rowCount = rowCount;
+		this.plan = plan;
+	}
+
+	/**
+	 * Getter of the query string.
+	 * @return Query string.
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Getter of the parameter values.
+	 * @return Description of each parameter value, in order: when the values
+	 * are redacted, only their types are described.
+	 */
+	public List<String> getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * Getter of the timestamp.
+	 * @return Time when the execution has ended, in milliseconds since the epoch.
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Getter of the total time.
+	 * @return Total time of the execution, in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return this.totalTime;
+	}
+
+	/**
+	 * Getter of the execute time.
+	 * @return Time taken by the database to execute the statement, in nanoseconds.
+	 */
+	public long getExecuteTime() {
+		return this.executeTime;
+	}
+
+	/**
+	 * Getter of the number of rows.
+	 * @return Number of read or affected rows.
+	 */
+	public long getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Getter of the plan.
+	 * @return Plan of the query in the JSON format of <code>EXPLAIN</code>,
+	 * null if the query has not been explained.
+	 */
+	public String getPlan() {
+		return this.plan;
+	}
+
+	/**
+	 * Setter of the plan, it is called by the detector when the query has been explained.
+	 * @param plan Plan of the query in the JSON format of <code>EXPLAIN</code>.
+	 */
+	void setPlan(final String plan) {
+		this.plan = plan;
+	}
+
+	@Override
+	public String toString() {
+		return this.sql + " " + this.parameters + " [total=" + this.totalTime +
+			   ", execute=" + this.executeTime + ", rows=" + this.rowCount +
+			   ((this.plan == null) ? "]" : ", explained]");
+	}
+}
@@ -0,0 +1,527 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.lang.reflect.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.byteliberi.easydriver.impl.ParameterSlots;
+import org.byteliberi.easydriver.impl.QueryExecution;
+
+/**
+ * This listener keeps the executions which have taken more than a threshold,
+ * with the query string and the parameter values, so the slow queries can be
+ * found without turning on the <code>auto_explain</code> module of the server.<P>
+ * If it has been given a data source, it also explains the read statements by
+ * <code>EXPLAIN (FORMAT JSON)</code> on a side connection, with the same parameter
+ * values, then it keeps the plan next to the slow executions of that query string.
+ * The plan is not analyzed, so the statement is not executed again. The explanations
+ * are sampled and rate limited: a query string is explained no more than once
+ * every {@link #getExplainInterval()} nanoseconds and no more than
+ * {@link #getMaxExplainsPerMinute()} query strings are explained each minute.
+ * The explanations never run in the thread which has executed the slow query, which
+ * may hold locks that the side connection waits for: they run on the explain executor,
+ * or on a single daemon thread shared by all the detectors, which skips the explanations
+ * while it is busy; a skipped query string can be explained by its next slow execution.<P>
+ * The parameter values are redacted by default, that is only their types are kept.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class SlowQueryDetector implements QueryListener {
+	/**
+	 * Default number of slow executions which are kept.
+	 */
+	public final static int DEFAULT_MAX_RECORDS = 100;
+
+	/**
+	 * Default time between two explanations of the same query string, in minutes.
+	 */
+	public final static int DEFAULT_EXPLAIN_INTERVAL_MINUTES = 10;
+
+	/**
+	 * Default number of query strings which are explained each minute.
+	 */
+	public final static int DEFAULT_MAX_EXPLAINS_PER_MINUTE = 6;
+
+	/**
+	 * Max number of query strings whose plan is kept.
+	 */
+	private final static int MAX_PLANS = 1000;
+
+	/**
+	 * Max length of a parameter value which is not redacted.
+	 */
+	private final static int MAX_VALUE_LENGTH = 64;
+
+	/**
+	 * Prefix of the statement which explains a query.
+	 */
+	private final static String EXPLAIN = "EXPLAIN (FORMAT JSON) ";
+
+	private final static Logger LOGGER = Logger.getLogger(SlowQueryDetector.class.getName());
+
+	/**
+	 * Default explain executor, it is created by the first explanation.
+	 */
+	private static Executor defaultExecutor = null;
+
+	/**
+	 * Executions which take more than this time are slow, in nanoseconds.
+	 */
+	private final long threshold;
+
+	/**
+	 * Source of the side connections, null in order to not explain the queries.
+	 */
+	private final DataSource explainSource;
+
+	/**
+	 * Max number of slow executions which are kept.
+	 */
+	private final int maxRecords;
+
+	/**
+	 * Slow executions, the oldest one first.
+	 */
+	private final ArrayDeque<SlowQuery> records = new ArrayDeque<SlowQuery>();
+
+	/**
+	 * Last plan of each query string.
+	 */
+	private final ConcurrentMap<String, String> plans = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Time of the last explanation of each query string, from {@link System#nanoTime()}.
+	 */
+	private final ConcurrentMap<String, Long> explained = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * Time before which no query string can be explained, from {@link System#nanoTime()}.
+	 */
+	private final AtomicLong nextExplain = new AtomicLong(System.nanoTime());
+
+	/**
+	 * If true, only the types of the parameter values are kept.
+	 */
+	private volatile boolean redactParameters = true;
+
+	/**
+	 * Fraction of the slow executions whose query string can be explained.
+	 */
+	private volatile double explainSampleRate = 1;
+
+	/**
+	 * Min time between two explanations of the same query string, in nanoseconds.
+	 */
+	private volatile long explainInterval = TimeUnit.MINUTES.toNanos(DEFAULT_EXPLAIN_INTERVAL_MINUTES);
+
+	/**
+	 * Max number of query strings which are explained each minute.
+	 */
+	private volatile int maxExplainsPerMinute = DEFAULT_MAX_EXPLAINS_PER_MINUTE;
+
+	/**
+	 * Runs the explanations, null in order to run them on the default executor.
+	 */
+	private volatile Executor explainExecutor = null;
+
+	/**
+	 * Creates a new instance of this class, which does not explain the queries.
+	 * @param threshold Executions which take more than this time are slow.
+	 * @param unit Unit of the threshold.
+	 */
+	public SlowQueryDetector(final long threshold, final TimeUnit unit) {
+		this(threshold, unit, null);
+	}
+
+	/**
+	 * Creates a new instance of this class, which keeps
+	 * {@link #DEFAULT_MAX_RECORDS} slow executions.
+	 * @param threshold Executions which take more than this time are slow.
+	 * @param unit Unit of the threshold.
+	 * @param explainSource Source of the side connections which explain the
+	 * slow queries, null in order to not explain them.
+	 */
+	public SlowQueryDetector(final long threshold, final TimeUnit unit, final DataSource explainSource) {
+		this(threshold, unit, explainSource, DEFAULT_MAX_RECORDS);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param threshold Executions which take more than this time are slow.
+	 * @param unit Unit of the threshold.
+	 * @param explainSource Source of the side connections which explain the
+	 * slow queries, null in order to not explain them.
+	 * @param maxRecords Max number of slow executions which are kept.
+	 */
+	public SlowQueryDetector(final long threshold, final TimeUnit unit,
+							 final DataSource explainSource, final int maxRecords) {
+		if (threshold < 0)
+			throw new IllegalArgumentException("The threshold can not be negative");
+		if (maxRecords < 1)
+			throw new IllegalArgumentException("The number of records must be greater than 0");
+
+		this.threshold = unit.toNanos(threshold);
+		this.explainSource = explainSource;
+		this.maxRecords = maxRecords;
+	}
+
+	@Override
+	public void executed(final QueryExecution execution) {
+		if (execution.getTotalTime() < this.threshold)
+			return;
+
+		final String sql = execution.getSql();
+		final ParameterSlots parameters = execution.getParameters();
+		final SlowQuery record = new SlowQuery(sql, describe(parameters), System.currentTimeMillis(),
+				execution.getTotalTime(), execution.getExecuteTime(), execution.getRowCount(),
+				(sql == null) ? null : this.plans.get(sql));
+		synchronized (this.records) {
+			if (this.records.size() == this.maxRecords)
+				this.records.removeFirst();
+			this.records.addLast(record);
+		}
+
+		if (canExplain(sql))
+			explain(sql, (parameters == null) ? new ParameterSlots(0) : parameters.copy());
+	}
+
+	/**
+	 * Describes the parameter values, redacting them if it is requested.
+	 * @param parameters Parameter values, it can be null.
+	 * @return Description of each value.
+	 */
+	private List<String> describe(final ParameterSlots parameters) {
+		final int size = (parameters == null) ? 0 : parameters.size();
+		final List<String> result = new ArrayList<String>(size);
+		for (int index = 1; index <= size; index++) {
+			final Object value = parameters.getValue(index);
+			if (value == null)
+				result.add("NULL");
+			else if (value.getClass().isArray())
+				result.add(value.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(value) + "]");
+			else if (this.redactParameters) {
+				final TableField<?> field = parameters.getField(index);
+				final String typeName = (field == null) ? null : field.getTypeName();
+				result.add("<" + ((typeName == null) ? value.getClass().getSimpleName() : typeName) + ">");
+			}
+			else {
+				final String text = value.toString();
+				result.add((text.length() > MAX_VALUE_LENGTH) ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if a query string has to be explained now: it must be a read statement,
+	 * the execution must be sampled and the rate limits must not have been reached.
+	 * The query string is recorded as explained by {@link #explain(String, ParameterSlots)},
+	 * once its explanation has been accepted by the executor.
+	 * @param sql Query string.
+	 * @return true if the query string can be explained.
+	 */
+	private boolean canExplain(final String sql) {
+		if ((this.explainSource == null) || (sql == null) || !isReadStatement(sql))
+			return false;
+		if ((this.explainSampleRate < 1) && (ThreadLocalRandom.current().nextDouble() >= this.explainSampleRate))
+			return false;
+
+		final long now = System.nanoTime();
+		final long next = this.nextExplain.get();
+		if (now - next < 0)
+			return false;
+
+		final Long last = this.explained.get(sql);
+		if ((last == null) ? (this.explained.size() >= MAX_PLANS) : (now - last < this.explainInterval))
+			return false;
+
+		final int perMinute = this.maxExplainsPerMinute;
+		return (perMinute > 0) && this.nextExplain.compareAndSet(next, now + TimeUnit.MINUTES.toNanos(1) / perMinute);
+	}
+
+	/**
+	 * Checks if a query string reads data, as only those are explained.
+	 * @param sql Query string.
+	 * @return true if the query string starts by <code>SELECT</code> or <code>WITH</code>.
+	 */
+	static boolean isReadStatement(final String sql) {
+		int start = 0;
+		while ((start < sql.length()) &&
+			   (Character.isWhitespace(sql.charAt(start)) || (sql.charAt(start) == '(')))
+			start++;
+		return sql.regionMatches(true, start, "SELECT", 0, 6) || sql.regionMatches(true, start, "WITH", 0, 4);
+	}
+
+	/**
+	 * Explains a query string on a side connection, on the explain executor if there is one,
+	 * otherwise on the default executor.
+	 * @param sql Query string.
+	 * @param parameters Copy of the parameter values of the slow execution.
+	 */
+	private void explain(final String sql, final ParameterSlots parameters) {
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					setPlan(sql, readPlan(sql, parameters));
+				}
+				catch (SQLException ex) {
+					LOGGER.log(Level.WARNING, "Impossible to explain a slow query.", ex);
+				}
+			}
+		};
+
+		final Executor executor = this.explainExecutor;
+		try {
+			((executor == null) ? getDefaultExecutor() : executor).execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			LOGGER.log(Level.FINE, "The explanation of a slow query has been skipped.", ex);
+			return;
+		}
+		this.explained.put(sql, Long.valueOf(System.nanoTime()));
+	}
+
+	/**
+	 * Getter of the default explain executor: a single daemon thread, with a queue
+	 * of a single explanation, so the explanations which arrive while it is busy
+	 * are rejected instead of piling up.
+	 * @return Default explain executor.
+	 */
+	private static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.MINUTES,
+				new ArrayBlockingQueue<Runnable>(1),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable, "SlowQueryDetector-explain");
+						thread.setDaemon(true);
+						return thread;
+					}
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+			executor.allowCoreThreadTimeOut(true);
+			defaultExecutor = executor;
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Runs <code>EXPLAIN</code> on a side connection.
+	 * @param sql Query string.
+	 * @param parameters Parameter values.
+	 * @return Plan in JSON format.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	private String readPlan(final String sql, final ParameterSlots parameters) throws SQLException {
+		final Connection con = this.explainSource.getConnection();
+		try {
+			final PreparedStatement pstm = con.prepareStatement(EXPLAIN + sql);
+			try {
+				parameters.apply(pstm);
+				final ResultSet rs = pstm.executeQuery();
+				try {
+					final StringBuilder plan = new StringBuilder();
+					while (rs.next())
+						plan.append(rs.getString(1));
+					return plan.toString();
+				}
+				finally {
+					rs.close();
+				}
+			}
+			finally {
+				pstm.close();
+			}
+		}
+		finally {
+			con.close();
+		}
+	}
+
+	/**
+	 * Keeps the plan of a query string and adds it to its slow executions.
+	 * @param sql Query string.
+	 * @param plan Plan in JSON format.
+	 */
+	private void setPlan(final String sql, final String plan) {
+		this.plans.put(sql, plan);
+		synchronized (this.records) {
+			for (SlowQuery record : this.records)
+				if (sql.equals(record.getSql()))
+					record.setPlan(plan);
+		}
+	}
+
+	/**
+	 * Getter of the slow executions.
+	 * @return Copy of the slow executions which are kept, the oldest one first.
+	 */
+	public List<SlowQuery> getSlowQueries() {
+		synchronized (this.records) {
+			return new ArrayList<SlowQuery>(this.records);
+		}
+	}
+
+	/**
+	 * Getter of the last plan of a query string.
+	 * @param sql Query string.
+	 * @return Plan in JSON format, or null if the query string has not been explained.
+	 */
+	public String getPlan(final String sql) {
+		return this.plans.get(sql);
+	}
+
+	/**
+	 * Removes the slow executions and the plans.
+	 */
+	public void clear() {
+		synchronized (this.records) {
+			this.records.clear();
+		}
+		this.plans.clear();
+		this.explained.clear();
+	}
+
+	/**
+	 * Getter of the threshold.
+	 * @return Executions which take more than this time are slow, in nanoseconds.
+	 */
+	public long getThreshold() {
+		return this.threshold;
+	}
+
+	/**
+	 * Setter of the redaction of the parameter values.
+	 * @param redactParameters If true, only the types of the parameter values are kept.
+	 */
+	public void setRedactParameters(final boolean redactParameters) {
+		this.redactParameters = redactParameters;
+	}
+
+	/**
+	 * Getter of the redaction of the parameter values.
+	 * @return true if only the types of the parameter values are kept.
+	 */
+	public boolean isRedactParameters() {
+		return this.redactParameters;
+	}
+
+	/**
+	 * Setter of the sample rate of the explanations.
+	 * @param explainSampleRate Fraction of the slow executions, between 0 and 1,
+	 * whose query string can be explained.
+	 */
+	public void setExplainSampleRate(final double explainSampleRate) {
+		if ((explainSampleRate < 0) || (explainSampleRate > 1))
+			throw new IllegalArgumentException("The sample rate must be between 0 and 1");
+
+		this.explainSampleRate = explainSampleRate;
+	}
+
+	/**
+	 * Getter of the sample rate of the explanations.
+	 * @return Fraction of the slow executions whose query string can be explained.
+	 */
+	public double getExplainSampleRate() {
+		return this.explainSampleRate;
+	}
+
+	/**
+	 * Setter of the time between two explanations of the same query string.
+	 * @param interval Min time between two explanations.
+	 * @param unit Unit of the interval.
+	 */
+	public void setExplainInterval(final long interval, final TimeUnit unit) {
+		if (interval < 0)
+			throw new IllegalArgumentException("The interval can not be negative");
+
+		this.explainInterval = unit.toNanos(interval);
+	}
+
+	/**
+	 * Getter of the time between two explanations of the same query string.
+	 * @return Min time between two explanations, in nanoseconds.
+	 */
+	public long getExplainInterval() {
+		return this.explainInterval;
+	}
+
+	/**
+	 * Setter of the number of query strings which are explained each minute.
+	 * @param maxExplainsPerMinute Max number of explanations each minute,
+	 * 0 in order to not explain the queries.
+	 */
+	public void setMaxExplainsPerMinute(final int maxExplainsPerMinute) {
+		if (maxExplainsPerMinute < 0)
+			throw new IllegalArgumentException("The number of explanations can not be negative");
+
+		this.maxExplainsPerMinute = maxExplainsPerMinute;
+	}
+
+	/**
+	 * Getter of the number of query strings which are explained each minute.
+	 * @return Max number of explanations each minute.
+	 */
+	public int getMaxExplainsPerMinute() {
+		return this.maxExplainsPerMinute;
+	}
+
+	/**
+	 * Setter of the explain executor.
+	 * @param explainExecutor Runs the explanations, null in order to run them
+	 * on the default executor, a single daemon thread.
+	 */
+	public void setExplainExecutor(final Executor explainExecutor) {
+		this.explainExecutor = explainExecutor;
+	}
+
+	/**
+	 * Getter of the explain executor.
+	 * @return Runs the explanations, null if they run on the default executor.
+	 */
+	public Executor getExplainExecutor() {
+		return this.explainExecutor;
+	}
+}
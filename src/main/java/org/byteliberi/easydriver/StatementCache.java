@@ -0,0 +1,394 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.impl.CacheStatistics;
+
+/**
+ * This class keeps the Prepared Statements open, so they can be used again
+ * by the queries which have the same query string on the same connection,
+ * letting the database reuse its prepared plan.<P>
+ * A query takes a statement from the cache when it is prepared and gives
+ * it back when it is closed, so a statement is used by one query at a time.
+ * For each connection, the cache keeps no more than a fixed number of
+ * statements: when it is full, the least recently used statement is closed.<P>
+ * The connections are identified by the physical connection, obtained by
+ * <code>unwrap</code>, so the statements survive when a pool gives back the
+ * same connection behind a different proxy. The statements are always prepared
+ * on the passed connection, so a pool still tracks them; if the pool closes them
+ * when its proxy is closed, they are prepared again by the next query.
+ * The closed connections are forgotten when a statement has to be created,
+ * so giving back a statement does not scan all the connections.<P>
+ * A statement is given back with its default settings: the max number of rows,
+ * the fetch size and the query timeout set by a query do not reach the next one.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class StatementCache {
+	/**
+	 * Default number of statements which are kept for each connection.
+	 */
+	public final static int DEFAULT_SIZE = 256;
+
+	/**
+	 * SQL state that PostgreSQL returns for a feature that is not supported,
+	 * it is used also when a cached plan is no more valid.
+	 */
+	private final static String FEATURE_NOT_SUPPORTED = "0A000";
+
+	/**
+	 * Message that PostgreSQL returns when a table has been changed after
+	 * a statement has been prepared.
+	 */
+	private final static String STALE_PLAN_MESSAGE = "cached plan must not change result type";
+
+	private final static Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+	/**
+	 * Cache used by the queries that have not been given a specific cache,
+	 * by default there is none.
+	 */
+	private static volatile StatementCache defaultCache = null;
+
+	/**
+	 * Max number of statements which are kept for each connection.
+	 */
+	private final int maxSize;
+
+	/**
+	 * Statements, grouped by the physical connection.
+	 */
+	private final Map<Connection, ConnectionStatements> connections =
+			new IdentityHashMap<Connection, ConnectionStatements>();
+
+	/**
+	 * Hit, miss and eviction counters.
+	 */
+	private final CacheStatistics statistics = new CacheStatistics();
+
+	/**
+	 * Creates a new instance of this class, which keeps
+	 * {@link #DEFAULT_SIZE} statements for each connection.
+	 */
+	public StatementCache() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param maxSize Max number of statements which are kept for each connection.
+	 */
+	public StatementCache(final int maxSize) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException("The cache size must be greater than 0");
+
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Getter of the cache used by the queries that have not been given
+	 * a specific cache.
+	 * @return Default cache, it is null when the statements are not cached.
+	 */
+	public static StatementCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * Setter of the cache used by the queries which are created after this call.
+	 * @param cache Default cache, null in order to not cache the statements.
+	 */
+	public static void setDefault(final StatementCache cache) {
+		defaultCache = cache;
+	}
+
+	/**
+	 * Checks if an exception has been risen because the database has discarded
+	 * the plan of a prepared statement, for example after an <code>ALTER TABLE</code>.
+	 * In such a case, the statement can be prepared again.
+	 * @param ex Exception risen by the execution of a statement.
+	 * @return true if the statement must be prepared again.
+	 */
+	public static boolean isStalePlan(final SQLException ex) {
+		final String message = ex.getMessage();
+		return FEATURE_NOT_SUPPORTED.equals(ex.getSQLState()) &&
+			   (message != null) && message.contains(STALE_PLAN_MESSAGE);
+	}
+
+	/**
+	 * Takes a statement out of the cache or it creates a new one if
+	 * there is none for the passed connection and query string.
+	 * @param con Database connection.
+	 * @param sql Query string.
+	 * @return Prepared Statement, it has to be given back by
+	 * {@link #release(Connection, String, PreparedStatement)}.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public PreparedStatement prepare(final Connection con, final String sql) throws SQLException {
+		final ConnectionStatements statements = getStatements(unwrap(con));
+		PreparedStatement pstm;
+		synchronized (statements) {
+			pstm = statements.remove(sql);
+		}
+		if ((pstm != null) && !pstm.isClosed()) {
+			this.statistics.recordHit();
+			return pstm;
+		}
+
+		this.statistics.recordMiss();
+		synchronized (this.connections) {
+			removeClosedConnections();
+		}
+		final PreparedStatement created = con.prepareStatement(sql);
+		synchronized (statements) {
+			if (statements.defaultFetchSize < 0)
+				statements.defaultFetchSize = created.getFetchSize();
+		}
+		return created;
+	}
+
+	/**
+	 * Gives back a statement to the cache, so it can be used by another query.
+	 * @param con Database connection, the same passed to {@link #prepare(Connection, String)}.
+	 * @param sql Query string, the same passed to {@link #prepare(Connection, String)}.
+	 * @param pstm Statement returned by {@link #prepare(Connection, String)}.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public void release(final Connection con, final String sql, final PreparedStatement pstm) throws SQLException {
+		if (pstm.isClosed())
+			return;
+
+		final ConnectionStatements statements;
+		synchronized (this.connections) {
+			statements = this.connections.get(unwrap(con));
+		}
+		if ((statements == null) || !reset(pstm, statements)) {
+			pstm.close();
+			return;
+		}
+
+		final PreparedStatement replaced;
+		synchronized (statements) {
+			replaced = statements.put(sql, pstm);
+		}
+		if ((replaced != null) && (replaced != pstm))
+			replaced.close();
+	}
+
+	/**
+	 * Gives back the default settings to a statement, so the next query does not
+	 * find the parameters, the max number of rows, the fetch size or the timeout
+	 * of the previous one.
+	 * @param pstm Statement which is given back.
+	 * @param statements Statements of its connection.
+	 * @return true if the statement can be kept, false if it has to be closed.
+	 */
+	private static boolean reset(final PreparedStatement pstm, final ConnectionStatements statements) {
+		final int defaultFetchSize;
+		synchronized (statements) {
+			defaultFetchSize = statements.defaultFetchSize;
+		}
+		try {
+			pstm.clearParameters();
+			if (pstm.getMaxRows() != 0)
+				pstm.setMaxRows(0);
+			if (pstm.getQueryTimeout() != 0)
+				pstm.setQueryTimeout(0);
+			if (pstm.getFetchSize() != defaultFetchSize) {
+				if (defaultFetchSize < 0)
+					return false;
+				pstm.setFetchSize(defaultFetchSize);
+			}
+			return true;
+		}
+		catch (SQLException ex) {
+			LOGGER.log(Level.FINE, "Impossible to reset a cached statement, it is closed.", ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Closes a statement that has been taken from the cache
+	 * and that must not be used again.
+	 * @param pstm Statement returned by {@link #prepare(Connection, String)}.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public void discard(final PreparedStatement pstm) throws SQLException {
+		pstm.close();
+	}
+
+	/**
+	 * Closes all the statements kept for the passed connection. This should
+	 * be called before a connection is physically closed.
+	 * @param con Database connection.
+	 */
+	public void clear(final Connection con) {
+		ConnectionStatements statements;
+		try {
+			final Connection physical = unwrap(con);
+			synchronized (this.connections) {
+				statements = this.connections.remove(physical);
+			}
+		}
+		catch (SQLException ex) {
+			LOGGER.log(Level.WARNING, "Impossible to get the physical connection.", ex);
+			statements = null;
+		}
+		if (statements != null)
+			statements.closeAll();
+	}
+
+	/**
+	 * Closes all the kept statements.
+	 */
+	public void clear() {
+		final ConnectionStatements[] all;
+		synchronized (this.connections) {
+			all = this.connections.values().toArray(new ConnectionStatements[this.connections.size()]);
+			this.connections.clear();
+		}
+		for (ConnectionStatements statements : all)
+			statements.closeAll();
+	}
+
+	/**
+	 * Getter of the counters.
+	 * @return Hit, miss and eviction counters.
+	 */
+	public CacheStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	/**
+	 * Getter of the max number of statements which are kept for each connection.
+	 * @return Max number of statements which are kept for each connection.
+	 */
+	public final int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Gets the physical connection, so the statements are shared
+	 * by the proxies that a pool creates for the same connection.
+	 * @param con Database connection.
+	 * @return Physical connection, or the passed one if it does not wrap another one.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private static Connection unwrap(final Connection con) throws SQLException {
+		if (con.isWrapperFor(Connection.class)) {
+			final Connection physical = con.unwrap(Connection.class);
+			if (physical != null)
+				return physical;
+		}
+		return con;
+	}
+
+	/**
+	 * Gets the statements of a connection, the statement group is created when it is missing.
+	 * @param physical Physical connection.
+	 * @return Statements of the connection.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private ConnectionStatements getStatements(final Connection physical) throws SQLException {
+		synchronized (this.connections) {
+			ConnectionStatements statements = this.connections.get(physical);
+			if (statements == null) {
+				removeClosedConnections();
+				statements = new ConnectionStatements();
+				this.connections.put(physical, statements);
+			}
+			return statements;
+		}
+	}
+
+	/**
+	 * Forgets the connections that have been closed, it is called when a new
+	 * connection is added or a statement has to be created, while holding the lock of the map.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private void removeClosedConnections() throws SQLException {
+		final Iterator<Connection> iter = this.connections.keySet().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().isClosed())
+				iter.remove();
+		}
+	}
+
+	/**
+	 * Statements of a single connection, sorted from the least recently used.
+	 */
+	private class ConnectionStatements extends LinkedHashMap<String, PreparedStatement> {
+		private static final long serialVersionUID = -2934128725830192877L;
+
+		/**
+		 * Fetch size of a new statement of this connection, -1 until a statement has been created.
+		 */
+		int defaultFetchSize = -1;
+
+		/**
+		 * Creates a new instance of this class, ordered by access.
+		 */
+		ConnectionStatements() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+			if (size() <= maxSize)
+				return false;
+
+			statistics.recordEviction();
+			try {
+				eldest.getValue().close();
+			}
+			catch (SQLException ex) {
+				LOGGER.log(Level.WARNING, "Impossible to close an evicted statement.", ex);
+			}
+			return true;
+		}
+
+		/**
+		 * Closes all the statements of this connection.
+		 */
+		synchronized void closeAll() {
+			for (PreparedStatement pstm : values()) {
+				try {
+					pstm.close();
+				}
+				catch (SQLException ex) {
+					LOGGER.log(Level.WARNING, "Impossible to close a cached statement.", ex);
+				}
+			}
+			clear();
+		}
+	}
+}
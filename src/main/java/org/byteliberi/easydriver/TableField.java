@@ -155,6 +155,26 @@ public abstract class TableField<T> implements Comparable<TableField<?>> {
 			return this.name.compareTo(obj.getName());
 	}
 	
+	/**
+	 * Getter of the database name of the type of this field, as it is used by
+	 * <code>Connection.createArrayOf</code> when the values of this field are
+	 * passed as a single array parameter.
+	 * @return Type name, or null if the values of this field can not be array elements.
+	 */
+	public String getTypeName() {
+		return null;
+	}
+	
+	/**
+	 * Converts a value of this field to the object which is put inside an array
+	 * parameter.
+	 * @param value Value of this field, it can be null.
+	 * @return Array element.
+	 */
+	public Object toArrayElement(final T value) {
+		return value;
+	}
+	
 	/**
 	 * Creates a new instance of a value object and it fills its properties
 	 * with the read values from the Result Set.
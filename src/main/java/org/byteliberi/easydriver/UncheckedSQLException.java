@@ -0,0 +1,48 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver;
+
+import java.sql.SQLException;
+
+/**
+ * This exception wraps a {@link SQLException} which is risen where a checked
+ * exception can not be thrown, such as the methods of an <code>Iterator</code>
+ * or of a <code>Stream</code>.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class UncheckedSQLException extends RuntimeException {
+	private static final long serialVersionUID = -6012823546397262473L;
+
+	/**
+	 * Creates a new instance of this class for the passed exception.
+	 * @param ex Included exception.
+	 */
+	public UncheckedSQLException(final SQLException ex) {
+		super(ex);
+	}
+
+	@Override
+	public synchronized SQLException getCause() {
+		return (SQLException) super.getCause();
+	}
+}
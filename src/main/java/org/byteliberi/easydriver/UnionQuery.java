@@ -21,11 +21,16 @@ package org.byteliberi.easydriver;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import org.byteliberi.easydriver.impl.Query;
 import org.byteliberi.easydriver.impl.ReadQuery;
 import org.byteliberi.easydriver.impl.ReadQueryAPI;
+import org.byteliberi.easydriver.impl.ResultIterator;
+import org.byteliberi.easydriver.impl.RowHandler;
 
 /**
  * This query get the joined result of two queries which extracts the
@@ -41,6 +46,9 @@ public class UnionQuery<T> extends Query implements ReadQueryAPI<T> {
 	protected final static String UNION = "\nUNION ";
 	protected final static String ALL = "ALL ";
 	
+	private final static Level LOG_LEVEL = Level.FINE;
+	private final static Logger LOGGER = Logger.getLogger(SelectQuery.class.getName());
+	
 	/**
 	 * Factory which creates a new instance
 	 * of a value object and fills its properties with the values read from
@@ -70,6 +78,16 @@ public class UnionQuery<T> extends Query implements ReadQueryAPI<T> {
 	 */
 	protected boolean unionAll = false;
 	
+	/**
+	 * Query string of the first query, used to create the current query string.
+	 */
+	private String firstQueryString = null;
+	
+	/**
+	 * Query string of the second query, used to create the current query string.
+	 */
+	private String secondQueryString = null;
+	
 	/**
 	 * Creates a new instance of this class.
 	 * @param firstQuery This is the first query, which appears before the UNION clause.
@@ -94,18 +112,32 @@ public class UnionQuery<T> extends Query implements ReadQueryAPI<T> {
 	
 	@Override
 	protected String createQueryString() {
-            final StringBuilder sbQuery = new StringBuilder(100);
-            sbQuery.append('(').append(firstQuery.createQueryString()).append(')').append(UNION);
+            this.firstQueryString = firstQuery.getQueryString();
+            this.secondQueryString = secondQuery.getQueryString();
+            
+            final StringBuilder sbQuery = new StringBuilder(this.firstQueryString.length() + this.secondQueryString.length() + 20);
+            sbQuery.append('(').append(this.firstQueryString).append(')').append(UNION);
             if (unionAll)
                 sbQuery.append(ALL);
-            sbQuery.append('(').append(secondQuery.createQueryString()).append(')');	
+            sbQuery.append('(').append(this.secondQueryString).append(')');	
 
             final String queryStr = sbQuery.toString();
-            Logger.getLogger(SelectQuery.class.getName()).info(queryStr);
+            if (LOGGER.isLoggable(LOG_LEVEL))
+                LOGGER.log(LOG_LEVEL, queryStr);
 
             return queryStr;
 	}
 	
+	/**
+	 * The query string is created again when one of the united queries
+	 * has changed its own query string.
+	 */
+	@Override
+	protected boolean isQueryStringStale() {
+		return (this.firstQuery.getQueryString() != this.firstQueryString) ||
+			   (this.secondQuery.getQueryString() != this.secondQueryString);
+	}
+	
 	/**
 	 * This method creates the <code>select</code> section of the query     
 	 */
@@ -116,36 +148,74 @@ public class UnionQuery<T> extends Query implements ReadQueryAPI<T> {
 
 	@Override
 	public synchronized T getSingleResult() throws SQLException {
-		if (this.readQuery == null)
-			this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
+		return getReadQuery().getSingleResult();
+	}
 
-		this.readQuery.setPstm(this.pstm);
-		return this.readQuery.getSingleResult();
+	@Override
+	public synchronized T getFirstResult() throws SQLException {
+		return getReadQuery().getFirstResult();
 	}
 
 	@Override
 	public synchronized T getSingleResultAndClose() throws SQLException {
 		final T result = getSingleResult();
-		if (this.pstm != null)
-			this.pstm.close();
+		close();
 		return result;
 	}
 
 	@Override
 	public synchronized List<T> getResultList() throws SQLException {
-		if (this.readQuery == null)
-			this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
-
-		this.readQuery.setPstm(this.pstm);
-		return this.readQuery.getResultList();
+		return getReadQuery().getResultList();
 	}
 
 	@Override
 	public synchronized List<T> getResultAndClose() throws SQLException {
 		final List<T> result = getResultList();
-		if (this.pstm != null)
-			this.pstm.close();
+		close();
 
 		return result;
 	}
+
+	@Override
+	public CompletableFuture<List<T>> getResultListAsync() {
+		return submitResultList(this.valueObjectFactory);
+	}
+
+	@Override
+	public CompletableFuture<T> getSingleResultAsync() {
+		return submitSingleResult(this.valueObjectFactory);
+	}
+
+	/**
+	 * Gets the reader of the records, creating it the first time.
+	 * @return This class contains some reusable code for the queries that creates
+	 * some value objects and return them to the user.
+	 */
+	private synchronized ReadQuery<T> getReadQuery() {
+		if (this.readQuery == null)
+			this.readQuery = new ReadQuery<T>(this.valueObjectFactory, this);
+
+		this.readQuery.setPstm(this.pstm);
+		return this.readQuery;
+	}
+
+	@Override
+	public ResultIterator<T> iterator() throws SQLException {
+		return getReadQuery().iterator();
+	}
+
+	@Override
+	public void forEach(final RowHandler<? super T> handler) throws SQLException {
+		getReadQuery().forEach(handler);
+	}
+
+	@Override
+	public Stream<T> stream() throws SQLException {
+		return getReadQuery().stream();
+	}
+
+	@Override
+	public void setFetchSize(final int fetchSize) {
+		getReadQuery().setFetchSize(fetchSize);
+	}
 }
@@ -19,6 +19,8 @@
  */
 package org.byteliberi.easydriver;
 
+import java.util.LinkedList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +40,7 @@ public class UpdateQuery extends ExecutableQuery implements FilteredQueryAPI {
 	private final static String UPDATE = "UPDATE ";
 	private final static String SET = " SET ";
 	private final static Level LOG_LEVEL = Level.FINE;	
+	private final static Logger LOGGER = Logger.getLogger(InsertQuery.class.getName());
 		
 	protected ExpressionAPI[] expressions = null;
 	
@@ -81,8 +84,8 @@ public class UpdateQuery extends ExecutableQuery implements FilteredQueryAPI {
 				sbQuery.append(expr.createString());
 		}
 		final String query = sbQuery.toString();
-		final Logger logger = Logger.getLogger(InsertQuery.class.getName());
-		logger.log(LOG_LEVEL, query);
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, query);
 		return query;
 	}
 	
@@ -99,18 +102,38 @@ public class UpdateQuery extends ExecutableQuery implements FilteredQueryAPI {
 		return this.filteredQuery;
 	}
 
+	@Override
+	protected TableField<?>[] findParameterTypes() {
+		final List<TableField<?>> found = new LinkedList<TableField<?>>();
+		for (ExpressionAPI expression : this.expressions)
+			found.addAll(expression.getParameters());
+		found.addAll(getFilteredQuery().findParameters());
+		return found.toArray(new TableField<?>[found.size()]);
+	}
+
+	@Override
+	protected Object findEntityKey() {
+		int firstIndex = 1;
+		for (ExpressionAPI expression : this.expressions)
+			firstIndex += expression.getParameters().size();
+		return getFilteredQuery().findKey(this.table, this.parameters, firstIndex);
+	}
+
 	@Override
 	public void setWhere(TableField<?> field) {
 		getFilteredQuery().setWhere(field);
+		invalidateQueryString();
 	}
 
 	@Override
 	public void setWhere(ExpressionAPI exp) {
 		getFilteredQuery().setWhere(exp);
+		invalidateQueryString();
 	}
 
 	@Override
 	public void setWhere(ExpressionAPI[] exp) {
 		getFilteredQuery().setWhere(exp);
+		invalidateQueryString();
 	}
 }
@@ -39,5 +39,6 @@ public class And extends DualOperator {
     public And(ExpressionAPI left, ExpressionAPI right) {
         super(left, OPERATOR, right);
         setParentheses(true);
+        setEquality(isEquality(left) && isEquality(right));
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.expressions;
+
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.fields.ArrayField;
+
+/**
+ * This is the operator <pre>field = ANY(?)</pre>, which is true when the field is equal to
+ * one of the elements of an array parameter.<P>
+ * Unlike {@link In}, the values are passed as a single parameter, so the query string
+ * is the same for any number of values and the prepared statement and its plan can be reused.
+ * The values are appended by <code>Query.addArrayParameter</code>.
+ * 
+ * @author Paolo Proni
+ * @since 1.0
+ * @version 1.0
+ * 
+ * @param <T> Class type of the field.
+ */
+public class AnyOf<T> extends DualOperator {
+	private final static String OPERATOR = " = ANY(";
+	
+	/**
+	 * Field which manages the array parameter.
+	 */
+	private final ArrayField arrayField;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param field Field which lays at the left of the operator.
+	 */
+	public AnyOf(final TableField<T> field) {
+		this(field, true);
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param field Field which lays at the left of the operator.
+	 * @param useCompleteName When true, the query is created using the complete field name, that is
+	 * the table name, followed by a dot and the field name, otherwise the simple field name is used.
+	 */
+	public AnyOf(final TableField<T> field, final boolean useCompleteName) {
+		super(field, OPERATOR, "?)");
+		if (!useCompleteName)
+			setLeft(field.getName());
+		this.arrayField = new ArrayField(field);
+		this.parameterManagerList.add(this.arrayField);
+	}
+	
+	/**
+	 * Getter of the field which manages the array parameter.
+	 * @return Field which passes the values as a single array parameter.
+	 */
+	public final ArrayField getArrayField() {
+		return this.arrayField;
+	}
+}
@@ -59,6 +59,12 @@ public class DualOperator implements ExpressionAPI {
 	 */
 	private boolean parentheses = false;
 
+	/**
+	 * It is true if this operator is made by equalities between a field
+	 * and a parameter, joined by <code>AND</code>.
+	 */
+	private boolean equality = false;
+
 	/**
 	 * List of the parameters which are included in this operator
 	 */
@@ -117,6 +123,8 @@ public class DualOperator implements ExpressionAPI {
 		this.left = left.createString();
 		this.operator = operator;
 		this.right = right.createString();
+		this.parameterManagerList.addAll(left.getParameters());
+		this.parameterManagerList.addAll(right.getParameters());
 	}
 	
 	protected void setLeft(final String leftPart) {
@@ -181,6 +189,33 @@ public class DualOperator implements ExpressionAPI {
 		this.parentheses = parentheses;
 	}
 
+	/**
+	* Checks if this operator is made by equalities between a field and a parameter,
+	* such as <code>field = ?</code>, joined by <code>AND</code>. The queries use it
+	* in order to find the record that they change.
+	* @return true if each parameter must be equal to its field.
+	*/
+	public final boolean isEquality() {
+		return this.equality;
+	}
+
+	/**
+	* Set if this operator is made by equalities between a field and a parameter.
+	* @param equality true if each parameter must be equal to its field.
+	*/
+	protected final void setEquality(final boolean equality) {
+		this.equality = equality;
+	}
+
+	/**
+	* Checks if an expression is made by equalities between a field and a parameter.
+	* @param expression Expression.
+	* @return true if each parameter of the expression must be equal to its field.
+	*/
+	public static boolean isEquality(final ExpressionAPI expression) {
+		return (expression instanceof DualOperator) && ((DualOperator) expression).isEquality();
+	}
+
 //	/**
 //	* This inner class is used to make a Builder pattern, in order to
 //	* create a DualOperator without incongruencies.
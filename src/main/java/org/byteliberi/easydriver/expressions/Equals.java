@@ -39,6 +39,7 @@ public class Equals extends DualOperator {
      */
     public Equals(TableField<?> field) {
     	super(field, OPERATOR);
+    	setEquality(true);
     }
     
     /**
@@ -49,6 +50,7 @@ public class Equals extends DualOperator {
      */
     public Equals(final TableField<?> field, final boolean useCompleteName) {
     	super(field, OPERATOR, useCompleteName);
+    	setEquality(true);
     }
 
     /**
@@ -12,6 +12,6 @@ public class In<T> extends DualOperator {
 	}
 	
 	public In(final TableField<T> field, final SelectQuery<T> subQuery) {
-		super(field, OPERATOR, subQuery.createQueryString() + ") ");
+		super(field, OPERATOR, subQuery.getQueryString() + ") ");
 	}
 }
@@ -0,0 +1,100 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.fields;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.byteliberi.easydriver.TableField;
+
+/**
+ * This field manages a PostgreSQL array, whose elements have the type of another field.
+ * The array is created by <code>Connection.createArrayOf</code>, so a whole list of values
+ * is passed as a single parameter and the query string does not depend on the number
+ * of values.
+ * 
+ * @author Paolo Proni
+ * @since 1.0
+ * @version 1.0
+ */
+public class ArrayField extends TableField<Object[]> {
+	/**
+	 * Database name of the element type.
+	 */
+	private final String elementType;
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param elementField Field which has the type of the array elements.
+	 */
+	public ArrayField(final TableField<?> elementField) {
+		super();
+		this.elementType = elementField.getTypeName();
+		if (this.elementType == null)
+			throw new IllegalArgumentException("The field " + elementField.getName() + " can not be an array element");
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param elementType Database name of the element type, such as <code>int8</code>.
+	 */
+	public ArrayField(final String elementType) {
+		super();
+		if (elementType == null)
+			throw new IllegalArgumentException("The element type can not be null");
+		this.elementType = elementType;
+	}
+	
+	/**
+	 * Getter of the element type.
+	 * @return Database name of the element type.
+	 */
+	public final String getElementType() {
+		return this.elementType;
+	}
+
+	@Override
+	public Object[] map(final ResultSet rs, final int index) throws SQLException {
+		final Array array = rs.getArray(index);
+		if (array == null)
+			return null;
+		try {
+			return (Object[]) array.getArray();
+		}
+		finally {
+			array.free();
+		}
+	}
+
+	@Override
+	public void map(final PreparedStatement pstm, final int index, final Object[] value) throws SQLException {
+		if (value == null) {
+			if (isAnnullable())
+				pstm.setNull(index, Types.ARRAY);
+			else
+				throw new SQLException("Attempt to set a null value to the field " + getCompleteName());
+		}
+		else
+			pstm.setArray(index, pstm.getConnection().createArrayOf(this.elementType, value));
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.fields;
+
+import java.sql.SQLException;
+
+/**
+ * This class reads the text representation of a PostgreSQL array of integers,
+ * such as <code>{1,2,3}</code>, straight into a primitive array, so each element
+ * is not boxed. Only the arrays of one dimension without null elements are accepted.
+ * 
+ * @author Paolo Proni
+ * @since 1.0
+ * @version 1.0
+ */
+final class ArrayLiteral {
+	/**
+	 * The values are read as negative numbers, so <code>Long.MIN_VALUE</code> can be read too;
+	 * a value lower than this one can not be multiplied by 10.
+	 */
+	private final static long LIMIT = Long.MIN_VALUE / 10;
+	
+	/**
+	 * Creates a new instance of this class.
+	 */
+	private ArrayLiteral() {
+	}
+	
+	/**
+	 * Reads an array of <code>int4</code> values.
+	 * @param literal Text representation of the array.
+	 * @return Primitive array.
+	 * @throws SQLException The text is not an array of integers.
+	 */
+	static int[] parseInts(final String literal) throws SQLException {
+		final long[] values = parseLongs(literal);
+		final int[] res = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] < Integer.MIN_VALUE || values[i] > Integer.MAX_VALUE)
+				throw new SQLException("The value " + values[i] + " is out of the int range in the array " + literal);
+			res[i] = (int) values[i];
+		}
+		return res;
+	}
+	
+	/**
+	 * Reads an array of <code>int8</code> values.
+	 * @param literal Text representation of the array.
+	 * @return Primitive array.
+	 * @throws SQLException The text is not an array of integers.
+	 */
+	static long[] parseLongs(final String literal) throws SQLException {
+		final int len = literal.length();
+		int pos = 0;
+		// skips the bounds, such as [0:2]={1,2,3}
+		if (len > 0 && literal.charAt(0) == '[') {
+			pos = literal.indexOf('=');
+			if (pos < 0)
+				throw new SQLException("Malformed array " + literal);
+			pos++;
+		}
+		if (pos >= len || literal.charAt(pos) != '{' || literal.charAt(len - 1) != '}')
+			throw new SQLException("Malformed array " + literal);
+		pos++;
+		final int end = len - 1;
+		
+		int count = 0;
+		for (int i = pos; i < end; i++) {
+			final char c = literal.charAt(i);
+			if (c == ',')
+				count++;
+			else if (c == '{' || c == 'N' || c == 'n')
+				throw new SQLException("Only the arrays of one dimension without null elements can be read: " + literal);
+		}
+		
+		boolean empty = true;
+		for (int i = pos; i < end && empty; i++)
+			empty = Character.isWhitespace(literal.charAt(i));
+		if (empty)
+			return new long[0];
+		
+		final long[] res = new long[count + 1];
+		int index = 0;
+		while (pos <= end) {
+			while (pos < end && Character.isWhitespace(literal.charAt(pos)))
+				pos++;
+			boolean negative = false;
+			if (pos < end && (literal.charAt(pos) == '-' || literal.charAt(pos) == '+')) {
+				negative = literal.charAt(pos) == '-';
+				pos++;
+			}
+			long value = 0;
+			int digits = 0;
+			while (pos < end && literal.charAt(pos) >= '0' && literal.charAt(pos) <= '9') {
+				final int digit = literal.charAt(pos) - '0';
+				if (value < LIMIT || (value == LIMIT && digit > 8))
+					throw new SQLException("A value is out of the bigint range in the array " + literal);
+				value = value * 10 - digit;
+				digits++;
+				pos++;
+			}
+			while (pos < end && Character.isWhitespace(literal.charAt(pos)))
+				pos++;
+			if (digits == 0 || (pos < end && literal.charAt(pos) != ','))
+				throw new SQLException("Malformed array " + literal);
+			if (!negative && value == Long.MIN_VALUE)
+				throw new SQLException("A value is out of the bigint range in the array " + literal);
+			res[index++] = negative ? value : -value;
+			pos++;
+		}
+		return res;
+	}
+}
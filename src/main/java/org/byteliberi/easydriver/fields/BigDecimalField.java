@@ -95,4 +95,9 @@ public class BigDecimalField extends TableField<BigDecimal> {
 		else
 			pstm.setBigDecimal(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "numeric";
+	}
 }
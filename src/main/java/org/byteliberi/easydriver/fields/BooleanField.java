@@ -74,6 +74,21 @@ public class BooleanField extends TableField<Boolean> {
 		super(name, annullable, table);
 	}
 
+	/**
+	 * Reads the value as a <code>boolean</code>, so it is not boxed. When this field does not
+	 * accept a null value, <code>wasNull</code> is not called.
+	 * @param rs Result Set which was created, executing this query.
+	 * @param index 1 based index of the field.
+	 * @return Value of the field.
+	 * @throws SQLException The value is null or a problem occurred with the database.
+	 */
+	public final boolean mapBoolean(final ResultSet rs, final int index) throws SQLException {
+		final boolean res = rs.getBoolean(index);
+		if (isAnnullable() && rs.wasNull())
+			throw new SQLException("The field " + getCompleteName() + " has a null value");
+		return res;
+	}
+
 	@Override
 	public Boolean map(final ResultSet rs, final int index) throws SQLException {
 		final boolean res = rs.getBoolean(index);
@@ -94,4 +109,9 @@ public class BooleanField extends TableField<Boolean> {
 		else
 			pstm.setBoolean(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "bool";
+	}
 }
\ No newline at end of file
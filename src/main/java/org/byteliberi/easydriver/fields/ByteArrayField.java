@@ -94,4 +94,9 @@ public class ByteArrayField extends TableField<byte[]> {
 		else
 			pstm.setBytes(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "bytea";
+	}
 }
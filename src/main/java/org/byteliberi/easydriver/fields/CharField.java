@@ -94,4 +94,9 @@ public class CharField extends TableField<String> {
 		else
 			pstm.setString(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "bpchar";
+	}
 }
@@ -95,4 +95,14 @@ public class DateField extends TableField<Date> {
 		else
 			pstm.setDate(index, new java.sql.Date(value.getTime()));
 	}
+
+	@Override
+	public String getTypeName() {
+		return "date";
+	}
+
+	@Override
+	public Object toArrayElement(final Date value) {
+		return (value == null) ? null : new java.sql.Date(value.getTime());
+	}
 }
@@ -74,6 +74,21 @@ public class DoubleField extends TableField<Double> {
 		super(name, annullable, table);
 	}
 	
+	/**
+	 * Reads the value as a <code>double</code>, so it is not boxed. When this field does not
+	 * accept a null value, <code>wasNull</code> is not called.
+	 * @param rs Result Set which was created, executing this query.
+	 * @param index 1 based index of the field.
+	 * @return Value of the field.
+	 * @throws SQLException The value is null or a problem occurred with the database.
+	 */
+	public final double mapDouble(final ResultSet rs, final int index) throws SQLException {
+		final double res = rs.getDouble(index);
+		if (isAnnullable() && rs.wasNull())
+			throw new SQLException("The field " + getCompleteName() + " has a null value");
+		return res;
+	}
+
 	@Override
 	public Double map(final ResultSet rs, final int index) throws SQLException {
 		final double res = rs.getDouble(index);
@@ -94,4 +109,9 @@ public class DoubleField extends TableField<Double> {
 		else
 			 pstm.setDouble(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "float8";
+	}
 }
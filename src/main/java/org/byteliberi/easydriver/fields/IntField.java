@@ -74,6 +74,21 @@ public class IntField extends TableField<Integer> {
 		super(name, annullable, table);
 	}
 
+	/**
+	 * Reads the value as a <code>int</code>, so it is not boxed. When this field does not
+	 * accept a null value, <code>wasNull</code> is not called.
+	 * @param rs Result Set which was created, executing this query.
+	 * @param index 1 based index of the field.
+	 * @return Value of the field.
+	 * @throws SQLException The value is null or a problem occurred with the database.
+	 */
+	public final int mapInt(final ResultSet rs, final int index) throws SQLException {
+		final int res = rs.getInt(index);
+		if (isAnnullable() && rs.wasNull())
+			throw new SQLException("The field " + getCompleteName() + " has a null value");
+		return res;
+	}
+
 	@Override
 	public final Integer map(final ResultSet rs, final int index) throws SQLException {
 		final Integer res = rs.getInt(index);
@@ -94,4 +109,9 @@ public class IntField extends TableField<Integer> {
 		else
 			pstm.setInt(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "int4";
+	}
 }
@@ -0,0 +1,117 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.fields;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.TableField;
+
+/**
+ * This is a table field that matches the BIGINT database type.
+ * 
+ * @author Paolo Proni
+ * @since 1.0
+ * @version 1.0
+ */
+public class LongField extends TableField<Long> {
+	/**
+	 * This instance is used when the caller needs the map methods only.
+	 */
+	private final static LongField empty = new LongField();
+	
+	/**
+	 * Creates a new instance of this class.
+	 */
+	private LongField() {
+		super();
+	}
+	
+	/**
+	 * Returns a singleton empty instance.
+	 * @return This instance is used when the caller needs the map methods only.
+	 */
+	public static LongField getEmpty() {
+		return empty;
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param name Field name.
+	 * @param table This field belongs to the specified table.
+	 */
+	public LongField(final String name, final DBTable<?> table) {
+		super(name, table);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param name Field name
+	 * @param annullable This is true when this field accepts a null value	 
+	 * @param table This field belongs to the specified table.
+	 */
+	public LongField(final String name, final boolean annullable, final DBTable<?> table) {
+		super(name, annullable, table);
+	}
+
+	/**
+	 * Reads the value as a <code>long</code>, so it is not boxed. When this field does not
+	 * accept a null value, <code>wasNull</code> is not called.
+	 * @param rs Result Set which was created, executing this query.
+	 * @param index 1 based index of the field.
+	 * @return Value of the field.
+	 * @throws SQLException The value is null or a problem occurred with the database.
+	 */
+	public final long mapLong(final ResultSet rs, final int index) throws SQLException {
+		final long res = rs.getLong(index);
+		if (isAnnullable() && rs.wasNull())
+			throw new SQLException("The field " + getCompleteName() + " has a null value");
+		return res;
+	}
+
+	@Override
+	public final Long map(final ResultSet rs, final int index) throws SQLException {
+		final long res = rs.getLong(index);
+		if (rs.wasNull())
+			return null;
+		else
+			return res;
+	}
+    
+	@Override
+	public final void map(final PreparedStatement pstm, final int index, final Long value) throws SQLException {
+		if (value == null) {
+			if (isAnnullable())
+				pstm.setNull(index, Types.BIGINT);
+			else
+				throw new SQLException("Attempt to set a null value to the field " + getCompleteName());
+		}
+		else
+			pstm.setLong(index, value);
+	}
+
+	@Override
+	public String getTypeName() {
+		return "int8";
+	}
+}
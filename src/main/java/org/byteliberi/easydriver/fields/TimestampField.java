@@ -43,9 +43,9 @@ public class TimestampField extends TableField<Date> {
 	private final static TimestampField empty = new TimestampField();
 	
 	/**
-	 * Creates a new instance of this class.
+	 * Creates a new instance of this class, it is used by the empty instances.
 	 */
-	private TimestampField() {
+	protected TimestampField() {
 		super();
 	}
 	
@@ -96,4 +96,14 @@ public class TimestampField extends TableField<Date> {
 		else
 			pstm.setTimestamp(index, new Timestamp(value.getTime()));
 	}
+
+	@Override
+	public String getTypeName() {
+		return "timestamp";
+	}
+
+	@Override
+	public Object toArrayElement(final Date value) {
+		return (value == null) ? null : new Timestamp(value.getTime());
+	}
 }
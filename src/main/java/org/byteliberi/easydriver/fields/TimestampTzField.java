@@ -0,0 +1,77 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.fields;
+
+import org.byteliberi.easydriver.DBTable;
+
+/**
+ * This is a table field that matches the TIMESTAMP WITH TIME ZONE database type.
+ * It is read and written by JDBC as a {@link TimestampField}, while the binary
+ * <code>COPY</code> converts its values as instants, without the time zone of the JVM.
+ * 
+ * @author Paolo Proni
+ * @since 1.0
+ * @version 1.0
+ */
+public class TimestampTzField extends TimestampField {
+	/**
+	 * This instance is used when the caller needs the map methods only.
+	 */
+	private final static TimestampTzField empty = new TimestampTzField();
+	
+	/**
+	 * Creates a new instance of this class.
+	 */
+	private TimestampTzField() {
+		super();
+	}
+	
+	/**
+	 * Returns a singleton empty instance.
+	 * @return This instance is used when the caller needs the map methods only.
+	 */
+	public static TimestampTzField getEmpty() {
+		return empty;
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param name Field name.
+	 * @param table This field belong to the specified table.
+	 */
+	public TimestampTzField(final String name, final DBTable<?> table) {
+		super(name, table);
+	}
+	
+	/**
+	 * Creates a new instance of this class.
+	 * @param name Field name.
+	 * @param annullable This is true when this field accepts a null value	 
+	 * @param table This field belongs to the specified table.
+	 */
+	public TimestampTzField(final String name, final boolean annullable, final DBTable<?> table) {
+		super(name, annullable, table);
+	}
+
+	@Override
+	public String getTypeName() {
+		return "timestamptz";
+	}
+}
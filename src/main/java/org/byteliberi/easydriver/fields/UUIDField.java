@@ -78,11 +78,31 @@ public class UUIDField extends TableField<UUID> {
 	@Override
 	public UUID map(final ResultSet rs, final int index) throws SQLException {
 		final Object resObj = rs.getObject(index);
-		if (rs.wasNull())
+		if (resObj == null)
 			return null;
+		else if (resObj instanceof UUID)
+			// the PostgreSQL driver already returns a UUID
+			return (UUID) resObj;
+		else if ((resObj instanceof byte[]) && (((byte[]) resObj).length == 16))
+			return fromBytes((byte[]) resObj);
 		else
 			return UUID.fromString(resObj.toString());
 	}
+	
+	/**
+	 * Creates a UUID from its 16 bytes, in network order.
+	 * @param bytes Binary representation of the UUID.
+	 * @return UUID.
+	 */
+	private static UUID fromBytes(final byte[] bytes) {
+		long msb = 0;
+		long lsb = 0;
+		for (int i = 0; i < 8; i++)
+			msb = (msb << 8) | (bytes[i] & 0xFF);
+		for (int i = 8; i < 16; i++)
+			lsb = (lsb << 8) | (bytes[i] & 0xFF);
+		return new UUID(msb, lsb);
+	}
 
 	@Override
 	public void map(final PreparedStatement pstm, final int index, final UUID value) throws SQLException {        
@@ -92,8 +112,13 @@ public class UUIDField extends TableField<UUID> {
 			else
 				throw new SQLException("Attempt to set a null value to the field " + getCompleteName());
 		}
-		else {		
-			pstm.setObject(index, value, Types.OTHER);
-		}
+		else
+			// without a target type the driver binds the uuid type straight away
+			pstm.setObject(index, value);
+	}
+
+	@Override
+	public String getTypeName() {
+		return "uuid";
 	}
 }
@@ -95,4 +95,9 @@ public class VarcharField extends TableField<String> {
 		else
 			pstm.setString(index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return "varchar";
+	}
 }
@@ -78,6 +78,14 @@ public class Decoration<T> extends TableField<T> {
 		return sb.toString();
 	}
 	
+	/**
+	 * Getter of the decorated field.
+	 * @return Field whose name we want to decorate.
+	 */
+	public final TableField<T> getField() {
+		return this.field;
+	}
+
 	@Override
 	public T map(final ResultSet rs, final int index) throws SQLException {
 		return this.field.map(rs, index);
@@ -87,4 +95,14 @@ public class Decoration<T> extends TableField<T> {
 	public void map(PreparedStatement pstm, int index, T value) throws SQLException {
 		this.field.map(pstm, index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return this.field.getTypeName();
+	}
+
+	@Override
+	public Object toArrayElement(final T value) {
+		return this.field.toArrayElement(value);
+	}
 }
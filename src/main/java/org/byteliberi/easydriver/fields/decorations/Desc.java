@@ -54,6 +54,15 @@ public class Desc<T> extends TableField<T> {
 		this.field = field;
 	}
 	
+	/**
+	 * Getter of the field which is ordered.
+	 * @return Field that we want to put in the <code>ORDER BY</code> clause
+	 * with reverse order.
+	 */
+	public final TableField<T> getField() {
+		return this.field;
+	}
+	
 	/**
 	 * Get the complete name of the field, followed by a <code>DESC</code> clause.
 	 * @return Complete name.
@@ -85,4 +94,14 @@ public class Desc<T> extends TableField<T> {
 	public void map(PreparedStatement pstm, int index, T value) throws SQLException {
 		this.field.map(pstm, index, value);
 	}
+
+	@Override
+	public String getTypeName() {
+		return this.field.getTypeName();
+	}
+
+	@Override
+	public Object toArrayElement(final T value) {
+		return this.field.toArrayElement(value);
+	}
 }
\ No newline at end of file
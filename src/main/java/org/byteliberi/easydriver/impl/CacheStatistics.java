@@ -0,0 +1,178 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps the counters of a cache, that is how many times
+ * a requested item has been found, how many times it had to be created
+ * and how many items have been removed to make room for the new ones.<P>
+ * The counters can be updated by several threads at the same time.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class CacheStatistics {
+	/**
+	 * Number of the requests that have been satisfied by the cache.
+	 */
+	private final AtomicLong hits = new AtomicLong(0);
+
+	/**
+	 * Number of the requests that have not been found in the cache.
+	 */
+	private final AtomicLong misses = new AtomicLong(0);
+
+	/**
+	 * Number of the items that have been removed to make room for the new ones.
+	 */
+	private final AtomicLong evictions = new AtomicLong(0);
+
+	/**
+	 * Number of the items that have been loaded after a miss.
+	 */
+	private final AtomicLong loads = new AtomicLong(0);
+
+	/**
+	 * Time spent loading the items, in nanoseconds.
+	 */
+	private final AtomicLong loadTime = new AtomicLong(0);
+
+	/**
+	 * Counts a request that has been satisfied by the cache.
+	 */
+	public void recordHit() {
+		this.hits.incrementAndGet();
+	}
+
+	/**
+	 * Counts a request that has not been found in the cache.
+	 */
+	public void recordMiss() {
+		this.misses.incrementAndGet();
+	}
+
+	/**
+	 * Counts an item that has been removed to make room for a new one.
+	 */
+	public void recordEviction() {
+		this.evictions.incrementAndGet();
+	}
+
+	/**
+	 * Counts an item that has been loaded after a miss.
+	 * @param nanos Time taken by the load, in nanoseconds.
+	 */
+	public void recordLoad(final long nanos) {
+		this.loads.incrementAndGet();
+		this.loadTime.addAndGet(nanos);
+	}
+
+	/**
+	 * Getter of the hit counter.
+	 * @return Number of the requests that have been satisfied by the cache.
+	 */
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Getter of the miss counter.
+	 * @return Number of the requests that have not been found in the cache.
+	 */
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Getter of the eviction counter.
+	 * @return Number of the items that have been removed to make room for the new ones.
+	 */
+	public long getEvictionCount() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * Getter of the load counter.
+	 * @return Number of the items that have been loaded after a miss.
+	 */
+	public long getLoadCount() {
+		return this.loads.get();
+	}
+
+	/**
+	 * Getter of the total load time.
+	 * @return Time spent loading the items, in nanoseconds.
+	 */
+	public long getTotalLoadTime() {
+		return this.loadTime.get();
+	}
+
+	/**
+	 * Getter of the average load time.
+	 * @return Average time taken by a load, in nanoseconds, it is 0 when nothing has been loaded.
+	 */
+	public double getAverageLoadTime() {
+		final long count = getLoadCount();
+		if (count == 0)
+			return 0;
+		else
+			return (double) getTotalLoadTime() / count;
+	}
+
+	/**
+	 * Getter of the total number of requests.
+	 * @return Sum of the hits and of the misses.
+	 */
+	public long getRequestCount() {
+		return getHitCount() + getMissCount();
+	}
+
+	/**
+	 * Getter of the hit ratio.
+	 * @return Value between 0 and 1, it is 0 when there have been no requests.
+	 */
+	public double getHitRatio() {
+		final long requests = getRequestCount();
+		if (requests == 0)
+			return 0;
+		else
+			return (double) getHitCount() / requests;
+	}
+
+	/**
+	 * Sets all the counters to 0.
+	 */
+	public void reset() {
+		this.hits.set(0);
+		this.misses.set(0);
+		this.evictions.set(0);
+		this.loads.set(0);
+		this.loadTime.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + getHitCount() + ", misses=" + getMissCount() +
+			   ", evictions=" + getEvictionCount() + ", loads=" + getLoadCount();
+	}
+}
@@ -19,7 +19,17 @@
  */
 package org.byteliberi.easydriver.impl;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.byteliberi.easydriver.CompiledQuery;
+import org.byteliberi.easydriver.ConnectionTask;
+import org.byteliberi.easydriver.EntityCache;
+import org.byteliberi.easydriver.Session;
 
 /**
  * This is the super class of the queries that can update, insert or delete data.
@@ -29,14 +39,366 @@ import java.sql.SQLException;
  * @since 1.0
  */
 public abstract class ExecutableQuery extends Query {
+	/**
+	 * Default number of rows after which a batch is sent to the database.
+	 */
+	public final static int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Smallest batch size chosen by the adaptive batch size.
+	 */
+	private final static int MIN_ADAPTIVE_BATCH_SIZE = 16;
+
+	/**
+	 * Number of rows after which the batch is sent to the database,
+	 * 0 if the batch is sent by {@link #executeBatch()} only.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Max batch size chosen by the adaptive batch size, 0 when the batch size is fixed.
+	 */
+	private int maxBatchSize = 0;
+
+	/**
+	 * Time that a batch should take, in nanoseconds, when the batch size is adaptive.
+	 */
+	private long targetBatchNanos = 0;
+
+	/**
+	 * Number of rows added to the current batch.
+	 */
+	private int pendingRows = 0;
+
+	/**
+	 * Number of rows affected by the batches sent since the last
+	 * call to {@link #executeBatch()}.
+	 */
+	private int batchUpdateCount = 0;
 
 	/**
-	 * This method executes the update, insert or delete.
+	 * Keys of the cached records changed by the rows of the current batch.
+	 */
+	private final List<Object> batchKeys = new ArrayList<Object>();
+
+	/**
+	 * It is true if a row of the current batch can change any cached record.
+	 */
+	private boolean batchChangesAll = false;
+
+	/**
+	 * This method executes the update, insert or delete. If the table has an
+	 * entity cache, or the current thread has a session, the changed record
+	 * is removed from them.
 	 * @return Number of rows affected by the execution of this query.
 	 * @throws SQLException A problem occurred in the query or in the database.
 	 */
 	public int execute() throws SQLException {
-		return pstm.executeUpdate();
+		final EntityCache<?> cache = findEntityCache();
+		final Session session = findSession();
+		if ((cache == null) && (session == null))
+			return executeUpdate();
+
+		final Object key = findEntityKey();
+		try {
+			return executeUpdate();
+		}
+		finally {
+			invalidateEntity(cache, session, key);
+		}
+	}
+
+	/**
+	 * Executes the update, insert or delete on a connection of the connection
+	 * executor, so the calling thread is not blocked. The current parameter values
+	 * are copied, then the query can be filled again or closed; it does not need
+	 * to be prepared. The changed record is removed from the session of the calling
+	 * thread at once, and from the entity cache when the execution ends.
+	 * @return Future which is completed by the number of rows affected by the execution.
+	 * @throws IllegalStateException The query has no connection executor.
+	 */
+	public synchronized CompletableFuture<Integer> executeAsync() {
+		final EntityCache<?> cache = findEntityCache();
+		final Session session = findSession();
+		final Object key = ((cache == null) && (session == null)) ? null : findEntityKey();
+		final CompiledQuery.Execution<Void> execution = this.<Void>copyExecution(null);
+		final CompletableFuture<Integer> future = submit(new ConnectionTask<Integer>() {
+			@Override
+			public Integer run(final Connection con) throws SQLException {
+				try {
+					return Integer.valueOf(execution.execute(con));
+				}
+				finally {
+					invalidateEntity(cache, null, key);
+					invalidateResults();
+				}
+			}
+		});
+		invalidateEntity(null, session, key);
+		return future;
+	}
+
+	/**
+	 * Removes a changed record from the entity cache and from the session.
+	 * @param cache Entity cache of the table, it can be null.
+	 * @param session Session of the current thread, it can be null.
+	 * @param key Key of the changed record, null in order to remove all the records.
+	 */
+	private void invalidateEntity(final EntityCache<?> cache, final Session session, final Object key) {
+		if (cache != null) {
+			if (key == null)
+				cache.invalidateAll();
+			else
+				cache.invalidate(key);
+		}
+		if (session != null) {
+			if (key == null)
+				session.invalidate(this.table);
+			else
+				session.invalidate(this.table, key);
+		}
+	}
+
+	/**
+	 * Executes the Prepared Statement, then it removes the cached query results
+	 * which have read the table, even if the execution has failed, as the table
+	 * could have been changed anyway.
+	 * @return Number of rows affected by the execution.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	@Override
+	protected int executeUpdate() throws SQLException {
+		try {
+			return super.executeUpdate();
+		}
+		finally {
+			invalidateResults();
+		}
+	}
+
+	/**
+	 * Removes the cached query results which have read the table changed by this query.
+	 */
+	protected final void invalidateResults() {
+		if (this.table != null)
+			this.table.invalidateResults();
+	}
+
+	/**
+	 * Checks if this query can change the records which have already been read.
+	 * @return true, unless the query can only add new records.
+	 */
+	protected boolean canChangeEntities() {
+		return true;
+	}
+
+	/**
+	 * Getter of the entity cache changed by this query.
+	 * @return Entity cache of the table, or null if the table has no cache
+	 * or if this query can not change the cached records.
+	 */
+	private EntityCache<?> findEntityCache() {
+		return ((this.table == null) || !canChangeEntities()) ? null : this.table.getEntityCache();
+	}
+
+	/**
+	 * Getter of the session changed by this query.
+	 * @return Session of the current thread, or null if there is none
+	 * or if this query can not change the records kept by a session.
+	 */
+	private Session findSession() {
+		return ((this.table == null) || !canChangeEntities()) ? null : Session.current();
+	}
+
+	/**
+	 * Finds the primary key of the record changed by the current parameter values.
+	 * @return Key created by {@link EntityCache#key(Object...)}, or null if the query
+	 * can change more than one record; in such a case all the cached records are removed.
+	 */
+	protected Object findEntityKey() {
+		return null;
+	}
+
+	/**
+	 * Adds the current parameter values to the batch, then it clears them, so the
+	 * parameters of the next row can be added. When the batch reaches the batch size,
+	 * it is sent to the database.<P>
+	 * With PostgreSQL, setting <code>reWriteBatchedInserts=true</code> in the connection
+	 * URL lets the driver send a batch of inserts as multi row inserts.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	public synchronized void addBatch() throws SQLException {
+		if ((findEntityCache() != null) || (findSession() != null)) {
+			final Object key = findEntityKey();
+			if (key == null)
+				this.batchChangesAll = true;
+			else
+				this.batchKeys.add(key);
+		}
+
+		this.pstm.addBatch();
+		this.parameters.clear();
+		this.pendingRows++;
+
+		if ((this.batchSize > 0) && (this.pendingRows >= this.batchSize))
+			flushBatch();
+	}
+
+	/**
+	 * Sends to the database the rows which are still in the batch.
+	 * @return Number of rows affected by all the rows added since the last call
+	 * to this method, including the ones already sent because the batch was full.
+	 * If the driver does not know the number of rows affected by a statement,
+	 * that statement is counted as one row.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	public synchronized int executeBatch() throws SQLException {
+		if (this.pendingRows > 0)
+			flushBatch();
+
+		final int count = this.batchUpdateCount;
+		this.batchUpdateCount = 0;
+		return count;
+	}
+
+	/**
+	 * Sends the batch to the database and, if the batch size is adaptive,
+	 * it chooses the size of the next batch from the time taken by this one.
+	 * If the query has a listener, the batch is measured as a single execution.
+	 * @throws SQLException A problem occurred in the query or in the database.
+	 */
+	private void flushBatch() throws SQLException {
+		final int rows = this.pendingRows;
+		this.pendingRows = 0;
+
+		final QueryExecution execution = startExecution();
+		final long start = System.nanoTime();
+		final int[] counts;
+		try {
+			counts = this.pstm.executeBatch();
+		}
+		catch (SQLException ex) {
+			if (execution != null)
+				execution.finish(false);
+			throw ex;
+		}
+		finally {
+			invalidateBatchKeys();
+			invalidateResults();
+		}
+		final long elapsed = System.nanoTime() - start;
+
+		int affected = 0;
+		for (int count : counts) {
+			if (count > 0)
+				affected += count;
+			else if (count == Statement.SUCCESS_NO_INFO)
+				affected++;
+		}
+		this.batchUpdateCount += affected;
+
+		if (execution != null) {
+			execution.executed();
+			execution.setRowCount(affected);
+			execution.finish(true);
+		}
+
+		if ((this.maxBatchSize > 0) && (elapsed > 0))
+			adaptBatchSize(rows, elapsed);
+	}
+
+	/**
+	 * Removes from the entity cache and from the session the records changed by the batch.
+	 */
+	private void invalidateBatchKeys() {
+		final EntityCache<?> cache = findEntityCache();
+		final Session session = findSession();
+		if (this.batchChangesAll)
+			invalidateEntity(cache, session, null);
+		else
+			for (Object key : this.batchKeys)
+				invalidateEntity(cache, session, key);
+		this.batchKeys.clear();
+		this.batchChangesAll = false;
+	}
+
+	/**
+	 * Chooses the next batch size, so that a batch takes about the target time.
+	 * The new size is the average between the current one and the estimated one,
+	 * in order to smooth the variations of the latency.
+	 * @param rows Number of rows sent by the last batch.
+	 * @param elapsed Time taken by the last batch, in nanoseconds.
+	 */
+	private void adaptBatchSize(final int rows, final long elapsed) {
+		final double nanosPerRow = (double) elapsed / rows;
+		final double estimated = this.targetBatchNanos / nanosPerRow;
+		final int next = (int) Math.max(MIN_ADAPTIVE_BATCH_SIZE, Math.min(this.maxBatchSize, estimated));
+		this.batchSize = (this.batchSize + next) / 2;
+	}
+
+	/**
+	 * Closes the Prepared Statement. The rows that have been added to the batch
+	 * and that have not been sent yet are discarded, so they must be sent by
+	 * {@link #executeBatch()} before closing the query.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	@Override
+	public synchronized void close() throws SQLException {
+		if (this.pendingRows > 0) {
+			this.pendingRows = 0;
+			this.batchUpdateCount = 0;
+			this.batchKeys.clear();
+			this.batchChangesAll = false;
+			this.pstm.clearBatch();
+		}
+		super.close();
+	}
+
+	/**
+	 * Setter of a fixed batch size.
+	 * @param batchSize Number of rows after which the batch is sent to the database,
+	 * 0 in order to send the batch by {@link #executeBatch()} only.
+	 */
+	public synchronized void setBatchSize(final int batchSize) {
+		if (batchSize < 0)
+			throw new IllegalArgumentException("The batch size can not be negative");
+
+		this.batchSize = batchSize;
+		this.maxBatchSize = 0;
+	}
+
+	/**
+	 * Lets the query choose the batch size, from the time taken by the previous batch,
+	 * so that each batch takes about the target time. The first batch has
+	 * {@link #DEFAULT_BATCH_SIZE} rows, or less if the max size is smaller.
+	 * @param maxBatchSize Max number of rows in a batch.
+	 * @param targetMillis Time that a batch should take, in milliseconds.
+	 */
+	public synchronized void setAdaptiveBatchSize(final int maxBatchSize, final long targetMillis) {
+		if ((maxBatchSize < 1) || (targetMillis < 1))
+			throw new IllegalArgumentException("The max batch size and the target time must be greater than 0");
+
+		this.maxBatchSize = maxBatchSize;
+		this.targetBatchNanos = targetMillis * 1000000L;
+		this.batchSize = Math.min(DEFAULT_BATCH_SIZE, maxBatchSize);
+	}
+
+	/**
+	 * Getter of the batch size.
+	 * @return Number of rows after which the batch is sent to the database,
+	 * it changes after each batch when the batch size is adaptive.
+	 */
+	public synchronized int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Creates an immutable copy of this query, which can be shared by several
+	 * threads and executed many times, each time with its own parameter values.
+	 * @return Compiled query, made by the current query string and parameter types.
+	 */
+	public CompiledQuery<Void> compile() {
+		return new CompiledQuery<Void>(this, null);
 	}
 
 }
@@ -19,7 +19,11 @@
  */
 package org.byteliberi.easydriver.impl;
 
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.EntityCache;
+import org.byteliberi.easydriver.PrimaryKey;
 import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.expressions.DualOperator;
 import org.byteliberi.easydriver.expressions.Equals;
 import org.byteliberi.easydriver.ExpressionAPI;
 
@@ -76,12 +80,64 @@ public class FilteredQuery implements FilteredQueryAPI {
 	 */
 	public List<TableField<?>> findParameters() {
 		final LinkedList<TableField<?>> found = new LinkedList<TableField<?>>();
+		if (this.expressions == null)
+			return found;
+		
 		for (ExpressionAPI expression : this.expressions) {
 			found.addAll(expression.getParameters());
 		}
 		return found;
 	}
 
+	/**
+	 * Finds the primary key of the record selected by the <code>WHERE</code> clause.
+	 * The key is found only if the clause is made by equalities, joined by <code>AND</code>,
+	 * between each field of the primary key and a parameter.
+	 * @param table Table of the query.
+	 * @param parameters Parameter values of the query.
+	 * @param firstIndex 1 based index of the first parameter of the <code>WHERE</code> clause.
+	 * @return Key created by {@link EntityCache#key(Object...)}, or null if the clause
+	 * can select more than one record.
+	 */
+	public Object findKey(final DBTable<?> table, final ParameterSlots parameters, final int firstIndex) {
+		final PrimaryKey<?> primaryKey = table.getPrimaryKey();
+		if ((primaryKey == null) || (this.expressions == null) || (this.expressions.length != 1) ||
+			!DualOperator.isEquality(this.expressions[0]))
+			return null;
+
+		final TableField<?>[] keyFields = primaryKey.getFields();
+		final List<TableField<?>> whereFields = this.expressions[0].getParameters();
+		if ((keyFields == null) || (keyFields.length != whereFields.size()) ||
+			(parameters.size() < firstIndex + keyFields.length - 1))
+			return null;
+
+		final Object[] values = new Object[keyFields.length];
+		int index = firstIndex;
+		for (TableField<?> whereField : whereFields) {
+			final int position = indexOf(keyFields, whereField);
+			if ((position < 0) || (values[position] != null))
+				return null;
+
+			values[position] = parameters.getValue(index++);
+			if (values[position] == null)
+				return null;
+		}
+		return EntityCache.key(values);
+	}
+
+	/**
+	 * Finds a field in an array.
+	 * @param fields Array of fields.
+	 * @param field Field to find.
+	 * @return 0 based position of the field, or -1 if it is not in the array.
+	 */
+	private static int indexOf(final TableField<?>[] fields, final TableField<?> field) {
+		for (int i = 0; i < fields.length; i++)
+			if (fields[i] == field)
+				return i;
+		return -1;
+	}
+
 	/**
 	 * Get the complex expression.
 	 * @return Expression used in a where clause
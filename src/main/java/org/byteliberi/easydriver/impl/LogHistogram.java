@@ -0,0 +1,273 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This histogram counts the recorded values in buckets whose bounds are
+ * powers of 2, so it takes a fixed amount of memory and a value is recorded
+ * by a few atomic increments, without any lock.<P>
+ * The bucket <code>n</code> counts the values between <code>2<sup>n-1</sup></code>
+ * and <code>2<sup>n</sup> - 1</code>, the bucket 0 counts the values equal to 0,
+ * so a percentile is known with an error lower than a factor 2.
+ * The histogram can be updated by several threads at the same time.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class LogHistogram {
+	/**
+	 * Number of buckets, enough for any positive <code>long</code> value.
+	 */
+	public final static int BUCKET_COUNT = 64;
+
+	/**
+	 * Number of values recorded in each bucket.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	/**
+	 * Number of recorded values.
+	 */
+	private final AtomicLong count = new AtomicLong(0);
+
+	/**
+	 * Sum of the recorded values.
+	 */
+	private final AtomicLong total = new AtomicLong(0);
+
+	/**
+	 * Greatest recorded value.
+	 */
+	private final AtomicLong max = new AtomicLong(0);
+
+	/**
+	 * Records a value, the negative values are recorded as 0.
+	 * @param value Value to be recorded.
+	 */
+	public void record(final long value) {
+		final long recorded = Math.max(0, value);
+		this.buckets.incrementAndGet(getBucket(recorded));
+		this.count.incrementAndGet();
+		this.total.addAndGet(recorded);
+
+		long current = this.max.get();
+		while ((recorded > current) && !this.max.compareAndSet(current, recorded))
+			current = this.max.get();
+	}
+
+	/**
+	 * Finds the bucket of a value.
+	 * @param value Value greater or equal to 0.
+	 * @return 0 based index of the bucket.
+	 */
+	static int getBucket(final long value) {
+		return Long.SIZE - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * Getter of the greatest value counted by a bucket.
+	 * @param bucket 0 based index of the bucket.
+	 * @return Upper bound of the bucket.
+	 */
+	static long getUpperBound(final int bucket) {
+		return (bucket == 0) ? 0 : (1L << bucket) - 1;
+	}
+
+	/**
+	 * Getter of the number of recorded values.
+	 * @return Number of recorded values.
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * Copies the current counters. The copy is not atomic, so if some
+	 * values are recorded while it is made, the counters could differ
+	 * by those values.
+	 * @return Snapshot of this histogram.
+	 */
+	public Snapshot snapshot() {
+		final long[] counts = new long[BUCKET_COUNT];
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+			counts[bucket] = this.buckets.get(bucket);
+		return new Snapshot(counts, this.count.get(), this.total.get(), this.max.get());
+	}
+
+	/**
+	 * Sets all the counters to 0.
+	 */
+	public void reset() {
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+			this.buckets.set(bucket, 0);
+		this.count.set(0);
+		this.total.set(0);
+		this.max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return snapshot().toString();
+	}
+
+	/**
+	 * Immutable copy of the counters of a histogram.
+	 */
+	public static final class Snapshot {
+		/**
+		 * Number of values recorded in each bucket.
+		 */
+		private final long[] buckets;
+
+		/**
+		 * Number of recorded values.
+		 */
+		private final long count;
+
+		/**
+		 * Sum of the recorded values.
+		 */
+		private final long total;
+
+		/**
+		 * Greatest recorded value.
+		 */
+		private final long max;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param buckets Number of values recorded in each bucket.
+		 * @param count Number of recorded values.
+		 * @param total Sum of the recorded values.
+		 * @param max Greatest recorded value.
+		 */
+		private Snapshot(final long[] buckets, final long count, final long total, final long max) {
+			this.buckets = buckets;
+			this.count = count;
+			this.total = total;
+			this.max = max;
+		}
+
+		/**
+		 * Getter of the number of recorded values.
+		 * @return Number of recorded values.
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Getter of the sum of the recorded values.
+		 * @return Sum of the recorded values.
+		 */
+		public long getTotal() {
+			return this.total;
+		}
+
+		/**
+		 * Getter of the greatest recorded value.
+		 * @return Greatest recorded value, it is 0 when nothing has been recorded.
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * Getter of the average value.
+		 * @return Average of the recorded values, it is 0 when nothing has been recorded.
+		 */
+		public double getMean() {
+			if (this.count == 0)
+				return 0;
+			else
+				return (double) this.total / this.count;
+		}
+
+		/**
+		 * Finds the value which is greater or equal to the passed
+		 * percentage of the recorded values.
+		 * @param percentile Percentage, between 0 and 100.
+		 * @return Upper bound of the bucket which contains the percentile,
+		 * never greater than the greatest recorded value.
+		 */
+		public long getPercentile(final double percentile) {
+			if ((percentile < 0) || (percentile > 100))
+				throw new IllegalArgumentException("The percentile must be between 0 and 100");
+
+			long counted = 0;
+			for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+				counted += this.buckets[bucket];
+			if (counted == 0)
+				return 0;
+
+			final long rank = Math.max(1, (long) Math.ceil(counted * percentile / 100));
+			long seen = 0;
+			for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+				seen += this.buckets[bucket];
+				if (seen >= rank)
+					return Math.min(getUpperBound(bucket), this.max);
+			}
+			return this.max;
+		}
+
+		/**
+		 * Getter of the median.
+		 * @return 50th percentile.
+		 */
+		public long getMedian() {
+			return getPercentile(50);
+		}
+
+		/**
+		 * Getter of the 90th percentile.
+		 * @return Value greater or equal to 90% of the recorded values.
+		 */
+		public long getPercentile90() {
+			return getPercentile(90);
+		}
+
+		/**
+		 * Getter of the 99th percentile.
+		 * @return Value greater or equal to 99% of the recorded values.
+		 */
+		public long getPercentile99() {
+			return getPercentile(99);
+		}
+
+		/**
+		 * Getter of the bucket counters.
+		 * @return Number of values recorded in each bucket, the bucket <code>n</code>
+		 * counts the values between <code>2<sup>n-1</sup></code> and <code>2<sup>n</sup> - 1</code>.
+		 */
+		public long[] getBuckets() {
+			return this.buckets.clone();
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + this.count + ", mean=" + getMean() + ", p50=" + getMedian() +
+				   ", p99=" + getPercentile99() + ", max=" + this.max;
+		}
+	}
+}
@@ -0,0 +1,368 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.byteliberi.easydriver.TableField;
+
+/**
+ * This class keeps the parameter values of a statement, one slot for each
+ * <code>?</code> placeholder, so the statement can be filled again when it
+ * is prepared again.<P>
+ * The <code>int</code>, <code>long</code>, <code>double</code> and
+ * <code>boolean</code> values are kept in a primitive array, so they are not boxed;
+ * the other values are kept together with the field which manages their type.
+ * The arrays are sized by the number of parameters of the query string and they
+ * grow only if more values are appended, so filling a statement does not allocate.
+ * This class is not thread safe.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ParameterSlots {
+	/**
+	 * The slot keeps an object value and its field.
+	 */
+	private final static byte OBJECT = 0;
+
+	/**
+	 * The slot keeps an <code>int</code> value.
+	 */
+	private final static byte INT = 1;
+
+	/**
+	 * The slot keeps a <code>long</code> value.
+	 */
+	private final static byte LONG = 2;
+
+	/**
+	 * The slot keeps the raw bits of a <code>double</code> value.
+	 */
+	private final static byte DOUBLE = 3;
+
+	/**
+	 * The slot keeps a <code>boolean</code> value, as 0 or 1.
+	 */
+	private final static byte BOOLEAN = 4;
+
+	/**
+	 * Kind of each slot.
+	 */
+	private byte[] kinds;
+
+	/**
+	 * Primitive values.
+	 */
+	private long[] primitives;
+
+	/**
+	 * Object values.
+	 */
+	private Object[] values;
+
+	/**
+	 * Fields which manage the type of the object values.
+	 */
+	private TableField<?>[] fields;
+
+	/**
+	 * Number of used slots.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param capacity Number of parameters of the statement.
+	 */
+	public ParameterSlots(final int capacity) {
+		this.kinds = new byte[capacity];
+		this.primitives = new long[capacity];
+		this.values = new Object[capacity];
+		this.fields = new TableField<?>[capacity];
+	}
+
+	/**
+	 * Makes room for the passed number of parameters. The slots which are
+	 * already used are kept.
+	 * @param capacity Number of parameters of the statement.
+	 */
+	public void ensureCapacity(final int capacity) {
+		if (capacity <= this.kinds.length)
+			return;
+
+		final byte[] newKinds = new byte[capacity];
+		final long[] newPrimitives = new long[capacity];
+		final Object[] newValues = new Object[capacity];
+		final TableField<?>[] newFields = new TableField<?>[capacity];
+		System.arraycopy(this.kinds, 0, newKinds, 0, this.size);
+		System.arraycopy(this.primitives, 0, newPrimitives, 0, this.size);
+		System.arraycopy(this.values, 0, newValues, 0, this.size);
+		System.arraycopy(this.fields, 0, newFields, 0, this.size);
+		this.kinds = newKinds;
+		this.primitives = newPrimitives;
+		this.values = newValues;
+		this.fields = newFields;
+	}
+
+	/**
+	 * Getter of the number of slots.
+	 * @return Number of parameters which can be kept without growing the arrays.
+	 */
+	public int getCapacity() {
+		return this.kinds.length;
+	}
+
+	/**
+	 * Getter of the number of used slots.
+	 * @return Number of values which have been appended.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Reserves the next slot.
+	 * @param kind Kind of the slot.
+	 * @return 0 based index of the slot.
+	 */
+	private int next(final byte kind) {
+		final int slot = this.size;
+		if (slot == this.kinds.length)
+			ensureCapacity((slot == 0) ? 4 : slot << 1);
+
+		this.kinds[slot] = kind;
+		this.size = slot + 1;
+		return slot;
+	}
+
+	/**
+	 * Appends an object value.
+	 * @param field Field which manages the value type.
+	 * @param value Parameter value, it can be null.
+	 * @return 1 based index of the parameter.
+	 */
+	public int add(final TableField<?> field, final Object value) {
+		final int slot = next(OBJECT);
+		this.fields[slot] = field;
+		this.values[slot] = value;
+		return slot + 1;
+	}
+
+	/**
+	 * Appends an <code>int</code> value.
+	 * @param value Parameter value.
+	 * @return 1 based index of the parameter.
+	 */
+	public int addInt(final int value) {
+		final int slot = next(INT);
+		this.primitives[slot] = value;
+		return slot + 1;
+	}
+
+	/**
+	 * Sets an <code>int</code> value at a given position, instead of appending it.
+	 * The query uses it for the parameters which follow the ones passed by the caller,
+	 * such as the row limit.
+	 * @param index 1 based index of the parameter.
+	 * @param value Parameter value.
+	 */
+	public void putInt(final int index, final int value) {
+		ensureCapacity(index);
+		final int slot = index - 1;
+		this.kinds[slot] = INT;
+		this.primitives[slot] = value;
+		this.values[slot] = null;
+		this.fields[slot] = null;
+		if (this.size < index)
+			this.size = index;
+	}
+
+	/**
+	 * Appends a <code>long</code> value.
+	 * @param value Parameter value.
+	 * @return 1 based index of the parameter.
+	 */
+	public int addLong(final long value) {
+		final int slot = next(LONG);
+		this.primitives[slot] = value;
+		return slot + 1;
+	}
+
+	/**
+	 * Appends a <code>double</code> value.
+	 * @param value Parameter value.
+	 * @return 1 based index of the parameter.
+	 */
+	public int addDouble(final double value) {
+		final int slot = next(DOUBLE);
+		this.primitives[slot] = Double.doubleToRawLongBits(value);
+		return slot + 1;
+	}
+
+	/**
+	 * Appends a <code>boolean</code> value.
+	 * @param value Parameter value.
+	 * @return 1 based index of the parameter.
+	 */
+	public int addBoolean(final boolean value) {
+		final int slot = next(BOOLEAN);
+		this.primitives[slot] = value ? 1 : 0;
+		return slot + 1;
+	}
+
+	/**
+	 * Getter of the field which manages the type of a parameter.
+	 * @param index 1 based index of the parameter.
+	 * @return Field which manages the parameter type, it is null for the
+	 * primitive values.
+	 */
+	public TableField<?> getField(final int index) {
+		return this.fields[index - 1];
+	}
+
+	/**
+	 * Getter of a parameter value. The primitive values are boxed,
+	 * so this method should not be used while filling a statement.
+	 * @param index 1 based index of the parameter.
+	 * @return Parameter value.
+	 */
+	public Object getValue(final int index) {
+		final int slot = index - 1;
+		switch (this.kinds[slot]) {
+		case INT:
+			return Integer.valueOf((int) this.primitives[slot]);
+		case LONG:
+			return Long.valueOf(this.primitives[slot]);
+		case DOUBLE:
+			return Double.valueOf(Double.longBitsToDouble(this.primitives[slot]));
+		case BOOLEAN:
+			return Boolean.valueOf(this.primitives[slot] != 0);
+		default:
+			return this.values[slot];
+		}
+	}
+
+	/**
+	 * Fills a Prepared Statement with the value of a single parameter.
+	 * @param pstm Prepared Statement.
+	 * @param index 1 based index of the parameter.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public void apply(final PreparedStatement pstm, final int index) throws SQLException {
+		set(pstm, index, index - 1);
+	}
+
+	/**
+	 * Fills a Prepared Statement with all the parameter values.
+	 * @param pstm Prepared Statement.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public void apply(final PreparedStatement pstm) throws SQLException {
+		for (int index = 1; index <= this.size; index++)
+			set(pstm, index, index - 1);
+	}
+
+	/**
+	 * Fills a Prepared Statement with a range of parameter values, which are
+	 * passed to the statement starting from its first parameter.
+	 * @param pstm Prepared Statement.
+	 * @param firstIndex 1 based index of the first value.
+	 * @param count Number of values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public void apply(final PreparedStatement pstm, final int firstIndex, final int count) throws SQLException {
+		final int offset = firstIndex - 1;
+		for (int index = 1; index <= count; index++)
+			set(pstm, index, offset + index - 1);
+	}
+
+	/**
+	 * Fills a parameter of a Prepared Statement with the value of a slot.
+	 * @param pstm Prepared Statement.
+	 * @param index 1 based index of the statement parameter.
+	 * @param slot 0 based index of the slot.
+	 * @throws SQLException A problem occurred with the database, or the slot
+	 * has been skipped, as a value placed after it has been set first.
+	 */
+	@SuppressWarnings("unchecked")
+	private void set(final PreparedStatement pstm, final int index, final int slot) throws SQLException {
+		switch (this.kinds[slot]) {
+		case INT:
+			pstm.setInt(index, (int) this.primitives[slot]);
+			break;
+		case LONG:
+			pstm.setLong(index, this.primitives[slot]);
+			break;
+		case DOUBLE:
+			pstm.setDouble(index, Double.longBitsToDouble(this.primitives[slot]));
+			break;
+		case BOOLEAN:
+			pstm.setBoolean(index, this.primitives[slot] != 0);
+			break;
+		default:
+			final TableField<Object> field = (TableField<Object>) this.fields[slot];
+			if (field == null)
+				throw new SQLException("The parameter " + (slot + 1) + " has not been set.");
+
+			field.map(pstm, index, this.values[slot]);
+		}
+	}
+
+	/**
+	 * Copies the used slots, so the values can be kept after this object
+	 * has been cleared or filled again.
+	 * @return New slots, which hold the same values.
+	 */
+	public ParameterSlots copy() {
+		return copy(1, this.size);
+	}
+
+	/**
+	 * Copies a range of the used slots, which become the first ones of the copy.
+	 * @param firstIndex 1 based index of the first value.
+	 * @param count Number of values.
+	 * @return New slots, which hold the same values.
+	 */
+	public ParameterSlots copy(final int firstIndex, final int count) {
+		final int offset = firstIndex - 1;
+		final ParameterSlots copy = new ParameterSlots(count);
+		System.arraycopy(this.kinds, offset, copy.kinds, 0, count);
+		System.arraycopy(this.primitives, offset, copy.primitives, 0, count);
+		System.arraycopy(this.values, offset, copy.values, 0, count);
+		System.arraycopy(this.fields, offset, copy.fields, 0, count);
+		copy.size = count;
+		return copy;
+	}
+
+	/**
+	 * Removes all the values, the slots are kept for the next execution.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < this.size; slot++) {
+			this.kinds[slot] = OBJECT;
+			this.values[slot] = null;
+			this.fields[slot] = null;
+		}
+		this.size = 0;
+	}
+}
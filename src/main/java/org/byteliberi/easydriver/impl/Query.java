@@ -22,22 +22,37 @@ package org.byteliberi.easydriver.impl;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import org.byteliberi.easydriver.CompiledQuery;
+import org.byteliberi.easydriver.ConnectionExecutor;
+import org.byteliberi.easydriver.ConnectionTask;
 import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.QueryListener;
+import org.byteliberi.easydriver.StatementCache;
 import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.fields.ArrayField;
 import org.byteliberi.easydriver.fields.BigDecimalField;
 import org.byteliberi.easydriver.fields.BooleanField;
 import org.byteliberi.easydriver.fields.ByteArrayField;
 import org.byteliberi.easydriver.fields.CharField;
 import org.byteliberi.easydriver.fields.DateField;
+import org.byteliberi.easydriver.fields.DoubleField;
+import org.byteliberi.easydriver.fields.IntArrayField;
 import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.LongArrayField;
+import org.byteliberi.easydriver.fields.LongField;
+import org.byteliberi.easydriver.fields.TextArrayField;
 import org.byteliberi.easydriver.fields.TimestampField;
+import org.byteliberi.easydriver.fields.UUIDArrayField;
 import org.byteliberi.easydriver.fields.UUIDField;
 import org.byteliberi.easydriver.fields.VarcharField;
 
@@ -58,31 +73,99 @@ public abstract class Query {
 	protected PreparedStatement pstm = null;
 	
 	/**
-	 * This is the list of parameters, contained in the <code>WHERE</code> expressions
+	 * Values of the parameters, one slot for each <code>?</code> placeholder.
+	 * They are kept in order to fill again the Prepared Statement if it has to be
+	 * prepared again.
 	 */
-	protected LinkedList<TableField<?>> parameterManagerList = new LinkedList<TableField<?>>();
-    
-	/**
-	 * 1 based number of appended parameters
-	 */
-	protected AtomicInteger paramIndex = new AtomicInteger(0);
+	protected ParameterSlots parameters = new ParameterSlots(0);
     
 	/**
 	 * Basic table treated by this query
 	 */
 	protected DBTable<?> table;
 
+	/**
+	 * Query string generated by {@link #createQueryString()}, it is kept until
+	 * a structural setter of the subclass calls {@link #invalidateQueryString()}.
+	 */
+	private volatile String queryString = null;
+	
+	/**
+	 * Cache which keeps the Prepared Statement after this query is closed,
+	 * it is null when the statements are closed.
+	 */
+	protected StatementCache statementCache = StatementCache.getDefault();
+	
+	/**
+	 * Listener used by the queries that have not been given a specific one,
+	 * by default there is none.
+	 */
+	private static volatile QueryListener defaultQueryListener = null;
+	
+	/**
+	 * Listener which is notified after each execution, it is null
+	 * when the executions are not measured.
+	 */
+	protected QueryListener queryListener = defaultQueryListener;
+	
+	/**
+	 * Executor which runs the asynchronous executions, each one on its own
+	 * connection, it is null when they are not allowed.
+	 */
+	protected ConnectionExecutor connectionExecutor = ConnectionExecutor.getDefault();
+	
+	/**
+	 * Time taken by the last {@link #prepareQuery(Connection)}, in nanoseconds,
+	 * it is given to the next execution and then set to 0.
+	 */
+	private long prepareTime = 0;
+	
+	/**
+	 * Connection passed to {@link #prepareQuery(Connection)}.
+	 */
+	private Connection preparedConnection = null;
+	
+	/**
+	 * Query string used to create the current Prepared Statement.
+	 */
+	private String preparedQueryString = null;
+
+	/**
+	 * Hit and miss counters of the generated query strings, shared by all the queries.
+	 */
+	private final static CacheStatistics QUERY_STRING_STATISTICS = new CacheStatistics();
+
 	/**
 	 * Clears the parameter list and reset the index to 0.
 	 * @throws SQLException A problem occurred with the database.
 	 */
 	public synchronized void clearParameters() throws SQLException {
-		this.parameterManagerList.clear();
-		this.parameterManagerList = new LinkedList<TableField<?>>();
-		
-		this.pstm.clearParameters();
+		this.parameters.clear();
+		if (this.pstm != null)
+			this.pstm.clearParameters();
+	}
+	
+	/**
+	 * Fills a parameter of the Prepared Statement. If the query has not been
+	 * prepared, the value is only kept, so it can be used by an asynchronous execution.
+	 * @param field Field which manages the parameter type.
+	 * @param index 1 based index of the parameter.
+	 * @param value Parameter value.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private <V> void bind(final TableField<V> field, final int index, final V value) throws SQLException {
+		if (this.pstm != null)
+			field.map(this.pstm, index, value);
+	}
 		
-		this.paramIndex.set(0);
+	/**
+	 * Appends a parameter whose type is managed by the passed field.
+	 * @param field Field which manages the parameter type.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized <V> void addParameter(final TableField<V> field, final V value) throws SQLException {
+		bind(field, this.parameters.add(field, value), value);
 	}
 		
 	/**
@@ -92,9 +175,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final BigDecimal value) throws SQLException {
 		final BigDecimalField field = BigDecimalField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -104,9 +185,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final Boolean value) throws SQLException {
 		final BooleanField field = BooleanField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -116,8 +195,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameterChar(final String value) throws SQLException {
 		final CharField field = CharField.getEmpty();
-		this.parameterManagerList.add(field);
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -127,9 +205,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final Date value) throws SQLException {
 		final DateField field = DateField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -139,9 +215,27 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final Integer value) throws SQLException {
 		final IntField field = IntField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
+	}
+	
+	/**
+	 * Appends a {@link java.lang.Long} parameter to the internal prepared statement.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addParameter(final Long value) throws SQLException {
+		final LongField field = LongField.getEmpty();
+		bind(field, this.parameters.add(field, value), value);
+	}
+	
+	/**
+	 * Appends a {@link java.lang.Double} parameter to the internal prepared statement.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addParameter(final Double value) throws SQLException {
+		final DoubleField field = DoubleField.getEmpty();
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -151,9 +245,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final Timestamp value) throws SQLException {
 		final TimestampField field = TimestampField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -163,9 +255,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final UUID value) throws SQLException {
 		final UUIDField field = UUIDField.getEmpty();
-		this.parameterManagerList.add(field);
-		
-		field.map(pstm, this.paramIndex.addAndGet(1), value);
+		bind(field, this.parameters.add(field, value), value);
 	}
 	
 	/**
@@ -175,8 +265,7 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final String parameter) throws SQLException {
 		final VarcharField field = VarcharField.getEmpty();
-		this.parameterManagerList.add(field);
-		field.map(pstm, this.paramIndex.addAndGet(1), parameter);
+		bind(field, this.parameters.add(field, parameter), parameter);
 	}
 	
 	/**
@@ -186,8 +275,69 @@ public abstract class Query {
 	 */
 	public synchronized void addParameter(final byte[] parameter) throws SQLException {
 		final ByteArrayField field = ByteArrayField.getEmpty();
-		this.parameterManagerList.add(field);
-		field.map(pstm, this.paramIndex.addAndGet(1), parameter);
+		bind(field, this.parameters.add(field, parameter), parameter);
+	}
+	
+	/**
+	 * Appends an array parameter, whose elements have the type of the passed field.
+	 * It fills the parameter of an {@link org.byteliberi.easydriver.expressions.AnyOf}
+	 * or a {@link org.byteliberi.easydriver.expressions.NoneOf} expression.
+	 * @param field Field which has the type of the array elements.
+	 * @param values Values to be passed as a single array, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized <V> void addArrayParameter(final TableField<V> field, final Collection<? extends V> values) throws SQLException {
+		final ArrayField arrayField = new ArrayField(field);
+		Object[] array = null;
+		if (values != null) {
+			array = new Object[values.size()];
+			int i = 0;
+			for (final V value : values)
+				array[i++] = field.toArrayElement(value);
+		}
+		bind(arrayField, this.parameters.add(arrayField, array), array);
+	}
+	
+	/**
+	 * Appends an array of <code>int4</code> values to the internal prepared statement.
+	 * The elements are not boxed.
+	 * @param values Values to be passed as a single array, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addArrayParameter(final int[] values) throws SQLException {
+		final IntArrayField field = IntArrayField.getEmpty();
+		bind(field, this.parameters.add(field, values), values);
+	}
+	
+	/**
+	 * Appends an array of <code>int8</code> values to the internal prepared statement.
+	 * The elements are not boxed.
+	 * @param values Values to be passed as a single array, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addArrayParameter(final long[] values) throws SQLException {
+		final LongArrayField field = LongArrayField.getEmpty();
+		bind(field, this.parameters.add(field, values), values);
+	}
+	
+	/**
+	 * Appends an array of {@link java.util.UUID} values to the internal prepared statement.
+	 * @param values Values to be passed as a single array, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addArrayParameter(final UUID[] values) throws SQLException {
+		final UUIDArrayField field = UUIDArrayField.getEmpty();
+		bind(field, this.parameters.add(field, values), values);
+	}
+	
+	/**
+	 * Appends an array of {@link java.lang.String} values to the internal prepared statement.
+	 * @param values Values to be passed as a single array, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized void addArrayParameter(final String[] values) throws SQLException {
+		final TextArrayField field = TextArrayField.getEmpty();
+		bind(field, this.parameters.add(field, values), values);
 	}
 	
 	/**
@@ -196,17 +346,77 @@ public abstract class Query {
 	 * @throws SQLException A problem occurred with the database.
 	 */
 	public synchronized void addNullParameter(final TableField<?> parameter) throws SQLException {
-		this.parameterManagerList.add(parameter);
-		parameter.map(pstm, this.paramIndex.addAndGet(1), null);
+		bind(parameter, this.parameters.add(parameter, null), null);
+	}
+	  
+	/**
+	 * Appends an <code>int</code> parameter to the internal prepared statement.
+	 * The value is not boxed and no lock is taken, so the query must be filled
+	 * by a single thread.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public final void bindInt(final int value) throws SQLException {
+		final int index = this.parameters.addInt(value);
+		if (this.pstm != null)
+			this.pstm.setInt(index, value);
+	}
+	
+	/**
+	 * Appends a <code>long</code> parameter to the internal prepared statement.
+	 * The value is not boxed and no lock is taken, so the query must be filled
+	 * by a single thread.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public final void bindLong(final long value) throws SQLException {
+		final int index = this.parameters.addLong(value);
+		if (this.pstm != null)
+			this.pstm.setLong(index, value);
+	}
+	
+	/**
+	 * Appends a <code>double</code> parameter to the internal prepared statement.
+	 * The value is not boxed and no lock is taken, so the query must be filled
+	 * by a single thread.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public final void bindDouble(final double value) throws SQLException {
+		final int index = this.parameters.addDouble(value);
+		if (this.pstm != null)
+			this.pstm.setDouble(index, value);
+	}
+	
+	/**
+	 * Appends a <code>boolean</code> parameter to the internal prepared statement.
+	 * The value is not boxed and no lock is taken, so the query must be filled
+	 * by a single thread.
+	 * @param value Value to be passed to the Prepared Statement after the other previously added values.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public final void bindBoolean(final boolean value) throws SQLException {
+		final int index = this.parameters.addBoolean(value);
+		if (this.pstm != null)
+			this.pstm.setBoolean(index, value);
 	}
 	  
 	/**
 	 * Closes the Prepared Statement, so it can not be used again without creating a new one.
+	 * If this query has a statement cache, the Prepared Statement is given back
+	 * to the cache instead of being closed.
 	 * @throws SQLException A problem occurred with the database.
 	 */
 	public void close() throws SQLException {		
-		if (pstm != null)
-			pstm.close();
+		if (pstm != null) {
+			if (this.statementCache == null)
+				pstm.close();
+			else {
+				final PreparedStatement released = this.pstm;
+				this.pstm = null;
+				releaseStatement(this.preparedConnection, this.preparedQueryString, released);
+			}
+		}
 	}
 
 	/**
@@ -215,7 +425,300 @@ public abstract class Query {
 	 * @throws SQLException A problem occurred with the database o the query.
 	 */
 	public synchronized void prepareQuery(final Connection con) throws SQLException {
-		this.pstm = con.prepareStatement(createQueryString());
+		final long start = (this.queryListener == null) ? 0 : System.nanoTime();
+		this.preparedConnection = con;
+		final String query = getQueryString();
+		if (query != this.preparedQueryString)
+			this.parameters.ensureCapacity(countParameters(query));
+		this.preparedQueryString = query;
+		this.pstm = prepareStatement(con, query);
+		if (this.queryListener != null)
+			this.prepareTime = System.nanoTime() - start;
+	}
+	
+	/**
+	 * Starts measuring an execution of the Prepared Statement, if this query has a listener.
+	 * The caller must end the execution by {@link QueryExecution#finish(boolean)}.
+	 * @return Measures of the execution, or null if this query has no listener.
+	 */
+	protected final QueryExecution startExecution() {
+		final QueryListener listener = this.queryListener;
+		if (listener == null)
+			return null;
+		
+		final long prepared = this.prepareTime;
+		this.prepareTime = 0;
+		return new QueryExecution(listener, this.preparedQueryString, prepared, this.parameters);
+	}
+	
+	/**
+	 * Creates a Prepared Statement or takes it from the statement cache of this query.
+	 * The subclasses use it for the statements which are derived from the query,
+	 * they must give it back by {@link #releaseStatement(Connection, String, PreparedStatement)}.
+	 * @param con Database connection.
+	 * @param sql Query string.
+	 * @return Prepared Statement.
+	 * @throws SQLException A problem occurred with the database o the query.
+	 */
+	protected final PreparedStatement prepareStatement(final Connection con, final String sql) throws SQLException {
+		if (this.statementCache == null)
+			return con.prepareStatement(sql);
+		else
+			return this.statementCache.prepare(con, sql);
+	}
+	
+	/**
+	 * Closes a Prepared Statement or gives it back to the statement cache of this query.
+	 * @param con Database connection.
+	 * @param sql Query string used to prepare the statement.
+	 * @param statement Prepared Statement returned by {@link #prepareStatement(Connection, String)}.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	protected final void releaseStatement(final Connection con, final String sql,
+										  final PreparedStatement statement) throws SQLException {
+		if (this.statementCache == null)
+			statement.close();
+		else
+			this.statementCache.release(con, sql, statement);
+	}
+	
+	/**
+	 * Executes the Prepared Statement as a query. If the database has discarded
+	 * the prepared plan, the statement is prepared again and filled with the
+	 * same parameter values, then it is executed once more.
+	 * @return Result Set created by the Prepared Statement.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	protected ResultSet executeQuery() throws SQLException {
+		try {
+			return this.pstm.executeQuery();
+		}
+		catch (SQLException ex) {
+			if (!canPrepareAgain(ex))
+				throw ex;
+			
+			prepareAgain();
+			return this.pstm.executeQuery();
+		}
+	}
+	
+	/**
+	 * Executes the Prepared Statement as an update, insert or delete.
+	 * If the database has discarded the prepared plan, the statement is
+	 * prepared again and filled with the same parameter values, then
+	 * it is executed once more. If this query has a listener, the execution is measured.
+	 * @return Number of rows affected by the execution.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	protected int executeUpdate() throws SQLException {
+		final QueryExecution execution = startExecution();
+		if (execution == null)
+			return updateStatement();
+		
+		boolean completed = false;
+		try {
+			final int count = updateStatement();
+			execution.executed();
+			execution.setRowCount(count);
+			completed = true;
+			return count;
+		}
+		finally {
+			execution.finish(completed);
+		}
+	}
+	
+	/**
+	 * Executes the Prepared Statement as an update, preparing it again
+	 * if the database has discarded its plan.
+	 * @return Number of rows affected by the execution.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	private int updateStatement() throws SQLException {
+		try {
+			return this.pstm.executeUpdate();
+		}
+		catch (SQLException ex) {
+			if (!canPrepareAgain(ex))
+				throw ex;
+			
+			prepareAgain();
+			return this.pstm.executeUpdate();
+		}
+	}
+	
+	/**
+	 * Checks if the statement can be transparently prepared again. This is
+	 * possible when the plan has been discarded and no transaction is open,
+	 * as PostgreSQL aborts the current transaction after an error.
+	 * @param ex Exception risen by the execution.
+	 * @return true if the statement can be prepared and executed again.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private boolean canPrepareAgain(final SQLException ex) throws SQLException {
+		return StatementCache.isStalePlan(ex) && (this.preparedConnection != null) &&
+			   this.preparedConnection.getAutoCommit();
+	}
+	
+	/**
+	 * Closes the Prepared Statement whose plan has been discarded, then
+	 * it creates a new one and fills it with the current parameter values.
+	 * The max number of rows and the fetch size of the old statement are kept.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	private void prepareAgain() throws SQLException {
+		final int maxRows = this.pstm.getMaxRows();
+		final int fetchSize = this.pstm.getFetchSize();
+		if (this.statementCache == null)
+			this.pstm.close();
+		else
+			this.statementCache.discard(this.pstm);
+		
+		prepareQuery(this.preparedConnection);
+		this.parameters.apply(this.pstm);
+		if (maxRows != 0)
+			this.pstm.setMaxRows(maxRows);
+		if (fetchSize != 0)
+			this.pstm.setFetchSize(fetchSize);
+	}
+	
+	/**
+	 * Getter of the connection passed to {@link #prepareQuery(Connection)}.
+	 * @return Database connection, or null if the query has not been prepared.
+	 */
+	protected final Connection getPreparedConnection() {
+		return this.preparedConnection;
+	}
+	
+	/**
+	 * Getter of the listener used by the queries that have not been given a specific one.
+	 * @return Default listener, it is null when the executions are not measured.
+	 */
+	public static QueryListener getDefaultQueryListener() {
+		return defaultQueryListener;
+	}
+	
+	/**
+	 * Setter of the listener used by the queries which are created after this call.
+	 * @param listener Default listener, null in order to not measure the executions.
+	 */
+	public static void setDefaultQueryListener(final QueryListener listener) {
+		defaultQueryListener = listener;
+	}
+	
+	/**
+	 * Setter of the query listener.
+	 * @param queryListener Listener which is notified after each execution,
+	 * null in order to not measure the executions.
+	 */
+	public final void setQueryListener(final QueryListener queryListener) {
+		this.queryListener = queryListener;
+	}
+	
+	/**
+	 * Getter of the query listener.
+	 * @return Listener which is notified after each execution, it is null
+	 * when the executions are not measured.
+	 */
+	public final QueryListener getQueryListener() {
+		return this.queryListener;
+	}
+	
+	/**
+	 * Setter of the connection executor.
+	 * @param connectionExecutor Executor which runs the asynchronous executions,
+	 * each one on its own connection, null in order to not allow them.
+	 */
+	public final void setConnectionExecutor(final ConnectionExecutor connectionExecutor) {
+		this.connectionExecutor = connectionExecutor;
+	}
+	
+	/**
+	 * Getter of the connection executor.
+	 * @return Executor which runs the asynchronous executions, it is null
+	 * when they are not allowed.
+	 */
+	public final ConnectionExecutor getConnectionExecutor() {
+		return this.connectionExecutor;
+	}
+	
+	/**
+	 * Runs a task on the connection executor of this query.
+	 * @param task Task which is run on a connection of the executor.
+	 * @return Future which is completed by the result of the task.
+	 * @throws IllegalStateException The query has no connection executor.
+	 */
+	protected final <R> CompletableFuture<R> submit(final ConnectionTask<R> task) {
+		final ConnectionExecutor executor = this.connectionExecutor;
+		if (executor == null)
+			throw new IllegalStateException("The query has no connection executor");
+		
+		return executor.submit(task);
+	}
+	
+	/**
+	 * Creates an execution of the current query string, filled with a copy of the
+	 * current parameter values, so this query can be filled again while the
+	 * execution is running on another thread.
+	 * @param valueObjectFactory Factory of the value objects, null for the
+	 * queries which do not read data.
+	 * @return Execution which is not bound to a connection.
+	 */
+	protected final synchronized <T> CompiledQuery.Execution<T> copyExecution(final ObjectFactory<T> valueObjectFactory) {
+		return new CompiledQuery<T>(this, valueObjectFactory).newExecution(this.parameters.copy());
+	}
+	
+	/**
+	 * Reads a list of value objects on a connection of the connection executor.
+	 * The subclasses which read data use it for their asynchronous methods.
+	 * @param valueObjectFactory Factory of the value objects.
+	 * @return Future which is completed by the list of value objects.
+	 * @throws IllegalStateException The query has no connection executor.
+	 */
+	protected final <T> CompletableFuture<List<T>> submitResultList(final ObjectFactory<T> valueObjectFactory) {
+		final CompiledQuery.Execution<T> execution = copyExecution(valueObjectFactory);
+		return submit(new ConnectionTask<List<T>>() {
+			@Override
+			public List<T> run(final Connection con) throws SQLException {
+				return execution.getResultList(con);
+			}
+		});
+	}
+	
+	/**
+	 * Reads a single value object on a connection of the connection executor.
+	 * The subclasses which read data use it for their asynchronous methods.
+	 * @param valueObjectFactory Factory of the value objects.
+	 * @return Future which is completed by the value object, or by null if no
+	 * records have been found. It fails if more than one record has been found.
+	 * @throws IllegalStateException The query has no connection executor.
+	 */
+	protected final <T> CompletableFuture<T> submitSingleResult(final ObjectFactory<T> valueObjectFactory) {
+		final CompiledQuery.Execution<T> execution = copyExecution(valueObjectFactory);
+		return submit(new ConnectionTask<T>() {
+			@Override
+			public T run(final Connection con) throws SQLException {
+				return execution.getSingleResult(con);
+			}
+		});
+	}
+	
+	/**
+	 * Setter of the statement cache, it must be called before the query is prepared.
+	 * @param statementCache Cache which keeps the Prepared Statement after this query is closed,
+	 * null in order to close the statement.
+	 */
+	public final void setStatementCache(final StatementCache statementCache) {
+		this.statementCache = statementCache;
+	}
+	
+	/**
+	 * Getter of the statement cache.
+	 * @return Cache which keeps the Prepared Statement after this query is closed,
+	 * it is null when the statements are closed.
+	 */
+	public final StatementCache getStatementCache() {
+		return this.statementCache;
 	}
 	
 	/**
@@ -224,6 +727,269 @@ public abstract class Query {
 	 */
 	protected abstract String createQueryString();
 
+	/**
+	 * Finds the types of the parameters, in the same order of the <code>?</code>
+	 * placeholders of the query string. The subclasses get them from their expressions.
+	 * @return Fields which manage the parameter types, or null when they are unknown.
+	 */
+	protected TableField<?>[] findParameterTypes() {
+		return null;
+	}
+
+	/**
+	 * Getter of the parameter types, one for each <code>?</code> placeholder
+	 * of the query string.
+	 * @return Fields which manage the parameter types, an item is null
+	 * when the type of that parameter is unknown.
+	 */
+	public final TableField<?>[] getParameterTypes() {
+		final int count = countParameters(getQueryString());
+		final TableField<?>[] found = findParameterTypes();
+		if ((found != null) && (found.length == count))
+			return found;
+		else
+			return new TableField<?>[count];
+	}
+
+	/**
+	 * Getter of the parameter values which have been added, for the callers
+	 * which send the query without this Prepared Statement. The primitive
+	 * values are boxed.
+	 * @return Parameter values, in the order of the <code>?</code> placeholders.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public synchronized Object[] getParameterValues() throws SQLException {
+		final Object[] values = new Object[this.parameters.size()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = this.parameters.getValue(i + 1);
+		return values;
+	}
+
+	/**
+	 * Counts the <code>?</code> placeholders of a query string. The question marks
+	 * inside a quoted literal, a quoted identifier, a dollar quoted string or a comment
+	 * are skipped, as the <code>??</code> escapes of the driver, which stand for
+	 * a question mark operator.
+	 * @param sql Query string.
+	 * @return Number of parameters of the query.
+	 */
+	public static int countParameters(final String sql) {
+		int count = 0;
+		int i = findQuestionMark(sql, 0);
+		while (i >= 0) {
+			if (isEscape(sql, i))
+				i = findQuestionMark(sql, i + 2);
+			else {
+				count++;
+				i = findQuestionMark(sql, i + 1);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Checks if a question mark found by {@link #findQuestionMark(String, int)}
+	 * starts a <code>??</code> escape, instead of being a placeholder.
+	 * @param sql Query string.
+	 * @param index Position of the question mark.
+	 * @return true if the question mark is followed by another one.
+	 */
+	public static boolean isEscape(final String sql, final int index) {
+		return (index + 1 < sql.length()) && (sql.charAt(index + 1) == '?');
+	}
+
+	/**
+	 * Finds the next question mark of a query string which is not inside a quoted
+	 * literal, a quoted identifier, a dollar quoted string or a comment.
+	 * @param sql Query string.
+	 * @param from Position where the search starts, it must not be inside
+	 * a literal or a comment.
+	 * @return Position of the question mark, or -1 if there are no more.
+	 */
+	public static int findQuestionMark(final String sql, final int from) {
+		final int len = sql.length();
+		int i = from;
+		while (i < len) {
+			final char character = sql.charAt(i);
+			switch (character) {
+			case '?':
+				return i;
+			case '\'':
+				i = skipLiteral(sql, i, isEscapeStringPrefix(sql, i - 1));
+				continue;
+			case '"':
+				i = skipTo(sql, i + 1, "\"");
+				continue;
+			case '-':
+				if ((i + 1 < len) && (sql.charAt(i + 1) == '-')) {
+					i = skipTo(sql, i + 2, "\n");
+					continue;
+				}
+				break;
+			case '/':
+				if ((i + 1 < len) && (sql.charAt(i + 1) == '*')) {
+					i = skipBlockComment(sql, i + 2);
+					continue;
+				}
+				break;
+			case '$':
+				final int tagEnd = findDollarTag(sql, i);
+				if (tagEnd > 0) {
+					i = skipTo(sql, tagEnd, sql.substring(i, tagEnd));
+					continue;
+				}
+				break;
+			default:
+				break;
+			}
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Skips a quoted literal, whose quotes are escaped by doubling them, or
+	 * by a backslash when it is an escape string.
+	 * @param sql Query string.
+	 * @param start Position of the opening quote.
+	 * @param escapeString If true, the literal is an escape string, such as <code>E'\n'</code>.
+	 * @return Position after the closing quote, or the length of the string.
+	 */
+	private static int skipLiteral(final String sql, final int start, final boolean escapeString) {
+		final int len = sql.length();
+		int i = start + 1;
+		while (i < len) {
+			final char character = sql.charAt(i);
+			if (escapeString && (character == '\\'))
+				i += 2;
+			else if (character == '\'')
+				return i + 1;
+			else
+				i++;
+		}
+		return len;
+	}
+
+	/**
+	 * Checks if a quote is preceded by the <code>E</code> prefix of an escape string,
+	 * which is not the last letter of an identifier.
+	 * @param sql Query string.
+	 * @param index Position before the quote.
+	 * @return true if the literal is an escape string.
+	 */
+	private static boolean isEscapeStringPrefix(final String sql, final int index) {
+		if ((index < 0) || ((sql.charAt(index) != 'E') && (sql.charAt(index) != 'e')))
+			return false;
+		return (index == 0) || !(Character.isLetterOrDigit(sql.charAt(index - 1)) || (sql.charAt(index - 1) == '_'));
+	}
+
+	/**
+	 * Skips the text until a terminator.
+	 * @param sql Query string.
+	 * @param start Position where the search starts.
+	 * @param end Terminator, such as a closing quote or the dollar quote tag.
+	 * @return Position after the terminator, or the length of the string.
+	 */
+	private static int skipTo(final String sql, final int start, final String end) {
+		final int found = sql.indexOf(end, start);
+		return (found < 0) ? sql.length() : found + end.length();
+	}
+
+	/**
+	 * Skips a block comment, which can contain other block comments.
+	 * @param sql Query string.
+	 * @param start Position after the opening <code>/*</code>.
+	 * @return Position after the closing <code>*&#47;</code>, or the length of the string.
+	 */
+	private static int skipBlockComment(final String sql, final int start) {
+		final int len = sql.length();
+		int depth = 1;
+		int i = start;
+		while ((i < len) && (depth > 0)) {
+			if ((sql.charAt(i) == '/') && (i + 1 < len) && (sql.charAt(i + 1) == '*')) {
+				depth++;
+				i += 2;
+			}
+			else if ((sql.charAt(i) == '*') && (i + 1 < len) && (sql.charAt(i + 1) == '/')) {
+				depth--;
+				i += 2;
+			}
+			else
+				i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Reads the tag of a dollar quoted string, such as <code>$$</code> or <code>$body$</code>.
+	 * A dollar which follows a letter, a digit or an underscore is part of an identifier.
+	 * @param sql Query string.
+	 * @param start Position of the dollar.
+	 * @return Position after the tag, or -1 if the dollar does not start a tag.
+	 */
+	private static int findDollarTag(final String sql, final int start) {
+		if ((start > 0) && (Character.isLetterOrDigit(sql.charAt(start - 1)) || (sql.charAt(start - 1) == '_')))
+			return -1;
+
+		final int len = sql.length();
+		int i = start + 1;
+		while (i < len) {
+			final char character = sql.charAt(i);
+			if (character == '$')
+				return i + 1;
+			if (!(Character.isLetter(character) || (character == '_') ||
+				  ((i > start + 1) && Character.isDigit(character))))
+				return -1;
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Getter of the query string. The string is created the first time
+	 * by {@link #createQueryString()}, then it is reused until the structure
+	 * of the query changes.
+	 * @return Query string
+	 */
+	public final String getQueryString() {
+		String query = this.queryString;
+		if ((query == null) || isQueryStringStale()) {
+			QUERY_STRING_STATISTICS.recordMiss();
+			query = createQueryString();
+			this.queryString = query;
+		}
+		else
+			QUERY_STRING_STATISTICS.recordHit();
+
+		return query;
+	}
+
+	/**
+	 * Discards the generated query string, so it is created again the next
+	 * time it is needed. The subclasses call this method when a part of the
+	 * query structure is changed.
+	 */
+	protected final void invalidateQueryString() {
+		this.queryString = null;
+	}
+
+	/**
+	 * The subclasses which are made by other queries can override this
+	 * method, in order to check if the kept query string is still valid.
+	 * @return true if the query string must be created again.
+	 */
+	protected boolean isQueryStringStale() {
+		return false;
+	}
+
+	/**
+	 * Getter of the counters of the generated query strings.
+	 * @return Hit and miss counters, shared by all the queries.
+	 */
+	public static CacheStatistics getQueryStringStatistics() {
+		return QUERY_STRING_STATISTICS;
+	}
+
 	/**
 	 * Getter of the connection from the internal Prepared Statement.
 	 * @return Database connection, this can be null if the Prepared Statement
@@ -246,11 +1012,12 @@ public abstract class Query {
 	}
 
 	/**
-	 * Setter of the table
+	 * Setter of the table, the query string is created again.
 	 * @param table database table
 	 */
 	public final void setTable(final DBTable<?> table) {
 		this.table = table;
+		invalidateQueryString();
 	}
 
 	/**
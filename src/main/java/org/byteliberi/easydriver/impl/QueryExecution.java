@@ -0,0 +1,376 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.QueryListener;
+
+/**
+ * This class measures a single execution of a query, from the moment
+ * when the statement is executed to the moment when the last record has been
+ * read, then it passes the measures to a {@link QueryListener}.<P>
+ * The mapping time is the time spent by the value object factories: in order
+ * to keep the cost of the measure low, it is measured on the first record and
+ * on one record every {@link #MAPPING_SAMPLE_INTERVAL}, then it is scaled to all
+ * the records. The allocated memory is read from the JVM, if it supports it.<P>
+ * An instance is created only when the query has a listener and it is used
+ * by a single thread.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public final class QueryExecution {
+	/**
+	 * Number of records between two records whose mapping time is measured,
+	 * it is a power of 2.
+	 */
+	public final static int MAPPING_SAMPLE_INTERVAL = 16;
+
+	private final static Logger LOGGER = Logger.getLogger(QueryExecution.class.getName());
+
+	/**
+	 * Bean which reads the memory allocated by the current thread,
+	 * it is null if the JVM does not support it.
+	 */
+	private final static com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+	/**
+	 * Listener which receives this execution.
+	 */
+	private final QueryListener listener;
+
+	/**
+	 * Query string.
+	 */
+	private final String sql;
+
+	/**
+	 * Time taken to prepare the statement, in nanoseconds.
+	 */
+	private final long prepareTime;
+
+	/**
+	 * Parameter values of the statement, it can be null.
+	 */
+	private final ParameterSlots parameters;
+
+	/**
+	 * Start of the execution, from {@link System#nanoTime()}.
+	 */
+	private final long start;
+
+	/**
+	 * Bytes allocated by the thread before the execution, -1 if unknown.
+	 */
+	private final long startAllocatedBytes;
+
+	/**
+	 * Time taken by the database to execute the statement, in nanoseconds.
+	 */
+	private long executeTime = 0;
+
+	/**
+	 * Time between the start of the execution and the first record, in nanoseconds.
+	 */
+	private long firstRowTime = -1;
+
+	/**
+	 * Number of read records, or number of affected rows for an update.
+	 */
+	private long rowCount = 0;
+
+	/**
+	 * Estimated time spent mapping the records, in nanoseconds.
+	 */
+	private long mappingTime = 0;
+
+	/**
+	 * Time spent mapping the sampled records, in nanoseconds.
+	 */
+	private long sampledMappingTime = 0;
+
+	/**
+	 * Number of records whose mapping time has been measured.
+	 */
+	private long sampledRows = 0;
+
+	/**
+	 * Start of the mapping of the current record, when it is sampled.
+	 */
+	private long mappingStart = 0;
+
+	/**
+	 * It is true while a sampled record is mapped.
+	 */
+	private boolean sampling = false;
+
+	/**
+	 * Total time of the execution, in nanoseconds.
+	 */
+	private long totalTime = 0;
+
+	/**
+	 * Bytes allocated by the thread during the execution, -1 if unknown.
+	 */
+	private long allocatedBytes = -1;
+
+	/**
+	 * It is true if the execution has thrown an exception.
+	 */
+	private boolean failed = false;
+
+	/**
+	 * It is true when the execution has been passed to the listener.
+	 */
+	private boolean finished = false;
+
+	/**
+	 * Creates a new instance of this class, the execution starts now.
+	 * @param listener Listener which receives this execution when it is finished.
+	 * @param sql Query string.
+	 * @param prepareTime Time taken to prepare the statement, in nanoseconds,
+	 * 0 if it had been prepared for a previous execution.
+	 */
+	public QueryExecution(final QueryListener listener, final String sql, final long prepareTime) {
+		this(listener, sql, prepareTime, null);
+	}
+
+	/**
+	 * Creates a new instance of this class, the execution starts now.
+	 * @param listener Listener which receives this execution when it is finished.
+	 * @param sql Query string.
+	 * @param prepareTime Time taken to prepare the statement, in nanoseconds,
+	 * 0 if it had been prepared for a previous execution.
+	 * @param parameters Parameter values of the statement, it can be null.
+	 */
+	public QueryExecution(final QueryListener listener, final String sql, final long prepareTime,
+						  final ParameterSlots parameters) {
+		this.listener = listener;
+		this.sql = sql;
+		this.prepareTime = prepareTime;
+		this.parameters = parameters;
+		this.startAllocatedBytes = getThreadAllocatedBytes();
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Finds the bean which reads the memory allocated by a thread.
+	 * @return Bean, or null if the JVM does not measure the allocated memory.
+	 */
+	private static com.sun.management.ThreadMXBean findThreadBean() {
+		try {
+			final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if ((bean instanceof com.sun.management.ThreadMXBean) &&
+				((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported())
+				return (com.sun.management.ThreadMXBean) bean;
+		}
+		catch (LinkageError ex) {
+			// the JVM does not provide the com.sun.management extensions
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the memory allocated by the current thread since it has started.
+	 * @return Number of bytes, -1 if the JVM does not measure it.
+	 */
+	private static long getThreadAllocatedBytes() {
+		if (THREADS == null)
+			return -1;
+		else
+			return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Records the end of the statement execution, before the records are read.
+	 */
+	public void executed() {
+		this.executeTime = System.nanoTime() - this.start;
+	}
+
+	/**
+	 * Records that a record has been read and it is going to be mapped.
+	 * It must be followed by {@link #rowMapped()}.
+	 */
+	public void rowRead() {
+		final long row = ++this.rowCount;
+		if (row == 1) {
+			final long now = System.nanoTime();
+			this.firstRowTime = now - this.start;
+			this.mappingStart = now;
+			this.sampling = true;
+		}
+		else if ((row & (MAPPING_SAMPLE_INTERVAL - 1)) == 0) {
+			this.mappingStart = System.nanoTime();
+			this.sampling = true;
+		}
+	}
+
+	/**
+	 * Records that the record passed to {@link #rowRead()} has been mapped.
+	 */
+	public void rowMapped() {
+		if (this.sampling) {
+			this.sampledMappingTime += System.nanoTime() - this.mappingStart;
+			this.sampledRows++;
+			this.sampling = false;
+		}
+	}
+
+	/**
+	 * Setter of the number of rows affected by an update, insert or delete.
+	 * @param rowCount Number of affected rows.
+	 */
+	public void setRowCount(final long rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Records that the execution has thrown an exception, it is
+	 * used when the execution is finished later, by {@link #finish(boolean)}.
+	 */
+	public void failed() {
+		this.failed = true;
+	}
+
+	/**
+	 * Ends the execution and passes it to the listener.
+	 * The calls after the first one are ignored. If the listener throws an
+	 * exception, it is logged, so the query is not affected.
+	 * @param completed It is false if the execution has thrown an exception.
+	 */
+	public void finish(final boolean completed) {
+		if (this.finished)
+			return;
+
+		this.finished = true;
+		if (!completed)
+			this.failed = true;
+		this.totalTime = System.nanoTime() - this.start;
+		if (this.startAllocatedBytes >= 0)
+			this.allocatedBytes = getThreadAllocatedBytes() - this.startAllocatedBytes;
+		if (this.sampledRows > 0)
+			this.mappingTime = (long) ((double) this.sampledMappingTime * this.rowCount / this.sampledRows);
+		try {
+			this.listener.executed(this);
+		}
+		catch (RuntimeException ex) {
+			LOGGER.log(Level.WARNING, "The query listener has failed.", ex);
+		}
+	}
+
+	/**
+	 * Getter of the query string.
+	 * @return Query string, which identifies the shape of the query.
+	 */
+	public String getSql() {
+		return this.sql;
+	}
+
+	/**
+	 * Getter of the parameter values. They belong to the query, so they
+	 * are valid only while the listener is called: a listener which keeps
+	 * them must make a copy by {@link ParameterSlots#copy()}.
+	 * @return Parameter values of the statement, null if they are unknown.
+	 */
+	public ParameterSlots getParameters() {
+		return this.parameters;
+	}
+
+	/**
+	 * Getter of the prepare time.
+	 * @return Time taken to prepare the statement, in nanoseconds,
+	 * 0 if it had been prepared for a previous execution.
+	 */
+	public long getPrepareTime() {
+		return this.prepareTime;
+	}
+
+	/**
+	 * Getter of the execute time.
+	 * @return Time taken by the database to execute the statement, in nanoseconds.
+	 */
+	public long getExecuteTime() {
+		return this.executeTime;
+	}
+
+	/**
+	 * Getter of the time to the first record.
+	 * @return Time between the start of the execution and the first record,
+	 * in nanoseconds, -1 if no records have been read.
+	 */
+	public long getFirstRowTime() {
+		return this.firstRowTime;
+	}
+
+	/**
+	 * Getter of the number of rows.
+	 * @return Number of read records, or number of affected rows for an update.
+	 */
+	public long getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Getter of the mapping time.
+	 * @return Estimated time spent creating the value objects, in nanoseconds.
+	 */
+	public long getMappingTime() {
+		return this.mappingTime;
+	}
+
+	/**
+	 * Getter of the total time. When the records are read by an iterator,
+	 * it includes the time spent by the caller between two records.
+	 * @return Time between the start of the execution and its end, in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return this.totalTime;
+	}
+
+	/**
+	 * Getter of the allocated memory.
+	 * @return Bytes allocated by the thread during the execution,
+	 * -1 if the JVM does not measure them.
+	 */
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	/**
+	 * Checks if the execution has failed.
+	 * @return true if the execution has thrown an exception.
+	 */
+	public boolean isFailed() {
+		return this.failed;
+	}
+
+	@Override
+	public String toString() {
+		return this.sql + " [prepare=" + this.prepareTime + ", execute=" + this.executeTime +
+			   ", firstRow=" + this.firstRowTime + ", rows=" + this.rowCount +
+			   ", mapping=" + this.mappingTime + ", total=" + this.totalTime +
+			   ", allocated=" + this.allocatedBytes + (this.failed ? ", failed]" : "]");
+	}
+}
@@ -19,13 +19,19 @@
  */
 package org.byteliberi.easydriver.impl;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.byteliberi.easydriver.ObjectFactory;
 import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.UncheckedSQLException;
 
 /**
  * This class is used to reuse some common code to all the queries
@@ -42,17 +48,10 @@ import org.byteliberi.easydriver.TableField;
  */
 public class ReadQuery<T> {
     /**
-    * Mapper reads some data from a Result Set and creates zero or one
-    * value object: if it get one record, it creates one value object.
+    * Default number of records that the driver reads at a time
+    * while the records are streamed.
     */
-    private SingleRecordObjectMap<T> singleRecordMapper = null;
-
-    /**
-    * Mapper which reads some data from a Result Set and creates
-    * one or more value objects: for each found records in the result set,
-    * this class creates one value object and fills its property values.
-    */
-    private MultipleRecordObjectMap<T> multipleRecordMapper = null;
+    public final static int DEFAULT_FETCH_SIZE = 1000;
 
     /**
     * Factory which creates a new instance
@@ -69,11 +68,23 @@ public class ReadQuery<T> {
     */
     private PreparedStatement pstm;
 
+    /**
+    * Query which owns the Prepared Statement, when it is set, the statement
+    * is executed by the query, so it can be prepared again if its plan
+    * has been discarded by the database.
+    */
+    private Query query = null;
+
     /**
     * Fields that appear in the select part of the query.
     */
     private List<TableField<?>> selectFields;
 
+    /**
+    * Number of records that the driver reads at a time while the records are streamed.
+    */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
     /**
     * Creates a new instance of this class.
     * @param valueObjectFactory actory which creates a new instance
@@ -84,6 +95,18 @@ public class ReadQuery<T> {
         this.valueObjectFactory = valueObjectFactory;
     }
 
+    /**
+    * Creates a new instance of this class.
+    * @param valueObjectFactory Factory which creates a new instance
+    * of a value object and fills its properties with the values read from
+    * a JDBC result set.
+    * @param query Query which owns and executes the Prepared Statement.
+    */
+    public ReadQuery(final ObjectFactory<T> valueObjectFactory, final Query query) {
+        this.valueObjectFactory = valueObjectFactory;
+        this.query = query;
+    }
+
     /**
     * Executes the query and for each read record, it calls the mapper,
     * which will be called later, to get one record or more.
@@ -93,35 +116,128 @@ public class ReadQuery<T> {
     * @throws SQLException A problem occurred with the database or the query.
     */
     private void fetchRecords(final RecordObjectMap<T> recordMapper) throws SQLException {
+        final QueryExecution execution = startExecution();
+        boolean completed = false;
         ResultSet rs = null;
         try {
             // set the parameter values
 
-            rs = this.pstm.executeQuery();
+            if (this.query == null)
+                rs = this.pstm.executeQuery();
+            else
+                rs = this.query.executeQuery();
 
-            while (rs.next()) {
-                recordMapper.map(rs, this.valueObjectFactory);
+            if (execution == null) {
+                while (rs.next()) {
+                    recordMapper.map(rs, this.valueObjectFactory);
+                }
+            }
+            else {
+                execution.executed();
+                while (rs.next()) {
+                    execution.rowRead();
+                    recordMapper.map(rs, this.valueObjectFactory);
+                    execution.rowMapped();
+                }
             }
+            completed = true;
         }
         finally {
-            if (rs != null)
-                rs.close();
+            try {
+                if (rs != null)
+                    rs.close();
+            }
+            finally {
+                if (execution != null)
+                    execution.finish(completed);
+            }
         }
     }
 
     /**
-    * Get one value object or null.
+    * Starts measuring an execution, if the query has a listener.
+    * @return Measures of the execution, or null if the query has no listener
+    * or if the Prepared Statement is not owned by a query.
+    */
+    private QueryExecution startExecution() {
+        return (this.query == null) ? null : this.query.startExecution();
+    }
+
+    /**
+    * Get one value object or null. The driver is asked for two records at most
+    * and the reading stops after the second one.
     * @return Single Value Object or null if no records have been found
     * for the passed parameter.
-    * @throws SQLException A problem occurred with the database or the query.
+    * @throws SQLException A problem occurred with the database or the query,
+    * or the query has found more than one record.
     */
     public synchronized T getSingleResult() throws SQLException {
-        // Lazy constructor
-        if (this.singleRecordMapper == null)
-                this.singleRecordMapper = new SingleRecordObjectMap<T>();
+        return fetchFirst(2);
+    }
+
+    /**
+    * Get the first value object or null. The driver is asked for one record only.
+    * @return First Value Object or null if no records have been found
+    * for the passed parameter.
+    * @throws SQLException A problem occurred with the database or the query.
+    */
+    public synchronized T getFirstResult() throws SQLException {
+        return fetchFirst(1);
+    }
 
-        fetchRecords(this.singleRecordMapper);
-        return this.singleRecordMapper.getResult();
+    /**
+    * Executes the query, limiting the number of records that the driver reads,
+    * and maps the first record only.
+    * @param maxRows Max number of records read by the driver: if it is greater than 1
+    * and there is a second record, an exception is thrown.
+    * @return First Value Object or null if no records have been found.
+    * @throws SQLException A problem occurred with the database or the query,
+    * or the query has found more than one record when one only is expected.
+    */
+    private T fetchFirst(final int maxRows) throws SQLException {
+        PreparedStatement statement = (this.query == null) ? this.pstm : this.query.getPstm();
+        statement.setMaxRows(maxRows);
+        final QueryExecution execution = startExecution();
+        boolean completed = false;
+        ResultSet rs = null;
+        try {
+            if (this.query == null)
+                rs = statement.executeQuery();
+            else {
+                rs = this.query.executeQuery();
+                // the statement could have been prepared again
+                statement = this.query.getPstm();
+            }
+            if (execution != null)
+                execution.executed();
+
+            if (!rs.next()) {
+                completed = true;
+                return null;
+            }
+
+            if (execution != null)
+                execution.rowRead();
+            final T result = this.valueObjectFactory.map(rs);
+            if (execution != null)
+                execution.rowMapped();
+            if ((maxRows > 1) && rs.next())
+                throw new SQLException("The query has found more than one record, while one was expected.");
+
+            completed = true;
+            return result;
+        }
+        finally {
+            try {
+                if (rs != null)
+                    rs.close();
+            }
+            finally {
+                statement.setMaxRows(0);
+                if (execution != null)
+                    execution.finish(completed);
+            }
+        }
     }
 
     /**
@@ -130,12 +246,118 @@ public class ReadQuery<T> {
     * @throws SQLException A problem occurred with the database or the query.
     */
     public synchronized List<T> getResultList() throws SQLException {
-        // Lazy constructor
-        if (this.multipleRecordMapper == null)
-                this.multipleRecordMapper = new MultipleRecordObjectMap<T>();
+        // a new mapper for each execution, so the returned list does not
+        // receive the records of the next one
+        final MultipleRecordObjectMap<T> multipleRecordMapper = new MultipleRecordObjectMap<T>();
+        fetchRecords(multipleRecordMapper);
+        return multipleRecordMapper.getResult();
+    }
+
+    /**
+    * Executes the query and returns an iterator, which creates the value objects
+    * while the records are read. If the query has a listener, the execution
+    * is measured until the iterator is closed. The driver reads {@link #getFetchSize()} records
+    * at a time, by a cursor: as PostgreSQL opens a cursor only inside a transaction,
+    * if the connection is in auto commit mode, the auto commit is switched off
+    * until the iterator is closed.
+    * @return Iterator that must be closed after use.
+    * @throws SQLException A problem occurred with the database or the query.
+    */
+    public synchronized ResultIterator<T> iterator() throws SQLException {
+        final PreparedStatement statement = (this.query == null) ? this.pstm : this.query.getPstm();
+        Connection con = (this.query == null) ? null : this.query.getPreparedConnection();
+        if (con == null)
+            con = statement.getConnection();
+
+        final boolean restoreAutoCommit = con.getAutoCommit();
+        if (restoreAutoCommit)
+            con.setAutoCommit(false);
+
+        final QueryExecution execution = startExecution();
+        try {
+            statement.setFetchSize(this.fetchSize);
+            final ResultSet rs = (this.query == null) ? statement.executeQuery() : this.query.executeQuery();
+            if (execution != null)
+                execution.executed();
+            return new ResultIterator<T>(rs, this.valueObjectFactory, con, restoreAutoCommit, execution);
+        }
+        catch (SQLException ex) {
+            if (execution != null)
+                execution.finish(false);
+            if (restoreAutoCommit) {
+                try {
+                    con.rollback();
+                }
+                finally {
+                    con.setAutoCommit(true);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    /**
+    * Executes the query and passes each record to the handler,
+    * as soon as it has been read, without keeping the records in memory.
+    * @param handler Handler which receives the records.
+    * @throws SQLException A problem occurred with the database or the query.
+    * @see #iterator()
+    */
+    public void forEach(final RowHandler<? super T> handler) throws SQLException {
+        final ResultIterator<T> iter = iterator();
+        try {
+            while (iter.hasNextRow())
+                handler.handle(iter.nextRow());
+        }
+        finally {
+            iter.close();
+        }
+    }
 
-        fetchRecords(this.multipleRecordMapper);
-        return this.multipleRecordMapper.getResult();
+    /**
+    * Executes the query and returns a stream, which creates the value objects
+    * while the records are read. The stream must be closed after use,
+    * the database errors are thrown as {@link UncheckedSQLException}.
+    * @return Sequential stream of the value objects.
+    * @throws SQLException A problem occurred with the database or the query.
+    * @see #iterator()
+    */
+    public Stream<T> stream() throws SQLException {
+        final ResultIterator<T> iter = iterator();
+        final Stream<T> stream = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED), false);
+        return stream.onClose(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    iter.close();
+                }
+                catch (SQLException ex) {
+                    throw new UncheckedSQLException(ex);
+                }
+            }
+        });
+    }
+
+    /**
+    * Setter of the fetch size.
+    * @param fetchSize Number of records that the driver reads at a time
+    * while the records are streamed.
+    */
+    public final void setFetchSize(final int fetchSize) {
+        if (fetchSize < 1)
+            throw new IllegalArgumentException("The fetch size must be greater than 0");
+
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+    * Getter of the fetch size.
+    * @return Number of records that the driver reads at a time
+    * while the records are streamed.
+    */
+    public final int getFetchSize() {
+        return this.fetchSize;
     }
 
     /**
@@ -154,6 +376,15 @@ public class ReadQuery<T> {
         this.pstm = pstm;
     }
 
+    /**
+    * Setter of the query which owns the Prepared Statement.
+    * @param query Query which executes the Prepared Statement, it can be
+    * prepared again if its plan has been discarded by the database.
+    */
+    public final void setQuery(final Query query) {
+        this.query = query;
+    }
+
     /**
     * Setter of the fields which are part of the <code>SELECT</code> query.
     * @param selectFields Fields that appear in the select part of the query.
@@ -21,6 +21,9 @@ package org.byteliberi.easydriver.impl;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
 import org.byteliberi.easydriver.TableField;
 
 /**
@@ -42,12 +45,24 @@ public interface ReadQueryAPI<T> {
     public TableField<?>[] getSelectFields();
 
     /**     
-     * Get a single record, obtained by executing the query.
+     * Get a single record, obtained by executing the query. No more than two
+     * records are read: if the query finds a second one, an exception is thrown,
+     * while the previous versions returned the last record that had been read.
+     * Use {@link #getFirstResult()} when more records can be found.
      * @return Single Value Object or null if no rows have been found.
-     * @throws SQLException A problem occurred with the query or the database.
+     * @throws SQLException A problem occurred with the query or the database,
+     * or more than one row has been found.
      */
     public T getSingleResult() throws SQLException;
 
+    /**
+     * Get the first record, obtained by executing the query. The driver is asked
+     * for one record only, so the query should be ordered.
+     * @return First Value Object or null if no rows have been found.
+     * @throws SQLException A problem occurred with the query or the database.
+     */
+    public T getFirstResult() throws SQLException;
+
     /**
      * Get a list of records, obtained by executing the query.
      * @return List of Value Object or an emtpy list if no rows have been found.
@@ -55,11 +70,35 @@ public interface ReadQueryAPI<T> {
      */
     public List<T> getResultList() throws SQLException;
 
+    /**
+     * Get a list of records on a connection of the connection executor of the
+     * query, so the calling thread is not blocked. The current parameter values
+     * are copied, then the query can be filled again or closed; it does not need
+     * to be prepared. The result cache and the session are not used.
+     * @return Future which is completed by the list of Value Object, or by an
+     * emtpy list if no rows have been found.
+     * @throws IllegalStateException The query has no connection executor.
+     */
+    public CompletableFuture<List<T>> getResultListAsync();
+
+    /**
+     * Get a single record on a connection of the connection executor of the
+     * query, so the calling thread is not blocked. The current parameter values
+     * are copied, then the query can be filled again or closed; it does not need
+     * to be prepared. The result cache and the session are not used.
+     * @return Future which is completed by the single Value Object, or by null if
+     * no rows have been found. It fails if more than one row has been found.
+     * @throws IllegalStateException The query has no connection executor.
+     */
+    public CompletableFuture<T> getSingleResultAsync();
+
     /**
      * Get a single record, obtained by executing the query, then closes
      * the prepared statement.
      * @return Single Value Object or null if no rows have been found.
-     * @throws SQLException A problem occurred with the query or the database.
+     * @throws SQLException A problem occurred with the query or the database,
+     * or more than one row has been found.
+     * @see #getSingleResult()
      */
     public T getSingleResultAndClose() throws SQLException;
 
@@ -70,4 +109,37 @@ public interface ReadQueryAPI<T> {
      * @throws SQLException A problem occurred with the query or the database.
      */
     public List<T> getResultAndClose() throws SQLException;
+
+    /**
+     * Executes the query and returns an iterator, which reads the records
+     * one at a time by a cursor, so the memory does not depend on the number
+     * of records. If the connection is in auto commit mode, the auto commit
+     * is switched off until the iterator is closed.
+     * @return Iterator that must be closed after use.
+     * @throws SQLException A problem occurred with the query or the database.
+     */
+    public ResultIterator<T> iterator() throws SQLException;
+
+    /**
+     * Executes the query and passes each record to the handler, as soon as it
+     * has been read by a cursor.
+     * @param handler Handler which receives the records.
+     * @throws SQLException A problem occurred with the query or the database.
+     */
+    public void forEach(RowHandler<? super T> handler) throws SQLException;
+
+    /**
+     * Executes the query and returns a stream, which reads the records one at
+     * a time by a cursor. The stream must be closed after use.
+     * @return Sequential stream of the value objects.
+     * @throws SQLException A problem occurred with the query or the database.
+     */
+    public Stream<T> stream() throws SQLException;
+
+    /**
+     * Setter of the number of records that the driver reads at a time
+     * while the records are streamed.
+     * @param fetchSize Number of records read at a time, it must be greater than 0.
+     */
+    public void setFetchSize(int fetchSize);
 }
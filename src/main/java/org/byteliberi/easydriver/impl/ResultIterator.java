@@ -0,0 +1,261 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.UncheckedSQLException;
+
+/**
+ * This iterator reads the records of a query one at a time, creating a
+ * value object for each record only when it is requested, so the memory
+ * does not depend on the number of records.<P>
+ * The iterator keeps the Result Set open until all the records have been
+ * read or it is closed, so it should be used in a <code>try</code> with
+ * resources block. The <code>Iterator</code> methods wrap the database
+ * errors in an {@link UncheckedSQLException}, while {@link #hasNextRow()}
+ * and {@link #nextRow()} throw them as they are.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class of the value objects that are created by this iterator.
+ */
+public class ResultIterator<T> implements Iterator<T>, AutoCloseable {
+	/**
+	 * Result Set which is read.
+	 */
+	private final ResultSet rs;
+
+	/**
+	 * Statement which has created the Result Set, its fetch size
+	 * is restored when this iterator is closed.
+	 */
+	private final Statement statement;
+
+	/**
+	 * Factory which creates a new instance of a value object and fills
+	 * its properties with the values read from the Result Set.
+	 */
+	private final ObjectFactory<T> valueObjectFactory;
+
+	/**
+	 * Database connection.
+	 */
+	private final Connection con;
+
+	/**
+	 * It is true if the auto commit has been switched off in order to read
+	 * by a cursor, so it has to be switched on again when this iterator is closed.
+	 */
+	private final boolean restoreAutoCommit;
+
+	/**
+	 * Measures of the execution, which are given to the listener when this
+	 * iterator is closed. It is null if the query has no listener.
+	 */
+	private final QueryExecution execution;
+
+	/**
+	 * It is true when the Result Set has been moved to the next record,
+	 * which has not been returned yet.
+	 */
+	private boolean fetched = false;
+
+	/**
+	 * It is true when the Result Set is on a record.
+	 */
+	private boolean available = false;
+
+	/**
+	 * It is true when this iterator has been closed.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param rs Result Set which is read.
+	 * @param valueObjectFactory Factory which creates a new instance of a value
+	 * object and fills its properties with the values read from the Result Set.
+	 * @param con Database connection.
+	 * @param restoreAutoCommit If true, the transaction is committed and the
+	 * auto commit is switched on when this iterator is closed.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public ResultIterator(final ResultSet rs, final ObjectFactory<T> valueObjectFactory,
+						  final Connection con, final boolean restoreAutoCommit) throws SQLException {
+		this(rs, valueObjectFactory, con, restoreAutoCommit, null);
+	}
+
+	/**
+	 * Creates a new instance of this class, which measures the reading of the records.
+	 * @param rs Result Set which is read.
+	 * @param valueObjectFactory Factory which creates a new instance of a value
+	 * object and fills its properties with the values read from the Result Set.
+	 * @param con Database connection.
+	 * @param restoreAutoCommit If true, the transaction is committed and the
+	 * auto commit is switched on when this iterator is closed.
+	 * @param execution Measures of the execution, which are given to the listener
+	 * when this iterator is closed, it can be null.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public ResultIterator(final ResultSet rs, final ObjectFactory<T> valueObjectFactory,
+						  final Connection con, final boolean restoreAutoCommit,
+						  final QueryExecution execution) throws SQLException {
+		this.rs = rs;
+		this.statement = rs.getStatement();
+		this.valueObjectFactory = valueObjectFactory;
+		this.con = con;
+		this.restoreAutoCommit = restoreAutoCommit;
+		this.execution = execution;
+	}
+
+	/**
+	 * Checks if there is another record, moving the Result Set on it.
+	 * When there are no more records, this iterator is closed.
+	 * @return true if there is another record.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	public boolean hasNextRow() throws SQLException {
+		if (this.closed)
+			return false;
+
+		if (!this.fetched) {
+			this.available = this.rs.next();
+			this.fetched = true;
+			if (!this.available)
+				close();
+		}
+		return this.available;
+	}
+
+	/**
+	 * Reads the next record.
+	 * @return Value Object created from the next record.
+	 * @throws SQLException A problem occurred with the database.
+	 * @throws NoSuchElementException There are no more records.
+	 */
+	public T nextRow() throws SQLException {
+		if (!hasNextRow())
+			throw new NoSuchElementException();
+
+		this.fetched = false;
+		if (this.execution == null)
+			return this.valueObjectFactory.map(this.rs);
+
+		this.execution.rowRead();
+		final T row = this.valueObjectFactory.map(this.rs);
+		this.execution.rowMapped();
+		return row;
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			return hasNextRow();
+		}
+		catch (SQLException ex) {
+			throw failed(ex);
+		}
+	}
+
+	@Override
+	public T next() {
+		try {
+			return nextRow();
+		}
+		catch (SQLException ex) {
+			throw failed(ex);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("The records are read only");
+	}
+
+	/**
+	 * Closes this iterator after an error.
+	 * @param ex Exception risen by the database.
+	 * @return Exception to be thrown.
+	 */
+	private UncheckedSQLException failed(final SQLException ex) {
+		if (this.execution != null)
+			this.execution.failed();
+		try {
+			close();
+		}
+		catch (SQLException closeEx) {
+			ex.setNextException(closeEx);
+		}
+		return new UncheckedSQLException(ex);
+	}
+
+	/**
+	 * Closes the Result Set, restores the fetch size of the statement and,
+	 * if it had been switched off, it switches on the auto commit.
+	 * If the execution is measured, the measures are given to the listener.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	@Override
+	public void close() throws SQLException {
+		if (this.closed)
+			return;
+
+		this.closed = true;
+		this.available = false;
+		try {
+			this.rs.close();
+			if (this.statement != null)
+				this.statement.setFetchSize(0);
+		}
+		finally {
+			try {
+				if (this.restoreAutoCommit) {
+					try {
+						this.con.commit();
+					}
+					finally {
+						this.con.setAutoCommit(true);
+					}
+				}
+			}
+			finally {
+				if (this.execution != null)
+					this.execution.finish(true);
+			}
+		}
+	}
+
+	/**
+	 * Checks if this iterator has been closed.
+	 * @return true if the Result Set has been closed.
+	 */
+	public boolean isClosed() {
+		return this.closed;
+	}
+}
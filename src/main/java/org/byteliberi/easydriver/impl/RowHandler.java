@@ -0,0 +1,42 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.impl;
+
+import java.sql.SQLException;
+
+/**
+ * This interface is implemented by the callers which read the records of
+ * a query one at a time, without keeping them all in memory.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class of the value objects that are created by the query.
+ */
+public interface RowHandler<T> {
+	/**
+	 * Receives a record, as soon as it has been read.
+	 * @param row Value Object created from the current record.
+	 * @throws SQLException A problem occurred with the database or the query,
+	 * the reading is stopped.
+	 */
+	public void handle(T row) throws SQLException;
+}
@@ -58,6 +58,14 @@ public class Join<T> {
 		this.joinType = joinType;
 	}
 
+	/**
+	 * Getter of the relationship.
+	 * @return Database relationships between the database tables.
+	 */
+	public Relationship<T> getRelationship() {
+		return this.relationship;
+	}
+
 	/**
 	 * Create a String which will be inserted in the query in the <code>FROM</code> clause
 	 * after the table name.
@@ -0,0 +1,37 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.manager;
+
+/**
+ * A key extractor reads the values of the key fields from a value object,
+ * so that a {@link KeysetPaginator} can read the page which follows it.
+ * @author Paolo Proni
+ * 
+ * @param T value object of the found records
+ */
+public interface KeyExtractor<T> {
+    
+    /**
+     * Reads the key of a record.
+     * @param row Object which maps a found record.
+     * @return Values of the key fields, in the same order of the fields.
+     */
+    public Object[] getKey(T row);
+}
@@ -0,0 +1,153 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.manager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.byteliberi.easydriver.ExpressionAPI;
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.impl.Query;
+
+/**
+ * This is the condition which selects the records that follow a key, in the
+ * order of the key fields.<P>
+ * When all the fields have the same direction, it is a row value comparison,
+ * such as <code>(a, b) &gt; (?, ?)</code>, which the database can resolve by
+ * an index range scan. Otherwise it is expanded to
+ * <code>a &gt; ? OR (a = ? AND b &lt; ?)</code>, which is put in brackets
+ * when it is joined to another condition.
+ * The key fields must not be null.
+ * 
+ * @author Paolo Proni
+ */
+class KeysetCondition implements ExpressionAPI {
+    
+    /**
+     * Key fields.
+     */
+    private final TableField<?>[] fields;
+    
+    /**
+     * Direction of each key field, true if it is descending.
+     */
+    private final boolean[] descending;
+    
+    /**
+     * Index of the key value which fills each parameter.
+     */
+    private final int[] keyIndexes;
+    
+    /**
+     * Query string part.
+     */
+    private final String condition;
+    
+    /**
+     * Creates a new instance of this class.
+     * @param fields Key fields.
+     * @param descending Direction of each key field, true if it is descending.
+     */
+    KeysetCondition(final TableField<?>[] fields, final boolean[] descending) {
+        this.fields = fields;
+        this.descending = descending;
+        
+        boolean sameDirection = true;
+        for (boolean desc : descending)
+            sameDirection &= (desc == descending[0]);
+        
+        final List<Integer> indexes = new ArrayList<Integer>();
+        final StringBuilder sb = new StringBuilder();
+        if (fields.length == 1 || sameDirection) {
+            appendList(sb, fields.length, true);
+            sb.append(descending[0] ? " < " : " > ");
+            appendList(sb, fields.length, false);
+            for (int i = 0; i < fields.length; i++)
+                indexes.add(i);
+        }
+        else {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0)
+                    sb.append(" OR (");
+                for (int j = 0; j < i; j++) {
+                    sb.append(fields[j].getCompleteName()).append(" = ? AND ");
+                    indexes.add(j);
+                }
+                sb.append(fields[i].getCompleteName()).append(descending[i] ? " < ?" : " > ?");
+                indexes.add(i);
+                if (i > 0)
+                    sb.append(')');
+            }
+        }
+        
+        this.condition = sb.toString();
+        this.keyIndexes = new int[indexes.size()];
+        for (int i = 0; i < this.keyIndexes.length; i++)
+            this.keyIndexes[i] = indexes.get(i);
+    }
+    
+    /**
+     * Writes the list of the field names or of the placeholders of a row value.
+     * @param sb Query string part.
+     * @param count Number of fields.
+     * @param names If true, the field names are written, otherwise the placeholders.
+     */
+    private void appendList(final StringBuilder sb, final int count, final boolean names) {
+        if (count > 1)
+            sb.append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(names ? this.fields[i].getCompleteName() : "?");
+        }
+        if (count > 1)
+            sb.append(')');
+    }
+    
+    @Override
+    public String createString() {
+        return this.condition;
+    }
+    
+    @Override
+    public List<TableField<?>> getParameters() {
+        final List<TableField<?>> found = new ArrayList<TableField<?>>(this.keyIndexes.length);
+        for (int index : this.keyIndexes)
+            found.add(this.fields[index]);
+        return found;
+    }
+    
+    /**
+     * Adds the key values to a query, after its previous parameters.
+     * @param query Query which contains this condition.
+     * @param key Values of the key fields.
+     * @throws SQLException A problem occurred with the database or the key has a wrong length.
+     */
+    @SuppressWarnings("unchecked")
+    void addParameters(final Query query, final Object[] key) throws SQLException {
+        if (key.length != this.fields.length)
+            throw new SQLException("The key has " + key.length + " values, while " +
+                                   this.fields.length + " were expected.");
+        
+        for (int index : this.keyIndexes)
+            query.addParameter((TableField<Object>) this.fields[index], key[index]);
+    }
+}
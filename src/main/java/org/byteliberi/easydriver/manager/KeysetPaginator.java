@@ -0,0 +1,425 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.manager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.byteliberi.easydriver.ConnectionExecutor;
+import org.byteliberi.easydriver.ConnectionTask;
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ExpressionAPI;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.SelectQuery;
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.UncheckedSQLException;
+import org.byteliberi.easydriver.expressions.And;
+import org.byteliberi.easydriver.fields.decorations.Desc;
+import org.byteliberi.easydriver.join.Join;
+
+/**
+ * A keyset paginator reads the records of a table one page at a time, in the
+ * order of a key. Each page is read by a condition on the key of the last record
+ * of the previous page, instead of an <code>OFFSET</code>, so the database does
+ * not read and throw away the records of the previous pages.<P>
+ * The key is made by the primary key fields of the table, or by the fields of an
+ * explicit <code>ORDER BY</code>, which may be wrapped by {@link Desc}. The key must be
+ * unique and its fields must not be null, otherwise some records could be skipped.<P>
+ * The pages can be read by {@link #pages(Connection, int)}, which can prefetch the
+ * next page in the background while the caller works on the current one: the
+ * prefetch runs on a connection of a {@link ConnectionExecutor}, so the connection
+ * of the caller is never used by another thread, but the prefetched pages are read
+ * outside the transaction of the caller.
+ * 
+ * @author Paolo Proni
+ * 
+ * @param T value object of the found records
+ */
+public class KeysetPaginator<T> {
+    
+    /**
+     * Fields that appear in the select part of the query.
+     */
+    private final TableField<?>[] selectFields;
+    
+    /**
+     * Table read by the query.
+     */
+    private final DBTable<?> table;
+    
+    /**
+     * Filter which is applied to all the pages, it can be null.
+     */
+    private final ExpressionAPI where;
+    
+    /**
+     * Fields of the <code>ORDER BY</code> section.
+     */
+    private final TableField<?>[] orderBy;
+    
+    /**
+     * Condition on the key of the last record of the previous page.
+     */
+    private final KeysetCondition keysetCondition;
+    
+    /**
+     * Creates the value objects.
+     */
+    private final ObjectFactory<T> valueObjectFactory;
+    
+    /**
+     * Reads the key of a value object.
+     */
+    private final KeyExtractor<T> keyExtractor;
+    
+    /**
+     * Values of the parameters of the filter.
+     */
+    private Object[] whereValues = new Object[0];
+    
+    /**
+     * Runs the prefetch of the next page on its own connection, null if the pages are not prefetched.
+     */
+    private ConnectionExecutor prefetchExecutor = null;
+    
+    /**
+     * Query which reads the first page.
+     */
+    private SelectQuery<T> firstPageQuery = null;
+    
+    /**
+     * Query which reads the page after a key.
+     */
+    private SelectQuery<T> nextPageQuery = null;
+    
+    /**
+     * Creates a new instance of this class, which reads all the fields of a table
+     * in the order of its primary key.
+     * @param table Table read by the query.
+     * @param valueObjectFactory Creates the value objects.
+     * @param keyExtractor Reads the primary key of a value object.
+     */
+    public KeysetPaginator(final DBTable<?> table, final ObjectFactory<T> valueObjectFactory,
+                           final KeyExtractor<T> keyExtractor) {
+        this(table.getFields(), table, null, null, valueObjectFactory, keyExtractor);
+    }
+    
+    /**
+     * Creates a new instance of this class.
+     * @param selectFields Fields that appear in the select part of the query.
+     * @param table Table read by the query.
+     * @param where Filter which is applied to all the pages, null if there is none.
+     * @param orderBy Fields that make the key, in the order of the pages. A field
+     * wrapped by {@link Desc} is read in reverse order. If null, the primary key
+     * of the table is used.
+     * @param valueObjectFactory Creates the value objects.
+     * @param keyExtractor Reads the key of a value object, in the order of the key fields.
+     */
+    public KeysetPaginator(final TableField<?>[] selectFields, final DBTable<?> table,
+                           final ExpressionAPI where, final TableField<?>[] orderBy,
+                           final ObjectFactory<T> valueObjectFactory, final KeyExtractor<T> keyExtractor) {
+        this.selectFields = selectFields;
+        this.table = table;
+        this.where = where;
+        this.orderBy = (orderBy == null) ? table.getPrimaryKey().getFields() : orderBy;
+        if (this.orderBy.length == 0)
+            throw new IllegalArgumentException("The keyset pagination needs at least one key field");
+        
+        final TableField<?>[] keyFields = new TableField<?>[this.orderBy.length];
+        final boolean[] descending = new boolean[this.orderBy.length];
+        for (int i = 0; i < keyFields.length; i++) {
+            if (this.orderBy[i] instanceof Desc) {
+                keyFields[i] = ((Desc<?>) this.orderBy[i]).getField();
+                descending[i] = true;
+            }
+            else
+                keyFields[i] = this.orderBy[i];
+        }
+        this.keysetCondition = new KeysetCondition(keyFields, descending);
+        this.valueObjectFactory = valueObjectFactory;
+        this.keyExtractor = keyExtractor;
+    }
+    
+    /**
+     * Reads the first page.
+     * @param con Database connection.
+     * @param pageSize Max size of the page.
+     * @return Objects which map to the found records or empty list if no records
+     * have been found.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    public List<T> readFirstPage(final Connection con, final int pageSize) throws SQLException {
+        return readPageAfter(con, null, pageSize);
+    }
+    
+    /**
+     * Reads the page which follows a key.
+     * @param con Database connection.
+     * @param lastKey Key of the last record of the previous page, in the order of the key
+     * fields, or null for the first page.
+     * @param pageSize Max size of the page.
+     * @return Objects which map to the found records or empty list if no records
+     * have been found.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    public synchronized List<T> readPageAfter(final Connection con, final Object[] lastKey,
+                                              final int pageSize) throws SQLException {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("The page size must be greater than 0");
+        
+        final SelectQuery<T> query = getQuery(con, lastKey == null);
+        query.setLimit(pageSize);
+        query.prepareQuery(con);
+        try {
+            query.clearParameters();
+            addWhereParameters(query);
+            if (lastKey != null)
+                this.keysetCondition.addParameters(query, lastKey);
+            
+            return query.getResultList();
+        }
+        finally {
+            query.close();
+        }
+    }
+    
+    /**
+     * Reads the pages, one at a time. If a prefetch executor has been set,
+     * the next page is read in the background, on a connection of the executor,
+     * as soon as a page is returned.
+     * A problem with the database is thrown as an {@link UncheckedSQLException}.
+     * @param con Database connection, which reads the pages that are not prefetched.
+     * @param pageSize Max size of each page.
+     * @return Pages, the last one is never empty.
+     */
+    public Iterator<List<T>> pages(final Connection con, final int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("The page size must be greater than 0");
+        
+        return new PageIterator(con, pageSize);
+    }
+    
+    /**
+     * Gets the query which reads the first page or the following ones,
+     * creating it the first time.
+     * @param con Database connection.
+     * @param first If true, the query of the first page is returned.
+     * @return Select query.
+     */
+    private SelectQuery<T> getQuery(final Connection con, final boolean first) {
+        if (first) {
+            if (this.firstPageQuery == null)
+                this.firstPageQuery = createQuery(con, this.where);
+            return this.firstPageQuery;
+        }
+        else {
+            if (this.nextPageQuery == null) {
+                final ExpressionAPI condition = (this.where == null) ?
+                        this.keysetCondition : new And(this.where, this.keysetCondition);
+                this.nextPageQuery = createQuery(con, condition);
+            }
+            return this.nextPageQuery;
+        }
+    }
+    
+    /**
+     * Creates a query.
+     * @param con Database connection.
+     * @param condition <code>WHERE</code> section, it can be null.
+     * @return Select query.
+     */
+    private SelectQuery<T> createQuery(final Connection con, final ExpressionAPI condition) {
+        return new SelectQuery<T>(con, this.selectFields,
+                                  new DBTable<?>[] { this.table },
+                                  new Join<?>[0],
+                                  (condition == null) ? new ExpressionAPI[0] : new ExpressionAPI[] { condition },
+                                  this.orderBy,
+                                  this.valueObjectFactory);
+    }
+    
+    /**
+     * Adds the values of the filter parameters.
+     * @param query Query which contains the filter.
+     * @throws SQLException A problem occurred with the database or the number of values is wrong.
+     */
+    @SuppressWarnings("unchecked")
+    private void addWhereParameters(final SelectQuery<T> query) throws SQLException {
+        if (this.where == null)
+            return;
+        
+        final List<TableField<?>> parameters = this.where.getParameters();
+        if (parameters.size() != this.whereValues.length)
+            throw new SQLException(this.whereValues.length + " filter values have been passed, but the filter has " +
+                                   parameters.size() + " parameters");
+        
+        int index = 0;
+        for (TableField<?> field : parameters)
+            query.addParameter((TableField<Object>) field, this.whereValues[index++]);
+    }
+    
+    /**
+     * Setter of the values of the filter parameters.
+     * @param values Values, in the order of the parameters of the filter.
+     */
+    public synchronized void setWhereValues(final Object... values) {
+        this.whereValues = values.clone();
+    }
+    
+    /**
+     * Setter of the prefetch executor.
+     * @param prefetchExecutor Runs the prefetch of the next page on a connection
+     * of its own, null in order to read each page when it is requested.
+     */
+    public void setPrefetchExecutor(final ConnectionExecutor prefetchExecutor) {
+        this.prefetchExecutor = prefetchExecutor;
+    }
+    
+    /**
+     * Getter of the prefetch executor.
+     * @return Runs the prefetch of the next page, null if the pages are not prefetched.
+     */
+    public ConnectionExecutor getPrefetchExecutor() {
+        return this.prefetchExecutor;
+    }
+    
+    /**
+     * Iterator over the pages, which remembers the key of the last read record.
+     */
+    private final class PageIterator implements Iterator<List<T>> {
+        
+        /**
+         * Database connection.
+         */
+        private final Connection con;
+        
+        /**
+         * Max size of each page.
+         */
+        private final int pageSize;
+        
+        /**
+         * Executor used by this iteration.
+         */
+        private final ConnectionExecutor executor = prefetchExecutor;
+        
+        /**
+         * Key of the last record of the last read page, null before the first page.
+         */
+        private Object[] lastKey = null;
+        
+        /**
+         * Page which has been read and not returned yet.
+         */
+        private List<T> page = null;
+        
+        /**
+         * Next page, which is being read in the background.
+         */
+        private CompletableFuture<List<T>> prefetched = null;
+        
+        /**
+         * True when the last page has been read.
+         */
+        private boolean exhausted = false;
+        
+        /**
+         * Creates a new instance of this class.
+         * @param con Database connection.
+         * @param pageSize Max size of each page.
+         */
+        PageIterator(final Connection con, final int pageSize) {
+            this.con = con;
+            this.pageSize = pageSize;
+        }
+        
+        public boolean hasNext() {
+            if ((this.page == null) && !this.exhausted)
+                this.page = take();
+            return (this.page != null) && !this.page.isEmpty();
+        }
+        
+        public List<T> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            
+            final List<T> found = this.page;
+            this.page = null;
+            return found;
+        }
+        
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+        
+        /**
+         * Gets the next page, from the prefetch or reading it, then it starts
+         * the prefetch of the following one.
+         * @return Next page.
+         */
+        private List<T> take() {
+            final List<T> found;
+            try {
+                if (this.prefetched == null)
+                    found = readPageAfter(this.con, this.lastKey, this.pageSize);
+                else {
+                    final CompletableFuture<List<T>> task = this.prefetched;
+                    this.prefetched = null;
+                    found = task.get();
+                }
+            }
+            catch (SQLException ex) {
+                this.exhausted = true;
+                throw new UncheckedSQLException(ex);
+            }
+            catch (ExecutionException ex) {
+                this.exhausted = true;
+                if (ex.getCause() instanceof SQLException)
+                    throw new UncheckedSQLException((SQLException) ex.getCause());
+                throw new UncheckedSQLException(new SQLException("The prefetch of a page has failed.", ex.getCause()));
+            }
+            catch (InterruptedException ex) {
+                this.exhausted = true;
+                Thread.currentThread().interrupt();
+                throw new UncheckedSQLException(new SQLException("Interrupted while waiting for a page.", ex));
+            }
+            
+            if (found.size() < this.pageSize) {
+                this.exhausted = true;
+                return found;
+            }
+            
+            final Object[] key = keyExtractor.getKey(found.get(found.size() - 1));
+            this.lastKey = key;
+            if (this.executor != null) {
+                this.prefetched = this.executor.submit(new ConnectionTask<List<T>>() {
+                    public List<T> run(final Connection prefetchCon) throws SQLException {
+                        return readPageAfter(prefetchCon, key, pageSize);
+                    }
+                });
+            }
+            return found;
+        }
+    }
+}
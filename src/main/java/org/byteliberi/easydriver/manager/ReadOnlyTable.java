@@ -59,4 +59,18 @@ public interface ReadOnlyTable<K,T> {
      * @throws DataLayerException A problem occurred with the persistence layer.
      */
     public List<T> readPage(int offset, int pageSize) throws DataLayerException;       
+    
+    /**
+     * Reads the records which follow the passed key, in the order of the key,
+     * and returns no more than pageSize of them. Unlike {@link #readPage(int, int)},
+     * the records before the key are not read and thrown away, so a deep page
+     * is read as fast as the first one.
+     * 
+     * @param lastKey Key of the last record of the previous page, or null for the first page.
+     * @param pageSize Max size of the page.
+     * @return Objects which map to the found records or empty list if no records
+     * have been found.
+     * @throws DataLayerException A problem occurred with the persistence layer.
+     */
+    public List<T> readPageAfter(K lastKey, int pageSize) throws DataLayerException;
 }
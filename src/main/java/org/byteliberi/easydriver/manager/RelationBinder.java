@@ -0,0 +1,53 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.manager;
+
+/**
+ * A relation binder links a value object to the related object which
+ * a {@link RelationLoader} has read from the related table.
+ * @author Paolo Proni
+ * 
+ * @param T value object which holds the foreign key
+ * @param R value object of the related table
+ */
+public interface RelationBinder<T, R> {
+    
+    /**
+     * Reads the foreign key of a value object.
+     * @param model Object which holds the foreign key.
+     * @return Value of the foreign key, null if the object has no related object.
+     */
+    public Object getForeignKey(T model);
+    
+    /**
+     * Reads the key of a related object, it must be equal to the
+     * foreign keys which refer to it.
+     * @param related Object read from the related table.
+     * @return Value of the related field.
+     */
+    public Object getKey(R related);
+    
+    /**
+     * Links a value object to its related object.
+     * @param model Object which holds the foreign key.
+     * @param related Object read from the related table.
+     */
+    public void bind(T model, R related);
+}
@@ -0,0 +1,174 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.manager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.SelectQuery;
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.expressions.AnyOf;
+import org.byteliberi.easydriver.impl.RelatedFields;
+import org.byteliberi.easydriver.impl.Relationship;
+
+/**
+ * A relation loader reads the related objects of a list of value objects
+ * with a single query, instead of one query for each value object.<P>
+ * The distinct foreign keys of the value objects are passed as a single
+ * array parameter to <code>related field = ANY(?)</code>, so the query string
+ * is the same whatever is the number of keys. Each related object is read once
+ * and it is linked to all the value objects which refer to it.<P>
+ * The loaders of the next levels, added by {@link #fetch(RelationLoader)}, read
+ * the related objects of the loaded ones, so a path such as A -&gt; B -&gt; C
+ * takes one query for each level. The array parameter is a PostgreSQL feature
+ * and the relationship must be made by a single field.<P>
+ * For example:
+ * <pre>
+ * new RelationLoader&lt;Order, Customer&gt;(orderCustomer, new CustomerFactory(), customerBinder)
+ *     .fetch(new RelationLoader&lt;Customer, Country&gt;(customerCountry, new CountryFactory(), countryBinder))
+ *     .load(con, orders);
+ * </pre>
+ * 
+ * @author Paolo Proni
+ * 
+ * @param T value object which holds the foreign key
+ * @param R value object of the related table
+ */
+public class RelationLoader<T, R> {
+    
+    /**
+     * Table which is read.
+     */
+    private final DBTable<?> relatedTable;
+    
+    /**
+     * Field of the related table, which is compared to the foreign keys.
+     */
+    private final TableField<?> relatedField;
+    
+    /**
+     * Factory of the related objects.
+     */
+    private final ObjectFactory<R> factory;
+    
+    /**
+     * Reads the keys and links the related objects.
+     */
+    private final RelationBinder<T, R> binder;
+    
+    /**
+     * Loaders of the objects related to the loaded ones.
+     */
+    private final List<RelationLoader<R, ?>> children = new ArrayList<RelationLoader<R, ?>>();
+    
+    /**
+     * Creates a new instance of this class.
+     * @param relationship Relationship between the table of the value objects
+     * and the related table, such as a {@link org.byteliberi.easydriver.ManyToOne}
+     * or a {@link org.byteliberi.easydriver.OneToOne}.
+     * @param factory Factory of the related objects.
+     * @param binder Reads the keys and links the related objects.
+     */
+    public RelationLoader(final Relationship<?> relationship,
+                          final ObjectFactory<R> factory,
+                          final RelationBinder<T, R> binder) {
+        final List<? extends RelatedFields<?>> relationFields = relationship.getRelationFields();
+        if (relationFields.size() != 1)
+            throw new IllegalArgumentException("The relationship must be made by a single field");
+        
+        this.relatedTable = relationship.getRelatedTable();
+        this.relatedField = relationFields.get(0).getRelatedField();
+        this.factory = factory;
+        this.binder = binder;
+    }
+    
+    /**
+     * Adds the loader of the objects related to the ones read by this loader.
+     * @param child Loader of the next level.
+     * @return This loader, so the calls can be chained.
+     */
+    public RelationLoader<T, R> fetch(final RelationLoader<R, ?> child) {
+        this.children.add(child);
+        return this;
+    }
+    
+    /**
+     * Reads the related objects of the passed value objects and links them,
+     * then it runs the loaders of the next levels on the read objects.
+     * @param con Database connection.
+     * @param models Value objects which hold the foreign keys.
+     * @return Related objects which have been read, each one once.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    public List<R> load(final Connection con, final Collection<? extends T> models) throws SQLException {
+        final LinkedHashSet<Object> keys = new LinkedHashSet<Object>();
+        for (T model : models) {
+            final Object key = this.binder.getForeignKey(model);
+            if (key != null)
+                keys.add(key);
+        }
+        if (keys.isEmpty())
+            return Collections.emptyList();
+        
+        final List<R> loaded = read(con, this.relatedField, keys);
+        final Map<Object, R> byKey = new HashMap<Object, R>(loaded.size() * 4 / 3 + 1);
+        for (R related : loaded)
+            byKey.put(this.binder.getKey(related), related);
+        
+        for (T model : models) {
+            final Object key = this.binder.getForeignKey(model);
+            if (key != null) {
+                final R related = byKey.get(key);
+                if (related != null)
+                    this.binder.bind(model, related);
+            }
+        }
+        
+        for (RelationLoader<R, ?> child : this.children)
+            child.load(con, loaded);
+        return loaded;
+    }
+    
+    /**
+     * Reads the records of the related table whose key is in the passed ones.
+     * @param con Database connection.
+     * @param field Related field.
+     * @param keys Distinct foreign keys, they must be values of the related field.
+     * @return Related objects.
+     * @throws SQLException A problem occurred with the database or the query.
+     */
+    @SuppressWarnings("unchecked")
+    private <K> List<R> read(final Connection con, final TableField<K> field, final Collection<Object> keys) throws SQLException {
+        final SelectQuery<R> query = new SelectQuery<R>(con, this.relatedTable, this.factory);
+        query.setWhere(new AnyOf<K>(field));
+        query.prepareQuery(con);
+        query.addArrayParameter(field, (Collection<? extends K>) (Collection<?>) keys);
+        return query.getResultAndClose();
+    }
+}
@@ -0,0 +1,945 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.byteliberi.easydriver.TableField;
+
+/**
+ * Read only Result Set over a single record, whose values have already been
+ * read. It lets an <code>ObjectFactory</code> map the records which are read
+ * without a JDBC Result Set, such as the ones of a <code>COPY</code>: the
+ * factory calls the <code>map</code> methods of the table fields, which
+ * read the values by their index.<P>
+ * Only the getters by index or by label of the basic types are supported,
+ * the other methods throw a <code>SQLFeatureNotSupportedException</code>.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+final class ArrayResultSet implements ResultSet {
+	/**
+	 * Fields of the record, used in order to find a column by its label.
+	 */
+	private final TableField<?>[] fields;
+
+	/**
+	 * Values of the current record.
+	 */
+	private Object[] row = null;
+
+	/**
+	 * True if the last read value was null.
+	 */
+	private boolean wasNull = false;
+
+	/**
+	 * True after {@link #close()}.
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param fields Fields of the record.
+	 */
+	ArrayResultSet(final TableField<?>[] fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * Setter of the current record.
+	 * @param row Values of the record, in the order of the fields.
+	 */
+	void setRow(final Object[] row) {
+		this.row = row;
+	}
+
+	/**
+	 * Reads a value of the current record.
+	 * @param columnIndex 1 based index of the column.
+	 * @return Value, it can be null.
+	 * @throws SQLException The index is not valid.
+	 */
+	private Object get(final int columnIndex) throws SQLException {
+		if ((columnIndex < 1) || (columnIndex > this.row.length))
+			throw new SQLException("The column index " + columnIndex + " is out of range.");
+
+		final Object value = this.row[columnIndex - 1];
+		this.wasNull = (value == null);
+		return value;
+	}
+
+	/**
+	 * Reads a numeric value of the current record.
+	 * @param columnIndex 1 based index of the column.
+	 * @return Value, it is null when the column is null.
+	 * @throws SQLException The index is not valid or the value is not a number.
+	 */
+	private Number getNumber(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		if ((value == null) || (value instanceof Number))
+			return (Number) value;
+		else
+			throw new SQLException("The column " + columnIndex + " is not a number.");
+	}
+
+	/**
+	 * Creates the exception thrown by the methods which are not supported.
+	 * @return Exception.
+	 */
+	private static SQLException unsupported() {
+		return new SQLFeatureNotSupportedException("This Result Set supports the getters of the basic types only.");
+	}
+
+	public boolean wasNull() throws SQLException {
+		return this.wasNull;
+	}
+
+	public int findColumn(final String columnLabel) throws SQLException {
+		for (int i = 0; i < this.fields.length; i++) {
+			if (this.fields[i].getName().equalsIgnoreCase(columnLabel))
+				return i + 1;
+		}
+		throw new SQLException("The column " + columnLabel + " has not been found.");
+	}
+
+	public Object getObject(final int columnIndex) throws SQLException {
+		return get(columnIndex);
+	}
+
+	public String getString(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		return (value == null) ? null : value.toString();
+	}
+
+	public boolean getBoolean(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		if (value instanceof Boolean)
+			return ((Boolean) value).booleanValue();
+		else if (value instanceof Number)
+			return ((Number) value).intValue() != 0;
+		else if (value == null)
+			return false;
+		else
+			throw new SQLException("The column " + columnIndex + " is not a boolean.");
+	}
+
+	public byte getByte(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.byteValue();
+	}
+
+	public short getShort(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.shortValue();
+	}
+
+	public int getInt(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.intValue();
+	}
+
+	public long getLong(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.longValue();
+	}
+
+	public float getFloat(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.floatValue();
+	}
+
+	public double getDouble(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		return (value == null) ? 0 : value.doubleValue();
+	}
+
+	public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+		final Number value = getNumber(columnIndex);
+		if ((value == null) || (value instanceof BigDecimal))
+			return (BigDecimal) value;
+		else if (value instanceof Double)
+			return BigDecimal.valueOf(value.doubleValue());
+		else
+			return BigDecimal.valueOf(value.longValue());
+	}
+
+	public byte[] getBytes(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		if ((value == null) || (value instanceof byte[]))
+			return (byte[]) value;
+		else
+			throw new SQLException("The column " + columnIndex + " is not an array of bytes.");
+	}
+
+	public Date getDate(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		if ((value == null) || (value instanceof Date))
+			return (Date) value;
+		else if (value instanceof java.util.Date)
+			return new Date(((java.util.Date) value).getTime());
+		else
+			throw new SQLException("The column " + columnIndex + " is not a date.");
+	}
+
+	public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+		final Object value = get(columnIndex);
+		if ((value == null) || (value instanceof Timestamp))
+			return (Timestamp) value;
+		else if (value instanceof java.util.Date)
+			return new Timestamp(((java.util.Date) value).getTime());
+		else
+			throw new SQLException("The column " + columnIndex + " is not a timestamp.");
+	}
+
+	public void close() throws SQLException {
+		this.closed = true;
+		this.row = null;
+	}
+
+	public boolean isClosed() throws SQLException {
+		return this.closed;
+	}
+
+	public <T> T unwrap(final Class<T> iface) throws SQLException {
+		if (iface.isInstance(this))
+			return iface.cast(this);
+		throw new SQLException("This Result Set does not wrap a " + iface.getName());
+	}
+
+	public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+
+	public boolean absolute(final int row) throws SQLException {
+		throw unsupported();
+	}
+
+	public void afterLast() throws SQLException {
+		throw unsupported();
+	}
+
+	public void beforeFirst() throws SQLException {
+		throw unsupported();
+	}
+
+	public void cancelRowUpdates() throws SQLException {
+		throw unsupported();
+	}
+
+	public void clearWarnings() throws SQLException {
+		throw unsupported();
+	}
+
+	public void deleteRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean first() throws SQLException {
+		throw unsupported();
+	}
+
+	public Array getArray(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Array getArray(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public InputStream getAsciiStream(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+		throw unsupported();
+	}
+
+	public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+		return getBigDecimal(findColumn(columnLabel));
+	}
+
+	@Deprecated
+	public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+		throw unsupported();
+	}
+
+	public InputStream getBinaryStream(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public Blob getBlob(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Blob getBlob(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean getBoolean(final String columnLabel) throws SQLException {
+		return getBoolean(findColumn(columnLabel));
+	}
+
+	public byte getByte(final String columnLabel) throws SQLException {
+		return getByte(findColumn(columnLabel));
+	}
+
+	public byte[] getBytes(final String columnLabel) throws SQLException {
+		return getBytes(findColumn(columnLabel));
+	}
+
+	public Reader getCharacterStream(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Reader getCharacterStream(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public Clob getClob(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Clob getClob(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public int getConcurrency() throws SQLException {
+		throw unsupported();
+	}
+
+	public String getCursorName() throws SQLException {
+		throw unsupported();
+	}
+
+	public Date getDate(final String columnLabel, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public Date getDate(final String columnLabel) throws SQLException {
+		return getDate(findColumn(columnLabel));
+	}
+
+	public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public double getDouble(final String columnLabel) throws SQLException {
+		return getDouble(findColumn(columnLabel));
+	}
+
+	public int getFetchDirection() throws SQLException {
+		throw unsupported();
+	}
+
+	public int getFetchSize() throws SQLException {
+		throw unsupported();
+	}
+
+	public float getFloat(final String columnLabel) throws SQLException {
+		return getFloat(findColumn(columnLabel));
+	}
+
+	public int getHoldability() throws SQLException {
+		throw unsupported();
+	}
+
+	public int getInt(final String columnLabel) throws SQLException {
+		return getInt(findColumn(columnLabel));
+	}
+
+	public long getLong(final String columnLabel) throws SQLException {
+		return getLong(findColumn(columnLabel));
+	}
+
+	public ResultSetMetaData getMetaData() throws SQLException {
+		throw unsupported();
+	}
+
+	public Reader getNCharacterStream(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public NClob getNClob(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public NClob getNClob(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public String getNString(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public String getNString(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public <T> T getObject(final String columnLabel, final Class<T> type) throws SQLException {
+		throw unsupported();
+	}
+
+	public Object getObject(final String columnLabel, final Map<String, Class<?>> map) throws SQLException {
+		throw unsupported();
+	}
+
+	public Object getObject(final String columnLabel) throws SQLException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	public <T> T getObject(final int columnIndex, final Class<T> type) throws SQLException {
+		throw unsupported();
+	}
+
+	public Object getObject(final int columnIndex, final Map<String, Class<?>> map) throws SQLException {
+		throw unsupported();
+	}
+
+	public Ref getRef(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Ref getRef(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public int getRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public RowId getRowId(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public RowId getRowId(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public short getShort(final String columnLabel) throws SQLException {
+		return getShort(findColumn(columnLabel));
+	}
+
+	public Statement getStatement() throws SQLException {
+		throw unsupported();
+	}
+
+	public String getString(final String columnLabel) throws SQLException {
+		return getString(findColumn(columnLabel));
+	}
+
+	public Time getTime(final String columnLabel, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public Time getTime(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public Time getTime(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public Timestamp getTimestamp(final String columnLabel, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public Timestamp getTimestamp(final String columnLabel) throws SQLException {
+		return getTimestamp(findColumn(columnLabel));
+	}
+
+	public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+		throw unsupported();
+	}
+
+	public int getType() throws SQLException {
+		throw unsupported();
+	}
+
+	public URL getURL(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public URL getURL(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	@Deprecated
+	public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public SQLWarning getWarnings() throws SQLException {
+		throw unsupported();
+	}
+
+	public void insertRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean isAfterLast() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean isBeforeFirst() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean isFirst() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean isLast() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean last() throws SQLException {
+		throw unsupported();
+	}
+
+	public void moveToCurrentRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public void moveToInsertRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean next() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean previous() throws SQLException {
+		throw unsupported();
+	}
+
+	public void refreshRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean relative(final int rows) throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean rowDeleted() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean rowInserted() throws SQLException {
+		throw unsupported();
+	}
+
+	public boolean rowUpdated() throws SQLException {
+		throw unsupported();
+	}
+
+	public void setFetchDirection(final int direction) throws SQLException {
+		throw unsupported();
+	}
+
+	public void setFetchSize(final int rows) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateArray(final String columnLabel, final Array x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateArray(final int columnIndex, final Array x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final String columnLabel, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateAsciiStream(final int columnIndex, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBigDecimal(final String columnLabel, final BigDecimal x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBigDecimal(final int columnIndex, final BigDecimal x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final String columnLabel, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBinaryStream(final int columnIndex, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final String columnLabel, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final String columnLabel, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final String columnLabel, final Blob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final int columnIndex, final InputStream x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final int columnIndex, final InputStream x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBlob(final int columnIndex, final Blob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBoolean(final String columnLabel, final boolean x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateByte(final String columnLabel, final byte x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateByte(final int columnIndex, final byte x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBytes(final String columnLabel, final byte[] x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateBytes(final int columnIndex, final byte[] x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final String columnLabel, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final String columnLabel, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final String columnLabel, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final String columnLabel, final Clob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final int columnIndex, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final int columnIndex, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateClob(final int columnIndex, final Clob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateDate(final String columnLabel, final Date x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateDate(final int columnIndex, final Date x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateDouble(final String columnLabel, final double x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateDouble(final int columnIndex, final double x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateFloat(final String columnLabel, final float x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateFloat(final int columnIndex, final float x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateInt(final String columnLabel, final int x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateInt(final int columnIndex, final int x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateLong(final String columnLabel, final long x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateLong(final int columnIndex, final long x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNCharacterStream(final String columnLabel, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNCharacterStream(final String columnLabel, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final String columnLabel, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final String columnLabel, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final String columnLabel, final NClob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final int columnIndex, final Reader x, final long length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final int columnIndex, final Reader x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNClob(final int columnIndex, final NClob x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNString(final String columnLabel, final String x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNString(final int columnIndex, final String x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNull(final String columnLabel) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateNull(final int columnIndex) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateObject(final String columnLabel, final Object x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateObject(final String columnLabel, final Object x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateObject(final int columnIndex, final Object x, final int length) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateObject(final int columnIndex, final Object x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateRef(final String columnLabel, final Ref x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateRef(final int columnIndex, final Ref x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateRow() throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateRowId(final String columnLabel, final RowId x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateRowId(final int columnIndex, final RowId x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateSQLXML(final String columnLabel, final SQLXML x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateSQLXML(final int columnIndex, final SQLXML x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateShort(final String columnLabel, final short x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateShort(final int columnIndex, final short x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateString(final String columnLabel, final String x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateString(final int columnIndex, final String x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateTime(final String columnLabel, final Time x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateTime(final int columnIndex, final Time x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateTimestamp(final String columnLabel, final Timestamp x) throws SQLException {
+		throw unsupported();
+	}
+
+	public void updateTimestamp(final int columnIndex, final Timestamp x) throws SQLException {
+		throw unsupported();
+	}
+}
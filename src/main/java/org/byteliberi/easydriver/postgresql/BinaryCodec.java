@@ -0,0 +1,481 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.fields.BigDecimalField;
+import org.byteliberi.easydriver.fields.BooleanField;
+import org.byteliberi.easydriver.fields.ByteArrayField;
+import org.byteliberi.easydriver.fields.CharField;
+import org.byteliberi.easydriver.fields.DateField;
+import org.byteliberi.easydriver.fields.DoubleField;
+import org.byteliberi.easydriver.fields.IntField;
+import org.byteliberi.easydriver.fields.LongField;
+import org.byteliberi.easydriver.fields.TimestampField;
+import org.byteliberi.easydriver.fields.TimestampTzField;
+import org.byteliberi.easydriver.fields.UUIDField;
+import org.byteliberi.easydriver.fields.VarcharField;
+import org.byteliberi.easydriver.fields.decorations.Decoration;
+import org.byteliberi.easydriver.fields.decorations.Desc;
+import org.postgresql.PGStatement;
+
+/**
+ * This class converts the values of a table field from and into the PostgreSQL
+ * binary format, used by <code>COPY ... (FORMAT binary)</code>. There is a codec for
+ * each type of field, it is chosen by {@link #forField(TableField)}.<P>
+ * The dates and the timestamps are converted using the default time zone of
+ * the JVM, as the driver does with a <code>timestamp</code> without time zone,
+ * while the values of a {@link TimestampTzField} are converted as instants, in UTC,
+ * as the <code>timestamp with time zone</code> values are kept by the database.
+ * A <code>timestamp with time zone</code> column must be managed by a
+ * {@link TimestampTzField}, otherwise its values are shifted by the offset of the JVM.
+ * The infinite dates are read as the driver constants of
+ * <code>PGStatement</code>.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class type of the table field.
+ */
+public abstract class BinaryCodec<T> {
+	/**
+	 * Seconds between 1970-01-01 and 2000-01-01, which is the epoch of PostgreSQL.
+	 */
+	private final static long PG_EPOCH_SECONDS = 946684800L;
+
+	/**
+	 * Days between 1970-01-01 and 2000-01-01.
+	 */
+	private final static long PG_EPOCH_DAYS = 10957L;
+
+	private final static long MILLIS_PER_DAY = 86400000L;
+
+	/**
+	 * Sign of a negative <code>numeric</code>.
+	 */
+	private final static int NUMERIC_NEG = 0x4000;
+
+	/**
+	 * Sign of a <code>numeric</code> which is not a number.
+	 */
+	private final static int NUMERIC_NAN = 0xC000;
+
+	private final static BinaryCodec<Integer> INT4 = new BinaryCodec<Integer>() {
+		@Override
+		void encode(final CopyBuffer out, final Integer value) {
+			out.writeInt(4);
+			out.writeInt(value.intValue());
+		}
+
+		@Override
+		Integer decode(final byte[] buf, final int offset, final int length) throws SQLException {
+			switch (length) {
+			case 2:
+				return Integer.valueOf(readShort(buf, offset));
+			case 8:
+				// count(*) and the other aggregates return a bigint
+				final long value = readLong(buf, offset);
+				try {
+					return Integer.valueOf(Math.toIntExact(value));
+				}
+				catch (ArithmeticException ex) {
+					throw new SQLException("The value " + value + " is out of the int range.", ex);
+				}
+			default:
+				return Integer.valueOf(readInt(buf, offset));
+			}
+		}
+	};
+
+	private final static BinaryCodec<Long> INT8 = new BinaryCodec<Long>() {
+		@Override
+		void encode(final CopyBuffer out, final Long value) {
+			out.writeInt(8);
+			out.writeLong(value.longValue());
+		}
+
+		@Override
+		Long decode(final byte[] buf, final int offset, final int length) {
+			switch (length) {
+			case 2:
+				return Long.valueOf(readShort(buf, offset));
+			case 4:
+				return Long.valueOf(readInt(buf, offset));
+			default:
+				return Long.valueOf(readLong(buf, offset));
+			}
+		}
+	};
+
+	private final static BinaryCodec<Boolean> BOOL = new BinaryCodec<Boolean>() {
+		@Override
+		void encode(final CopyBuffer out, final Boolean value) {
+			out.writeInt(1);
+			out.writeByte(value.booleanValue() ? 1 : 0);
+		}
+
+		@Override
+		Boolean decode(final byte[] buf, final int offset, final int length) {
+			return Boolean.valueOf(buf[offset] != 0);
+		}
+	};
+
+	private final static BinaryCodec<Double> FLOAT8 = new BinaryCodec<Double>() {
+		@Override
+		void encode(final CopyBuffer out, final Double value) {
+			out.writeInt(8);
+			out.writeLong(Double.doubleToLongBits(value.doubleValue()));
+		}
+
+		@Override
+		Double decode(final byte[] buf, final int offset, final int length) {
+			if (length == 4)
+				return Double.valueOf(Float.intBitsToFloat(readInt(buf, offset)));
+			else
+				return Double.valueOf(Double.longBitsToDouble(readLong(buf, offset)));
+		}
+	};
+
+	private final static BinaryCodec<UUID> UUID_CODEC = new BinaryCodec<UUID>() {
+		@Override
+		void encode(final CopyBuffer out, final UUID value) {
+			out.writeInt(16);
+			out.writeLong(value.getMostSignificantBits());
+			out.writeLong(value.getLeastSignificantBits());
+		}
+
+		@Override
+		UUID decode(final byte[] buf, final int offset, final int length) {
+			return new UUID(readLong(buf, offset), readLong(buf, offset + 8));
+		}
+	};
+
+	private final static BinaryCodec<String> TEXT = new BinaryCodec<String>() {
+		@Override
+		void encode(final CopyBuffer out, final String value) {
+			out.writeUtf8(value);
+		}
+
+		@Override
+		String decode(final byte[] buf, final int offset, final int length) {
+			return new String(buf, offset, length, StandardCharsets.UTF_8);
+		}
+	};
+
+	private final static BinaryCodec<byte[]> BYTEA = new BinaryCodec<byte[]>() {
+		@Override
+		void encode(final CopyBuffer out, final byte[] value) {
+			out.writeInt(value.length);
+			out.writeBytes(value);
+		}
+
+		@Override
+		byte[] decode(final byte[] buf, final int offset, final int length) {
+			return Arrays.copyOfRange(buf, offset, offset + length);
+		}
+	};
+
+	private final static BinaryCodec<Date> TIMESTAMP = new BinaryCodec<Date>() {
+		@Override
+		void encode(final CopyBuffer out, final Date value) {
+			final long millis = value.getTime();
+			final long local = millis + TimeZone.getDefault().getOffset(millis);
+			final int micros = (value instanceof Timestamp) ?
+							   ((Timestamp) value).getNanos() / 1000 :
+							   (int) Math.floorMod(millis, 1000L) * 1000;
+			out.writeInt(8);
+			out.writeLong((Math.floorDiv(local, 1000L) - PG_EPOCH_SECONDS) * 1000000L + micros);
+		}
+
+		@Override
+		Date decode(final byte[] buf, final int offset, final int length) {
+			final long micros = readLong(buf, offset);
+			if (micros == Long.MAX_VALUE)
+				return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
+			if (micros == Long.MIN_VALUE)
+				return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+
+			final long seconds = Math.floorDiv(micros, 1000000L) + PG_EPOCH_SECONDS;
+			final int nanos = (int) Math.floorMod(micros, 1000000L) * 1000;
+			return Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+		}
+	};
+
+	private final static BinaryCodec<Date> TIMESTAMPTZ = new BinaryCodec<Date>() {
+		@Override
+		void encode(final CopyBuffer out, final Date value) {
+			final long millis = value.getTime();
+			final int micros = (value instanceof Timestamp) ?
+							   ((Timestamp) value).getNanos() / 1000 :
+							   (int) Math.floorMod(millis, 1000L) * 1000;
+			out.writeInt(8);
+			out.writeLong((Math.floorDiv(millis, 1000L) - PG_EPOCH_SECONDS) * 1000000L + micros);
+		}
+
+		@Override
+		Date decode(final byte[] buf, final int offset, final int length) {
+			final long micros = readLong(buf, offset);
+			if (micros == Long.MAX_VALUE)
+				return new Timestamp(PGStatement.DATE_POSITIVE_INFINITY);
+			if (micros == Long.MIN_VALUE)
+				return new Timestamp(PGStatement.DATE_NEGATIVE_INFINITY);
+
+			final long seconds = Math.floorDiv(micros, 1000000L) + PG_EPOCH_SECONDS;
+			final Timestamp value = new Timestamp(seconds * 1000L);
+			value.setNanos((int) Math.floorMod(micros, 1000000L) * 1000);
+			return value;
+		}
+	};
+
+	private final static BinaryCodec<Date> DATE = new BinaryCodec<Date>() {
+		@Override
+		void encode(final CopyBuffer out, final Date value) {
+			final long millis = value.getTime();
+			final long local = millis + TimeZone.getDefault().getOffset(millis);
+			out.writeInt(4);
+			out.writeInt((int) (Math.floorDiv(local, MILLIS_PER_DAY) - PG_EPOCH_DAYS));
+		}
+
+		@Override
+		Date decode(final byte[] buf, final int offset, final int length) {
+			final int days = readInt(buf, offset);
+			if (days == Integer.MAX_VALUE)
+				return new java.sql.Date(PGStatement.DATE_POSITIVE_INFINITY);
+			if (days == Integer.MIN_VALUE)
+				return new java.sql.Date(PGStatement.DATE_NEGATIVE_INFINITY);
+
+			return java.sql.Date.valueOf(LocalDate.ofEpochDay(days + PG_EPOCH_DAYS));
+		}
+	};
+
+	private final static BinaryCodec<BigDecimal> NUMERIC = new BinaryCodec<BigDecimal>() {
+		@Override
+		void encode(final CopyBuffer out, final BigDecimal value) {
+			encodeNumeric(out, value);
+		}
+
+		@Override
+		BigDecimal decode(final byte[] buf, final int offset, final int length) throws SQLException {
+			return decodeNumeric(buf, offset);
+		}
+	};
+
+	/**
+	 * Writes a value, preceded by its length in bytes.
+	 * @param out Buffer which receives the value.
+	 * @param value Value, it is not null.
+	 */
+	abstract void encode(CopyBuffer out, T value);
+
+	/**
+	 * Reads a value.
+	 * @param buf Buffer which contains the value.
+	 * @param offset Position of the first byte of the value.
+	 * @param length Length of the value, in bytes.
+	 * @return Value.
+	 * @throws SQLException The value can not be converted.
+	 */
+	abstract T decode(byte[] buf, int offset, int length) throws SQLException;
+
+	/**
+	 * Chooses the codec of a field, from the class of the field.
+	 * @param field Table field.
+	 * @return Codec which converts the values of the field.
+	 * @throws IllegalArgumentException The type of the field is not supported.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BinaryCodec<T> forField(final TableField<T> field) {
+		final BinaryCodec<?> codec;
+		if (field instanceof Decoration)
+			return forField(((Decoration<T>) field).getField());
+		else if (field instanceof Desc)
+			return forField(((Desc<T>) field).getField());
+		else if (field instanceof IntField)
+			codec = INT4;
+		else if (field instanceof LongField)
+			codec = INT8;
+		else if (field instanceof UUIDField)
+			codec = UUID_CODEC;
+		else if ((field instanceof VarcharField) || (field instanceof CharField))
+			codec = TEXT;
+		else if (field instanceof TimestampTzField)
+			codec = TIMESTAMPTZ;
+		else if (field instanceof TimestampField)
+			codec = TIMESTAMP;
+		else if (field instanceof DateField)
+			codec = DATE;
+		else if (field instanceof BigDecimalField)
+			codec = NUMERIC;
+		else if (field instanceof BooleanField)
+			codec = BOOL;
+		else if (field instanceof DoubleField)
+			codec = FLOAT8;
+		else if (field instanceof ByteArrayField)
+			codec = BYTEA;
+		else
+			throw new IllegalArgumentException("The field " + field.getName() +
+											   " has a type which is not supported by the binary format");
+		return (BinaryCodec<T>) codec;
+	}
+
+	/**
+	 * Writes a <code>numeric</code>: it is made by the number of digits, the weight of the
+	 * first digit, the sign, the display scale and the digits, in base 10000.
+	 * @param out Buffer which receives the value.
+	 * @param value Value.
+	 */
+	private static void encodeNumeric(final CopyBuffer out, final BigDecimal value) {
+		final BigDecimal number = (value.scale() < 0) ? value.setScale(0) : value;
+		final int scale = number.scale();
+		final String unscaled = number.unscaledValue().abs().toString();
+
+		final int intLength = Math.max(0, unscaled.length() - scale);
+		final int leftPad = (4 - intLength % 4) % 4;
+		final int fracLength = unscaled.length() - intLength;
+		final int fracDigits = Math.max(scale, fracLength);
+		final int rightPad = (4 - fracDigits % 4) % 4;
+
+		// Digits aligned on groups of four, around the decimal point
+		final StringBuilder sb = new StringBuilder(leftPad + intLength + fracDigits + rightPad);
+		for (int i = 0; i < leftPad; i++)
+			sb.append('0');
+		sb.append(unscaled, 0, intLength);
+		for (int i = fracLength; i < scale; i++)
+			sb.append('0');
+		sb.append(unscaled, intLength, unscaled.length());
+		for (int i = 0; i < rightPad; i++)
+			sb.append('0');
+
+		int first = 0;
+		int last = sb.length() / 4;
+		int weight = (leftPad + intLength) / 4 - 1;
+		while ((first < last) && (group(sb, first) == 0)) {
+			first++;
+			weight--;
+		}
+		while ((last > first) && (group(sb, last - 1) == 0))
+			last--;
+		if (first == last)
+			weight = 0;
+
+		final int digits = last - first;
+		out.writeInt(8 + digits * 2);
+		out.writeShort(digits);
+		out.writeShort(weight);
+		out.writeShort((number.signum() < 0) ? NUMERIC_NEG : 0);
+		out.writeShort(scale);
+		for (int i = first; i < last; i++)
+			out.writeShort(group(sb, i));
+	}
+
+	/**
+	 * Reads a digit in base 10000.
+	 * @param sb Decimal digits.
+	 * @param index 0 based index of the group of four decimal digits.
+	 * @return Value of the group.
+	 */
+	private static int group(final CharSequence sb, final int index) {
+		final int pos = index * 4;
+		return (sb.charAt(pos) - '0') * 1000 + (sb.charAt(pos + 1) - '0') * 100 +
+			   (sb.charAt(pos + 2) - '0') * 10 + (sb.charAt(pos + 3) - '0');
+	}
+
+	/**
+	 * Reads a <code>numeric</code>.
+	 * @param buf Buffer which contains the value.
+	 * @param offset Position of the first byte of the value.
+	 * @return Value.
+	 * @throws SQLException The value is not a number.
+	 */
+	private static BigDecimal decodeNumeric(final byte[] buf, final int offset) throws SQLException {
+		final int digits = readShort(buf, offset);
+		final int weight = readShort(buf, offset + 2);
+		final int sign = readShort(buf, offset + 4) & 0xFFFF;
+		final int scale = readShort(buf, offset + 6);
+		if (sign == NUMERIC_NAN)
+			throw new SQLException("The numeric value NaN can not be read as a BigDecimal.");
+
+		BigDecimal value;
+		if (digits <= 4) {
+			long unscaled = 0;
+			for (int i = 0; i < digits; i++)
+				unscaled = unscaled * 10000 + readShort(buf, offset + 8 + i * 2);
+			value = BigDecimal.valueOf(unscaled, (digits - 1 - weight) * 4);
+		}
+		else {
+			final StringBuilder sb = new StringBuilder(digits * 4);
+			for (int i = 0; i < digits; i++) {
+				final String group = Integer.toString(readShort(buf, offset + 8 + i * 2));
+				for (int pad = group.length(); (i > 0) && (pad < 4); pad++)
+					sb.append('0');
+				sb.append(group);
+			}
+			value = new BigDecimal(new BigInteger(sb.toString()), (digits - 1 - weight) * 4);
+		}
+		value = value.setScale(scale, RoundingMode.DOWN);
+		return (sign == NUMERIC_NEG) ? value.negate() : value;
+	}
+
+	/**
+	 * Reads a 16 bit integer.
+	 * @param buf Buffer.
+	 * @param offset Position of the first byte.
+	 * @return Value.
+	 */
+	static int readShort(final byte[] buf, final int offset) {
+		return (short) (((buf[offset] & 0xFF) << 8) | (buf[offset + 1] & 0xFF));
+	}
+
+	/**
+	 * Reads a 32 bit integer.
+	 * @param buf Buffer.
+	 * @param offset Position of the first byte.
+	 * @return Value.
+	 */
+	static int readInt(final byte[] buf, final int offset) {
+		return ((buf[offset] & 0xFF) << 24) | ((buf[offset + 1] & 0xFF) << 16) |
+			   ((buf[offset + 2] & 0xFF) << 8) | (buf[offset + 3] & 0xFF);
+	}
+
+	/**
+	 * Reads a 64 bit integer.
+	 * @param buf Buffer.
+	 * @param offset Position of the first byte.
+	 * @return Value.
+	 */
+	static long readLong(final byte[] buf, final int offset) {
+		return ((long) readInt(buf, offset) << 32) | (readInt(buf, offset + 4) & 0xFFFFFFFFL);
+	}
+}
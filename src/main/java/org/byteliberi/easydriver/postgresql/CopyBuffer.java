@@ -0,0 +1,187 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+/**
+ * Growable byte array which keeps the data of a binary <code>COPY</code>,
+ * in network byte order, until it is written to the database.
+ * This class is not thread safe.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+final class CopyBuffer {
+	/**
+	 * Data.
+	 */
+	private byte[] data;
+
+	/**
+	 * Number of used bytes.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param capacity Initial capacity, in bytes.
+	 */
+	CopyBuffer(final int capacity) {
+		this.data = new byte[capacity];
+	}
+
+	/**
+	 * Makes room for the passed number of bytes after the used ones.
+	 * @param length Number of bytes which are going to be written.
+	 */
+	private void reserve(final int length) {
+		final int required = this.size + length;
+		if (required > this.data.length) {
+			final byte[] newData = new byte[Math.max(required, this.data.length << 1)];
+			System.arraycopy(this.data, 0, newData, 0, this.size);
+			this.data = newData;
+		}
+	}
+
+	/**
+	 * Appends a 16 bit integer.
+	 * @param value Value.
+	 */
+	void writeShort(final int value) {
+		reserve(2);
+		this.data[this.size++] = (byte) (value >>> 8);
+		this.data[this.size++] = (byte) value;
+	}
+
+	/**
+	 * Appends a 32 bit integer.
+	 * @param value Value.
+	 */
+	void writeInt(final int value) {
+		reserve(4);
+		putInt(this.size, value);
+		this.size += 4;
+	}
+
+	/**
+	 * Appends a 64 bit integer.
+	 * @param value Value.
+	 */
+	void writeLong(final long value) {
+		reserve(8);
+		putInt(this.size, (int) (value >>> 32));
+		putInt(this.size + 4, (int) value);
+		this.size += 8;
+	}
+
+	/**
+	 * Appends a single byte.
+	 * @param value Value.
+	 */
+	void writeByte(final int value) {
+		reserve(1);
+		this.data[this.size++] = (byte) value;
+	}
+
+	/**
+	 * Appends an array of bytes.
+	 * @param value Bytes.
+	 */
+	void writeBytes(final byte[] value) {
+		reserve(value.length);
+		System.arraycopy(value, 0, this.data, this.size, value.length);
+		this.size += value.length;
+	}
+
+	/**
+	 * Appends a string encoded in UTF-8, preceded by its length in bytes.
+	 * The characters are encoded directly into the buffer, so no temporary
+	 * array is created.
+	 * @param value String.
+	 */
+	void writeUtf8(final String value) {
+		final int length = value.length();
+		reserve(4 + length * 3);
+		final int start = this.size;
+		int pos = start + 4;
+		final byte[] buf = this.data;
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if (c < 0x80)
+				buf[pos++] = (byte) c;
+			else if (c < 0x800) {
+				buf[pos++] = (byte) (0xC0 | (c >> 6));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if (Character.isHighSurrogate(c) && (i + 1 < length) &&
+					 Character.isLowSurrogate(value.charAt(i + 1))) {
+				final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+				buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+			}
+			else if (Character.isSurrogate(c))
+				buf[pos++] = (byte) '?';
+			else {
+				buf[pos++] = (byte) (0xE0 | (c >> 12));
+				buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		putInt(start, pos - start - 4);
+		this.size = pos;
+	}
+
+	/**
+	 * Writes a 32 bit integer at a given position.
+	 * @param pos Position.
+	 * @param value Value.
+	 */
+	private void putInt(final int pos, final int value) {
+		this.data[pos] = (byte) (value >>> 24);
+		this.data[pos + 1] = (byte) (value >>> 16);
+		this.data[pos + 2] = (byte) (value >>> 8);
+		this.data[pos + 3] = (byte) value;
+	}
+
+	/**
+	 * Getter of the number of used bytes.
+	 * @return Number of bytes which have been written since the last {@link #clear()}.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter of the data.
+	 * @return Internal array, its first {@link #size()} bytes are used.
+	 */
+	byte[] getData() {
+		return this.data;
+	}
+
+	/**
+	 * Forgets the written bytes, the array is kept.
+	 */
+	void clear() {
+		this.size = 0;
+	}
+}
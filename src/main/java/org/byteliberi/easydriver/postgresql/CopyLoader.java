@@ -0,0 +1,353 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.byteliberi.easydriver.DBTable;
+import org.byteliberi.easydriver.TableField;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * This class loads many records into a table by a PostgreSQL
+ * <code>COPY ... FROM STDIN (FORMAT binary)</code>, which is much faster than
+ * a batch of inserts.<P>
+ * The values of each record are read from a value object by a {@link ValueExtractor}
+ * and they are converted by the {@link BinaryCodec} of their field. The converted
+ * records are kept in a buffer, which is sent to the database as soon as it
+ * reaches the buffer size, so the memory used by a load does not depend on the
+ * number of records.<P>
+ * The connection must be a PostgreSQL connection, or a pool connection which wraps it.
+ * An instance of this class can be used by one thread at a time.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class of the value objects.
+ */
+public class CopyLoader<T> {
+	private final static Level LOG_LEVEL = Level.FINE;
+	private final static Logger LOGGER = Logger.getLogger(CopyLoader.class.getName());
+
+	/**
+	 * Default number of bytes after which the buffer is sent to the database.
+	 */
+	public final static int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Signature, flags and header extension length of the binary format.
+	 */
+	private final static byte[] HEADER = {
+		'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+		0, 0, 0, 0,
+		0, 0, 0, 0
+	};
+
+	/**
+	 * Table which receives the records.
+	 */
+	private final DBTable<?> table;
+
+	/**
+	 * Fields which are written, in the order of the values read by the extractor.
+	 */
+	private final TableField<?>[] fields;
+
+	/**
+	 * Codecs of the fields.
+	 */
+	private final BinaryCodec<?>[] codecs;
+
+	/**
+	 * Reads the values of the value objects.
+	 */
+	private final ValueExtractor<T> extractor;
+
+	/**
+	 * Query string of the <code>COPY</code> command.
+	 */
+	private final String copyString;
+
+	/**
+	 * Number of bytes after which the buffer is sent to the database.
+	 */
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	/**
+	 * If true, the table is analyzed after the load.
+	 */
+	private boolean analyze = false;
+
+	/**
+	 * Creates a new instance of this class, which writes all the fields of the table.
+	 * @param table Table which receives the records.
+	 * @param extractor Reads the values of the value objects, in the order of the table fields.
+	 */
+	public CopyLoader(final DBTable<?> table, final ValueExtractor<T> extractor) {
+		this(table, table.getFields(), extractor);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param table Table which receives the records.
+	 * @param fields Fields which are written.
+	 * @param extractor Reads the values of the value objects, in the order of the passed fields.
+	 * @throws IllegalArgumentException A field has a type which is not supported by the binary format.
+	 */
+	public CopyLoader(final DBTable<?> table, final TableField<?>[] fields, final ValueExtractor<T> extractor) {
+		this.table = table;
+		this.fields = fields.clone();
+		this.extractor = extractor;
+		this.codecs = new BinaryCodec<?>[fields.length];
+		for (int i = 0; i < fields.length; i++)
+			this.codecs[i] = BinaryCodec.forField(fields[i]);
+		this.copyString = createCopyString();
+	}
+
+	/**
+	 * Creates a loader whose records are arrays of values.
+	 * @param table Table which receives the records.
+	 * @param fields Fields which are written, in the order of the values of the arrays.
+	 * @return Loader of arrays.
+	 */
+	public static CopyLoader<Object[]> forArrays(final DBTable<?> table, final TableField<?>[] fields) {
+		return new CopyLoader<Object[]>(table, fields, new ValueExtractor<Object[]>() {
+			public void extract(final Object[] model, final Object[] row) throws SQLException {
+				if (model.length != row.length)
+					throw new SQLException("The record has " + model.length +
+										   " values, while " + row.length + " were expected.");
+				System.arraycopy(model, 0, row, 0, row.length);
+			}
+		});
+	}
+
+	/**
+	 * Creates a loader whose records are arrays of values, for all the fields of the table.
+	 * @param table Table which receives the records.
+	 * @return Loader of arrays.
+	 */
+	public static CopyLoader<Object[]> forArrays(final DBTable<?> table) {
+		return forArrays(table, table.getFields());
+	}
+
+	/**
+	 * Creates the query string of the <code>COPY</code> command.
+	 * @return Query string.
+	 */
+	private String createCopyString() {
+		final StringBuilder sb = new StringBuilder(100);
+		sb.append("COPY ").append(this.table.getCompleteName()).append(" (");
+		for (TableField<?> field : this.fields)
+			sb.append(field.getName()).append(',');
+		sb.setCharAt(sb.length() - 1, ')');
+		sb.append(" FROM STDIN (FORMAT binary)");
+		return sb.toString();
+	}
+
+	/**
+	 * Loads the records.
+	 * @param con Database connection.
+	 * @param models Value objects, they are read once.
+	 * @return Number of loaded records.
+	 * @throws SQLException A problem occurred with the database or with a value,
+	 * the <code>COPY</code> is cancelled and no record is loaded.
+	 */
+	public long load(final Connection con, final Iterable<? extends T> models) throws SQLException {
+		return load(con, models.iterator());
+	}
+
+	/**
+	 * Loads the records.
+	 * @param con Database connection.
+	 * @param models Value objects.
+	 * @return Number of loaded records.
+	 * @throws SQLException A problem occurred with the database or with a value,
+	 * the <code>COPY</code> is cancelled and no record is loaded.
+	 */
+	public long load(final Connection con, final Iterator<? extends T> models) throws SQLException {
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, this.copyString);
+
+		final CopyIn copyIn = getPGConnection(con).getCopyAPI().copyIn(this.copyString);
+		final long count;
+		try {
+			count = write(copyIn, models);
+		}
+		catch (SQLException ex) {
+			cancel(copyIn);
+			throw ex;
+		}
+		catch (RuntimeException ex) {
+			cancel(copyIn);
+			throw ex;
+		}
+		this.table.invalidateResults();
+
+		if (this.analyze)
+			analyze(con);
+		return count;
+	}
+
+	/**
+	 * Writes the records and ends the <code>COPY</code>.
+	 * @param copyIn <code>COPY</code> which is in progress.
+	 * @param models Value objects.
+	 * @return Number of loaded records.
+	 * @throws SQLException A problem occurred with the database or with a value.
+	 */
+	private long write(final CopyIn copyIn, final Iterator<? extends T> models) throws SQLException {
+		final int fieldCount = this.fields.length;
+		final Object[] row = new Object[fieldCount];
+		final CopyBuffer buffer = new CopyBuffer(Math.min(this.bufferSize, DEFAULT_BUFFER_SIZE) + 1024);
+		buffer.writeBytes(HEADER);
+
+		while (models.hasNext()) {
+			this.extractor.extract(models.next(), row);
+			buffer.writeShort(fieldCount);
+			for (int i = 0; i < fieldCount; i++) {
+				final Object value = row[i];
+				if (value == null) {
+					if (!this.fields[i].isAnnullable())
+						throw new SQLException("Attempt to set a null value to the field " +
+											   this.fields[i].getCompleteName());
+					buffer.writeInt(-1);
+				}
+				else
+					encode(this.codecs[i], buffer, value);
+				row[i] = null;
+			}
+
+			if (buffer.size() >= this.bufferSize) {
+				copyIn.writeToCopy(buffer.getData(), 0, buffer.size());
+				buffer.clear();
+			}
+		}
+
+		buffer.writeShort(-1);
+		copyIn.writeToCopy(buffer.getData(), 0, buffer.size());
+		return copyIn.endCopy();
+	}
+
+	/**
+	 * Writes a value with the codec of its field.
+	 * @param codec Codec of the field.
+	 * @param out Buffer which receives the value.
+	 * @param value Value read by the extractor, its class is the one of the field.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> void encode(final BinaryCodec<V> codec, final CopyBuffer out, final Object value) {
+		codec.encode(out, (V) value);
+	}
+
+	/**
+	 * Cancels a <code>COPY</code> after an error, the error of the
+	 * cancellation is logged, so the original error is not lost.
+	 * @param copyIn <code>COPY</code> which is in progress.
+	 */
+	private static void cancel(final CopyIn copyIn) {
+		try {
+			if (copyIn.isActive())
+				copyIn.cancelCopy();
+		}
+		catch (SQLException ex) {
+			LOGGER.log(Level.WARNING, "Impossible to cancel the COPY.", ex);
+		}
+	}
+
+	/**
+	 * Updates the statistics of the table, so the planner knows the loaded records.
+	 * @param con Database connection.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private void analyze(final Connection con) throws SQLException {
+		final Statement stm = con.createStatement();
+		try {
+			stm.execute("ANALYZE " + this.table.getCompleteName());
+		}
+		finally {
+			stm.close();
+		}
+	}
+
+	/**
+	 * Gets the PostgreSQL connection, also when it is wrapped by a pool.
+	 * @param con Database connection.
+	 * @return PostgreSQL connection.
+	 * @throws SQLException The connection is not a PostgreSQL connection.
+	 */
+	static PGConnection getPGConnection(final Connection con) throws SQLException {
+		if (con instanceof PGConnection)
+			return (PGConnection) con;
+		if (con.isWrapperFor(PGConnection.class))
+			return con.unwrap(PGConnection.class);
+		throw new SQLException("The COPY command needs a PostgreSQL connection.");
+	}
+
+	/**
+	 * Setter of the buffer size.
+	 * @param bufferSize Number of bytes after which the records are sent to the database.
+	 */
+	public void setBufferSize(final int bufferSize) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("The buffer size must be greater than 0");
+
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Getter of the buffer size.
+	 * @return Number of bytes after which the records are sent to the database.
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * Setter of the analyze flag.
+	 * @param analyze If true, the table is analyzed after each load, so the planner
+	 * knows the new records without waiting for the autovacuum.
+	 */
+	public void setAnalyze(final boolean analyze) {
+		this.analyze = analyze;
+	}
+
+	/**
+	 * Getter of the analyze flag.
+	 * @return If true, the table is analyzed after each load.
+	 */
+	public boolean isAnalyze() {
+		return this.analyze;
+	}
+
+	/**
+	 * Getter of the query string.
+	 * @return <code>COPY</code> command sent to the database.
+	 */
+	public final String getCopyString() {
+		return this.copyString;
+	}
+}
@@ -0,0 +1,569 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.byteliberi.easydriver.ObjectFactory;
+import org.byteliberi.easydriver.SelectQuery;
+import org.byteliberi.easydriver.TableField;
+import org.byteliberi.easydriver.UncheckedSQLException;
+import org.byteliberi.easydriver.fields.ArrayField;
+import org.byteliberi.easydriver.fields.DateField;
+import org.byteliberi.easydriver.impl.Query;
+import org.byteliberi.easydriver.impl.RowHandler;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyInputStream;
+
+/**
+ * This class reads the records of a query by a PostgreSQL
+ * <code>COPY (SELECT ...) TO STDOUT (FORMAT binary)</code>, which is much cheaper
+ * than a Result Set when a whole table or a large projection is read.<P>
+ * The values are decoded by the {@link BinaryCodec} of the select fields of the query.
+ * The records are passed to a {@link RowHandler} as arrays of values, or they are
+ * mapped to value objects by an {@link ObjectFactory}, which reads them by
+ * the same <code>map</code> methods used with a Result Set.<P>
+ * As a <code>COPY</code> can not have parameters, the parameter values added to
+ * the query are written into the query string as literals, escaped by the driver;
+ * the array parameters are written as <code>ARRAY[...]</code> constructors cast to their type.
+ * The connection must be a PostgreSQL connection, or a pool connection which wraps it.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ */
+public class CopyReader {
+	private final static Level LOG_LEVEL = Level.FINE;
+	private final static Logger LOGGER = Logger.getLogger(CopyReader.class.getName());
+
+	/**
+	 * Length of the signature, flags and header extension length of the binary format.
+	 */
+	private final static int HEADER_LENGTH = 19;
+
+	/**
+	 * Initial size of the read buffer.
+	 */
+	private final static int BUFFER_SIZE = 65536;
+
+	/**
+	 * Query whose records are read, null when the query string has been passed.
+	 */
+	private final Query query;
+
+	/**
+	 * Query string, when no query has been passed.
+	 */
+	private final String sql;
+
+	/**
+	 * Fields which are read, in the order of the select part of the query.
+	 */
+	private final TableField<?>[] fields;
+
+	/**
+	 * Codecs of the fields.
+	 */
+	private final BinaryCodec<?>[] codecs;
+
+	/**
+	 * Creates a new instance of this class, which reads the records of a select query.
+	 * The query string and the parameter values are read each time the records are read.
+	 * @param query Select query, its parameters must have been added.
+	 * @throws IllegalArgumentException A field has a type which is not supported by the binary format.
+	 */
+	public CopyReader(final SelectQuery<?> query) {
+		this(query, null, query.getSelectFields());
+	}
+
+	/**
+	 * Creates a new instance of this class, which reads the records of a query string.
+	 * @param sql Query string, without parameters.
+	 * @param fields Fields which are read, in the order of the select part of the query.
+	 * @throws IllegalArgumentException A field has a type which is not supported by the binary format.
+	 */
+	public CopyReader(final String sql, final TableField<?>[] fields) {
+		this(null, sql, fields);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * @param query Query whose records are read.
+	 * @param sql Query string, when no query is passed.
+	 * @param fields Fields which are read.
+	 */
+	private CopyReader(final Query query, final String sql, final TableField<?>[] fields) {
+		this.query = query;
+		this.sql = sql;
+		this.fields = fields.clone();
+		this.codecs = new BinaryCodec<?>[fields.length];
+		for (int i = 0; i < fields.length; i++)
+			this.codecs[i] = BinaryCodec.forField(fields[i]);
+	}
+
+	/**
+	 * Reads all the records as arrays of values.
+	 * @param con Database connection.
+	 * @param handler Receives the records, the array is used again for the next record.
+	 * @return Number of read records.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	public long read(final Connection con, final RowHandler<Object[]> handler) throws SQLException {
+		final RecordIterator iter = open(con);
+		try {
+			long count = 0;
+			while (iter.readRecord()) {
+				handler.handle(iter.row);
+				count++;
+			}
+			return count;
+		}
+		finally {
+			iter.close();
+		}
+	}
+
+	/**
+	 * Reads all the records as value objects.
+	 * @param con Database connection.
+	 * @param factory Creates the value objects from the records.
+	 * @param handler Receives the value objects.
+	 * @return Number of read records.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	public <T> long read(final Connection con, final ObjectFactory<T> factory,
+						 final RowHandler<? super T> handler) throws SQLException {
+		final ArrayResultSet rs = new ArrayResultSet(this.fields);
+		return read(con, new RowHandler<Object[]>() {
+			public void handle(final Object[] row) throws SQLException {
+				rs.setRow(row);
+				handler.handle(factory.map(rs));
+			}
+		});
+	}
+
+	/**
+	 * Reads the records as a stream of value objects. The stream reads a record at a time
+	 * and it must be closed, in order to cancel the <code>COPY</code> when it is not
+	 * read until the end. A problem with the database is thrown as an
+	 * {@link UncheckedSQLException}.
+	 * @param con Database connection.
+	 * @param factory Creates the value objects from the records.
+	 * @return Stream of value objects.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	public <T> Stream<T> stream(final Connection con, final ObjectFactory<T> factory) throws SQLException {
+		final RecordIterator records = open(con);
+		final ArrayResultSet rs = new ArrayResultSet(this.fields);
+		final Iterator<T> iter = new Iterator<T>() {
+			private boolean fetched = false;
+			private boolean available = false;
+
+			public boolean hasNext() {
+				if (!this.fetched) {
+					try {
+						this.available = records.readRecord();
+					}
+					catch (SQLException ex) {
+						throw new UncheckedSQLException(ex);
+					}
+					this.fetched = true;
+				}
+				return this.available;
+			}
+
+			public T next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+
+				this.fetched = false;
+				rs.setRow(records.row);
+				try {
+					return factory.map(rs);
+				}
+				catch (SQLException ex) {
+					throw new UncheckedSQLException(ex);
+				}
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED | Spliterator.NONNULL), false)
+							.onClose(new Runnable() {
+								public void run() {
+									try {
+										records.close();
+									}
+									catch (SQLException ex) {
+										throw new UncheckedSQLException(ex);
+									}
+								}
+							});
+	}
+
+	/**
+	 * Starts the <code>COPY</code> and reads its header.
+	 * @param con Database connection.
+	 * @return Reader of the records.
+	 * @throws SQLException A problem occurred with the database or the query.
+	 */
+	private RecordIterator open(final Connection con) throws SQLException {
+		final PGConnection pgCon = CopyLoader.getPGConnection(con);
+		final String copyString = "COPY (" + createQueryString(pgCon) + ") TO STDOUT (FORMAT binary)";
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, copyString);
+
+		final RecordIterator iter = new RecordIterator(new PGCopyInputStream(pgCon, copyString));
+		try {
+			iter.readHeader();
+		}
+		catch (SQLException ex) {
+			iter.close();
+			throw ex;
+		}
+		return iter;
+	}
+
+	/**
+	 * Creates the query string, writing the parameter values as literals.
+	 * @param con PostgreSQL connection, which escapes the literals.
+	 * @return Query string without parameters.
+	 * @throws SQLException The number of parameter values is wrong.
+	 */
+	private String createQueryString(final PGConnection con) throws SQLException {
+		if (this.query == null)
+			return this.sql;
+
+		final String queryString = this.query.getQueryString();
+		final Object[] values = this.query.getParameterValues();
+		final TableField<?>[] types = this.query.getParameterTypes();
+		final int count = Query.countParameters(queryString);
+		if (values.length != count)
+			throw new SQLException(values.length + " parameters have been passed, but the query has " + count);
+		if (queryString.indexOf('?') < 0)
+			return queryString;
+
+		// the ?? escapes of the driver become a question mark, as the driver does,
+		// because the COPY query string is sent as it is
+		final StringBuilder sb = new StringBuilder(queryString.length() + count * 16);
+		int index = 0;
+		int start = 0;
+		int mark = Query.findQuestionMark(queryString, 0);
+		while (mark >= 0) {
+			sb.append(queryString, start, mark);
+			if (Query.isEscape(queryString, mark)) {
+				sb.append('?');
+				start = mark + 2;
+			}
+			else {
+				appendLiteral(sb, con, types[index], values[index]);
+				index++;
+				start = mark + 1;
+			}
+			mark = Query.findQuestionMark(queryString, start);
+		}
+		sb.append(queryString, start, queryString.length());
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a parameter value as a SQL literal.
+	 * @param sb Query string which receives the literal.
+	 * @param con PostgreSQL connection, which escapes the strings.
+	 * @param type Field which manages the parameter type, it can be null.
+	 * @param value Parameter value.
+	 * @throws SQLException A problem occurred with the database.
+	 */
+	private static void appendLiteral(final StringBuilder sb, final PGConnection con,
+									  final TableField<?> type, final Object value) throws SQLException {
+		if (value == null)
+			sb.append("NULL");
+		else if (value instanceof Boolean)
+			sb.append(((Boolean) value).booleanValue() ? "TRUE" : "FALSE");
+		else if ((value instanceof Double) || (value instanceof Float))
+			sb.append('\'').append(value).append("'::float8");
+		else if (value instanceof Number) {
+			// A negative number is put in brackets, so "a - ?" does not become a comment
+			final String number = value.toString();
+			if (number.startsWith("-"))
+				sb.append('(').append(number).append(')');
+			else
+				sb.append(number);
+		}
+		else if (value instanceof UUID)
+			sb.append('\'').append(value).append("'::uuid");
+		else if (value instanceof byte[])
+			sb.append('\'').append(con.escapeLiteral(toHex((byte[]) value))).append("'::bytea");
+		else if ((value instanceof java.sql.Date) ||
+				 ((value instanceof java.util.Date) && (type instanceof DateField)))
+			sb.append('\'').append(new java.sql.Date(((java.util.Date) value).getTime())).append("'::date");
+		else if (value instanceof Timestamp)
+			sb.append('\'').append(value).append("'::timestamp");
+		else if (value instanceof java.util.Date)
+			sb.append('\'').append(new Timestamp(((java.util.Date) value).getTime())).append("'::timestamp");
+		else if (value.getClass().isArray())
+			appendArray(sb, con, type, value);
+		else
+			sb.append('\'').append(con.escapeLiteral(value.toString())).append('\'');
+	}
+
+	/**
+	 * Writes an array parameter as an <code>ARRAY[...]</code> constructor, cast to
+	 * the array type, so an empty array has a type too.
+	 * @param sb Query string which receives the literal.
+	 * @param con PostgreSQL connection, which escapes the strings.
+	 * @param type Field which manages the parameter type, it can be null.
+	 * @param value Array, it is not null.
+	 * @throws SQLException The array has a type which can not be written as a literal.
+	 */
+	private static void appendArray(final StringBuilder sb, final PGConnection con,
+									final TableField<?> type, final Object value) throws SQLException {
+		if (value instanceof int[]) {
+			sb.append("ARRAY[");
+			final int[] values = (int[]) value;
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0)
+					sb.append(',');
+				appendLiteral(sb, con, null, Integer.valueOf(values[i]));
+			}
+			sb.append("]::int4[]");
+			return;
+		}
+		if (value instanceof long[]) {
+			sb.append("ARRAY[");
+			final long[] values = (long[]) value;
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0)
+					sb.append(',');
+				appendLiteral(sb, con, null, Long.valueOf(values[i]));
+			}
+			sb.append("]::int8[]");
+			return;
+		}
+
+		final String elementType;
+		if (type instanceof ArrayField)
+			elementType = ((ArrayField) type).getElementType();
+		else if (value instanceof UUID[])
+			elementType = "uuid";
+		else if (value instanceof String[])
+			elementType = "text";
+		else
+			throw new SQLException("The array parameter of class " + value.getClass().getSimpleName() +
+								   " can not be written as a literal of the COPY query.");
+
+		final Object[] values = (Object[]) value;
+		sb.append("ARRAY[");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(',');
+			appendLiteral(sb, con, null, values[i]);
+		}
+		sb.append("]::").append(elementType).append("[]");
+	}
+
+	/**
+	 * Writes an array of bytes in the hex format of <code>bytea</code>.
+	 * @param value Bytes.
+	 * @return Hex string, starting with <code>\x</code>.
+	 */
+	private static String toHex(final byte[] value) {
+		final char[] digits = "0123456789abcdef".toCharArray();
+		final StringBuilder sb = new StringBuilder(2 + value.length * 2);
+		sb.append("\\x");
+		for (byte b : value)
+			sb.append(digits[(b >> 4) & 0xF]).append(digits[b & 0xF]);
+		return sb.toString();
+	}
+
+	/**
+	 * Reads the records of a <code>COPY</code>, one at a time. The bytes are read into
+	 * a buffer, so each value is decoded from the buffer without copying it.
+	 */
+	private final class RecordIterator {
+		/**
+		 * Data sent by the database.
+		 */
+		private final PGCopyInputStream input;
+
+		/**
+		 * Read buffer.
+		 */
+		private byte[] buf = new byte[BUFFER_SIZE];
+
+		/**
+		 * Position of the next byte to decode.
+		 */
+		private int pos = 0;
+
+		/**
+		 * Number of bytes in the buffer.
+		 */
+		private int limit = 0;
+
+		/**
+		 * Values of the current record, the array is used again for the next one.
+		 */
+		final Object[] row = new Object[fields.length];
+
+		/**
+		 * True when the trailer has been read.
+		 */
+		private boolean finished = false;
+
+		/**
+		 * Creates a new instance of this class.
+		 * @param input Data sent by the database.
+		 */
+		RecordIterator(final PGCopyInputStream input) {
+			this.input = input;
+		}
+
+		/**
+		 * Reads and checks the header.
+		 * @throws SQLException A problem occurred with the database, or the data is not in binary format.
+		 */
+		void readHeader() throws SQLException {
+			fill(HEADER_LENGTH);
+			if ((this.buf[0] != 'P') || (this.buf[1] != 'G') || (this.buf[2] != 'C'))
+				throw new SQLException("The COPY has not sent data in the binary format.");
+
+			final int extension = BinaryCodec.readInt(this.buf, 15);
+			this.pos = HEADER_LENGTH;
+			fill(extension);
+			this.pos += extension;
+		}
+
+		/**
+		 * Reads the next record.
+		 * @return true if a record has been read, false at the end of the data.
+		 * @throws SQLException A problem occurred with the database or with a value.
+		 */
+		boolean readRecord() throws SQLException {
+			if (this.finished)
+				return false;
+
+			fill(2);
+			final int count = BinaryCodec.readShort(this.buf, this.pos);
+			this.pos += 2;
+			if (count == -1) {
+				this.finished = true;
+				return false;
+			}
+			if (count != this.row.length)
+				throw new SQLException("The COPY has sent " + count + " columns, while " +
+									   this.row.length + " were expected.");
+
+			for (int i = 0; i < count; i++) {
+				fill(4);
+				final int length = BinaryCodec.readInt(this.buf, this.pos);
+				this.pos += 4;
+				if (length < 0)
+					this.row[i] = null;
+				else {
+					fill(length);
+					this.row[i] = codecs[i].decode(this.buf, this.pos, length);
+					this.pos += length;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Makes sure that the buffer contains the passed number of bytes after the
+		 * current position, reading them from the database if needed.
+		 * @param length Number of bytes.
+		 * @throws SQLException A problem occurred with the database or the data ended too early.
+		 */
+		private void fill(final int length) throws SQLException {
+			if (this.limit - this.pos >= length)
+				return;
+
+			final int remaining = this.limit - this.pos;
+			if (length > this.buf.length) {
+				final byte[] newBuf = new byte[Math.max(length, this.buf.length << 1)];
+				System.arraycopy(this.buf, this.pos, newBuf, 0, remaining);
+				this.buf = newBuf;
+			}
+			else
+				System.arraycopy(this.buf, this.pos, this.buf, 0, remaining);
+			this.pos = 0;
+			this.limit = remaining;
+
+			try {
+				while (this.limit < length) {
+					final int read = this.input.read(this.buf, this.limit, this.buf.length - this.limit);
+					if (read < 0)
+						throw new SQLException("The COPY data has ended before the end of a record.");
+					this.limit += read;
+				}
+			}
+			catch (IOException ex) {
+				throw toSQLException(ex);
+			}
+		}
+
+		/**
+		 * Ends the <code>COPY</code>: it is cancelled if the records have not been read
+		 * until the end, otherwise the remaining messages of the database are read.
+		 * @throws SQLException A problem occurred with the database.
+		 */
+		void close() throws SQLException {
+			try {
+				if (this.finished) {
+					final InputStream in = this.input;
+					while (in.read(this.buf) >= 0)
+						continue;
+				}
+				this.input.close();
+			}
+			catch (IOException ex) {
+				throw toSQLException(ex);
+			}
+		}
+	}
+
+	/**
+	 * Gets the database error which has caused an I/O error of the <code>COPY</code> stream.
+	 * @param ex I/O error.
+	 * @return Database error.
+	 */
+	private static SQLException toSQLException(final IOException ex) {
+		if (ex.getCause() instanceof SQLException)
+			return (SQLException) ex.getCause();
+		else
+			return new SQLException("The COPY data can not be read.", ex);
+	}
+}
@@ -21,7 +21,10 @@ package org.byteliberi.easydriver.postgresql;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import org.byteliberi.easydriver.DBTable;
 import org.byteliberi.easydriver.ObjectFactory;
@@ -31,6 +34,8 @@ import org.byteliberi.easydriver.ExpressionAPI;
 import org.byteliberi.easydriver.impl.Query;
 import org.byteliberi.easydriver.impl.ReadQuery;
 import org.byteliberi.easydriver.impl.ReadQueryAPI;
+import org.byteliberi.easydriver.impl.ResultIterator;
+import org.byteliberi.easydriver.impl.RowHandler;
 
 /**
  * A <code>RecursiveQuery</code> is made by two united queries that starts
@@ -45,6 +50,8 @@ import org.byteliberi.easydriver.impl.ReadQueryAPI;
 public class RecursiveQuery<T> extends Query implements ReadQueryAPI<T> {
 	private static final String WITH_RECURSIVE = "WITH RECURSIVE ";
 	private static final String AS = " AS ";
+	private static final Level LOG_LEVEL = Level.FINE;
+	private static final Logger LOGGER = Logger.getLogger(SelectQuery.class.getName());
 	
 	/**
 	 * Factory which creates a new instance
@@ -182,7 +189,8 @@ public class RecursiveQuery<T> extends Query implements ReadQueryAPI<T> {
 			sbQuery.deleteCharAt(sbQuery.length() - 1);
 		}
 		final String queryStr = sbQuery.toString();
-		Logger.getLogger(SelectQuery.class.getName()).info(queryStr);
+		if (LOGGER.isLoggable(LOG_LEVEL))
+			LOGGER.log(LOG_LEVEL, queryStr);
 
 		return queryStr;
 	}
@@ -194,36 +202,74 @@ public class RecursiveQuery<T> extends Query implements ReadQueryAPI<T> {
 
 	@Override
 	public synchronized T getSingleResult() throws SQLException {
-		if (this.readQuery == null)
-			this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
+		return getReadQuery().getSingleResult();
+	}
 
-		this.readQuery.setPstm(this.pstm);        
-		return this.readQuery.getSingleResult();
+	@Override
+	public synchronized T getFirstResult() throws SQLException {
+		return getReadQuery().getFirstResult();
 	}
 
 	@Override
 	public synchronized T getSingleResultAndClose() throws SQLException {
 		final T result = getSingleResult();
-		if (this.pstm != null)
-			this.pstm.close();
+		close();
 		return result;
 	}
 
 	@Override
 	public synchronized List<T> getResultList() throws SQLException {
-		if (this.readQuery == null)
-			this.readQuery = new ReadQuery<T>(this.valueObjectFactory);
-
-		this.readQuery.setPstm(this.pstm);
-		return this.readQuery.getResultList();
+		return getReadQuery().getResultList();
 	}
 
 	@Override
 	public synchronized List<T> getResultAndClose() throws SQLException {
 		final List<T> result = getResultList();
-		if (this.pstm != null)
-			this.pstm.close();
+		close();
 
 		return result;
 	}
+
+	@Override
+	public CompletableFuture<List<T>> getResultListAsync() {
+		return submitResultList(this.valueObjectFactory);
+	}
+
+	@Override
+	public CompletableFuture<T> getSingleResultAsync() {
+		return submitSingleResult(this.valueObjectFactory);
+	}
+
+	/**
+	 * Gets the reader of the records, creating it the first time.
+	 * @return This class contains some reusable code for the queries that creates
+	 * some value objects and return them to the user.
+	 */
+	private synchronized ReadQuery<T> getReadQuery() {
+		if (this.readQuery == null)
+			this.readQuery = new ReadQuery<T>(this.valueObjectFactory, this);
+
+		this.readQuery.setPstm(this.pstm);
+		return this.readQuery;
+	}
+
+	@Override
+	public ResultIterator<T> iterator() throws SQLException {
+		return getReadQuery().iterator();
+	}
+
+	@Override
+	public void forEach(final RowHandler<? super T> handler) throws SQLException {
+		getReadQuery().forEach(handler);
+	}
+
+	@Override
+	public Stream<T> stream() throws SQLException {
+		return getReadQuery().stream();
+	}
+
+	@Override
+	public void setFetchSize(final int fetchSize) {
+		getReadQuery().setFetchSize(fetchSize);
+	}
 }
@@ -0,0 +1,44 @@
+/*
+ * EasyDriver is a library that let a programmer build queries easier
+ * than using plain JDBC.
+ * Copyright (C) 2011 Paolo Proni
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.byteliberi.easydriver.postgresql;
+
+import java.sql.SQLException;
+
+/**
+ * This interface is implemented by the callers which pass their value objects
+ * to a {@link CopyLoader}: it reads the values which are written
+ * in the fields of the table.
+ *
+ * @author Paolo Proni
+ * @version 1.0
+ * @since 1.0
+ *
+ * @param <T> Class of the value objects.
+ */
+public interface ValueExtractor<T> {
+	/**
+	 * Reads the values of a value object.
+	 * @param model Value object.
+	 * @param row Array which receives a value for each field of the loader,
+	 * in the same order. The array is used again for the next value object.
+	 * @throws SQLException The value object can not be written.
+	 */
+	public void extract(T model, Object[] row) throws SQLException;
+}